@@ -0,0 +1,110 @@
+package benchmarks;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the hot path of every game: AbstractForwardModel.next(), computeAvailableActions(),
+ * AbstractGameState.copy(playerId), and a full random playout.
+ * <p>
+ * As gameType has no values listed, JMH runs every benchmark for every entry in GameType. A subset can be chosen on
+ * the command line, for example -p gameType=Dominion,TicTacToe (see the benchmark profile in pom.xml).
+ * <p>
+ * All benchmarks start from the same position in each game: the state after a fixed number of random actions from
+ * the start (or the last one before the end, if the game is shorter), so that the measurements are not dominated
+ * by an (often untypical) opening position.
+ * <p>
+ * The benchmarks that change the state work on a copy of the start state, made inside the measured method (JMH
+ * warns that per-invocation setup distorts the timing of operations this short). So the time of next() includes a
+ * full copy of the state, which copyAll() measures on its own.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForwardModelBenchmark {
+
+    @Param
+    public GameType gameType;
+
+    @Param("20")
+    public int openingActions;  // random actions taken from the start to reach the position benchmarked
+
+    @Param("20000")
+    public int maxPlayoutActions;  // a playout stops here, in case random play does not end the game
+
+    AbstractForwardModel forwardModel;
+    AbstractGameState startState;
+    AbstractAction startAction;  // taken by next(); as in MCTS, the same action object is applied to many states
+    Random rnd;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        int nPlayers = Math.min(Math.max(2, gameType.getMinPlayers()), gameType.getMaxPlayers());
+        Game game = gameType.createGameInstance(nPlayers, 330245);
+        forwardModel = game.getForwardModel();
+        startState = game.getGameState();
+        rnd = new Random(9332);
+        for (int i = 0; i < openingActions; i++) {
+            List<AbstractAction> actions = forwardModel.computeAvailableActions(startState);
+            if (actions.isEmpty())
+                break;
+            AbstractGameState nextState = startState.copy();
+            forwardModel.next(nextState, actions.get(rnd.nextInt(actions.size())));
+            if (!nextState.isNotTerminal())
+                break;  // short games (such as TicTacToe) are benchmarked from the last position before the end
+            startState = nextState;
+        }
+        List<AbstractAction> actions = forwardModel.computeAvailableActions(startState.copy());
+        startAction = actions.get(rnd.nextInt(actions.size()));
+    }
+
+    @Benchmark
+    public AbstractGameState next() {
+        AbstractGameState state = startState.copy();
+        forwardModel.next(state, startAction);
+        return state;
+    }
+
+    @Benchmark
+    public AbstractGameState copyAll() {
+        return startState.copy();
+    }
+
+    @Benchmark
+    public List<AbstractAction> computeAvailableActions() {
+        return forwardModel.computeAvailableActions(startState);
+    }
+
+    @Benchmark
+    public AbstractGameState copy() {
+        return startState.copy(startState.getCurrentPlayer());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void randomPlayout(Blackhole blackhole) {
+        AbstractGameState state = startState.copy();
+        int actionsTaken = 0;
+        while (state.isNotTerminal() && actionsTaken < maxPlayoutActions) {
+            List<AbstractAction> actions = forwardModel.computeAvailableActions(state);
+            if (actions.isEmpty())
+                break;
+            forwardModel.next(state, actions.get(rnd.nextInt(actions.size())));
+            actionsTaken++;
+        }
+        blackhole.consume(state.getGameScore(0));
+        blackhole.consume(actionsTaken);
+    }
+}
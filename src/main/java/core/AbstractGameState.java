@@ -9,12 +9,14 @@ import core.interfaces.IComponentContainer;
 import core.interfaces.IExtendedSequence;
 import core.interfaces.IGameEvent;
 import core.interfaces.IGamePhase;
+import core.interfaces.IZobristHashable;
 import evaluation.listeners.IGameListener;
 import evaluation.metrics.Event;
 import games.GameType;
 import utilities.ElapsedCpuChessTimer;
 import utilities.Pair;
 
+import java.io.*;
 import java.util.*;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -32,7 +34,7 @@ import static core.CoreConstants.GameResult.*;
  * Separately the AbstractPlayer has a ForwardModel to be used if needed - this caters for the possibility that
  * agents may want to use a different/learned forward model in some use cases.
  */
-public abstract class AbstractGameState {
+public abstract class AbstractGameState implements IZobristHashable {
 
     // Parameters, forward model and turn order for the game
     protected final AbstractParameters gameParameters;
@@ -72,6 +74,8 @@ public abstract class AbstractGameState {
     // redeterminisationRnd is used for redeterminisation only - this is to ensure that the main game is not affected
     // this is not initialised from any seed, as redeterminisation is used to hide data from players and cannot affect the game itself
     protected Random redeterminisationRnd = new Random();
+    // the Zobrist hashes of the components, built the first time getZobristHash() is called on this object
+    private ZobristTotal componentsHash;
 
     /**
      * @param gameParameters - game parameters.
@@ -91,6 +95,9 @@ public abstract class AbstractGameState {
      */
     protected void reset() {
         allComponents = new Area(-1, "All Components");
+        if (componentsHash != null)
+            componentsHash.release();
+        componentsHash = null;
         gameStatus = GAME_ONGOING;
         playerResults = new CoreConstants.GameResult[getNPlayers()];
         Arrays.fill(playerResults, GAME_ONGOING);
@@ -287,6 +294,35 @@ public abstract class AbstractGameState {
         return copy(-1);
     }
 
+    /**
+     * A full copy of the game state that, unlike copy(), also continues with the same sequence of random numbers.
+     * Applying the same actions to this and to the original will then give the same states.
+     * This is used to checkpoint a game (see GameReplayer), and not by agents.
+     *
+     * @return - exact copy of the game state
+     */
+    public final AbstractGameState exactCopy() {
+        AbstractGameState s = copy(-1);
+        s.rnd = cloneRandom(rnd);
+        s.redeterminisationRnd = cloneRandom(redeterminisationRnd);
+        return s;
+    }
+
+    // java.util.Random has no way to read its seed, but is Serializable
+    private static Random cloneRandom(Random rnd) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(rnd);
+            }
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                return (Random) in.readObject();
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw new AssertionError("Unable to copy random number generator : " + e.getMessage());
+        }
+    }
+
     /**
      * Copies the current game state, including super class methods, given player ID.
      * Reduces state variables to only those that the player observes.
@@ -682,6 +718,34 @@ public abstract class AbstractGameState {
         return result;
     }
 
+    /**
+     * A 64-bit Zobrist hash of the state (see IZobristHashable), for use as a key in search.
+     * By default this combines the game status, phase, turn owner, round and turn counters and the actions in
+     * progress with the hashes of those top-level components from _getAllComponents() that keep their hash up to
+     * date as they are changed (Decks, GridBoards and Counters). Like hashCode() this includes anything hidden from
+     * the current player.
+     * <p>
+     * The first call on a state walks its components, and from then on they tell the state when they change (see
+     * ZobristTotal), so later calls are O(1) for each component changed since. A copy of the state walks its own
+     * components the first time it is asked. The components are therefore expected to be changed, and not replaced
+     * with new ones, while the game is played. A component shared with another state that has already asked is
+     * hashed again on every call. Anything else a game keeps (other components, or a Map of edge
+     * owners, say) is not included, so such a game needs to override this, for example to add a hash that it keeps
+     * up to date in the forward model, before it is used as a key.
+     */
+    @Override
+    public long getZobristHash() {
+        if (componentsHash == null) {
+            componentsHash = new ZobristTotal();
+            for (Component c : _getAllComponents())
+                if (c instanceof IZobristHashable z)
+                    componentsHash.track(z);
+        }
+        long hash = Zobrist.key(gameStatus.ordinal(), Objects.hashCode(gamePhase), actionsInProgress.hashCode());
+        hash = Zobrist.key(Zobrist.key(hash, turnOwner), roundCounter, turnCounter);
+        return hash ^ componentsHash.value();
+    }
+
     /**
      * HashCodeArray compiles all necessary hash codes for each individual game state.
      * Override as necessary for each game state.
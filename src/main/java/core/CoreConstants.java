@@ -1,7 +1,7 @@
 package core;
 
 import core.interfaces.IGamePhase;
-import utilities.Hash;
+import core.properties.PropertyKeys;
 
 public class CoreConstants {
     public static final String ANSI_RESET = "\u001B[0m";
@@ -14,16 +14,16 @@ public class CoreConstants {
     public static final String ANSI_CYAN = "\u001B[36m";
     public static final String ANSI_WHITE = "\u001B[37m";
 
-    public final static int nameHash = Hash.GetInstance().hash("name");
-    public final static int colorHash = Hash.GetInstance().hash("color");
-    public final static int sizeHash = Hash.GetInstance().hash("size");
-    public final static int orientationHash = Hash.GetInstance().hash("orientation");
-    public final static int coordinateHash = Hash.GetInstance().hash("coordinates");
-    public final static int neighbourHash = Hash.GetInstance().hash("neighbours");
-    public final static int playerHandHash = Hash.GetInstance().hash("playerHand");
-    public final static int playersHash = Hash.GetInstance().hash("players");
-    public final static int imgHash = Hash.GetInstance().hash("img");
-    public final static int backgroundImgHash = Hash.GetInstance().hash("backgroundImg");
+    public final static int nameHash = PropertyKeys.key("name");
+    public final static int colorHash = PropertyKeys.key("color");
+    public final static int sizeHash = PropertyKeys.key("size");
+    public final static int orientationHash = PropertyKeys.key("orientation");
+    public final static int coordinateHash = PropertyKeys.key("coordinates");
+    public final static int neighbourHash = PropertyKeys.key("neighbours");
+    public final static int playerHandHash = PropertyKeys.key("playerHand");
+    public final static int playersHash = PropertyKeys.key("players");
+    public final static int imgHash = PropertyKeys.key("img");
+    public final static int backgroundImgHash = PropertyKeys.key("backgroundImg");
 
 
     /**
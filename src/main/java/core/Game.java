@@ -458,8 +458,10 @@ public class Game {
                 action = null;
             }
             // We publish an ACTION_CHOSEN message before we implement the action, so that observers can record the state that led to the decision
-            AbstractAction finalAction = action;
-            listeners.forEach(l -> l.onEvent(Event.createEvent(Event.GameEvent.ACTION_CHOSEN, gameState, finalAction, observedActions, activePlayer)));
+            if (!listeners.isEmpty()) {
+                Event actionChosen = Event.createEvent(Event.GameEvent.ACTION_CHOSEN, gameState, action, observedActions, activePlayer);
+                listeners.forEach(l -> l.onEvent(actionChosen));
+            }
 
         } else {
             currentPlayer.registerUpdatedObservation(observation);
@@ -490,13 +492,28 @@ public class Game {
 
         // We publish an ACTION_TAKEN message once the action is taken so that observers can record the result of the action
         // (such as the next player)
-        AbstractAction finalAction1 = action;
-        listeners.forEach(l -> l.onEvent(Event.createEvent(Event.GameEvent.ACTION_TAKEN, gameState, finalAction1.copy(), observedActions, activePlayer)));
+        // (the action is copied once, and the copy shared by all the listeners, which must not change it)
+        if (!listeners.isEmpty()) {
+            final AbstractAction takenAction = action.copy();
+            listeners.forEach(l -> l.onEvent(Event.createEvent(Event.GameEvent.ACTION_TAKEN, gameState, takenAction, observedActions, activePlayer)));
+        }
 
         if (debug) System.out.printf("Finishing oneAction for player %s%n", activePlayer);
         return action;
     }
 
+    /**
+     * Adds the final results to the history of a finished game (also used by GameReplayer).
+     */
+    static void recordGameOver(AbstractGameState gameState) {
+        if (gameState.coreGameParameters.recordEventHistory) {
+            gameState.recordHistory(Event.GameEvent.GAME_OVER.name());
+            for (int i = 0; i < gameState.getNPlayers(); i++) {
+                gameState.recordHistory(String.format("Player %d finishes at position %d with score: %.0f", i, gameState.getOrdinalPosition(i), gameState.getGameScore(i)));
+            }
+        }
+    }
+
     /**
      * Called at the end of game loop execution, when the game is over.
      */
@@ -509,12 +526,7 @@ public class Game {
         // Perform any end of game computations as required by the game
         forwardModel.endGame(gameState);
         listeners.forEach(l -> l.onEvent(Event.createEvent(Event.GameEvent.GAME_OVER, gameState)));
-        if (gameState.coreGameParameters.recordEventHistory) {
-            gameState.recordHistory(Event.GameEvent.GAME_OVER.name());
-            for (int i = 0; i < gameState.getNPlayers(); i++) {
-                gameState.recordHistory(String.format("Player %d finishes at position %d with score: %.0f", i, gameState.getOrdinalPosition(i), gameState.getGameScore(i)));
-            }
-        }
+        recordGameOver(gameState);
         if (gameState.coreGameParameters.verbose) {
             System.out.println("Game Over");
         }
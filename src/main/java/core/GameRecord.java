@@ -0,0 +1,269 @@
+package core;
+
+import evaluation.optimisation.TunableParameters;
+import games.GameType;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * A compact record of one game, from which it can be replayed exactly (see GameReplayer) without the agents that
+ * played it. This holds the game type, the number of players, the random seed and any non-default parameters, and
+ * then one number per decision: the index of the action taken in the list returned by
+ * AbstractForwardModel.computeAvailableActions() for the full game state (with the default action space).
+ * <p>
+ * Records are streamed one after another, so that a single file can hold any number of games (GameRecordListener
+ * writes them as games are played). After a short file header (MAGIC and VERSION) each game is:
+ * <pre>
+ *     UTF      game type name
+ *     varint   number of players
+ *     long     random seed
+ *     UTF      parameters as JSON (empty for the default parameters)
+ *     varint   (index + 1) for each decision
+ *     varint   0, to mark the end of the game
+ * </pre>
+ * A varint takes one byte for values below 128, so most decisions take a single byte.
+ */
+public class GameRecord {
+
+    static final byte[] MAGIC = "TAGR".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+
+    public final GameType gameType;
+    public final int nPlayers;
+    public final long seed;
+    public final String parametersJSON;
+    private final int[] actions;
+
+    public GameRecord(GameType gameType, int nPlayers, long seed, String parametersJSON, int[] actions) {
+        this.gameType = gameType;
+        this.nPlayers = nPlayers;
+        this.seed = seed;
+        this.parametersJSON = parametersJSON;
+        this.actions = actions;
+    }
+
+    /**
+     * @return The number of decisions in the game
+     */
+    public int length() {
+        return actions.length;
+    }
+
+    /**
+     * @return The index of the action taken at decision n (counting from 0)
+     */
+    public int getAction(int n) {
+        return actions[n];
+    }
+
+    /**
+     * @return The parameters the game was played with
+     */
+    public AbstractParameters createParameters() {
+        AbstractParameters params = gameType.createParameters(seed);
+        if (!parametersJSON.isEmpty()) {
+            try {
+                JSONObject json = (JSONObject) new JSONParser().parse(parametersJSON);
+                TunableParameters.loadFromJSON((TunableParameters<?>) params, json);
+            } catch (ParseException e) {
+                throw new AssertionError("Invalid parameters in game record : " + e.getMessage());
+            }
+        }
+        params.setRandomSeed(seed);
+        return params;
+    }
+
+    /**
+     * @return The parameters as JSON, or an empty string if they are the defaults for the game
+     */
+    public static String parametersToJSON(GameType gameType, AbstractParameters params) {
+        if (params instanceof TunableParameters<?> tunable)
+            return tunable.instanceToJSON(true, Collections.emptyMap()).toJSONString();
+        if (params.equals(gameType.createParameters(params.getRandomSeed())))
+            return "";
+        throw new AssertionError("Parameters for " + gameType + " can only be recorded if they are the defaults, or TunableParameters");
+    }
+
+    /**
+     * Writes game records to a stream, one decision at a time.
+     */
+    public static class Writer implements Closeable {
+        private final DataOutputStream out;
+        private boolean inGame;
+
+        /**
+         * @param append - if true and the file already exists, the records are added to the end of it
+         */
+        public Writer(String fileName, boolean append) {
+            File file = new File(fileName);
+            boolean headerNeeded = !(append && file.exists() && file.length() > 0);
+            try {
+                out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, append), 1 << 16));
+                if (headerNeeded) {
+                    out.write(MAGIC);
+                    out.writeInt(VERSION);
+                }
+            } catch (IOException e) {
+                throw new AssertionError("Problem opening file " + fileName + " : " + e.getMessage());
+            }
+        }
+
+        public void startGame(GameType gameType, int nPlayers, long seed, String parametersJSON) {
+            if (inGame)
+                throw new AssertionError("Previous game record has not been ended");
+            try {
+                out.writeUTF(gameType.name());
+                writeVarInt(out, nPlayers);
+                out.writeLong(seed);
+                out.writeUTF(parametersJSON);
+            } catch (IOException e) {
+                throw new AssertionError("Problem writing game record : " + e.getMessage());
+            }
+            inGame = true;
+        }
+
+        public void action(int index) {
+            if (!inGame)
+                throw new AssertionError("No game record has been started");
+            try {
+                writeVarInt(out, index + 1);
+            } catch (IOException e) {
+                throw new AssertionError("Problem writing game record : " + e.getMessage());
+            }
+        }
+
+        public void endGame() {
+            if (!inGame)
+                throw new AssertionError("No game record has been started");
+            try {
+                writeVarInt(out, 0);
+            } catch (IOException e) {
+                throw new AssertionError("Problem writing game record : " + e.getMessage());
+            }
+            inGame = false;
+        }
+
+        public void write(GameRecord record) {
+            startGame(record.gameType, record.nPlayers, record.seed, record.parametersJSON);
+            for (int action : record.actions)
+                action(action);
+            endGame();
+        }
+
+        public void flush() {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                throw new AssertionError("Problem writing game record : " + e.getMessage());
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                out.close();
+            } catch (IOException e) {
+                throw new AssertionError("Problem closing game record file : " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads game records from a file, one at a time.
+     */
+    public static class Reader implements Closeable {
+        private final DataInputStream in;
+        private final String fileName;
+
+        public Reader(String fileName) {
+            this.fileName = fileName;
+            try {
+                in = new DataInputStream(new BufferedInputStream(new FileInputStream(fileName), 1 << 16));
+                if (!Arrays.equals(in.readNBytes(MAGIC.length), MAGIC))
+                    throw new AssertionError("File " + fileName + " does not contain game records");
+                int version = in.readInt();
+                if (version != VERSION)
+                    throw new AssertionError("File " + fileName + " has unknown version " + version);
+            } catch (IOException e) {
+                throw new AssertionError("Problem reading file " + fileName + " : " + e.getMessage());
+            }
+        }
+
+        /**
+         * @return The next game record in the file, or null if there are no more
+         */
+        public GameRecord next() {
+            String gameName;
+            try {
+                gameName = in.readUTF();
+            } catch (EOFException e) {
+                return null;
+            } catch (IOException e) {
+                throw new AssertionError("Problem reading file " + fileName + " : " + e.getMessage());
+            }
+            try {
+                GameType gameType = GameType.valueOf(gameName);
+                int nPlayers = readVarInt(in);
+                long seed = in.readLong();
+                String parametersJSON = in.readUTF();
+                int[] actions = new int[64];
+                int n = 0;
+                for (int next = readVarInt(in); next != 0; next = readVarInt(in)) {
+                    if (n == actions.length)
+                        actions = Arrays.copyOf(actions, n * 2);
+                    actions[n++] = next - 1;
+                }
+                return new GameRecord(gameType, nPlayers, seed, parametersJSON, Arrays.copyOf(actions, n));
+            } catch (EOFException e) {
+                throw new AssertionError("Incomplete game record at end of file " + fileName);
+            } catch (IOException e) {
+                throw new AssertionError("Problem reading file " + fileName + " : " + e.getMessage());
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                in.close();
+            } catch (IOException e) {
+                throw new AssertionError("Problem closing file " + fileName + " : " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return All the game records in the file
+     */
+    public static List<GameRecord> readAll(String fileName) {
+        List<GameRecord> records = new ArrayList<>();
+        try (Reader reader = new Reader(fileName)) {
+            for (GameRecord record = reader.next(); record != null; record = reader.next())
+                records.add(record);
+        }
+        return records;
+    }
+
+    static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("Invalid varint");
+    }
+}
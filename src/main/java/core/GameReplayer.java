@@ -0,0 +1,103 @@
+package core;
+
+import core.actions.AbstractAction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Rebuilds the states of a recorded game (see GameRecord) by replaying its decisions through the forward model,
+ * without any agents.
+ * <p>
+ * Every checkpointInterval decisions a copy of the state is kept (as it is first reached), so that any state
+ * can be reached from the nearest earlier checkpoint, rather than from the start of the game. These copies keep the
+ * state of the game's random number generator, so that replaying from one of them is the same as replaying from the
+ * start.
+ * <p>
+ * Replays are only exact if the game follows the usual rules for a forward model: that all randomness in next()
+ * comes from AbstractGameState.getRnd(), and that copy() does not use it.
+ */
+public class GameReplayer {
+
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 50;
+
+    private final GameRecord record;
+    private final AbstractForwardModel forwardModel;
+    private final int checkpointInterval;
+    // checkpoints.get(k) is the state after k * checkpointInterval decisions
+    private final List<AbstractGameState> checkpoints = new ArrayList<>();
+
+    public GameReplayer(GameRecord record) {
+        this(record, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    public GameReplayer(GameRecord record, int checkpointInterval) {
+        if (checkpointInterval < 1)
+            throw new IllegalArgumentException("checkpointInterval must be at least 1");
+        this.record = record;
+        this.checkpointInterval = checkpointInterval;
+        Game game = record.gameType.createGameInstance(record.nPlayers, record.seed, record.createParameters());
+        game.reset(Collections.emptyList(), record.seed);
+        forwardModel = game.getForwardModel();
+        checkpoints.add(game.getGameState());
+    }
+
+    public GameRecord getRecord() {
+        return record;
+    }
+
+    /**
+     * @return The number of decisions in the game
+     */
+    public int length() {
+        return record.length();
+    }
+
+    public AbstractForwardModel getForwardModel() {
+        return forwardModel;
+    }
+
+    /**
+     * @param decision - the number of decisions taken, from 0 (the initial state) to length() (the final state)
+     * @return A new copy of the state of the game after that many decisions. (The final state includes the
+     * end-of-game processing that Game carries out.)
+     */
+    public AbstractGameState stateAt(int decision) {
+        if (decision < 0 || decision > length())
+            throw new IllegalArgumentException("Decision " + decision + " is not in the range 0 to " + length());
+        int checkpoint = Math.min(decision / checkpointInterval, checkpoints.size() - 1);
+        AbstractGameState state = checkpoints.get(checkpoint).exactCopy();
+        for (int n = checkpoint * checkpointInterval; n < decision; n++) {
+            apply(state, n);
+            int reached = n + 1;
+            if (reached % checkpointInterval == 0 && reached / checkpointInterval == checkpoints.size())
+                checkpoints.add(state.exactCopy());
+        }
+        if (decision == length() && !state.isNotTerminal()) {
+            forwardModel.endGame(state);
+            Game.recordGameOver(state);
+        }
+        return state;
+    }
+
+    /**
+     * @return The action taken at the given decision, in the state before it was taken (that is, stateAt(decision))
+     */
+    public AbstractAction actionAt(AbstractGameState state, int decision) {
+        List<AbstractAction> available = forwardModel.computeAvailableActions(state);
+        int index = record.getAction(decision);
+        if (index >= available.size())
+            throw new AssertionError(String.format("Replay of %s has diverged from the record at decision %d (%d actions available, but %d was recorded)",
+                    record.gameType, decision, available.size(), index));
+        return available.get(index);
+    }
+
+    private void apply(AbstractGameState state, int decision) {
+        forwardModel.next(state, actionAt(state, decision).copy());
+    }
+
+    public AbstractGameState finalState() {
+        return stateAt(length());
+    }
+}
@@ -22,6 +22,7 @@ import players.python.PythonAgent;
 import players.simple.RandomPlayer;
 import utilities.ActionTreeNode;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
@@ -201,6 +202,13 @@ public class PyTAG {
                 .toArray();
     }
 
+    // Writes the action mask into the buffer from the given index (as 0 / 1 bytes), without allocating an array
+    void writeActionMask(ByteBuffer buffer, int index) {
+        for (int i = 0; i < leaves.size(); i++) {
+            buffer.put(index + i, (byte) leaves.get(i).getValue());
+        }
+    }
+
     // gets the whole action tree as an array (tree can be reconstructed using the getTreeShape() function)
     public int[] getActionTree() {
         return root.getActionMask();
@@ -267,6 +275,10 @@ public class PyTAG {
         return gameState.getGameScore(gameState.getCurrentPlayer());
     }
 
+    public double getReward(int playerID){
+        return gameState.getGameScore(playerID);
+    }
+
     public List<AbstractAction> getActions(){
         return availableActions;
     }
@@ -0,0 +1,204 @@
+package core;
+
+import games.GameType;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+
+/**
+ * Runs a number of PyTAG environments together, so that Python can step all of them with one call.
+ * <p>
+ * The results of each step are written to direct ByteBuffers (in native byte order) that are created once, so that
+ * Python can map them (e.g. with numpy.frombuffer) without any copying. For environment i:
+ * <ul>
+ *     <li>observations: float32 [i * getObservationSpace() ...] - the observation of the player to act</li>
+ *     <li>actionMasks: int8 [i * getActionSpace() ...] - 1 for each valid action</li>
+ *     <li>rewards: float32 [i] - the score, after the step, of the player who acted</li>
+ *     <li>dones: int8 [i] - 1 if the step ended the game</li>
+ *     <li>playerIDs: int32 [i] - the player to act next</li>
+ *     <li>actions: int32 [i] - the action to take, read by step()</li>
+ * </ul>
+ * When a game ends it is reset straight away, so the observation, mask and player are then those of the first
+ * decision of the next game (as in a gym vector environment); the reward and done flag are those of the step that
+ * ended the game, and getPlayerResults(i) has the results of that game.
+ */
+public class PyTAGVectorEnv implements AutoCloseable {
+
+    private final List<PyTAG> envs = new ArrayList<>();
+    private final CoreConstants.GameResult[][] lastResults;
+    private final int observationSpace;
+    private final int actionSpace;
+    private final ExecutorService executor;
+
+    private final ByteBuffer observations;
+    private final ByteBuffer actionMasks;
+    private final ByteBuffer rewards;
+    private final ByteBuffer dones;
+    private final ByteBuffer playerIDs;
+    private final ByteBuffer actions;
+
+    /**
+     * @param players  - the players in each game (one should be a PythonAgent). Each environment is given its own
+     *                 copy of each player.
+     * @param nEnvs    - the number of games to run together
+     * @param nThreads - the number of threads to step the games on; with 1 they are stepped on the calling thread
+     */
+    public PyTAGVectorEnv(GameType gameToPlay, String parameterConfigFile, List<AbstractPlayer> players, long seed,
+                          boolean isNormalized, int nEnvs, int nThreads) throws Exception {
+        if (nEnvs < 1)
+            throw new IllegalArgumentException("nEnvs must be at least 1");
+        Random seedRandom = new Random(seed);
+        for (int i = 0; i < nEnvs; i++) {
+            List<AbstractPlayer> envPlayers = new ArrayList<>(players.size());
+            for (AbstractPlayer player : players)
+                envPlayers.add(player.copy());
+            PyTAG env = new PyTAG(gameToPlay, parameterConfigFile, envPlayers, seedRandom.nextLong(), isNormalized);
+            env.reset();
+            envs.add(env);
+        }
+        observationSpace = envs.get(0).getObservationSpace();
+        if (observationSpace == 0)
+            throw new IllegalArgumentException(gameToPlay + " does not have a state feature vector");
+        actionSpace = envs.get(0).getActionSpace();
+        lastResults = new CoreConstants.GameResult[nEnvs][];
+
+        observations = allocate(nEnvs * observationSpace * Float.BYTES);
+        actionMasks = allocate(nEnvs * actionSpace);
+        rewards = allocate(nEnvs * Float.BYTES);
+        dones = allocate(nEnvs);
+        playerIDs = allocate(nEnvs * Integer.BYTES);
+        actions = allocate(nEnvs * Integer.BYTES);
+
+        executor = nThreads > 1 ? Executors.newFixedThreadPool(nThreads, r -> {
+            Thread t = new Thread(r, "PyTAGVectorEnv");
+            t.setDaemon(true);
+            return t;
+        }) : null;
+
+        for (int i = 0; i < nEnvs; i++)
+            writeObservation(i);
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Takes the given action in every environment (see step()).
+     */
+    public void step(int[] actionIDs) throws Exception {
+        if (actionIDs.length != envs.size())
+            throw new IllegalArgumentException("Expected " + envs.size() + " actions, but got " + actionIDs.length);
+        for (int i = 0; i < actionIDs.length; i++)
+            actions.putInt(i * Integer.BYTES, actionIDs[i]);
+        step();
+    }
+
+    /**
+     * Takes the action in the actions buffer in every environment, and then runs each game until the Python agent
+     * has to make its next decision (resetting any game that ends). The results are then in the buffers.
+     */
+    public void step() throws Exception {
+        if (executor == null) {
+            for (int i = 0; i < envs.size(); i++)
+                stepEnv(i);
+            return;
+        }
+        List<Callable<Void>> tasks = new ArrayList<>(envs.size());
+        for (int i = 0; i < envs.size(); i++) {
+            int env = i;
+            tasks.add(() -> {
+                stepEnv(env);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks))
+                future.get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error stepping PyTAG environments in parallel", e);
+        }
+    }
+
+    // each environment only writes to its own part of the buffers, using absolute positions
+    private void stepEnv(int i) throws Exception {
+        PyTAG env = envs.get(i);
+        int player = env.getPlayerID();
+        env.step(actions.getInt(i * Integer.BYTES));
+        rewards.putFloat(i * Float.BYTES, (float) env.getReward(player));
+        boolean done = env.isDone();
+        dones.put(i, (byte) (done ? 1 : 0));
+        if (done) {
+            lastResults[i] = env.getPlayerResults().clone();
+            env.reset();
+        }
+        writeObservation(i);
+    }
+
+    private void writeObservation(int i) throws Exception {
+        PyTAG env = envs.get(i);
+        double[] observation = env.getObservationVector();
+        int offset = i * observationSpace;
+        for (int j = 0; j < observationSpace; j++)
+            observations.putFloat((offset + j) * Float.BYTES, (float) observation[j]);
+        env.writeActionMask(actionMasks, i * actionSpace);
+        playerIDs.putInt(i * Integer.BYTES, env.getPlayerID());
+    }
+
+    public int getNumEnvs() {
+        return envs.size();
+    }
+
+    public int getObservationSpace() {
+        return observationSpace;
+    }
+
+    public int getActionSpace() {
+        return actionSpace;
+    }
+
+    public ByteBuffer getObservations() {
+        return observations;
+    }
+
+    public ByteBuffer getActionMasks() {
+        return actionMasks;
+    }
+
+    public ByteBuffer getRewards() {
+        return rewards;
+    }
+
+    public ByteBuffer getDones() {
+        return dones;
+    }
+
+    public ByteBuffer getPlayerIDs() {
+        return playerIDs;
+    }
+
+    public ByteBuffer getActions() {
+        return actions;
+    }
+
+    /**
+     * @return The results of the last game to finish in environment i (or null if none has finished)
+     */
+    public CoreConstants.GameResult[] getPlayerResults(int i) {
+        return lastResults[i];
+    }
+
+    public PyTAG getEnv(int i) {
+        return envs.get(i);
+    }
+
+    @Override
+    public void close() {
+        if (executor != null)
+            executor.shutdownNow();
+    }
+}
@@ -0,0 +1,40 @@
+package core;
+
+/**
+ * Pseudo-random 64-bit keys for Zobrist hashing (see IZobristHashable).
+ * <p>
+ * In classic Zobrist hashing a table of random numbers is generated up front, with one entry for each feature of
+ * a state (a piece on a square, say), and the hash of a state is the XOR of the entries for its features. Changing
+ * one feature then only needs the old entry XORed out and the new one in. Here the 'table' is a hash function
+ * instead: key(a, b) is a fixed, well-mixed 64-bit value for each pair of ints or longs. So no table needs to be
+ * sized (or shared between copies of a game state) in advance, and the same feature always has the same key.
+ */
+public final class Zobrist {
+
+    private static final long SEED = 0x9e3779b97f4a7c15L;
+
+    private Zobrist() {
+    }
+
+    /**
+     * The finaliser of SplitMix64: a bijection on longs, in which every bit of the output depends on every bit
+     * of the input.
+     */
+    public static long mix(long h) {
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+
+    public static long key(long a) {
+        return mix(a + SEED);
+    }
+
+    public static long key(long a, long b) {
+        return mix(key(a) + b);
+    }
+
+    public static long key(long a, long b, long c) {
+        return mix(key(a, b) + c);
+    }
+}
@@ -0,0 +1,97 @@
+package core;
+
+import core.interfaces.IZobristHashable;
+
+import java.util.*;
+
+/**
+ * The XOR of the Zobrist hashes of a number of parts, such as the components of a game state (see
+ * AbstractGameState.getZobristHash()), kept up to date as the parts change.
+ * <p>
+ * Each part is added with track(), and from then on calls changed() on the Part it is given whenever its hash may
+ * have changed. Only those parts that have changed are asked for their hash when value() is next called, so when
+ * the parts keep their own hashes up to date (as Deck, GridBoard and Counter do) this is O(1) for each change.
+ * <p>
+ * A part can only tell one total when it changes. A part that cannot do this, for example because it is shared with
+ * another state that is already tracking it, is asked for its hash every time value() is called.
+ */
+public final class ZobristTotal {
+
+    private long value;
+    private final List<Part> changed = new ArrayList<>();
+    private final Map<IZobristHashable, Part> parts = new IdentityHashMap<>();  // null for the untracked parts
+    private final List<IZobristHashable> untracked = new ArrayList<>();
+
+    /**
+     * Adds a part to the total. A part that has already been added is not added again.
+     *
+     * @return - true if the part tells the total when it changes (see IZobristHashable.trackZobristHash()), or false
+     * if its hash is instead recalculated each time value() is called
+     */
+    public boolean track(IZobristHashable hashable) {
+        if (parts.containsKey(hashable))
+            return parts.get(hashable) != null;
+        Part part = new Part(this, hashable);
+        if (!hashable.trackZobristHash(part)) {
+            parts.put(hashable, null);
+            untracked.add(hashable);
+            return false;
+        }
+        parts.put(hashable, part);
+        value ^= part.hash;
+        return true;
+    }
+
+    /**
+     * Stops the parts from telling this total when they change, so that another total can track them.
+     * The total should not be used after this.
+     */
+    public void release() {
+        for (Part part : parts.values())
+            if (part != null)
+                part.hashable.untrackZobristHash(part);
+    }
+
+    /**
+     * @return the XOR of the current hashes of all the parts
+     */
+    public long value() {
+        for (Part part : changed) {
+            long hash = part.hashable.getZobristHash();
+            value ^= part.hash ^ hash;
+            part.hash = hash;
+            part.changed = false;
+        }
+        changed.clear();
+        long total = value;
+        for (IZobristHashable hashable : untracked)
+            total ^= hashable.getZobristHash();
+        return total;
+    }
+
+    /**
+     * The link from one part back to the total that it is included in.
+     */
+    public static final class Part {
+        private final ZobristTotal total;
+        private final IZobristHashable hashable;
+        private long hash;  // as last included in the total
+        private boolean changed;
+
+        private Part(ZobristTotal total, IZobristHashable hashable) {
+            this.total = total;
+            this.hashable = hashable;
+            this.hash = hashable.getZobristHash();
+        }
+
+        /**
+         * To be called by the part whenever its hash may have changed.
+         */
+        public void changed() {
+            if (!changed) {
+                changed = true;
+                total.changed.add(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package core.components;
+
+import java.util.*;
+
+/**
+ * The connections between the nodes of a GraphBoard, in compressed sparse row form: the nodes are numbered
+ * 0..size()-1, and the neighbours of node i are neighbour(k) for k from start(i) to end(i) - 1, with the cost of
+ * reaching each in cost(k), and the side it is on in side(k) (-1 if it was not added on a side).
+ * <p>
+ * This never changes once built. All the copies of a board refer to the same instance, and the copied nodes only
+ * build their neighbour maps from it if they are asked for them (see BoardNode.getNeighbours()), so copying a board
+ * only copies the properties of its nodes. Adding or removing nodes or connections means a new instance is built
+ * (see GraphBoard.updateAdjacency()).
+ */
+public final class BoardAdjacency {
+
+    private final int[] componentIDs;
+    private final Map<Integer, Integer> indices;
+    private final int[] start;
+    private final int[] neighbours;
+    private final double[] costs;
+    private final int[] sides;
+
+    /**
+     * Builds the adjacency of the given nodes. Connections to nodes that are not in the collection are left out.
+     * The nodes are not changed; see attach().
+     */
+    BoardAdjacency(Collection<? extends BoardNode> nodes) {
+        BoardNode[] nodeArray = nodes.toArray(new BoardNode[0]);
+        int n = nodeArray.length;
+        componentIDs = new int[n];
+        indices = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            componentIDs[i] = nodeArray[i].getComponentID();
+            indices.put(componentIDs[i], i);
+        }
+
+        int nEdges = 0;
+        for (BoardNode node : nodeArray)
+            nEdges += node.getNeighbours().size();
+        start = new int[n + 1];
+        int[] neighbours = new int[nEdges];
+        double[] costs = new double[nEdges];
+        int[] sides = new int[nEdges];
+        int e = 0;
+        for (int i = 0; i < n; i++) {
+            start[i] = e;
+            Map<BoardNode, Integer> sideMapping = nodeArray[i].getNeighbourSideMapping();
+            for (Map.Entry<BoardNode, Double> neighbour : nodeArray[i].getNeighbours().entrySet()) {
+                Integer index = neighbour.getKey() == null ? null : indices.get(neighbour.getKey().getComponentID());
+                if (index == null) continue;
+                neighbours[e] = index;
+                costs[e] = neighbour.getValue();
+                sides[e++] = sideMapping.getOrDefault(neighbour.getKey(), -1);
+            }
+        }
+        start[n] = e;
+        this.neighbours = Arrays.copyOf(neighbours, e);
+        this.costs = Arrays.copyOf(costs, e);
+        this.sides = Arrays.copyOf(sides, e);
+    }
+
+    /**
+     * Attaches the nodes this was built from to it, so that copies of them can share it.
+     */
+    void attach(Collection<? extends BoardNode> nodes) {
+        BoardNode[] nodeArray = inOrder(nodes);
+        for (int i = 0; i < nodeArray.length; i++)
+            nodeArray[i].attach(this, i, nodeArray);
+    }
+
+    /**
+     * @return the nodes this was built from, indexed as in it
+     */
+    BoardNode[] inOrder(Collection<? extends BoardNode> nodes) {
+        BoardNode[] nodeArray = new BoardNode[componentIDs.length];
+        for (BoardNode node : nodes)
+            nodeArray[indices.get(node.getComponentID())] = node;
+        return nodeArray;
+    }
+
+    /**
+     * @return the nodes attached to this adjacency, indexed as in it, if those are exactly the given nodes (and so
+     * none of their connections have changed since); otherwise null
+     */
+    BoardNode[] nodesIfAttached(Collection<? extends BoardNode> nodes) {
+        if (nodes.size() != componentIDs.length)
+            return null;
+        BoardNode[] attached = null;
+        for (BoardNode node : nodes) {
+            if (node.adjacency != this || attached != null && node.adjacencyNodes != attached
+                    || node.adjacencyNodes[node.adjacencyIndex] != node)
+                return null;
+            attached = node.adjacencyNodes;
+        }
+        return attached == null ? new BoardNode[0] : attached;
+    }
+
+    /**
+     * Copies the nodes attached to this adjacency (properties only), and attaches the copies to it.
+     *
+     * @param originals - the nodes to copy, indexed as in this adjacency
+     * @return the copies, indexed as in this adjacency
+     */
+    BoardNode[] copyNodes(BoardNode[] originals) {
+        BoardNode[] copies = new BoardNode[originals.length];
+        for (int i = 0; i < originals.length; i++) {
+            copies[i] = new BoardNode(originals[i].getMaxNeighbours(), "", originals[i].getComponentID());
+            originals[i].copyComponentTo(copies[i]);
+        }
+        for (int i = 0; i < copies.length; i++)
+            copies[i].attachCopy(this, i, copies);
+        return copies;
+    }
+
+    public int size() {
+        return componentIDs.length;
+    }
+
+    /**
+     * @return the index of the node with the given component ID, or -1 if it is not one of these nodes
+     */
+    public int indexOf(int componentID) {
+        Integer index = indices.get(componentID);
+        return index == null ? -1 : index;
+    }
+
+    public int getComponentID(int index) {
+        return componentIDs[index];
+    }
+
+    /**
+     * @return the position of the first neighbour of node 'index'
+     */
+    public int start(int index) {
+        return start[index];
+    }
+
+    /**
+     * @return the position after the last neighbour of node 'index'
+     */
+    public int end(int index) {
+        return start[index + 1];
+    }
+
+    public int neighbour(int position) {
+        return neighbours[position];
+    }
+
+    public double cost(int position) {
+        return costs[position];
+    }
+
+    public int side(int position) {
+        return sides[position];
+    }
+}
@@ -15,6 +15,13 @@ public class BoardNode extends Component {
     private HashMap<BoardNode, Integer> neighbourSideMapping;  // Neighbours mapping to a side of this board node, component ID -> side idx
     private int maxNeighbours;  // Maximum number of neighbours for this board node
 
+    // The connections of the board this node is on, if they have not changed since they were built (see
+    // BoardAdjacency). A copied node leaves the two maps above null until they are asked for, and then builds them
+    // from the adjacency, with the nodes of its own board (adjacencyNodes).
+    BoardAdjacency adjacency;
+    int adjacencyIndex;
+    BoardNode[] adjacencyNodes;
+
     public BoardNode(int maxNeighbours, String name) {
         super(CoreConstants.ComponentType.BOARD_NODE, name);
         this.maxNeighbours = maxNeighbours;
@@ -64,6 +71,7 @@ public class BoardNode extends Component {
      * @param cost - cost to reach this neighbour from 'this'
      */
     public void addNeighbourWithCost(BoardNode neighbour, double cost) {
+        detach();
         if (neighbours.size() <= maxNeighbours || maxNeighbours == -1) {
             neighbours.put(neighbour, cost);
         }
@@ -75,6 +83,7 @@ public class BoardNode extends Component {
      * @return - true if removed successfully, false otherwise. may fail if neighbour didn't exist in the first place.
      */
     public boolean removeNeighbour(BoardNode neighbour) {
+        detach();
         if (neighbours.containsKey(neighbour)) {
             neighbours.remove(neighbour);
             neighbourSideMapping.remove(neighbour);
@@ -101,6 +110,7 @@ public class BoardNode extends Component {
      * @return - true if added successfully, false otherwise. may fail if too many neighbours added already.
      */
     public boolean addNeighbourOnSideWithCost(BoardNode neighbour, int side, double cost) {
+        detach();
         if (neighbours.size() <= maxNeighbours && side <= maxNeighbours || maxNeighbours == -1) {
             if (!(neighbours.containsKey(neighbour)) && !(neighbourSideMapping.containsKey(neighbour))) {
                 neighbours.put(neighbour, cost);
@@ -129,13 +139,16 @@ public class BoardNode extends Component {
     }
 
     /**
-     * @return the neighbours of this node.
+     * @return the neighbours of this node. This must not be changed directly (use the methods of this class, or of
+     * the board, so that the board's adjacency is rebuilt).
      */
     public HashMap<BoardNode, Double> getNeighbours() {
+        buildNeighbours();
         return neighbours;
     }
 
     public void clearNeighbours() {
+        detach();
         neighbours.clear();
         neighbourSideMapping.clear();
     }
@@ -147,6 +160,7 @@ public class BoardNode extends Component {
      */
     public double getNeighbourCost(BoardNode neighbour)
     {
+        buildNeighbours();
         if(neighbours.containsKey(neighbour))
             return neighbours.get(neighbour);
         throw new RuntimeException("BoardNode.getNeighbourCost(): Accessing cost of a non-neighbour");
@@ -156,6 +170,7 @@ public class BoardNode extends Component {
      * @return the neighbours mapping to sides of this node.
      */
     public HashMap<BoardNode, Integer> getNeighbourSideMapping() {
+        buildNeighbours();
         return neighbourSideMapping;
     }
 
@@ -174,6 +189,45 @@ public class BoardNode extends Component {
         this.maxNeighbours = maxNeighbours;
     }
 
+    /**
+     * Attaches this node to the adjacency built from its neighbours.
+     */
+    void attach(BoardAdjacency adjacency, int index, BoardNode[] nodes) {
+        this.adjacency = adjacency;
+        this.adjacencyIndex = index;
+        this.adjacencyNodes = nodes;
+    }
+
+    /**
+     * Attaches a new copy of a node to the adjacency of the original, so that its neighbours are found from that.
+     */
+    void attachCopy(BoardAdjacency adjacency, int index, BoardNode[] nodes) {
+        attach(adjacency, index, nodes);
+        neighbours = null;
+        neighbourSideMapping = null;
+    }
+
+    // Builds the neighbour maps from the adjacency, if they have not been built yet
+    private void buildNeighbours() {
+        if (neighbours != null)
+            return;
+        neighbours = new HashMap<>();
+        neighbourSideMapping = new HashMap<>();
+        for (int k = adjacency.start(adjacencyIndex); k < adjacency.end(adjacencyIndex); k++) {
+            BoardNode neighbour = adjacencyNodes[adjacency.neighbour(k)];
+            neighbours.put(neighbour, adjacency.cost(k));
+            if (adjacency.side(k) != -1)
+                neighbourSideMapping.put(neighbour, adjacency.side(k));
+        }
+    }
+
+    // Called before the connections change, as the adjacency no longer describes them
+    private void detach() {
+        buildNeighbours();
+        adjacency = null;
+        adjacencyNodes = null;
+    }
+
     public void loadBoardNode(JSONObject node) {
         this.componentName = (String) ( (JSONArray) node.get("name")).get(1);
         parseComponent(this, node);
@@ -3,7 +3,6 @@ package core.components;
 import core.properties.*;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
-import utilities.Hash;
 import core.CoreConstants.ComponentType;
 
 import java.util.*;
@@ -13,7 +12,7 @@ public abstract class Component {
 
     protected transient final int componentID;  // Unique ID of this component
     protected final ComponentType type;  // Type of this component
-    protected HashMap<Integer, Property> properties;  // Maps between integer key for the property and the property object
+    protected PropertyMap properties;  // Maps between integer key (see PropertyKeys) for the property and the property object
     protected transient int ownerId = -1;  // By default belongs to the game
     protected String componentName;  // Name of this component
 
@@ -21,28 +20,28 @@ public abstract class Component {
         this.componentID = ID++;
         this.type = type;
         this.componentName = name;
-        this.properties = new HashMap<>();
+        this.properties = new PropertyMap();
     }
 
     public Component(ComponentType type) {
         this.componentID = ID++;
         this.type = type;
         this.componentName = type.toString();
-        this.properties = new HashMap<>();
+        this.properties = new PropertyMap();
     }
 
     protected Component(ComponentType type, String name, int componentID) {
         this.componentID = componentID;
         this.type = type;
         this.componentName = name;
-        this.properties = new HashMap<>();
+        this.properties = new PropertyMap();
     }
 
     protected Component(ComponentType type, int componentID) {
         this.componentID = componentID;
         this.type = type;
         this.componentName = type.toString();
-        this.properties = new HashMap<>();
+        this.properties = new PropertyMap();
     }
 
     /**
@@ -121,7 +120,7 @@ public abstract class Component {
     }
 
     public Property getProperty(String hashString) {
-        return properties.get(Hash.GetInstance().hash(hashString));
+        return properties.get(PropertyKeys.key(hashString));
     }
 
     /**
@@ -210,11 +209,7 @@ public abstract class Component {
      */
     public void copyComponentTo(Component copyTo)
     {
-        copyTo.properties.clear();
-        for (int prop_key : this.properties.keySet()) {
-            Property newProp = this.properties.get(prop_key).copy();
-            copyTo.setProperty(newProp);
-        }
+        copyTo.properties = properties.copy();
         copyTo.ownerId = ownerId;
         copyTo.componentName = componentName;
     }
@@ -0,0 +1,78 @@
+package core.components;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Support for the copyOnWrite() methods of Deck, PartialObservableDeck, GridBoard and GraphBoard.
+ * <p>
+ * These are an alternative to copy() that a game can use in its _copy() for containers that are often not changed
+ * in the copy (for example the discard piles of players other than the one acting, or a board where most rows are
+ * untouched). The copy shares the underlying structure with the original, and each of them only takes its own copy
+ * when it is first changed. The comments on each copyOnWrite() say exactly what is shared, and so what a game must
+ * not change in place if it opts in.
+ * <p>
+ * One instance of this class is kept by all the containers sharing one structure. Each container (including the
+ * one the structure was first shared from) takes its own copy when it stops sharing, and the shared structure itself
+ * is never changed. So a copy of a game state can be read on another thread while the original game carries on.
+ * A container that stops sharing does mean that the components in it are no longer the same objects as any other
+ * references to them in its game state, just as for a copied state.
+ * <p>
+ * Setting the system property copyOnWrite.verify to true (as the tests do) is a debug mode. A deep copy of the
+ * structure is taken when it is first shared, and each time it is shared again, or one of the containers stops
+ * sharing it, the shared components are checked against this deep copy. An AssertionError is thrown if anything has
+ * been changed in place.
+ */
+public final class CopyOnWrite {
+
+    public static final boolean verify = Boolean.getBoolean("copyOnWrite.verify");
+
+    private final List<? extends Component> snapshot;  // only if verify is set
+    private final String name;
+
+    CopyOnWrite(Component original, List<? extends Component> snapshot) {
+        this.snapshot = snapshot;
+        this.name = original.getComponentName();
+    }
+
+    /**
+     * Checks (if a snapshot was taken) that the given components are still the same as they were when first shared.
+     *
+     * @param shared - components of the shared structure, in the same order as the snapshot
+     */
+    void check(List<? extends Component> shared) {
+        if (snapshot == null)
+            return;
+        if (shared.size() != snapshot.size())
+            throw new AssertionError("Shared structure of " + name + " has changed size from " + snapshot.size() + " to " + shared.size());
+        for (int i = 0; i < shared.size(); i++)
+            check(i, shared.get(i));
+    }
+
+    /**
+     * Checks (if a snapshot was taken) that one component is still the same as it was when first shared.
+     *
+     * @param index - position of the component in the snapshot
+     * @param c     - the shared component
+     */
+    void check(int index, Component c) {
+        if (snapshot != null && !matches(c, snapshot.get(index)))
+            throw new AssertionError("Component " + c + " shared by copies of " + name +
+                    " has been changed in place; it was " + snapshot.get(index));
+    }
+
+    private static boolean matches(Component c, Component copy) {
+        if (c == null || copy == null)
+            return c == copy;
+        if (c == copy)
+            return true;  // an immutable component that copies to itself
+        if (!c.equals(copy) || c.hashCode() != copy.hashCode() || c.getOwnerId() != copy.getOwnerId()
+                || !Objects.equals(c.getComponentName(), copy.getComponentName())
+                || !c.properties.equals(copy.properties))
+            return false;
+        if (c instanceof BoardNode bn)
+            return bn.getNeighbours().equals(((BoardNode) copy).getNeighbours())
+                    && bn.getNeighbourSideMapping().equals(((BoardNode) copy).getNeighbourSideMapping());
+        return true;
+    }
+}
@@ -1,6 +1,9 @@
 package core.components;
 
 import core.CoreConstants;
+import core.Zobrist;
+import core.ZobristTotal;
+import core.interfaces.IZobristHashable;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
@@ -13,12 +16,13 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
-public class Counter extends Component {
+public class Counter extends Component implements IZobristHashable {
     protected int[] values;
 
     protected int valueIdx;  // Current value of this counter
     protected int minimum;  // Minimum value (inclusive)
     protected int maximum;  // Maximum value (inclusive)
+    private ZobristTotal.Part zobristPart;  // set if a game state includes this counter in its Zobrist hash
 
     public Counter() {
         this(0, 0, Integer.MAX_VALUE, "");
@@ -83,6 +87,7 @@ public class Counter extends Component {
     }
 
     private boolean clamp() {
+        valueChanged();
         if (this.valueIdx > this.maximum) {
             this.valueIdx = this.maximum;
             return false;
@@ -168,14 +173,25 @@ public class Counter extends Component {
      */
     public void setValue(int i) {
         this.valueIdx = i;
+        valueChanged();
     }
 
     public void setToMax() {
         this.valueIdx = maximum;
+        valueChanged();
     }
 
     public void setToMin() {
         this.valueIdx = minimum;
+        valueChanged();
+    }
+
+    /**
+     * To be called by subclasses that change valueIdx directly.
+     */
+    protected void valueChanged() {
+        if (zobristPart != null)
+            zobristPart.changed();
     }
 
     /**
@@ -239,6 +255,29 @@ public class Counter extends Component {
         return result;
     }
 
+    /**
+     * @return a Zobrist hash of the componentID and current value; this needs no updating, as it is calculated
+     * directly from these
+     */
+    @Override
+    public long getZobristHash() {
+        return Zobrist.key(componentID, valueIdx);
+    }
+
+    @Override
+    public boolean trackZobristHash(ZobristTotal.Part part) {
+        if (zobristPart != null)
+            return false;
+        zobristPart = part;
+        return true;
+    }
+
+    @Override
+    public void untrackZobristHash(ZobristTotal.Part part) {
+        if (zobristPart == part)
+            zobristPart = null;
+    }
+
     @Override
     public String toString() {
         return "" + getValue();
@@ -1,12 +1,16 @@
 package core.components;
 
 import core.CoreConstants;
+import core.Zobrist;
+import core.ZobristTotal;
 import core.interfaces.IComponentContainer;
+import core.interfaces.IZobristHashable;
 import org.jetbrains.annotations.NotNull;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import utilities.RingBufferList;
 
 import java.io.FileReader;
 import java.io.IOException;
@@ -21,12 +25,27 @@ import static core.CoreConstants.VisibilityMode;
  * * A deck to draw from
  * * Components played on the player's area
  * * Discard pile
+ * <p>
+ * Copies of a deck made with copyOnWrite() (as game state copies may do) share its components until either deck is
+ * changed, and the deck that is changed first then takes copies of them. This applies to the original deck as well
+ * as the copy: once a copy has been taken, the next change to the original replaces every component in it with an
+ * equal copy. So a reference to a component read from a deck before it is changed may no longer be the object in
+ * the deck afterwards; compare components with equals() or by componentID rather than ==, and read them from the
+ * deck again after changing it.
  */
-public class Deck<T extends Component> extends Component implements IComponentContainer<T>, Iterable<T> {
+public class Deck<T extends Component> extends Component implements IComponentContainer<T>, Iterable<T>, IZobristHashable {
 
     protected int capacity;  // Capacity of the deck (maximum number of elements)
     protected List<T> components;  // List of components in this deck
     protected VisibilityMode visibility;
+    protected CopyOnWrite shared;  // set while components (the list and its elements) are shared with other decks
+    // hash of the components in order (see getZobristHash()), and R to the power of their number; these are only
+    // kept up to date once the hash has been asked for
+    private long contentHash;
+    private long contentPower;
+    private boolean contentHashValid;
+    private ZobristTotal.Part zobristPart;  // set if a game state includes this deck in its Zobrist hash
+    private final List<T> componentsView = new ComponentsView();  // see getComponents()
 
     public Deck(String name, VisibilityMode visibility) {
         this(name, -1, visibility);
@@ -34,7 +53,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
 
     public Deck(String name, int ownerId, VisibilityMode visibility) {
         super(CoreConstants.ComponentType.DECK, name);
-        this.components = new LinkedList<>();   // we always add new components to element 0...so an ArrayList is inefficient
+        this.components = new RingBufferList<>();   // we always add new components to element 0...so an ArrayList is inefficient, but we also access them by index
         this.ownerId = ownerId;
         this.capacity = -1;
         this.visibility = visibility;
@@ -42,7 +61,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
 
     protected Deck(String name, int ownerId, int ID, VisibilityMode visibility) {
         super(CoreConstants.ComponentType.DECK, name, ID);
-        this.components = new LinkedList<>();
+        this.components = new RingBufferList<>();
         this.capacity = -1;
         this.ownerId = ownerId;
         this.visibility = visibility;
@@ -141,9 +160,11 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * @return the component in position idx from the deck
      */
     public T pick(int idx) {
+        unshare();
         if (!components.isEmpty() && idx < components.size() && idx >= 0) {
             T c = components.get(idx);
             components.remove(idx);
+            removedFromHash(idx, c);
             return c;
         }
         return null;
@@ -220,8 +241,10 @@ public class Deck<T extends Component> extends Component implements IComponentCo
     public boolean add(T c, int index) {
         if (c == null)
             throw new IllegalArgumentException("null cannot be added to a Deck");
+        unshare();
         c.setOwnerId(ownerId);
         components.add(index, c);
+        addedToHash(index, List.of(c));
         return capacity == -1 || components.size() <= capacity;
     }
 
@@ -255,22 +278,37 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * @return true if not over capacity, false otherwise.
      */
     public boolean add(Deck<T> d, int index) {
-        components.addAll(index, d.components);
-        for (T comp : d.components) {
+        unshare();
+        List<T> added = d.contents();
+        if (d == this)
+            added = new ArrayList<>(added);  // as the list is about to change
+        components.addAll(index, added);
+        for (T comp : added) {
             comp.setOwnerId(ownerId);
         }
+        addedToHash(index, added);
         return capacity == -1 || components.size() <= capacity;
     }
 
+    /**
+     * @return the components of this deck, for another deck to add to itself. The list must not be changed.
+     */
+    protected List<T> contents() {
+        unshare();  // the components are now also in the other deck, so cannot stay shared with copies of this one
+        return components;
+    }
+
     public boolean add(Collection<T> d) {
         return this.add(d, 0);
     }
 
     public boolean add(Collection<T> d, int index) {
+        unshare();
         components.addAll(index, d);
         for (T comp : d) {
             comp.setOwnerId(ownerId);
         }
+        addedToHash(index, d);
         return capacity == -1 || components.size() <= capacity;
     }
 
@@ -283,12 +321,13 @@ public class Deck<T extends Component> extends Component implements IComponentCo
         // implementation note. We deliberately do not call components.remove(component)
         // because for PartialObservableDecks we need to remove the element visibility at the correct index
         // hence we *always* only remove from a deck by index
+        unshare();
         int index = components.indexOf(component);
-        component.setOwnerId(-1);
         if (index != -1) {
             remove(index);
             return;
         }
+        component.setOwnerId(-1);
         throw new IllegalArgumentException(component + " not found in " + this);
     }
 
@@ -299,9 +338,11 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * @param idx - index of component to remove.
      */
     public void remove(int idx) {
+        unshare();
         if (idx >= 0 && idx < components.size()) {
-            components.get(idx).setOwnerId(-1);
-            components.remove(idx);
+            T c = components.remove(idx);
+            c.setOwnerId(-1);
+            removedFromHash(idx, c);
         } else {
             throw new IndexOutOfBoundsException("Index " + idx + " is out of bounds for deck of size " + components.size());
         }
@@ -320,10 +361,14 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * Removes all the components from the deck.
      */
     public void clear() {
+        unshare();
         for (T comp : components) {
             comp.setOwnerId(-1);
         }
         components.clear();
+        contentHash = 0;
+        contentPower = 1;
+        hashChanged();
     }
 
     // Getters, Setters
@@ -332,7 +377,9 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * Shuffles the deck with a specific random object.
      */
     public void shuffle(Random rnd) {
+        unshare();
         Collections.shuffle(components, rnd);
+        componentsChanged();
     }
 
     /**
@@ -343,6 +390,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * @param rnd       - random number generator used for shuffling
      */
     public void shuffle(int fromIndex, int toIndex, Random rnd) {
+        unshare();
         List<T> subList = components.subList(fromIndex, toIndex);
         Collections.shuffle(subList, rnd);
         int i = 0;
@@ -350,23 +398,79 @@ public class Deck<T extends Component> extends Component implements IComponentCo
             components.set(fromIndex + i, component);
             i++;
         }
+        componentsChanged();
     }
 
     /**
-     * @return all the components in this deck.
+     * @return all the components in this deck. The list reads the components of the deck as they are now, and
+     * changing the list changes the deck. Reading it costs nothing extra; only a change to it (and not one through
+     * the methods of Deck) stops the components being shared with copies (see copyOnWrite()), and means the Zobrist
+     * hash has to be calculated in full.
      */
     @Override
     public List<T> getComponents() {
+        return componentsView;
+    }
+
+    // the list of components, about to be changed directly
+    private List<T> changeableComponents() {
+        unshare();
+        componentsChanged();
         return components;
     }
 
+    private class ComponentsView extends AbstractList<T> implements RandomAccess {
+        @Override
+        public T get(int index) {
+            return components.get(index);
+        }
+
+        @Override
+        public int size() {
+            return components.size();
+        }
+
+        @Override
+        public int indexOf(Object o) {
+            return components.indexOf(o);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return components.contains(o);
+        }
+
+        @Override
+        public T set(int index, T element) {
+            return changeableComponents().set(index, element);
+        }
+
+        @Override
+        public void add(int index, T element) {
+            changeableComponents().add(index, element);
+        }
+
+        @Override
+        public T remove(int index) {
+            return changeableComponents().remove(index);
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return components.size();
+    }
+
     /**
      * Set the components in this deck.
      *
      * @param components - new components for the deck, overrides old content.
      */
     public void setComponents(List<T> components) {
-        this.components = components;
+        unshare();
+        // the list from getComponents() of a deck reads that deck, so this deck takes its own list instead
+        this.components = components instanceof Deck<?>.ComponentsView ? new RingBufferList<>(components) : components;
+        componentsChanged();
         for (T comp : components) {
             comp.setOwnerId(ownerId);
         }
@@ -402,8 +506,12 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * @param component - new component.
      */
     public void setComponent(int idx, T component) {
+        unshare();
         component.setOwnerId(ownerId);
-        components.set(idx, component);
+        T old = components.set(idx, component);
+        if (contentHashValid)
+            contentHash += (componentKey(component) - componentKey(old)) * power(idx);
+        hashChanged();
     }
 
     /**
@@ -436,23 +544,83 @@ public class Deck<T extends Component> extends Component implements IComponentCo
         return dp;
     }
 
-    @SuppressWarnings("unchecked")
     protected void copyTo(Deck<T> deck) {
-        List<T> newComponents = new LinkedList<>();
+        deck.components = copyComponents();
+        deck.capacity = capacity;
+        deck.contentHash = contentHash;
+        deck.contentPower = contentPower;
+        deck.contentHashValid = contentHashValid;
+
+        //copy type and component.
+        copyComponentTo(deck);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<T> copyComponents() {
+        List<T> newComponents = new RingBufferList<>(components.size());
         for (T c : components) {
             newComponents.add((T) c.copy());
         }
-        deck.components = newComponents;
-        deck.capacity = capacity;
+        return newComponents;
+    }
 
-        //copy type and component.
+    /**
+     * Creates a copy of this deck that shares the list of components (and the components in it) with this one.
+     * Each deck takes its own copy of the components, just as copy() would have done, the first time it is changed
+     * (through the deck or the list from getComponents(), or by handing its components to another deck). Decks that a copied game
+     * state does not change are therefore never copied at all.
+     * While they are shared, the components read from the deck (with get(), peek(), iteration and so on) are the
+     * same objects in all the decks sharing them. They must not be changed in place except through the deck, and
+     * should be taken out of the deck with draw() or pick() before being put anywhere else, as those give this
+     * deck's own copy. CopyOnWrite.verify can be used to check this. Note that whichever deck is changed first takes
+     * the copies, so after this the components of this deck are replaced by equal copies when it is next changed (see
+     * the class documentation). Subclasses of Deck that do not override this method get a normal copy().
+     *
+     * @return - a new Deck with the same properties.
+     */
+    public Deck<T> copyOnWrite() {
+        if (getClass() != Deck.class)
+            return copy();
+        Deck<T> dp = new Deck<>(componentName, ownerId, componentID, visibility);
+        shareTo(dp);
+        return dp;
+    }
+
+    protected void shareTo(Deck<T> deck) {
+        if (shared == null)
+            shared = new CopyOnWrite(this, CopyOnWrite.verify ? copyComponents() : null);
+        else
+            shared.check(components);
+        deck.shared = shared;
+        deck.components = components;
+        deck.capacity = capacity;
+        deck.contentHash = contentHash;
+        deck.contentPower = contentPower;
+        deck.contentHashValid = contentHashValid;
         copyComponentTo(deck);
     }
 
+    /**
+     * Called before this deck is changed. If the components are currently shared with other decks (see
+     * copyOnWrite()) then this deck takes its own copy of them. The shared list (and the components in it) is never
+     * changed, so the decks still sharing it can go on reading it, even on another thread.
+     */
+    protected void unshare() {
+        if (shared == null)
+            return;
+        shared.check(components);
+        useComponentsOf(copy());
+        shared = null;
+    }
+
+    // Takes the components of the other deck (which is a copy of this one) as its own
+    protected void useComponentsOf(Deck<T> other) {
+        components = other.components;
+    }
 
     @SuppressWarnings("unchecked")
     protected void copyTo(Deck<T> deck, int playerId) {
-        List<T> newComponents = new LinkedList<>();
+        List<T> newComponents = new RingBufferList<>(components.size());
         for (T c : components) {
             newComponents.add((T) c.copy(playerId));
         }
@@ -463,6 +631,126 @@ public class Deck<T extends Component> extends Component implements IComponentCo
         copyComponentTo(deck);
     }
 
+    /**
+     * The Zobrist hash of a deck depends on its componentID and the components in it, in order. Each component
+     * contributes a key derived from its hashCode(), and the hash of the components is the polynomial in a fixed odd
+     * number R (modulo 2^64) with the key of the component at index i the coefficient of R^i. So adding or removing
+     * a component at the top of the deck multiplies or divides the rest by R, and one at the bottom needs R to the
+     * power of the size of the deck, which is kept alongside.
+     * <p>
+     * This is calculated in full the first time it is asked for, and then kept up to date as components are added
+     * and removed at either end, or replaced, through the Deck. If they are added or removed anywhere else, shuffled,
+     * changed through the list from getComponents(), or the list given to setComponents() could have been changed
+     * directly, it is calculated in full again the next time. As with the elements of a HashSet, the hashCode() of a component must not change
+     * while it is in the deck.
+     */
+    @Override
+    public long getZobristHash() {
+        if (!contentHashValid) {
+            contentHash = 0;
+            contentPower = 1;
+            for (int i = components.size() - 1; i >= 0; i--) {
+                contentHash = contentHash * R + componentKey(components.get(i));
+                contentPower *= R;
+            }
+            contentHashValid = true;
+        }
+        return Zobrist.key(componentID, contentHash);
+    }
+
+    @Override
+    public boolean trackZobristHash(ZobristTotal.Part part) {
+        if (zobristPart != null)
+            return false;
+        zobristPart = part;
+        return true;
+    }
+
+    @Override
+    public void untrackZobristHash(ZobristTotal.Part part) {
+        if (zobristPart == part)
+            zobristPart = null;
+    }
+
+    private static final long R = 0x9e3779b97f4a7c15L;
+    private static final long R_INVERSE = inverse(R);
+
+    // the inverse of an odd number modulo 2^64, by Newton's method (each step doubles the number of correct bits)
+    private static long inverse(long a) {
+        long x = a;  // correct to 3 bits, as a * a = 1 modulo 8
+        for (int i = 0; i < 5; i++)
+            x *= 2 - a * x;
+        return x;
+    }
+
+    // R^n
+    private static long power(int n) {
+        long result = 1, base = R;
+        for (; n > 0; n >>= 1) {
+            if ((n & 1) == 1)
+                result *= base;
+            base *= base;
+        }
+        return result;
+    }
+
+    private static long componentKey(Component c) {
+        return Zobrist.key(c.hashCode());
+    }
+
+    // after the components have been inserted at the given index
+    private void addedToHash(int index, Collection<T> added) {
+        if (contentHashValid) {
+            if (index == 0) {
+                long keys = 0, power = 1;
+                for (T c : added) {
+                    keys += componentKey(c) * power;
+                    power *= R;
+                }
+                contentHash = keys + contentHash * power;
+                contentPower *= power;
+            } else if (index == components.size() - added.size()) {
+                for (T c : added) {
+                    contentHash += componentKey(c) * contentPower;
+                    contentPower *= R;
+                }
+            } else {
+                contentHashValid = false;
+            }
+        }
+        hashChanged();
+    }
+
+    // after the component has been removed from the given index
+    private void removedFromHash(int index, T c) {
+        if (contentHashValid) {
+            if (index == 0) {
+                contentHash = (contentHash - componentKey(c)) * R_INVERSE;
+                contentPower *= R_INVERSE;
+            } else if (index == components.size()) {
+                contentPower *= R_INVERSE;
+                contentHash -= componentKey(c) * contentPower;
+            } else {
+                contentHashValid = false;
+            }
+        }
+        hashChanged();
+    }
+
+    /**
+     * To be called by subclasses that change the list of components directly, so that the hash is calculated in
+     * full the next time it is asked for.
+     */
+    protected void componentsChanged() {
+        contentHashValid = false;
+        hashChanged();
+    }
+
+    private void hashChanged() {
+        if (zobristPart != null)
+            zobristPart.changed();
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
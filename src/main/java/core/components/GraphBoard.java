@@ -8,7 +8,6 @@ import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
-import utilities.Hash;
 
 import java.io.FileReader;
 import java.io.IOException;
@@ -21,6 +20,7 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
 
     // List of nodes in the board graph, mapping component ID to object reference
     protected Map<Integer, BoardNode> boardNodes;
+    protected CopyOnWrite shared;  // set while boardNodes (the map and the nodes in it) are shared with other boards
 
     public GraphBoard(String name)
     {
@@ -54,30 +54,105 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
     public GraphBoard copy()
     {
         GraphBoard b = new GraphBoard(componentName, componentID);
+        // Assign new neighbours
+        b.setBoardNodes(new ArrayList<>(copyNodes().values()));
+        // Copy properties
+        copyComponentTo(b);
+        return b;
+    }
+
+    // The nodes are copied without their connections, which they read from the (shared) adjacency of this board
+    private HashMap<Integer, BoardNode> copyNodes() {
+        BoardAdjacency adjacency = getAdjacency();
+        BoardNode[] copies = adjacency.copyNodes(adjacency.inOrder(boardNodes.values()));
         HashMap<Integer, BoardNode> nodeCopies = new HashMap<>();
-        // Copy board nodes
-        for (BoardNode bn: boardNodes.values()) {
-            BoardNode bnCopy = new BoardNode(bn.getMaxNeighbours(), "", bn.getComponentID());
-            bn.copyComponentTo(bnCopy);
-            nodeCopies.put(bn.getComponentID(), bnCopy);
+        for (BoardNode copy: copies) {
+            nodeCopies.put(copy.getComponentID(), copy);
         }
-        // Assign neighbours
+        return nodeCopies;
+    }
+
+    /**
+     * @return the connections between the nodes of this board, which are shared by copies of the board. These are
+     * kept up to date by the methods of this class that change nodes or connections. If the nodes have been changed
+     * in some other way since (including setBoardNodes()), and updateAdjacency() has not been called, a new one is
+     * built on each call, without changing this board.
+     */
+    public BoardAdjacency getAdjacency() {
+        BoardAdjacency adjacency = attachedAdjacency();
+        return adjacency == null ? new BoardAdjacency(boardNodes.values()) : adjacency;
+    }
+
+    /**
+     * Builds the connections between the nodes of this board, if they have changed since they were last built. This
+     * is called by the methods of this class that change nodes or connections, and should be called after changing
+     * them in any other way (for example through BoardNode), so that copying the board does not need to build them.
+     */
+    public void updateAdjacency() {
+        if (attachedAdjacency() == null)
+            new BoardAdjacency(boardNodes.values()).attach(boardNodes.values());
+    }
+
+    // the adjacency the nodes are attached to, if it is still up to date
+    private BoardAdjacency attachedAdjacency() {
+        BoardAdjacency adjacency = null;
         for (BoardNode bn: boardNodes.values()) {
-            BoardNode bnCopy = nodeCopies.get(bn.getComponentID());
-            for (BoardNode neighbour: bn.getNeighbours().keySet()) {
-                bnCopy.addNeighbourWithCost(nodeCopies.get(neighbour.getComponentID()));
-            }
-            for (Map.Entry<BoardNode, Integer> e: bn.getNeighbourSideMapping().entrySet()) {
-                bnCopy.addNeighbourWithCost(nodeCopies.get(e.getKey().componentID), e.getValue());
-            }
+            adjacency = bn.adjacency;
+            break;
         }
-        // Assign new neighbours
-        b.setBoardNodes(new ArrayList<>(nodeCopies.values()));
-        // Copy properties
+        if (adjacency == null || adjacency.nodesIfAttached(boardNodes.values()) == null)
+            return null;
+        return adjacency;
+    }
+
+    /**
+     * Creates a copy of this board that shares its nodes with this one. A graph has no parts that can be copied
+     * separately (every node refers to its neighbours), so each board takes a full copy of the nodes, as copy()
+     * would have done, the first time that nodes or connections are added or removed, or getBoardNodeMap() is called.
+     * The nodes handed out by the other methods are shared, so this should only be used for boards that do not
+     * change the nodes (including their properties) in place, such as a fixed map. CopyOnWrite.verify checks this.
+     * Subclasses of GraphBoard that do not override this method get a normal copy().
+     *
+     * @return - a new GraphBoard with the same nodes.
+     */
+    public GraphBoard copyOnWrite() {
+        if (getClass() != GraphBoard.class)
+            return copy();
+        if (shared == null)
+            shared = new CopyOnWrite(this, CopyOnWrite.verify ? nodesInOrder(copyNodes()) : null);
+        else
+            shared.check(nodesInOrder(boardNodes));
+        GraphBoard b = new GraphBoard(componentName, componentID);
+        b.boardNodes = boardNodes;
+        b.shared = shared;
         copyComponentTo(b);
         return b;
     }
 
+    /**
+     * Called before nodes or connections are changed. If the nodes are currently shared with other boards (see
+     * copyOnWrite()) then this board takes its own copy of them. The shared nodes are never changed, so the boards
+     * still sharing them can go on reading them, even on another thread.
+     */
+    protected void unshare() {
+        if (shared == null)
+            return;
+        shared.check(nodesInOrder(boardNodes));
+        boardNodes = copyNodes();
+        shared = null;
+    }
+
+    private static List<BoardNode> nodesInOrder(Map<Integer, BoardNode> nodes) {
+        List<BoardNode> retValue = new ArrayList<>(nodes.values());
+        retValue.sort(Comparator.comparingInt(BoardNode::getComponentID));
+        return retValue;
+    }
+
+    // After unshare() a node passed in may be one that other boards are still sharing; this gives our own copy of it
+    private BoardNode ownNode(BoardNode bn) {
+        return boardNodes.getOrDefault(bn.componentID, bn);
+    }
+
     /**
      * Returns the node in the list which matches the given property
      * @param prop_id - ID of the property to look for.
@@ -128,23 +203,32 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
      * @param boardNodes - new list of board nodes.
      */
     public void setBoardNodes(List<BoardNode> boardNodes) {
+        unshare();
         for (BoardNode bn: boardNodes) {
             this.boardNodes.put(bn.componentID, bn);
         }
     }
     public void setBoardNodes(Map<Integer, BoardNode> boardNodes) {
+        unshare();
         this.boardNodes = boardNodes;
     }
 
     public void addBoardNode(BoardNode bn) {
+        unshare();
         this.boardNodes.put(bn.getComponentID(), bn);
+        updateAdjacency();
     }
 
     public void removeBoardNode(BoardNode bn) {
+        unshare();
         this.boardNodes.remove(bn.getComponentID());
+        updateAdjacency();
     }
 
     public void breakConnection(AbstractGameState gs, BoardNode bn1, BoardNode bn2) {
+        unshare();
+        bn1 = ownNode(bn1);
+        bn2 = ownNode(bn2);
         bn1.removeNeighbour(bn2);
         bn2.removeNeighbour(bn1);
 
@@ -166,9 +250,13 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
             }
         }
         if (!inBoard) boardNodes.remove(bn2.componentID);
+        updateAdjacency();
     }
 
     public void addConnection(BoardNode bn1, BoardNode bn2) {
+        unshare();
+        bn1 = ownNode(bn1);
+        bn2 = ownNode(bn2);
         bn1.addNeighbourWithCost(bn2);
         bn2.addNeighbourWithCost(bn1);
         if (!boardNodes.containsKey(bn1.componentID)) {
@@ -177,9 +265,13 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
         if (!boardNodes.containsKey(bn2.componentID)) {
             boardNodes.put(bn1.componentID, bn2);
         }
+        updateAdjacency();
     }
 
     public void addConnection(BoardNode bn1, BoardNode bn2, int edgeValue) {
+        unshare();
+        bn1 = ownNode(bn1);
+        bn2 = ownNode(bn2);
         bn1.addNeighbourWithCost(bn2, edgeValue);
         bn2.addNeighbourWithCost(bn1, edgeValue);
         if (!boardNodes.containsKey(bn1.componentID)) {
@@ -188,15 +280,18 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
         if (!boardNodes.containsKey(bn2.componentID)) {
             boardNodes.put(bn1.componentID, bn2);
         }
+        updateAdjacency();
     }
 
     public void addConnection(int bn1id, int bn2id) {
+        unshare();
         BoardNode bn1 = boardNodes.get(bn1id);
         BoardNode bn2 = boardNodes.get(bn2id);
         addConnection(bn1, bn2);
     }
 
     public void addConnection(int bn1id, int bn2id, int edgeValue) {
+        unshare();
         BoardNode bn1 = boardNodes.get(bn1id);
         BoardNode bn2 = boardNodes.get(bn2id);
         addConnection(bn1, bn2, edgeValue);
@@ -239,7 +334,7 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
         String neighboursKey = (String) board.get("neighboursKey");
         int maxNeighbours = (int) (long) board.get("maxNeighbours");
 
-        properties.put(Hash.GetInstance().hash("boardType"), new PropertyString("boardType", boardType));
+        properties.put(PropertyKeys.key("boardType"), new PropertyString("boardType", boardType));
         if (board.get("img") != null) {
             properties.put(imgHash, new PropertyString("img", (String) board.get("img")));
         }
@@ -256,8 +351,8 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
             boardNodes.put(newBN.componentID, newBN);
         }
 
-        int _hash_neighbours_ = Hash.GetInstance().hash(neighboursKey);
-        int _hash_vertices_ = Hash.GetInstance().hash(verticesKey);
+        int _hash_neighbours_ = PropertyKeys.key(neighboursKey);
+        int _hash_vertices_ = PropertyKeys.key(verticesKey);
 
         for (BoardNode bn : boardNodes.values()) {
             Property p = bn.getProperty(_hash_neighbours_);
@@ -272,6 +367,7 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
                 }
             }
         }
+        updateAdjacency();
     }
 
     @Override
@@ -294,6 +390,7 @@ public class GraphBoard extends Component implements IComponentContainer<BoardNo
     }
 
     public Map<Integer, BoardNode> getBoardNodeMap() {
+        unshare();
         return boardNodes;
     }
 
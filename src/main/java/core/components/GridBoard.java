@@ -1,7 +1,10 @@
 package core.components;
 
 import core.CoreConstants;
+import core.Zobrist;
+import core.ZobristTotal;
 import core.interfaces.IComponentContainer;
+import core.interfaces.IZobristHashable;
 import core.properties.PropertyString;
 import core.properties.PropertyVector2D;
 import org.json.simple.JSONArray;
@@ -24,13 +27,23 @@ import static utilities.Utils.getNeighbourhood;
  * GridBoard is a 2D grid of Components. It can be used to represent a board in a game, a map, or any other 2D grid.
  * Each cell on the grid can contain a Component of any type.
  */
-public class GridBoard extends Component implements IComponentContainer<BoardNode> {
+public class GridBoard extends Component implements IComponentContainer<BoardNode>, IZobristHashable {
 
     private int width;  // Width of the board
     private int height;  // Height of the board
 
     private BoardNode[][] grid;  // 2D grid representation of this board
 
+    // While the grid is shared with other boards (see copyOnWrite()). If ownRows is null the outer array is shared as
+    // well; otherwise it records which rows this board has since taken its own copy of.
+    private CopyOnWrite shared;
+    private boolean[] ownRows;
+
+    // XOR of the Zobrist keys of the cells (see getZobristHash()); only kept up to date once it has been asked for
+    private long cellsHash;
+    private boolean cellsHashValid;
+    private ZobristTotal.Part zobristPart;  // set if a game state includes this grid in its Zobrist hash
+
     protected GridBoard() {
         super(CoreConstants.ComponentType.BOARD);
     }
@@ -74,6 +87,11 @@ public class GridBoard extends Component implements IComponentContainer<BoardNod
         this.width = orig.getWidth();
         this.height = orig.getHeight();
         this.grid = orig.grid.clone();
+        if (orig.shared != null) {
+            // the rows may be shared with other boards, so this board takes its own (leaving orig as it is)
+            for (int y = 0; y < height; y++)
+                grid[y] = grid[y].clone();
+        }
     }
 
     /**
@@ -132,6 +150,10 @@ public class GridBoard extends Component implements IComponentContainer<BoardNod
             if (w >= 0) System.arraycopy(this.grid[i], 0, grid[i + offsetY], offsetX, w);
         }
         this.grid = grid;
+        shared = null;
+        ownRows = null;
+        cellsHashValid = false;
+        hashChanged();
     }
 
     /**
@@ -144,7 +166,12 @@ public class GridBoard extends Component implements IComponentContainer<BoardNod
      */
     public boolean setElement(int x, int y, BoardNode value) {
         if (x >= 0 && x < width && y >= 0 && y < height) {
+            if (shared != null)
+                unshareRow(y);
+            if (cellsHashValid)
+                cellsHash ^= cellKey(y * width + x, grid[y][x]) ^ cellKey(y * width + x, value);
             grid[y][x] = value;
+            hashChanged();
             return true;
         } else
             return false;
@@ -172,12 +199,16 @@ public class GridBoard extends Component implements IComponentContainer<BoardNod
     }
 
     /**
-     * Retrieves the grid.
+     * Retrieves a copy of the grid. Changing it does not change this board (use setElement() for that), and
+     * reading it does not change the board either, so this can be used on a board shared between copies.
      *
      * @return - 2D grid.
      */
     public BoardNode[][] getGridValues() {
-        return grid;
+        BoardNode[][] values = new BoardNode[height][];
+        for (int y = 0; y < height; y++)
+            values[y] = grid[y].clone();
+        return values;
     }
 
     public List<Vector2D> getEmptyCells(BoardNode defaultElement) {
@@ -268,6 +299,90 @@ public class GridBoard extends Component implements IComponentContainer<BoardNod
         return g;
     }
 
+    /**
+     * Creates a copy of this board that shares the grid with this one. Each board takes its own copy of a row the
+     * first time it sets an element in it, so this is much cheaper than copy() when only a few elements change.
+     * The BoardNodes themselves are shared and are never copied, so this should only be used when elements are
+     * replaced with setElement(), and not changed in place (CopyOnWrite.verify checks this). As the array returned
+     * by getGridValues() may be changed, that takes a copy of the whole grid.
+     * Subclasses of GridBoard that do not override this method get a normal copy().
+     *
+     * @return - a new GridBoard with the same elements.
+     */
+    public GridBoard copyOnWrite() {
+        if (getClass() != GridBoard.class)
+            return copy();
+        if (shared == null || ownRows != null) {
+            // the grid is not the same as any snapshot already taken
+            shared = new CopyOnWrite(this, CopyOnWrite.verify ? Arrays.asList(copy().flattenGrid()) : null);
+            ownRows = null;
+        } else {
+            shared.check(Arrays.asList(flattenGrid()));
+        }
+        GridBoard g = new GridBoard(grid, componentID);
+        g.shared = shared;
+        g.cellsHash = cellsHash;
+        g.cellsHashValid = cellsHashValid;
+        copyComponentTo(g);
+        return g;
+    }
+
+    private void unshareRow(int y) {
+        if (ownRows == null) {
+            grid = grid.clone();
+            ownRows = new boolean[height];
+        }
+        if (!ownRows[y]) {
+            for (int x = 0; x < width; x++)
+                shared.check(y * width + x, grid[y][x]);
+            grid[y] = grid[y].clone();
+            ownRows[y] = true;
+        }
+    }
+
+    /**
+     * The Zobrist hash of a grid depends on its componentID and on which element is in each cell, as given by the
+     * hashCode() of the element (which must not change while it is on the board).
+     * <p>
+     * This is calculated in full the first time it is asked for, and then kept up to date by setElement(). If the
+     * array from getGridValues() could have been changed directly, it is calculated in full again the next time.
+     * A copy() is also calculated afresh (as it has copies of the elements), while a copyOnWrite() shares it.
+     */
+    @Override
+    public long getZobristHash() {
+        if (!cellsHashValid) {
+            cellsHash = 0;
+            for (int y = 0; y < height; y++)
+                for (int x = 0; x < width; x++)
+                    cellsHash ^= cellKey(y * width + x, grid[y][x]);
+            cellsHashValid = true;
+        }
+        return Zobrist.key(componentID, cellsHash);
+    }
+
+    @Override
+    public boolean trackZobristHash(ZobristTotal.Part part) {
+        if (zobristPart != null)
+            return false;
+        zobristPart = part;
+        return true;
+    }
+
+    @Override
+    public void untrackZobristHash(ZobristTotal.Part part) {
+        if (zobristPart == part)
+            zobristPart = null;
+    }
+
+    private void hashChanged() {
+        if (zobristPart != null)
+            zobristPart.changed();
+    }
+
+    private static long cellKey(int cell, BoardNode element) {
+        return element == null ? 0 : Zobrist.key(cell, element.hashCode());
+    }
+
     public GridBoard copyNewID() {
         BoardNode[][] gridCopy = new BoardNode[getHeight()][getWidth()];
         Map<Integer, BoardNode> nodeCopies = new HashMap<>();
@@ -358,6 +473,7 @@ public class GridBoard extends Component implements IComponentContainer<BoardNod
         }
 
         this.grid = new BoardNode[height][width];
+        cellsHashValid = false;
 
         JSONArray grids = (JSONArray) board.get("grid");
         int y = 0;
@@ -411,7 +527,7 @@ public class GridBoard extends Component implements IComponentContainer<BoardNod
                 BoardNode bn = new BoardNode(-1, getElement(j, i).getComponentName());
                 bn.setProperty(new PropertyVector2D("coordinates", new Vector2D(j, i)));
                 bn.setProperty(new PropertyString("terrain", getElement(j, i).getComponentName()));
-                gb.addBoardNode(bn);
+                gb.boardNodes.put(bn.getComponentID(), bn);
                 bnMapping.put(new Vector2D(j, i), bn);
             }
         }
@@ -424,10 +540,13 @@ public class GridBoard extends Component implements IComponentContainer<BoardNod
                 List<Vector2D> neighbours = getNeighbourhood(j, i, width, height, way8);
                 for (Vector2D neighbour : neighbours) {
                     BoardNode bn2 = bnMapping.get(neighbour);
-                    gb.addConnection(bn, bn2);
+                    bn.addNeighbourWithCost(bn2);
+                    bn2.addNeighbourWithCost(bn);
                 }
             }
         }
+        // the nodes and connections are added directly, so that the adjacency is only built once
+        gb.updateAdjacency();
         return gb;
     }
 
@@ -449,16 +568,19 @@ public class GridBoard extends Component implements IComponentContainer<BoardNod
                     BoardNode bn = new BoardNode(-1, getElement(j, i).getComponentName());
                     bn.setProperty(new PropertyVector2D("coordinates", new Vector2D(j, i)));
                     bn.setProperty(new PropertyString("terrain", getElement(j, i).getComponentName()));
-                    gb.addBoardNode(bn);
+                    gb.boardNodes.put(bn.getComponentID(), bn);
                     bnMapping.put(new Vector2D(j, i), bn);
                 }
             }
         }
         for (Pair<Vector2D, Vector2D> p : neighbours) {
             if (bnMapping.get(p.a) != null && bnMapping.get(p.b) != null) {
-                gb.addConnection(bnMapping.get(p.a), bnMapping.get(p.b));
+                bnMapping.get(p.a).addNeighbourWithCost(bnMapping.get(p.b));
+                bnMapping.get(p.b).addNeighbourWithCost(bnMapping.get(p.a));
             }
         }
+        // the nodes and connections are added directly, so that the adjacency is only built once
+        gb.updateAdjacency();
         return gb;
     }
 
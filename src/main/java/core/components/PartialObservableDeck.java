@@ -5,6 +5,7 @@ import core.CoreConstants.VisibilityMode;
 import org.jetbrains.annotations.NotNull;
 import utilities.DeterminisationUtilities;
 import utilities.Pair;
+import utilities.RingBufferList;
 
 import java.util.*;
 
@@ -15,7 +16,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
     protected boolean[] deckVisibility;
 
     // Visibility of each component in the deck, order corresponds to order of elements in the deck;
-    protected List<boolean[]> elementVisibility = new LinkedList<>();
+    protected List<boolean[]> elementVisibility = new RingBufferList<>();
 
     public boolean getVisibilityForPlayer(int elementIdx, int playerID) {
         return elementVisibility.get(elementIdx)[playerID];
@@ -92,6 +93,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
 
     @Override
     public void setVisibility(VisibilityMode visibilityMode) {
+        unshare();
         super.setVisibility(visibilityMode);
         applyVisibilityMode();
     }
@@ -105,6 +107,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      *                            false otherwise).
      */
     public void setComponents(List<T> components, List<boolean[]> visibilityPerPlayer) {
+        unshare();
         super.setComponents(components);
         this.elementVisibility = visibilityPerPlayer;
     }
@@ -120,6 +123,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
             if (b.length != this.deckVisibility.length)
                 throw new IllegalArgumentException("All entries of visibility need to have length " + deckVisibility.length +
                         " but at least one entry is of length " + b.length);
+        unshare();
         this.elementVisibility = visibility;
     }
 
@@ -140,6 +144,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      * @param visibility - true if player can see this component, false otherwise.
      */
     public void setVisibilityOfComponent(int index, int playerID, boolean visibility) {
+        unshare();
         if (index >= 0 && index < elementVisibility.size()) {
             if (playerID >= 0 && playerID < deckVisibility.length)
                 this.elementVisibility.get(index)[playerID] = visibility;
@@ -157,6 +162,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      * @param visibility - true if player can see this component, false otherwise.
      */
     public void setVisibilityOfComponent(int index, boolean[] visibility) {
+        unshare();
         if (index >= 0 && index < elementVisibility.size() && visibility.length == deckVisibility.length) {
             this.elementVisibility.set(index, visibility.clone());
         } else {
@@ -186,6 +192,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      * @return true if not over capacity, false otherwise.
      */
     public boolean add(T c, int index, boolean[] visibilityPerPlayer) {
+        unshare();
         this.elementVisibility.add(index, visibilityPerPlayer.clone());
         boolean retValue = super.add(c, index);
         applyVisibilityMode();
@@ -201,15 +208,16 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      */
     @Override
     public boolean add(Deck<T> d, int index) {
+        unshare();
         if (d instanceof PartialObservableDeck<T> pod) {
-            int length = d.components.size();
+            int length = d.getSize();
             for (int i = 0; i < length; i++) {
                 // Add in reverse order to keep the order of the deck
                 // this is to ties up with addAll() of components in super.add() a few lines down
                 this.elementVisibility.add(index, pod.elementVisibility.get(length - i - 1).clone());
             }
         } else {
-            for (int i = 0; i < d.components.size(); i++) {
+            for (int i = 0; i < d.getSize(); i++) {
                 this.elementVisibility.add(index, deckVisibility.clone());
             }
         }
@@ -220,6 +228,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
 
     @Override
     public boolean add(Collection<T> d, int index) {
+        unshare();
         for (int i = 0; i < d.size(); i++) {
             this.elementVisibility.add(index, deckVisibility.clone());
         }
@@ -233,6 +242,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
 
     @Override
     public void setComponents(List<T> components) {
+        unshare();
         super.setComponents(components);
         elementVisibility.clear();
         for (int i = 0; i < components.size(); i++) {
@@ -243,6 +253,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
 
     @Override
     public T pick(int idx) {
+        unshare();
         T el = super.pick(idx);
         if (el != null) {
             elementVisibility.remove(idx);
@@ -270,12 +281,14 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
 
     @Override
     public void remove(int idx) {
+        unshare();
         super.remove(idx);
         elementVisibility.remove(idx);
     }
 
     @Override
     public void clear() {
+        unshare();
         super.clear();
         elementVisibility.clear();
     }
@@ -289,6 +302,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      */
     @Override
     public void shuffle(Random rnd) {
+        unshare();
         elementVisibility.replaceAll(ignored -> deckVisibility.clone());
         super.shuffle(rnd);
         applyVisibilityMode();
@@ -300,9 +314,11 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      * @param rnd random number generator to be used in shuffling.
      */
     public void shuffleAndKeepVisibility(Random rnd) {
+        unshare();
         Pair<List<T>, List<boolean[]>> shuffled = shuffleLists(components, elementVisibility, rnd);
         components = shuffled.a;
         elementVisibility = shuffled.b;
+        componentsChanged();
         applyVisibilityMode();
     }
 
@@ -316,8 +332,8 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      * @return - both lists shuffled, keeping the mapping from component to visibility at the same index.
      */
     private Pair<List<T>, List<boolean[]>> shuffleLists(List<T> comps, List<boolean[]> vis, Random rnd) {
-        List<T> tmp_components = new LinkedList<>();
-        List<boolean[]> tmp_visibility = new LinkedList<>();
+        List<T> tmp_components = new RingBufferList<>(comps.size());
+        List<boolean[]> tmp_visibility = new RingBufferList<>(vis.size());
 
         List<Integer> indexList = new ArrayList<>(comps.size());
         for (int i = 0; i < comps.size(); i++)
@@ -340,6 +356,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      * @param playerId - player observing the deck.
      */
     public void redeterminiseUnknown(Random rnd, int playerId) {
+        unshare();
         DeterminisationUtilities.reshuffle(playerId, List.of(this), c -> true, rnd);
     }
 
@@ -362,17 +379,42 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
         return commonCopy(dp);
     }
 
+    /**
+     * Creates a copy of this deck that shares the components and their visibility with this one, until either deck
+     * is changed (see Deck.copyOnWrite()). The arrays from getVisibilityOfComponent() are shared as well. This is a full copy, as with copy(), and
+     * does not hide anything from any player.
+     *
+     * @return - a new PartialObservableDeck with the same properties.
+     */
+    @Override
+    public PartialObservableDeck<T> copyOnWrite() {
+        if (getClass() != PartialObservableDeck.class)
+            return copy();
+        PartialObservableDeck<T> dp = new PartialObservableDeck<>(componentName, ownerId, deckVisibility.clone(), componentID);
+        shareTo(dp);
+        dp.elementVisibility = elementVisibility;
+        return dp;
+    }
+
+    @Override
+    protected void useComponentsOf(Deck<T> other) {
+        super.useComponentsOf(other);
+        elementVisibility = ((PartialObservableDeck<T>) other).elementVisibility;
+    }
+
     @NotNull
     private PartialObservableDeck<T> commonCopy(PartialObservableDeck<T> dp) {
         dp.deckVisibility = deckVisibility.clone();
+        dp.elementVisibility = copyVisibility();
+        return dp;
+    }
 
-        ArrayList<boolean[]> newVisibility = new ArrayList<>();
+    private List<boolean[]> copyVisibility() {
+        List<boolean[]> newVisibility = new RingBufferList<>(elementVisibility.size());
         for (boolean[] visibility : elementVisibility) {
             newVisibility.add(visibility.clone());
         }
-        dp.elementVisibility = newVisibility;
-
-        return dp;
+        return newVisibility;
     }
 
     public String toString(AbstractGameState gs, int playerID) {
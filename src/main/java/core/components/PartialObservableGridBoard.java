@@ -128,20 +128,20 @@ public class PartialObservableGridBoard extends GridBoard
         Map<Integer, BoardNode> nodeCopies = new HashMap<>();
         for (int i = 0; i < getHeight(); i++) {
             for (int j = 0; j < getWidth(); j++) {
-                if (getGridValues()[i][j] != null) {
-                    gridCopy[i][j] = new BoardNode(getGridValues()[i][j]);
-                    getGridValues()[i][j].copyComponentTo(gridCopy[i][j]);
+                if (getElement(j, i) != null) {
+                    gridCopy[i][j] = new BoardNode(getElement(j, i));
+                    getElement(j, i).copyComponentTo(gridCopy[i][j]);
                     nodeCopies.put(gridCopy[i][j].componentID, gridCopy[i][j]);
                 }
             }
         }
         for (int i = 0; i < getHeight(); i++) {
             for (int j = 0; j < getWidth(); j++) {
-                if (getGridValues()[i][j] != null) {
-                    for (Map.Entry<BoardNode, Double> neighbour : getGridValues()[i][j].getNeighbours().entrySet()) {
+                if (getElement(j, i) != null) {
+                    for (Map.Entry<BoardNode, Double> neighbour : getElement(j, i).getNeighbours().entrySet()) {
                         gridCopy[i][j].addNeighbourWithCost(nodeCopies.get(neighbour.getKey().componentID), neighbour.getValue());
                     }
-                    for (Map.Entry<BoardNode, Integer> neighbour : getGridValues()[i][j].getNeighbourSideMapping().entrySet()) {
+                    for (Map.Entry<BoardNode, Integer> neighbour : getElement(j, i).getNeighbourSideMapping().entrySet()) {
                         gridCopy[i][j].addNeighbourOnSide(nodeCopies.get(neighbour.getKey().componentID), neighbour.getValue());
                     }
                 }
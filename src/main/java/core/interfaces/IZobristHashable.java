@@ -0,0 +1,32 @@
+package core.interfaces;
+
+import core.ZobristTotal;
+
+/**
+ * Something with a 64-bit Zobrist hash (see core.Zobrist), which is kept up to date as it changes so that it can
+ * be used as a cheap key, for example to spot transpositions in search (such as the MCGSStateKey of MCTS).
+ * <p>
+ * As with hashCode(), two equal objects must have the same hash, while different objects will almost always have
+ * different hashes.
+ */
+public interface IZobristHashable {
+
+    long getZobristHash();
+
+    /**
+     * Asks this to call changed() on the given part of a ZobristTotal whenever its hash may change from now on, so
+     * that the total can be kept up to date. Only one part can be told at a time, so this is refused while an earlier
+     * part is still tracking this (as when this is shared by two game states).
+     *
+     * @return - false if this cannot be done, in which case the total asks for the hash each time instead
+     */
+    default boolean trackZobristHash(ZobristTotal.Part part) {
+        return false;
+    }
+
+    /**
+     * Stops calling changed() on the given part, if it is the one this is tracked by.
+     */
+    default void untrackZobristHash(ZobristTotal.Part part) {
+    }
+}
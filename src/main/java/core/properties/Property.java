@@ -1,6 +1,5 @@
 package core.properties;
 
-import utilities.Hash;
 
 public abstract class Property
 {
@@ -16,7 +15,7 @@ public abstract class Property
 
     public Property(String hashString) {
         this.hashString = hashString;
-        this.hashKey = Hash.GetInstance().hash(hashString);
+        this.hashKey = PropertyKeys.key(hashString);
     }
 
     // Getters
@@ -0,0 +1,56 @@
+package core.properties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of property names. Each name is given a small integer key the first time it is seen (keys are given out
+ * in order from 0), which is then used to store and find properties of that name (see PropertyMap). Games look up
+ * the keys they use once, when they are loaded, and keep them in constants.
+ * <p>
+ * This is safe to use from several threads: a name always gets the same key, and different names different keys.
+ */
+public final class PropertyKeys {
+
+    private static final ConcurrentHashMap<String, Integer> keys = new ConcurrentHashMap<>();
+    private static final List<String> names = new ArrayList<>();  // names[key], only changed while holding the lock
+
+    private PropertyKeys() {
+    }
+
+    /**
+     * @param name - name of a property
+     * @return the key for properties with this name
+     */
+    public static int key(String name) {
+        Integer key = keys.get(name);
+        if (key != null)
+            return key;
+        synchronized (names) {
+            return keys.computeIfAbsent(name, n -> {
+                names.add(n);
+                return names.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * @param key - key of a property
+     * @return the name that was given this key, or null if there is none
+     */
+    public static String name(int key) {
+        synchronized (names) {
+            return key >= 0 && key < names.size() ? names.get(key) : null;
+        }
+    }
+
+    /**
+     * @return the number of names given keys so far
+     */
+    public static int size() {
+        synchronized (names) {
+            return names.size();
+        }
+    }
+}
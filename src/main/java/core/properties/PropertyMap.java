@@ -0,0 +1,150 @@
+package core.properties;
+
+import java.util.*;
+
+/**
+ * The properties of a component, by their key (see PropertyKeys). Components have only a few properties, so rather
+ * than a HashMap these are kept in two arrays sorted by key, which take less memory, are quick to search, and are
+ * copied with two array copies. Iteration is in order of key.
+ */
+public final class PropertyMap extends AbstractMap<Integer, Property> {
+
+    private static final int[] NO_KEYS = new int[0];
+    private static final Property[] NO_PROPERTIES = new Property[0];
+
+    private int[] keys = NO_KEYS;
+    private Property[] values = NO_PROPERTIES;
+    private int size;
+
+    /**
+     * @return the property with the given key, or null if there is none
+     */
+    public Property get(int key) {
+        int i = Arrays.binarySearch(keys, 0, size, key);
+        return i < 0 ? null : values[i];
+    }
+
+    @Override
+    public Property get(Object key) {
+        return key instanceof Integer k ? get(k.intValue()) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer k && Arrays.binarySearch(keys, 0, size, k) >= 0;
+    }
+
+    @Override
+    public Property put(Integer key, Property value) {
+        return put(key.intValue(), value);
+    }
+
+    public Property put(int key, Property value) {
+        int i = Arrays.binarySearch(keys, 0, size, key);
+        if (i >= 0) {
+            Property old = values[i];
+            values[i] = value;
+            return old;
+        }
+        i = -i - 1;
+        if (size == keys.length) {
+            int capacity = Math.max(4, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(values, i, values, i + 1, size - i);
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        return null;
+    }
+
+    @Override
+    public Property remove(Object key) {
+        if (!(key instanceof Integer k)) return null;
+        int i = Arrays.binarySearch(keys, 0, size, k);
+        if (i < 0) return null;
+        Property old = values[i];
+        removeAt(i);
+        return old;
+    }
+
+    private void removeAt(int i) {
+        System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+        System.arraycopy(values, i + 1, values, i, size - i - 1);
+        values[--size] = null;
+    }
+
+    @Override
+    public void clear() {
+        keys = NO_KEYS;
+        values = NO_PROPERTIES;
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return a new map with copies of all the properties
+     */
+    public PropertyMap copy() {
+        PropertyMap copy = new PropertyMap();
+        if (size > 0) {
+            copy.keys = Arrays.copyOf(keys, size);
+            copy.values = new Property[size];
+            for (int i = 0; i < size; i++)
+                copy.values[i] = values[i].copy();
+            copy.size = size;
+        }
+        return copy;
+    }
+
+    @Override
+    public Set<Entry<Integer, Property>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Integer, Property>> iterator() {
+                return new Iterator<>() {
+                    int next = 0;
+                    int last = -1;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < size;
+                    }
+
+                    @Override
+                    public Entry<Integer, Property> next() {
+                        if (next >= size) throw new NoSuchElementException();
+                        last = next++;
+                        int index = last;
+                        return new SimpleEntry<>(keys[index], values[index]) {
+                            @Override
+                            public Property setValue(Property value) {
+                                values[index] = value;
+                                return super.setValue(value);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (last < 0) throw new IllegalStateException();
+                        removeAt(last);
+                        next = last;
+                        last = -1;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
@@ -27,10 +27,21 @@ public enum RunArg {
             "\t This may be useful if you want to use the same destDir for multiple experiments.",
             false,
             new Usage[]{Usage.RunGames}),
+    asyncListeners("If true (default is false), then the listeners are passed game events on a separate thread, so that\n" +
+            "\t the game does not wait for them (see AsyncEventDispatcher). Listeners that read the live Game are still\n" +
+            "\t called as events happen. This is ignored if nThreads is more than 1.",
+            false,
+            new Usage[]{Usage.RunGames}),
     budget("The budget to be used by all agent (if they support the IAnyTime interface). \n" +
             "\t If non-zero then this will override the value in any JSON definitions.\n",
             0,
             new Usage[]{Usage.RunGames, Usage.ParameterSearch, Usage.ExpertIteration}),
+    batchSize("The number of settings NTBEA proposes in each generation (default is 1). These are the current\n" +
+            "\t point and its most promising neighbours, and are evaluated together before the model is updated,\n" +
+            "\t so that they can be run in parallel (see nThreads). The total number of evaluations is still the\n" +
+            "\t number of iterations.",
+            1,
+            new Usage[]{Usage.ParameterSearch, Usage.ExpertIteration}),
     byTeam("If true (the default) and the game supports teams, then one player type will be assigned to all players on a team.\n" +
             "\t If false, then each player will be assigned a player type independently.",
             true,
@@ -138,6 +149,17 @@ public enum RunArg {
     nPlayers("The number of players in each game. Overrides playerRange.",
             -1,
             new Usage[]{Usage.ParameterSearch, Usage.RunGames, Usage.ExpertIteration}),
+    nThreads("The number of worker threads used to run the games of a tournament. Default is 1, which runs\n" +
+            "\t every game in turn on the calling thread. With more than one thread the match-ups and game seeds are\n" +
+            "\t generated exactly as in a serial run, and results are recorded in that same order.\n" +
+            "\t For NTBEA this is the number of threads used to evaluate each batch of settings (see batchSize).",
+            1,
+            new Usage[]{Usage.RunGames, Usage.ParameterSearch, Usage.ExpertIteration}),
+    parallelGames("If true (the default), and nThreads is more than 1, then the games of a single NTBEA evaluation\n" +
+            "\t (for example one per player position in StableNTBEA mode) are also run in parallel.\n" +
+            "\t If false, then each evaluation is run on one thread.",
+            true,
+            new Usage[]{Usage.ParameterSearch, Usage.ExpertIteration}),
     discretisation("The number of discretisation levels to use in NTBEAFunctions. Default is 10.",
             10,
             new Usage[]{Usage.ParameterSearch}),
@@ -0,0 +1,20 @@
+package evaluation.features;
+
+import core.AbstractGameState;
+import core.Zobrist;
+import core.interfaces.IStateKey;
+
+/**
+ * A state key from AbstractGameState.getZobristHash(), combined with the player the key is for. As this is a Long,
+ * a bounded MCGS TranspositionTable uses all 64 bits of it.
+ * <p>
+ * The Zobrist hash covers the whole state, including anything hidden from the player, so this is best suited to
+ * perfect information games (or searches that do not redeterminise).
+ */
+public class ZobristStateKey implements IStateKey {
+
+    @Override
+    public Long getKey(AbstractGameState state, int playerId) {
+        return Zobrist.key(playerId, state.getZobristHash());
+    }
+}
@@ -0,0 +1,267 @@
+package evaluation.listeners;
+
+import core.Game;
+import core.interfaces.IGameEvent;
+import evaluation.metrics.Event;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static evaluation.metrics.Event.Content.*;
+
+/**
+ * Passes game events to a set of listeners on another thread, so that the game does not wait for them.
+ * This is opt-in: it is added to a Game in place of the listeners it wraps.
+ * <p>
+ * As the game carries on while the events are queued, an event is first copied: but only the parts that
+ * the listeners say they need (see IGameListener.eventContent()). The state and the action are each copied at most
+ * once per event, and the copies are shared by all the listeners (which are never run concurrently with each other,
+ * and must not change them).
+ * A listener that needs Content.GAME (as it reads the live Game) is still called on the game thread,
+ * after any of its events that are still queued; as is every listener by default.
+ * <p>
+ * Each listener sees the events of a game in the order they happened. On GAME_OVER all queued events
+ * are processed before the GAME_OVER event is passed on (on the game thread), so by the time Game.run() returns all
+ * events of the game have been processed. report() and reset() also wait for this.
+ * <p>
+ * Unless it is given an executor, a dispatcher processes its events on a single thread of its own, which is started
+ * when needed and stopped by close() (or after it has been idle for a while).
+ */
+public class AsyncEventDispatcher implements IGameListener, AutoCloseable {
+
+    // the most events that can be queued before the game thread waits for the listeners to catch up
+    public static final int MAX_PENDING = 4096;
+    // how long the thread of a dispatcher that has not been closed waits for more events before it stops
+    public static final int IDLE_SECONDS = 10;
+
+    private final List<IGameListener> listeners;
+    private final Executor executor;  // given by the caller, who then shuts it down; or null
+    private ExecutorService ownExecutor;  // if no executor was given, while the dispatcher is in use
+    // true for each listener that has had an event queued since the queue was last drained
+    private final boolean[] queuedFor;
+    private final Deque<Runnable> pending = new ArrayDeque<>();
+    private final Object lock = new Object();
+    private boolean running;
+    private Throwable failure;
+    private Game game;
+
+    /**
+     * @param executor  - used to process the queued events. This can be shared by many dispatchers (for example, one
+     *                  per game being run in parallel), as the events of each are still processed one at a time.
+     *                  The caller is responsible for shutting it down.
+     * @param listeners - the listeners to pass events to
+     */
+    public AsyncEventDispatcher(Executor executor, List<IGameListener> listeners) {
+        this.executor = executor;
+        this.listeners = new ArrayList<>(listeners);
+        this.queuedFor = new boolean[listeners.size()];
+    }
+
+    public AsyncEventDispatcher(List<IGameListener> listeners) {
+        this(null, listeners);
+    }
+
+    public AsyncEventDispatcher(IGameListener... listeners) {
+        this(Arrays.asList(listeners));
+    }
+
+    public List<IGameListener> getListeners() {
+        return Collections.unmodifiableList(listeners);
+    }
+
+    @Override
+    public void onEvent(Event event) {
+        checkFailure();
+        if (event.type == Event.GameEvent.GAME_OVER) {
+            drain();
+            for (IGameListener listener : listeners)
+                if (!listener.eventContent(event.type).isEmpty())
+                    listener.onEvent(event);
+            return;
+        }
+
+        // first we find what to copy, which is everything needed by any listener we queue the event for
+        Set<Event.Content> needed = EnumSet.noneOf(Event.Content.class);
+        for (IGameListener listener : listeners) {
+            Set<Event.Content> content = listener.eventContent(event.type);
+            if (!content.contains(GAME))
+                needed.addAll(content);
+        }
+        Event shared = needed.isEmpty() ? null : snapshot(event, needed);
+
+        for (int i = 0; i < listeners.size(); i++) {
+            IGameListener listener = listeners.get(i);
+            Set<Event.Content> content = listener.eventContent(event.type);
+            if (content.isEmpty())
+                continue;
+            if (content.contains(GAME)) {
+                if (queuedFor[i])
+                    drain();
+                listener.onEvent(event);
+            } else {
+                // each listener has its own Event, as some set its fields
+                Event copy = Event.createEvent(shared.type, shared.state, shared.action, shared.actions, shared.playerID);
+                queuedFor[i] = true;
+                enqueue(() -> listener.onEvent(copy));
+            }
+        }
+    }
+
+    // the parts of the event shared by all the listeners
+    private static Event snapshot(Event event, Set<Event.Content> needed) {
+        return Event.createEvent(event.type,
+                needed.contains(STATE) && event.state != null ? event.state.copy() : null,
+                needed.contains(ACTION) && event.action != null ? event.action.copy() : null,
+                needed.contains(ACTIONS) && event.actions != null ? new ArrayList<>(event.actions) : null,
+                event.playerID);
+    }
+
+    private void enqueue(Runnable task) {
+        synchronized (lock) {
+            while (pending.size() >= MAX_PENDING && failure == null)
+                waitOnLock();
+            pending.add(task);
+            if (!running) {
+                running = true;
+                executor().execute(this::processPending);
+            }
+        }
+    }
+
+    private void processPending() {
+        while (true) {
+            Runnable task;
+            synchronized (lock) {
+                if (pending.size() == MAX_PENDING)
+                    lock.notifyAll();
+                task = pending.poll();
+                if (task == null) {
+                    running = false;
+                    lock.notifyAll();
+                    return;
+                }
+            }
+            try {
+                task.run();
+            } catch (Throwable e) {
+                synchronized (lock) {
+                    failure = e;
+                    pending.clear();
+                    running = false;
+                    lock.notifyAll();
+                }
+                return;
+            }
+        }
+    }
+
+    // called with the lock held
+    private Executor executor() {
+        if (executor != null)
+            return executor;
+        if (ownExecutor == null) {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, IDLE_SECONDS, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), r -> {
+                Thread t = new Thread(r, "AsyncEventDispatcher");
+                t.setDaemon(true);
+                return t;
+            });
+            pool.allowCoreThreadTimeOut(true);
+            ownExecutor = pool;
+        }
+        return ownExecutor;
+    }
+
+    /**
+     * Waits until all queued events have been processed, and then stops the thread of this dispatcher (if it was not
+     * given an executor). The dispatcher can still be used after this, and starts a new thread if it needs one.
+     */
+    @Override
+    public void close() {
+        drain();
+        synchronized (lock) {
+            if (ownExecutor != null) {
+                ownExecutor.shutdown();
+                ownExecutor = null;
+            }
+        }
+    }
+
+    /**
+     * Waits until all queued events have been processed
+     */
+    public void drain() {
+        synchronized (lock) {
+            while (running)
+                waitOnLock();
+        }
+        Arrays.fill(queuedFor, false);
+        checkFailure();
+    }
+
+    private void waitOnLock() {
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for game listeners", e);
+        }
+    }
+
+    // rethrows (once) any exception thrown by a listener on the other thread
+    private void checkFailure() {
+        Throwable e;
+        synchronized (lock) {
+            e = failure;
+            failure = null;
+        }
+        if (e != null)
+            throw new RuntimeException("Error in game listener processing events asynchronously", e);
+    }
+
+    @Override
+    public void report() {
+        drain();
+        listeners.forEach(IGameListener::report);
+    }
+
+    @Override
+    public boolean setOutputDirectory(String... nestedDirectories) {
+        drain();
+        boolean success = true;
+        for (IGameListener listener : listeners)
+            success &= listener.setOutputDirectory(nestedDirectories);
+        return success;
+    }
+
+    @Override
+    public void setGame(Game game) {
+        this.game = game;
+        listeners.forEach(l -> l.setGame(game));
+    }
+
+    @Override
+    public Game getGame() {
+        return game;
+    }
+
+    @Override
+    public void reset() {
+        drain();
+        listeners.forEach(IGameListener::reset);
+    }
+
+    @Override
+    public void init(Game game, int nPlayersPerGame, Set<String> playerNames) {
+        drain();
+        listeners.forEach(l -> l.init(game, nPlayersPerGame, playerNames));
+    }
+
+    @Override
+    public Set<Event.Content> eventContent(IGameEvent type) {
+        Set<Event.Content> content = EnumSet.noneOf(Event.Content.class);
+        for (IGameListener listener : listeners)
+            content.addAll(listener.eventContent(type));
+        return content;
+    }
+}
@@ -2,6 +2,7 @@ package evaluation.listeners;
 
 import core.*;
 import core.actions.AbstractAction;
+import core.interfaces.IGameEvent;
 import core.interfaces.IStatisticLogger;
 import evaluation.loggers.FileStatsLogger;
 import evaluation.metrics.Event;
@@ -20,6 +21,9 @@ public abstract class FeatureListener implements IGameListener {
     // currentData is the data specified by the feature vector
     // overrideData is then used to override the final values recorded at the end of the game
     protected List<StateFeatureListener.LocalDataWrapper> currentData = new ArrayList<>();
+    // the currentData of each game in progress; setGame() switches to the right one, as games played in parallel
+    // (see RoundRobinTournament) each have their own Game, and this is set before each of their events
+    private final Map<Game, List<StateFeatureListener.LocalDataWrapper>> dataByGame = new IdentityHashMap<>();
     protected Event.GameEvent frequency;
     boolean currentPlayerOnly;
     protected IStatisticLogger logger;
@@ -86,6 +90,16 @@ public abstract class FeatureListener implements IGameListener {
         }
     }
 
+    @Override
+    public Set<Event.Content> eventContent(IGameEvent type) {
+        // the Game itself is only used (for the players) at the end of the game
+        if (type == Event.GameEvent.GAME_OVER)
+            return EnumSet.allOf(Event.Content.class);
+        if (type == frequency)
+            return EnumSet.of(Event.Content.STATE, Event.Content.ACTION, Event.Content.ACTIONS);
+        return EnumSet.noneOf(Event.Content.class);
+    }
+
     public void writeDataWithStandardHeaders(AbstractGameState state) {
         int totP = state.getNPlayers();
         double[] finalScores = IntStream.range(0, totP).mapToDouble(state::getGameScore).toArray();
@@ -145,6 +159,8 @@ public abstract class FeatureListener implements IGameListener {
         }
         logger.processDataAndNotFinish();
         currentData = new ArrayList<>();
+        if (game != null)
+            dataByGame.put(game, currentData);
     }
 
     @Override
@@ -154,6 +170,11 @@ public abstract class FeatureListener implements IGameListener {
 
     @Override
     public void setGame(Game game) {
+        if (game != null && game != this.game) {
+            if (this.game == null)
+                dataByGame.putIfAbsent(game, currentData);  // anything recorded before a game was set
+            currentData = dataByGame.computeIfAbsent(game, g -> new ArrayList<>());
+        }
         this.game = game;
     }
 
@@ -0,0 +1,114 @@
+package evaluation.listeners;
+
+import core.AbstractGameState;
+import core.Game;
+import core.GameRecord;
+import core.actions.AbstractAction;
+import evaluation.metrics.Event;
+import games.GameType;
+import utilities.Utils;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Writes a GameRecord of each game played to a file, so that any of its states can be rebuilt later with a
+ * GameReplayer, without the agents (or the time they took).
+ * The index of each action is found in the list of actions available in the full game state. This list is computed
+ * on a copy of the state when the action is chosen, so that the live game is not touched, which means this needs to
+ * be called on the game thread.
+ * <p>
+ * Each game is written once it is over, so that games played in parallel (see RoundRobinTournament), each with their
+ * own Game, are not mixed up in the file.
+ */
+public class GameRecordListener implements IGameListener {
+
+    protected String fileName;
+    protected boolean append;
+    protected GameRecord.Writer writer;
+    protected Game game;
+    // the games not yet over, for each Game whose events this has seen
+    private final Map<Game, GameInProgress> inProgress = new IdentityHashMap<>();
+
+    private static class GameInProgress {
+        final GameType gameType;
+        final int nPlayers;
+        final long seed;
+        final String parametersJSON;
+        final List<Integer> actions = new ArrayList<>();
+        List<AbstractAction> availableActions;
+
+        GameInProgress(AbstractGameState state) {
+            gameType = state.getGameType();
+            nPlayers = state.getNPlayers();
+            seed = state.getGameParameters().getRandomSeed();
+            parametersJSON = GameRecord.parametersToJSON(gameType, state.getGameParameters());
+        }
+
+        GameRecord toRecord() {
+            return new GameRecord(gameType, nPlayers, seed, parametersJSON, actions.stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    public GameRecordListener() {
+        this("GameRecords.tagr");
+    }
+
+    public GameRecordListener(String fileName) {
+        this(fileName, false);
+    }
+
+    public GameRecordListener(String fileName, boolean append) {
+        this.fileName = fileName;
+        this.append = append;
+    }
+
+    @Override
+    public void onEvent(Event event) {
+        AbstractGameState state = event.state;
+        if (event.type == Event.GameEvent.ABOUT_TO_START) {
+            inProgress.put(game, new GameInProgress(state));
+        } else if (event.type == Event.GameEvent.ACTION_CHOSEN) {
+            inProgress.get(game).availableActions = game.getForwardModel().computeAvailableActions(state.copy());
+        } else if (event.type == Event.GameEvent.ACTION_TAKEN) {
+            GameInProgress record = inProgress.get(game);
+            int index = record.availableActions.indexOf(event.action);
+            if (index < 0)
+                throw new AssertionError("Action " + event.action + " is not one of the available actions " + record.availableActions);
+            record.actions.add(index);
+        } else if (event.type == Event.GameEvent.GAME_OVER) {
+            if (writer == null)
+                writer = new GameRecord.Writer(fileName, append);
+            writer.write(inProgress.remove(game).toRecord());
+            writer.flush();
+        }
+    }
+
+    @Override
+    public void report() {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+            // further games are added to the same file
+            append = true;
+        }
+    }
+
+    @Override
+    public boolean setOutputDirectory(String... nestedDirectories) {
+        report();
+        String folder = Utils.createDirectory(nestedDirectories);
+        fileName = folder + File.separator + new File(fileName).getName();
+        return true;
+    }
+
+    @Override
+    public void setGame(Game game) {
+        this.game = game;
+    }
+
+    @Override
+    public Game getGame() {
+        return game;
+    }
+}
@@ -1,6 +1,7 @@
 package evaluation.listeners;
 
 import core.Game;
+import core.interfaces.IGameEvent;
 import evaluation.metrics.AbstractMetric;
 import evaluation.metrics.Event;
 import evaluation.metrics.GameMetrics;
@@ -12,6 +13,7 @@ import java.io.File;
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.Set;
 
 import static utilities.JSONUtils.loadClass;
@@ -39,6 +41,11 @@ public interface IGameListener {
         return true;
     }
 
+    /**
+     * When a tournament plays games in parallel, each worker has its own Game, and this is called with that Game
+     * before each of its events is passed on (see ThreadConfinedListener). Anything kept from one event of a game to
+     * the next should then be kept per Game.
+     */
     void setGame(Game game);
 
     Game getGame();
@@ -56,6 +63,19 @@ public interface IGameListener {
         return loadClass(listenerName);
     }
 
+    /**
+     * Used by AsyncEventDispatcher to decide what must be copied from an event before the game moves on, and
+     * whether the event can be passed to this listener on another thread.
+     * The default is everything, including Content.GAME, so a listener only has its events dispatched
+     * asynchronously if it overrides this.
+     *
+     * @param type - the type of event
+     * @return The parts of events of this type that onEvent() reads; an empty set if it ignores them
+     */
+    default Set<Event.Content> eventContent(IGameEvent type) {
+        return EnumSet.allOf(Event.Content.class);
+    }
+
     default void reset() {
     }
 
@@ -1,5 +1,6 @@
 package evaluation.listeners;
 
+import core.AbstractPlayer;
 import core.Game;
 import core.interfaces.IGameEvent;
 import evaluation.metrics.AbstractMetric;
@@ -37,6 +38,10 @@ public class MetricsGameListener implements IGameListener {
     // Game this listener listens to
     protected Game game;
 
+    // The metric being run, if it does not read the Game (see AbstractMetric.eventContent()); such a metric may be
+    // run on another thread (see AsyncEventDispatcher), so getGame() refuses it
+    private final ThreadLocal<AbstractMetric> runningWithoutGame = new ThreadLocal<>();
+
     // Types of reports to generate: RawData, Summary, Plot
     List<IDataLogger.ReportType> reportTypes = new ArrayList<>();
 
@@ -87,7 +92,16 @@ public class MetricsGameListener implements IGameListener {
             AbstractMetric metric = metrics.get(attrStr);
             if (metric.listens(event.type)) {
                 // Apply metric
-                metric.run(this, event);
+                if (metric.eventContent(event.type).contains(Event.Content.GAME)) {
+                    metric.run(this, event);
+                } else {
+                    runningWithoutGame.set(metric);
+                    try {
+                        metric.run(this, event);
+                    } finally {
+                        runningWithoutGame.remove();
+                    }
+                }
             }
 
             if (event.type == GAME_OVER)
@@ -95,6 +109,23 @@ public class MetricsGameListener implements IGameListener {
         }
     }
 
+    /**
+     * Everything read by the metrics that listen to this type of event (see AbstractMetric.eventContent()).
+     * GAME_OVER is always needed, as every metric counts the games completed.
+     */
+    @Override
+    public Set<Event.Content> eventContent(IGameEvent type) {
+        if (type == GAME_OVER)
+            return EnumSet.allOf(Event.Content.class);
+        Set<Event.Content> content = EnumSet.noneOf(Event.Content.class);
+        if (eventsOfInterest.contains(type)) {
+            for (AbstractMetric metric : metrics.values())
+                if (metric.listens(type))
+                    content.addAll(metric.eventContent(type));
+        }
+        return content;
+    }
+
     @Override
     public boolean setOutputDirectory(String... nestedDirectories) {
 
@@ -177,10 +208,25 @@ public class MetricsGameListener implements IGameListener {
         this.game = game;
     }
 
+    /**
+     * @throws IllegalStateException if called by a metric that does not include Content.GAME in its
+     *                               eventContent() for the event it is running on
+     */
     public final Game getGame() {
+        AbstractMetric metric = runningWithoutGame.get();
+        if (metric != null)
+            throw new IllegalStateException(metric.getName() + " reads the Game, so its eventContent() must include " +
+                    "Content.GAME (or it should use getPlayers() instead)");
         return game;
     }
 
+    /**
+     * The players of the Game, which any metric may read (they only change between games).
+     */
+    public final List<AbstractPlayer> getPlayers() {
+        return game.getPlayers();
+    }
+
     public void reset() {
         for (AbstractMetric metric : metrics.values()) {
             metric.reset();
@@ -37,4 +37,13 @@ public class TournamentMetricsGameListener extends MetricsGameListener {
         }
     }
 
+    /**
+     * Switches back to recording against a matchup that tournamentInit() has already been called for
+     */
+    public void setMatchUp(Set<AbstractPlayer> matchup) {
+        for (AbstractMetric metric : metrics.values()) {
+            ((TournamentMetric) metric).setMatchUp(matchup);
+        }
+    }
+
 }
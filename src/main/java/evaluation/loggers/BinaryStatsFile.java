@@ -0,0 +1,189 @@
+package evaluation.loggers;
+
+import utilities.Pair;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * A compact binary alternative to the delimited text files written by FileStatsLogger, which it uses when the file
+ * name ends in SUFFIX. Utils.loadDataWithHeader() recognises these files, so they can be read wherever the text
+ * files are (for example by LearnFromData).
+ * <p>
+ * The file starts with a header: the MAGIC bytes, a version number and the column names. After this the data is in
+ * blocks of rows, and within each block it is stored column by column:
+ * <pre>
+ *     int rows
+ *     for each column:
+ *         byte type (INT, LONG, DOUBLE or STRING; plus HAS_NULLS if any value is missing)
+ *         if HAS_NULLS: one bit per row, set where the value is missing
+ *         one value per row (a missing value is written as 0 or "")
+ * </pre>
+ * The type of a column is chosen afresh for each block, as the narrowest that holds all of its values. Numbers
+ * keep their full precision (unlike the text format, which rounds them to doubleFormat).
+ */
+public class BinaryStatsFile {
+
+    public static final String SUFFIX = ".bin";
+    static final byte[] MAGIC = "TAGB".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+
+    static final byte INT = 1, LONG = 2, DOUBLE = 3, STRING = 4, HAS_NULLS = (byte) 0x80;
+
+    /**
+     * Writes rows in blocks. The caller is responsible for closing the stream.
+     */
+    static class Writer {
+        private final DataOutputStream out;
+        private final int columns;
+        private final int blockSize;
+        private final List<Object[]> block;
+
+        /**
+         * @param out         - stream to write to
+         * @param columnNames - names of the columns; or null if appending to an existing file, which already has a header
+         * @param blockSize   - the number of rows in each block
+         */
+        Writer(DataOutputStream out, List<String> columnNames, int columns, int blockSize) throws IOException {
+            this.out = out;
+            this.columns = columns;
+            this.blockSize = blockSize;
+            this.block = new ArrayList<>(blockSize);
+            if (columnNames != null) {
+                out.write(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(columns);
+                for (String name : columnNames)
+                    out.writeUTF(name);
+            }
+        }
+
+        /**
+         * @param row - one value for each column, each of which is null (missing), a Number, or anything else
+         *            (written as its toString())
+         */
+        void write(Object[] row) throws IOException {
+            block.add(row);
+            if (block.size() == blockSize)
+                writeBlock();
+        }
+
+        /**
+         * Writes out any rows not yet written (as a shorter block)
+         */
+        void writeBlock() throws IOException {
+            if (block.isEmpty())
+                return;
+            int rows = block.size();
+            out.writeInt(rows);
+            for (int c = 0; c < columns; c++) {
+                byte type = columnType(c);
+                boolean hasNulls = false;
+                for (Object[] row : block)
+                    hasNulls |= row[c] == null;
+                out.writeByte(hasNulls ? type | HAS_NULLS : type);
+                if (hasNulls) {
+                    byte[] mask = new byte[(rows + 7) / 8];
+                    for (int r = 0; r < rows; r++)
+                        if (block.get(r)[c] == null)
+                            mask[r / 8] |= (byte) (1 << (r % 8));
+                    out.write(mask);
+                }
+                for (Object[] row : block) {
+                    Object value = row[c];
+                    switch (type) {
+                        case INT -> out.writeInt(value == null ? 0 : ((Number) value).intValue());
+                        case LONG -> out.writeLong(value == null ? 0 : ((Number) value).longValue());
+                        case DOUBLE -> out.writeDouble(value == null ? 0 : ((Number) value).doubleValue());
+                        default -> out.writeUTF(value == null ? "" : value.toString());
+                    }
+                }
+            }
+            block.clear();
+        }
+
+        private byte columnType(int c) {
+            byte type = INT;
+            for (Object[] row : block) {
+                Object value = row[c];
+                if (value == null || value instanceof Integer || value instanceof Short || value instanceof Byte)
+                    continue;
+                if (value instanceof Long)
+                    type = type == DOUBLE ? DOUBLE : LONG;
+                else if (value instanceof Number)
+                    type = DOUBLE;
+                else
+                    return STRING;
+            }
+            return type;
+        }
+    }
+
+    /**
+     * @return true if the file starts with the MAGIC bytes of this format
+     */
+    public static boolean isBinary(String file) {
+        try (InputStream in = new FileInputStream(file)) {
+            return Arrays.equals(in.readNBytes(MAGIC.length), MAGIC);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads a file in this format, with each value converted to a String in the same way as in a text file
+     * (missing values are "NA").
+     *
+     * @return the column names, and then the rows of data
+     */
+    public static Pair<List<String>, List<List<String>>> loadDataWithHeader(String file) {
+        List<String> header = new ArrayList<>();
+        List<List<String>> data = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            if (!Arrays.equals(in.readNBytes(MAGIC.length), MAGIC))
+                throw new AssertionError("File " + file + " is not in the binary format");
+            int version = in.readInt();
+            if (version != VERSION)
+                throw new AssertionError("File " + file + " has unknown version " + version);
+            int columns = in.readInt();
+            for (int c = 0; c < columns; c++)
+                header.add(in.readUTF());
+
+            while (true) {
+                int rows;
+                try {
+                    rows = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                String[][] block = new String[rows][columns];
+                for (int c = 0; c < columns; c++) {
+                    byte type = in.readByte();
+                    boolean[] missing = new boolean[rows];
+                    if ((type & HAS_NULLS) != 0) {
+                        byte[] mask = in.readNBytes((rows + 7) / 8);
+                        for (int r = 0; r < rows; r++)
+                            missing[r] = (mask[r / 8] & (1 << (r % 8))) != 0;
+                        type &= ~HAS_NULLS;
+                    }
+                    for (int r = 0; r < rows; r++) {
+                        String value = switch (type) {
+                            case INT -> String.valueOf(in.readInt());
+                            case LONG -> String.valueOf(in.readLong());
+                            case DOUBLE -> String.valueOf(in.readDouble());
+                            case STRING -> in.readUTF();
+                            default -> throw new AssertionError("Unknown column type " + type + " in " + file);
+                        };
+                        block[r][c] = missing[r] ? "NA" : value;
+                    }
+                }
+                for (String[] row : block)
+                    data.add(Arrays.asList(row));
+            }
+        } catch (IOException e) {
+            throw new AssertionError("Problem reading file " + file + " : " + e.getMessage());
+        }
+        return Pair.of(header, data);
+    }
+}
@@ -7,32 +7,58 @@ import utilities.Utils;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.regex.Pattern;
 
 import static java.util.stream.Collectors.toList;
 
 /**
- * A Class to log details to file for later analysis
+ * A Class to log details to file for later analysis.
+ * <p>
+ * By default the file is tab-delimited text. If the file name ends in BinaryStatsFile.SUFFIX then a binary columnar
+ * format is used instead, which is smaller and quicker to write (see BinaryStatsFile).
+ * <p>
+ * Unless async is set to false (before the first record), record() only takes a snapshot of the data, and the
+ * rows are then formatted and written in batches on a background thread. They are guaranteed to be in the file once
+ * processDataAndNotFinish() or processDataAndFinish() has returned. If the JVM exits before then, a shutdown hook
+ * writes the rows already handed to the background thread.
  */
 public class FileStatsLogger implements IStatisticLogger {
 
+    private static final int BATCH_SIZE = 256;
+    private static final int MAX_PENDING_BATCHES = 16;
+    private static final int MAX_WAIT_SECONDS = 60;  // for a batch to be queued, or for the queue to drain on exit
+
     private String fileName;
     private String actionName;
     private final boolean append;
     private final String delimiter;
-    private FileWriter writer;
+    private Writer writer;
+    private BinaryStatsFile.Writer binaryWriter;
+    private DataOutputStream binaryStream;
     public String doubleFormat = "%.3g";
     public String intFormat = "%d";
+    /**
+     * If true (the default), rows are written in batches on a background thread. This is a daemon thread, so it does
+     * not keep the JVM alive; instead a shutdown hook writes out the batches it has been handed (until
+     * processDataAndFinish() is called). Rows are only handed over in full batches, so in either mode
+     * processDataAndNotFinish() or processDataAndFinish() is needed to write the last of them.
+     */
+    public boolean async = true;
     private boolean headerNeeded = true;
 
     private Set<String> allKeys = new LinkedHashSet<>();
+    private List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+    private volatile ExecutorService executor;
+    private Thread exitHook;
+    private volatile Throwable failure;
 
     /**
      * Note that one line will be output to the file per {@code Map<String, ?>}
      * provided via record()
      *
      * @param fileName  The full location of the file to write results to
-     * @param delimiter The delimiter to use in the file between data items
+     * @param delimiter The delimiter to use in the file between data items (ignored for the binary format)
      */
     public FileStatsLogger(String fileName, String delimiter, boolean append) {
         this.delimiter = delimiter;
@@ -43,23 +69,53 @@ public class FileStatsLogger implements IStatisticLogger {
     private void initialise() {
         try {
             File file = new File(fileName);
-            if (file.exists() && append)
-                headerNeeded = false;
-            writer = new FileWriter(fileName, append);
+            headerNeeded = !(file.exists() && append);
+            if (isBinary())
+                binaryStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName, append), 1 << 16));
+            else
+                writer = new BufferedWriter(new FileWriter(fileName, append), 1 << 16);
         } catch (Exception e) {
             throw new AssertionError("Problem opening file " + fileName + " : " + e.getMessage());
         }
+        if (async) {
+            // a daemon thread (see async); a full queue makes the caller wait, so a slow disk cannot use unbounded memory
+            executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(MAX_PENDING_BATCHES),
+                    r -> {
+                        Thread t = new Thread(r, "FileStatsLogger " + fileName);
+                        t.setDaemon(true);
+                        return t;
+                    },
+                    (r, pool) -> {
+                        // the queue is full, so we wait for room (but not for ever, in case the writer is stuck)
+                        try {
+                            if (pool.isShutdown() || !pool.getQueue().offer(r, MAX_WAIT_SECONDS, TimeUnit.SECONDS))
+                                throw new AssertionError("Unable to queue data to write to file " + fileName);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new AssertionError("Interrupted while writing to file " + fileName);
+                        }
+                    });
+            exitHook = new Thread(this::drainOnExit, "FileStatsLogger exit " + fileName);
+            Runtime.getRuntime().addShutdownHook(exitHook);
+        }
     }
 
     public FileStatsLogger(String fileName) {
         this(fileName, "\t", true);
     }
 
+    private boolean isOpen() {
+        return writer != null || binaryStream != null;
+    }
+
+    public boolean isBinary() {
+        return fileName.endsWith(BinaryStatsFile.SUFFIX);
+    }
 
     public void setOutputDirectory(String... nestedDirectories) {
-        if (writer != null) {
+        if (isOpen()) {
             processDataAndFinish();
-            writer = null;
         }
         String folder = Utils.createDirectory(nestedDirectories);
         this.fileName = folder + File.separator + this.fileName;
@@ -72,7 +128,7 @@ public class FileStatsLogger implements IStatisticLogger {
      */
     @Override
     public void record(Map<String, ?> rawData) {
-        if (writer == null) initialise();
+        if (!isOpen()) initialise();
         // first we preprocess data to remove nesting
         // Use a LinkedHashMap to preserve order
         Map<String, Object> data = new LinkedHashMap<>();
@@ -84,57 +140,155 @@ public class FileStatsLogger implements IStatisticLogger {
                 data.put(key, rawData.get(key));
             }
         }
-        try {
-            if (allKeys.isEmpty()) {
-                allKeys = data.keySet();
-                // then write a header line to the file
-                if (headerNeeded) {
-                    String outputLine = String.join(delimiter, allKeys) + "\n";
-                    outputLine = outputLine.replaceAll(":" + actionName + delimiter, delimiter);
-                    outputLine = outputLine.replaceAll(":" + actionName + "\\n", "\n");
-                    writer.write(outputLine);
-                    writer.flush();
+        if (allKeys.isEmpty())
+            allKeys = data.keySet();
+        if (allKeys.isEmpty())
+            return;
+        if (headerNeeded) {
+            List<String> header = allKeys.stream()
+                    .map(k -> actionName != null && k.endsWith(":" + actionName) ? k.substring(0, k.length() - actionName.length() - 1) : k)
+                    .collect(toList());
+            write(List.of(), header);
+            headerNeeded = false;
+        }
+        // We take a snapshot of the data now, as the objects may change before the row is written
+        Object[] row = new Object[allKeys.size()];
+        int i = 0;
+        for (String key : allKeys) {
+            row[i++] = snapshot(data.get(key));
+        }
+        batch.add(row);
+        if (batch.size() == BATCH_SIZE)
+            submitBatch();
+    }
+
+    private static Object snapshot(Object datum) {
+        // If this is a summary, then we return the single most common occurrence
+        if (datum instanceof TAGOccurrenceStatSummary summary) {
+            datum = summary.getHighestOccurrence().a;
+        }
+        if (datum == null || datum instanceof Number || datum instanceof String)
+            return datum;
+        if (datum instanceof Map<?, ?> map) {
+            if (map.size() == 1)
+                return map.values().iterator().next().toString();
+            return map.toString();
+        }
+        return datum.toString();
+    }
+
+    private void submitBatch() {
+        List<Object[]> rows = batch;
+        batch = new ArrayList<>(BATCH_SIZE);
+        write(rows, null);
+    }
+
+    private void write(List<Object[]> rows, List<String> header) {
+        checkFailure();
+        String df = doubleFormat, inf = intFormat;
+        if (executor == null)
+            writeRows(rows, header, df, inf);
+        else
+            executor.execute(() -> {
+                try {
+                    writeRows(rows, header, df, inf);
+                } catch (Throwable e) {
+                    if (failure == null) failure = e;
                 }
+            });
+    }
+
+    // rethrows any problem on the background thread
+    private void checkFailure() {
+        Throwable e = failure;
+        if (e != null) {
+            failure = null;
+            throw e instanceof AssertionError ae ? ae :
+                    new AssertionError("Problem writing to file " + fileName + " : " + e.getMessage());
+        }
+    }
+
+    private void writeRows(List<Object[]> rows, List<String> header, String doubleFormat, String intFormat) {
+        try {
+            if (binaryStream != null) {
+                if (binaryWriter == null)
+                    binaryWriter = new BinaryStatsFile.Writer(binaryStream, header, allKeys.size(), BATCH_SIZE);
+                for (Object[] row : rows)
+                    binaryWriter.write(row);
+                return;
             }
-            List<String> outputData = new ArrayList<>();
-            for (String key: allKeys) {
-                Object datum = data.get(key);
-                if (datum == null) {
-                    outputData.add("NA");
-                    continue;
-                }
-                // If this is a summary, then we return the single most common occurrence
-                if (datum instanceof TAGOccurrenceStatSummary) {
-                    TAGOccurrenceStatSummary summary = (TAGOccurrenceStatSummary) datum;
-                    datum = summary.getHighestOccurrence().a;
-                }
-                if (datum instanceof Integer) {
-                    outputData.add(String.format(intFormat, datum));
-                    continue;
-                }
-                if (datum instanceof Double) {
-                    outputData.add(String.format(doubleFormat, datum));
-                    continue;
-                }
-                if (datum instanceof Map) {
-                    Map<String, ?> map = (Map<String, ?>) datum;
-                    if (map.size() == 1)
-                        outputData.add(map.values().iterator().next().toString());
+            if (header != null) {
+                writer.write(String.join(delimiter, header) + "\n");
+            }
+            boolean plainInts = intFormat.equals("%d");
+            StringBuilder line = new StringBuilder();
+            for (Object[] row : rows) {
+                line.setLength(0);
+                for (int i = 0; i < row.length; i++) {
+                    if (i > 0) line.append(delimiter);
+                    Object datum = row[i];
+                    if (datum == null)
+                        line.append("NA");
+                    else if (datum instanceof Integer)
+                        line.append(plainInts ? datum.toString() : String.format(intFormat, datum));
+                    else if (datum instanceof Double)
+                        line.append(String.format(doubleFormat, datum));
                     else
-                        outputData.add(map.toString());
-                    continue;
+                        line.append(datum);
                 }
-
-                outputData.add(datum.toString());
+                line.append('\n');
+                writer.write(line.toString());
             }
+        } catch (IOException e) {
+            throw new AssertionError("Problem writing to file " + fileName + " : " + e.getMessage());
+        }
+    }
 
-            if (!outputData.isEmpty()) {
-                String outputLine = String.join(delimiter, outputData) + "\n";
-     //           System.out.printf("File: %s, Writing....%s", fileName, outputLine);
-                writer.write(outputLine);
+    private void flushToDisk() {
+        try {
+            if (binaryStream != null) {
+                if (binaryWriter != null)
+                    binaryWriter.writeBlock();
+                binaryStream.flush();
+            } else {
+                writer.flush();
             }
         } catch (IOException e) {
-            throw new AssertionError("Problem writing to file " + writer + " : " + e.getMessage());
+            throw new AssertionError("Problem flushing file " + fileName + " : " + e.getMessage());
+        }
+    }
+
+    private void flush() {
+        if (!batch.isEmpty())
+            submitBatch();
+        if (executor == null) {
+            flushToDisk();
+            return;
+        }
+        // the executor has a single thread, so once this has run so has everything before it
+        Future<?> flushed = executor.submit(this::flushToDisk);
+        try {
+            flushed.get();
+        } catch (ExecutionException e) {
+            failure = e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Interrupted while writing to file " + fileName);
+        }
+        checkFailure();
+    }
+
+    // run if the JVM exits before processDataAndFinish(); writes out everything already handed to the executor
+    private void drainOnExit() {
+        ExecutorService pending = executor;
+        if (pending == null)
+            return;
+        pending.shutdown();
+        try {
+            if (pending.awaitTermination(MAX_WAIT_SECONDS, TimeUnit.SECONDS))
+                flushToDisk();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
@@ -144,29 +298,45 @@ public class FileStatsLogger implements IStatisticLogger {
     }
 
     /**
-     * This just closes the file
+     * This writes out any data not yet written, and closes the file
      */
     @Override
     public void processDataAndFinish() {
-        if (writer == null) return;
+        if (!isOpen()) return;
         try {
-            writer.flush();
-            writer.close();
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new AssertionError("Problem closing file " + writer.toString() + " : " + e.getMessage());
+            flush();
+        } finally {
+            if (executor != null)
+                executor.shutdown();
+            executor = null;
+            if (exitHook != null) {
+                try {
+                    Runtime.getRuntime().removeShutdownHook(exitHook);
+                } catch (IllegalStateException e) {
+                    // the JVM is already shutting down, and the hook has nothing left to do
+                }
+                exitHook = null;
+            }
+            try {
+                if (binaryStream != null)
+                    binaryStream.close();
+                else
+                    writer.close();
+            } catch (Exception e) {
+                e.printStackTrace();
+                throw new AssertionError("Problem closing file " + fileName + " : " + e.getMessage());
+            } finally {
+                writer = null;
+                binaryStream = null;
+                binaryWriter = null;
+            }
         }
     }
 
     @Override
     public void processDataAndNotFinish() {
-        if (writer == null) return;
-        try {
-            writer.flush();
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new AssertionError("Problem flushing file " + writer.toString() + " : " + e.getMessage());
-        }
+        if (!isOpen()) return;
+        flush();
     }
 
     /**
@@ -187,6 +357,9 @@ public class FileStatsLogger implements IStatisticLogger {
         String newFileName = fileParts[0] + "_" + id + "." + fileParts[1];
         FileStatsLogger retValue = new FileStatsLogger(newFileName, delimiter, append);
         retValue.actionName = id;
+        retValue.doubleFormat = doubleFormat;
+        retValue.intFormat = intFormat;
+        retValue.async = async;
         return retValue;
     }
 
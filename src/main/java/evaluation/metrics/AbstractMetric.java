@@ -111,6 +111,17 @@ public abstract class AbstractMetric {
         }
     }
 
+    /**
+     * The parts of an event (of one of the types this metric listens to) that _run() reads: see
+     * IGameListener.eventContent(). The default allows the metric to read the event and listener.getPlayers(), and
+     * the metric may then be run on another thread, while the game carries on (see AsyncEventDispatcher).
+     * A metric that reads listener.getGame() must override this to include Content.GAME, so that it is run on the
+     * game thread: otherwise getGame() throws an IllegalStateException while the metric runs.
+     */
+    public Set<Event.Content> eventContent(IGameEvent type) {
+        return EnumSet.of(Event.Content.STATE, Event.Content.ACTION, Event.Content.ACTIONS, Event.Content.PLAYERS);
+    }
+
     /**
      * Return a list of columns that will be recorded for this metric. The string is the name of the column and
      * the class<?> is the type of data that will be recorded in that column.
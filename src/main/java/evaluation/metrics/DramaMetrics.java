@@ -24,7 +24,8 @@ public class DramaMetrics implements IMetricsCollection {
 
         private final MCTSPlayer oracle;
         private final AbstractForwardModel fm;
-        private double[] lastValues;
+        // per game (by ID), as games may be played in parallel (see RoundRobinTournament)
+        private final Map<Integer, double[]> lastValues = new HashMap<>();
         private final boolean onlyProcessGenuineChoices;
 
         public StateEstimate(String gameType, boolean onlyProcessGenuineChoices, MCTSParams oracleDetails) {
@@ -40,7 +41,7 @@ public class DramaMetrics implements IMetricsCollection {
         public boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
             if (e.type == GAME_OVER) {
                 // we just zero out the last values
-                lastValues = null;
+                lastValues.remove(e.state.getGameID());
             } else {
                 double[] oracleActionValues = new double[e.state.getNPlayers()];
                 double[] oracleHeuristicValues = new double[e.state.getNPlayers()];
@@ -81,16 +82,17 @@ public class DramaMetrics implements IMetricsCollection {
                         return true; // no genuine choice to make, so skip recording
                     }
                 }
+                double[] last = lastValues.get(e.state.getGameID());
                 for (int i = 0; i < e.state.getNPlayers(); i++) {
                     records.put("ScoreP" + i, e.state.getGameScore(i));
                     records.put("HeuristicP" + i, e.state.getHeuristicScore(i));
                     if (oracle != null) {
                         records.put("HeuristicP" + i, oracleHeuristicValues[i]);  // overrides heuristic with oracle heuristic
                         records.put("OracleP" + i, oracleActionValues[i]);
-                        records.put("OracleDiffP" + i, lastValues == null ? oracleActionValues[i] : oracleActionValues[i] - lastValues[i]);
+                        records.put("OracleDiffP" + i, last == null ? oracleActionValues[i] : oracleActionValues[i] - last[i]);
                     }
                 }
-                lastValues = oracleActionValues;
+                lastValues.put(e.state.getGameID(), oracleActionValues);
             }
             return true;
         }
@@ -37,6 +37,18 @@ public class Event
         }
     }
 
+    /**
+     * The parts of an event that a listener may read (see IGameListener.eventContent()).
+     * PLAYERS means that the listener reads the players of the live Game (for example their names), which only
+     * change between games and so can still be read on another thread (a metric reads them with
+     * MetricsGameListener.getPlayers()).
+     * GAME means that the listener reads anything else from the live Game (for example its timings, or the state
+     * of a player), so it must be told of the event on the game thread.
+     */
+    public enum Content {
+        STATE, ACTION, ACTIONS, PLAYERS, GAME
+    }
+
     private Event() {}
 
     public IGameEvent type;
@@ -33,7 +33,7 @@ public class GameMetrics implements IMetricsCollection {
                 double score = e.state.getGameScore(i);
                 sum += score;
                 records.put("Player-" + i, score);
-                records.put("PlayerName-" + i, listener.getGame().getPlayers().get(i).toString());
+                records.put("PlayerName-" + i, listener.getPlayers().get(i).toString());
                 if (e.state.getOrdinalPosition(i) == 1) leaderID = i;
                 if (e.state.getNPlayers() > 1 && e.state.getOrdinalPosition(i) == 2) secondID = i;
             }
@@ -77,7 +77,7 @@ public class GameMetrics implements IMetricsCollection {
         public boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
             for (int i = 0; i < e.state.getNPlayers(); i++) {
                 records.put("Player-" + i, e.state.getGameScore(i));
-                records.put("PlayerName-" + i, listener.getGame().getPlayers().get(i).toString());
+                records.put("PlayerName-" + i, listener.getPlayers().get(i).toString());
             }
             return true;
         }
@@ -122,7 +122,7 @@ public class GameMetrics implements IMetricsCollection {
         @Override
         public boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
             for (int i = 0; i < e.state.getNPlayers(); i++) {
-                records.put("PlayerType-" + i, listener.getGame().getPlayers().get(i).toString());
+                records.put("PlayerType-" + i, listener.getPlayers().get(i).toString());
             }
             return true;
         }
@@ -189,7 +189,7 @@ public class GameMetrics implements IMetricsCollection {
             records.put("Copy (ms)", listener.getGame().getCopyTime() / 1e6);
             records.put("Actions Available Compute (ms)", listener.getGame().getActionComputeTime() / 1e6);
             records.put("Agent (ms)", listener.getGame().getAgentTime() / 1e6);
-            records.put("Agent", listener.getGame().getPlayers().get(e.playerID).toString());
+            records.put("Agent", listener.getPlayers().get(e.playerID).toString());
             records.put("Player", e.playerID);
             return true;
         }
@@ -199,6 +199,12 @@ public class GameMetrics implements IMetricsCollection {
             // ACTION_CHOSEN would be fine except for the recording of the time for 'next'
             return Collections.singleton(Event.GameEvent.ACTION_TAKEN);
         }
+
+        @Override
+        public Set<Event.Content> eventContent(IGameEvent type) {
+            // the timings are those of the Game, for the action just taken
+            return EnumSet.allOf(Event.Content.class);
+        }
     }
 
     public static class OrdinalPosition extends AbstractMetric {
@@ -218,7 +224,7 @@ public class GameMetrics implements IMetricsCollection {
             for (int i = 0; i < e.state.getNPlayers(); i++) {
                 records.put("Player-" + i, e.state.getOrdinalPosition(i));
                 records.put("Player-" + i + " rank", String.valueOf(e.state.getOrdinalPosition(i)));
-                records.put("PlayerName-" + i, listener.getGame().getPlayers().get(i).toString());
+                records.put("PlayerName-" + i, listener.getPlayers().get(i).toString());
             }
             return true;
         }
@@ -263,6 +269,12 @@ public class GameMetrics implements IMetricsCollection {
         public Set<IGameEvent> getDefaultEventTypes() {
             return Collections.singleton(Event.GameEvent.GAME_OVER);
         }
+
+        @Override
+        public Set<Event.Content> eventContent(IGameEvent type) {
+            // the action space sizes are kept by the Game itself
+            return EnumSet.allOf(Event.Content.class);
+        }
     }
 
     public static class Actions extends AbstractMetric {
@@ -277,9 +289,8 @@ public class GameMetrics implements IMetricsCollection {
 
         @Override
         public boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
-            Game g = listener.getGame();
             AbstractAction a = e.action.copy();
-            AbstractPlayer currentPlayer = g.getPlayers().get(e.playerID);
+            AbstractPlayer currentPlayer = listener.getPlayers().get(e.playerID);
             int size = e.actions.size();
 
             if (e.state.isActionInProgress()) {
@@ -342,8 +353,7 @@ public class GameMetrics implements IMetricsCollection {
 
         @Override
         public boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
-            Game g = listener.getGame();
-            AbstractPlayer currentPlayer = g.getPlayers().get(e.playerID);
+            AbstractPlayer currentPlayer = listener.getPlayers().get(e.playerID);
             int size = e.actions.size();
 
             records.put("Player", e.playerID);
@@ -46,6 +46,11 @@ public class TournamentMetric extends AbstractMetric {
         return wrappedMetric.getDefaultEventTypes();
     }
 
+    @Override
+    public Set<Event.Content> eventContent(IGameEvent type) {
+        return wrappedMetric.eventContent(type);
+    }
+
     public void reset() {
         super.reset();
         for (IDataLogger logger : dataLoggers.values()) {
@@ -89,6 +94,16 @@ public class TournamentMetric extends AbstractMetric {
         }
     }
 
+    /**
+     * Switches to the data logger that tournamentInit() created (or found) for this matchup.
+     */
+    public void setMatchUp(Set<AbstractPlayer> matchup) {
+        IDataLogger logger = dataLoggers.get(matchup);
+        if (logger == null)
+            throw new IllegalArgumentException("tournamentInit() has not been called for matchup " + matchup);
+        setDataLogger(logger);
+    }
+
     /**
      * Produces reports of data for this metric.
      *
@@ -13,6 +13,7 @@ import games.GameType;
 import players.IAnyTimePlayer;
 
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.stream.IntStream;
 
 import static evaluation.optimisation.NTBEAParameters.Mode.CoopNTBEA;
@@ -90,6 +91,68 @@ public class GameEvaluator implements SolutionEvaluator {
      */
     @Override
     public double evaluate(int[] settings) {
+        double retValue = 0.0;
+        for (PlannedGame game : plan(settings, false))
+            retValue += play(game);
+        return retValue;
+    }
+
+    /**
+     * Evaluates all the settings. If params.nThreads is greater than one then the games are run on a pool of that
+     * many threads: one task per game if params.parallelGames, otherwise one per evaluation.
+     * Everything random (the seeds, team positions and opponents) is decided first, in order, just as it would be
+     * by calling evaluate() on each in turn. So the only difference from a serial run is that each game is played
+     * on a new Game instance rather than one shared by the games of an evaluation.
+     * The heuristic used to score the games must be safe to call from several threads at once.
+     */
+    @Override
+    public double[] evaluate(List<int[]> solutions) {
+        if (params.nThreads <= 1)
+            return SolutionEvaluator.super.evaluate(solutions);
+        List<List<PlannedGame>> evaluations = new ArrayList<>(solutions.size());
+        for (int[] settings : solutions)
+            evaluations.add(plan(settings, true));
+
+        ExecutorService executor = Executors.newFixedThreadPool(params.nThreads);
+        try {
+            List<List<Future<Double>>> futures = new ArrayList<>(evaluations.size());
+            for (List<PlannedGame> evaluation : evaluations) {
+                List<Future<Double>> gameFutures = new ArrayList<>();
+                if (params.parallelGames) {
+                    for (PlannedGame game : evaluation)
+                        gameFutures.add(executor.submit(() -> play(game)));
+                } else {
+                    gameFutures.add(executor.submit(() -> {
+                        double total = 0.0;
+                        for (PlannedGame game : evaluation)
+                            total += play(game);
+                        return total;
+                    }));
+                }
+                futures.add(gameFutures);
+            }
+            double[] results = new double[evaluations.size()];
+            for (int i = 0; i < results.length; i++)
+                for (Future<Double> future : futures.get(i))
+                    results[i] += future.get();
+            return results;
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error running NTBEA evaluations in parallel", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private record PlannedGame(Game game, List<AbstractPlayer> players, long seed, int teamIndex, int gamesToRun,
+                               boolean tuningGame) {
+    }
+
+    /**
+     * Sets up the games for one evaluation of the settings, taking all the random decisions.
+     *
+     * @param gamePerRun If true, then each game has its own Game instance; otherwise they share one
+     */
+    private List<PlannedGame> plan(int[] settings, boolean gamePerRun) {
         if (debug)
             System.out.printf("Starting evaluation %d of %s at %tT%n", nEvals,
                     Arrays.toString(settings), System.currentTimeMillis());
@@ -97,7 +160,9 @@ public class GameEvaluator implements SolutionEvaluator {
         boolean tuningPlayer = configuredThing instanceof AbstractPlayer;
         boolean tuningGame = configuredThing instanceof Game;
 
-        Game newGame = tuningGame ? (Game) configuredThing : game.createGameInstance(nPlayers, gameParams);
+        // each Game gets its own copy of the parameters, as play() writes the seed into them
+        Game newGame = tuningGame ? (Game) configuredThing :
+                game.createGameInstance(nPlayers, gameParams == null ? null : gameParams.copy());
         // we assign one player to each team (the default for a game is each player being their own team of 1)
         int nTeams = newGame.getGameState().getNTeams();
 
@@ -112,28 +177,36 @@ public class GameEvaluator implements SolutionEvaluator {
             throw new AssertionError("StableNTBEA mode requires tuning of player");
         int gamesToRun = params.mode == StableNTBEA ? nTeams : 1;
         long seed = rnd.nextLong();
-        double retValue = 0.0;
+        List<PlannedGame> games = new ArrayList<>(gamesToRun);
         for (int loop = 0; loop < gamesToRun; loop++) {
             int thisTeamIndex = teamIndex == -99 ? -99 : (teamIndex + loop) % nTeams;
             List<AbstractPlayer> allPlayers = setupPlayers(thisTeamIndex, nTeams, settings);
+            if (gamePerRun && loop > 0)
+                newGame = tuningGame ? (Game) searchSpace.instantiate(settings) :
+                        game.createGameInstance(nPlayers, gameParams == null ? null : gameParams.copy());
+            games.add(new PlannedGame(newGame, allPlayers, seed, thisTeamIndex, gamesToRun, tuningGame));
+        }
 
-            // always reset the random seed for each new game
-            newGame.reset(allPlayers, seed);
-            newGame.run();
+        nEvals++;
+        return games;
+    }
 
-            int playerOnTeam = -1;
-            for (int p = 0; p < newGame.getGameState().getNPlayers(); p++) {
-                if (newGame.getGameState().getTeam(p) == thisTeamIndex) {
-                    playerOnTeam = p;
-                }
+    // plays the game and returns its contribution to the evaluation
+    private double play(PlannedGame planned) {
+        Game newGame = planned.game();
+        // always reset the random seed for each new game
+        newGame.reset(planned.players(), planned.seed());
+        newGame.run();
+
+        int playerOnTeam = -1;
+        for (int p = 0; p < newGame.getGameState().getNPlayers(); p++) {
+            if (newGame.getGameState().getTeam(p) == planned.teamIndex()) {
+                playerOnTeam = p;
             }
-            if (tuningPlayer && playerOnTeam == -1)
-                throw new AssertionError("No Player found on team " + thisTeamIndex);
-            retValue += (tuningGame ? gameHeuristic.evaluateGame(newGame) : stateHeuristic.evaluateState(newGame.getGameState(), playerOnTeam)) / gamesToRun;
         }
-
-        nEvals++;
-        return retValue;
+        if (planned.teamIndex() != -99 && playerOnTeam == -1)
+            throw new AssertionError("No Player found on team " + planned.teamIndex());
+        return (planned.tuningGame() ? gameHeuristic.evaluateGame(newGame) : stateHeuristic.evaluateState(newGame.getGameState(), playerOnTeam)) / planned.gamesToRun();
     }
 
     private List<AbstractPlayer> setupPlayers(int teamIndex, int nTeams, int[] settings) {
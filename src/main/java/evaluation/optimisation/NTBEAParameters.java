@@ -48,6 +48,7 @@ public class NTBEAParameters extends TunableParameters<NTBEA> {
     public int OSDBudget = 0;
     public boolean OSDTournament = false;
     public double OSDConfidence = 0.9;
+    public int batchSize = 1;
 
     // and those that are not (so must be included separately in copy etc)
     public boolean tuningGame = false;
@@ -59,6 +60,8 @@ public class NTBEAParameters extends TunableParameters<NTBEA> {
     public boolean byTeam = false;
     public GameType gameType;
     public int nPlayers;
+    public int nThreads = 1;
+    public boolean parallelGames = true;
 
     public NTBEAParameters() {
         addTunableParameter("iterations", 1000);
@@ -83,6 +86,7 @@ public class NTBEAParameters extends TunableParameters<NTBEA> {
         addTunableParameter("OSDBudget", 0);
         addTunableParameter("OSDTournament", false);
         addTunableParameter("OSDConfidence", 0.9);
+        addTunableParameter("batchSize", 1);
     }
 
     @Override
@@ -109,6 +113,7 @@ public class NTBEAParameters extends TunableParameters<NTBEA> {
         OSDBudget = (int) getParameterValue("OSDBudget");
         OSDTournament = (boolean) getParameterValue("OSDTournament");
         OSDConfidence = (double) getParameterValue("OSDConfidence");
+        batchSize = (int) getParameterValue("batchSize");
 
         if (evalGames == -1) evalGames = iterationsPerRun / 5;
     }
@@ -138,6 +143,7 @@ public class NTBEAParameters extends TunableParameters<NTBEA> {
         setParameterValue("OSDBudget", args.get(RunArg.OSDBudget));
         setParameterValue("OSDTournament", args.get(RunArg.OSDTournament));
         setParameterValue("OSDConfidence", args.get(RunArg.OSDConfidence));
+        setParameterValue("batchSize", args.getOrDefault(RunArg.batchSize, 1));
 
         _reset();
 
@@ -146,6 +152,8 @@ public class NTBEAParameters extends TunableParameters<NTBEA> {
         byTeam = (boolean) args.get(RunArg.byTeam);
         gameType = GameType.valueOf(args.get(RunArg.game).toString());
         nPlayers = (int) args.get(RunArg.nPlayers);
+        nThreads = Math.max(1, (int) args.getOrDefault(RunArg.nThreads, 1));
+        parallelGames = (boolean) args.getOrDefault(RunArg.parallelGames, true);
         gameParams = args.get(RunArg.gameParams).equals("") ? null :
                 AbstractParameters.createFromFile(gameType, (String) args.get(RunArg.gameParams));
 
@@ -231,6 +239,8 @@ public class NTBEAParameters extends TunableParameters<NTBEA> {
         ntp.gameType = gameType;
         ntp.nPlayers = nPlayers;
         ntp.logFile = logFile;
+        ntp.nThreads = nThreads;
+        ntp.parallelGames = parallelGames;
         return ntp;
     }
 
@@ -245,6 +255,8 @@ public class NTBEAParameters extends TunableParameters<NTBEA> {
                     destDir.equals(parameters.destDir) &&
                     gameType.equals(parameters.gameType) &&
                     logFile.equals(parameters.logFile) &&
+                    nThreads == parameters.nThreads &&
+                    parallelGames == parameters.parallelGames &&
                     nPlayers == parameters.nPlayers;
         }
         return false;
@@ -1,10 +1,10 @@
 package evaluation.optimisation.ntbea;
 
 import evaluation.optimisation.NTBEAParameters;
+import utilities.Pair;
 import utilities.StatSummary;
 
-import java.util.Arrays;
-import java.util.Random;
+import java.util.*;
 
 /**
  * Created by sml on 09/01/2017.
@@ -18,11 +18,14 @@ public class NTupleBanditEA {
     // they are only explored IN THE FITNESS LANDSCAPE MODEL, not by sampling the fitness function
     int nNeighbours;
     int nSamples = 1;
+    // the number of points evaluated together in each generation
+    int batchSize = 1;
 
     public NTupleBanditEA(LandscapeModel model, NTBEAParameters params) {
         landscapeModel = model;
         this.nNeighbours = params.neighbourhoodSize;
         this.nSamples = params.evaluationsPerTrial;
+        this.batchSize = Math.max(1, params.batchSize);
     }
 
     StatSummary fitness(SolutionEvaluator evaluator, int[] sol) {
@@ -50,6 +53,11 @@ public class NTupleBanditEA {
 
         int[] p = SearchSpaceUtil.randomPoint(searchSpace);
 
+        if (batchSize > 1) {
+            runBatchedTrial(p, nEvals);
+            return;
+        }
+
         for (int i = 0; i < nEvals; i++) {
             // each time around the loop we make one fitness evaluation of p
             // and add this NEW information to the memory
@@ -65,26 +73,10 @@ public class NTupleBanditEA {
             // and then explore the neighbourhood around p, balancing exploration and exploitation
             // we currently hardcode one mutation function to randomly change one setting at a time
 
-            int nDims = searchSpace.nDims();
             double bestSoFar = Double.NEGATIVE_INFINITY;
             int[] settingToTryNext = new int[0];
             for (int n = 0; n < nNeighbours; n++) {
-                int[] pp = Arrays.copyOf(p, p.length);
-                boolean mutation = false;
-                for (int d = 0; d < nDims; d++) {
-                    if (rnd.nextDouble() < 1.0 / nDims) {
-                        pp[d] = rnd.nextInt(searchSpace.nValues(d) - 1);
-                        if (p[d] <= pp[d]) pp[d]++;
-                        mutation = true;
-                    }
-                }
-                // if no mutations made, then change one
-                if (!mutation) {
-                    int d = rnd.nextInt(searchSpace.nDims());
-                    pp[d] = rnd.nextInt(searchSpace.nValues(d) - 1);
-                    if (p[d] <= pp[d]) pp[d]++;
-                }
-
+                int[] pp = neighbour(p, searchSpace);
                 double estimatedUpperBound = landscapeModel.getUpperBound(pp);
                 if (estimatedUpperBound > bestSoFar) {
                     settingToTryNext = pp;
@@ -97,4 +89,81 @@ public class NTupleBanditEA {
             p = settingToTryNext;
         }
     }
+
+    /**
+     * As runTrial(), except that in each generation we evaluate p together with the batchSize - 1 neighbours of p
+     * that have the highest upper bounds in the model. All of these (including the nSamples repeats of each) are
+     * passed to the evaluator in one call, so that it can run them concurrently, and the model is then updated with
+     * all the results. The next p is then picked from the neighbourhood of p as before.
+     */
+    private void runBatchedTrial(int[] p, int nEvals) {
+        SearchSpace searchSpace = landscapeModel.getSearchSpace();
+        for (int i = 0; i < nEvals; i += batchSize) {
+            int k = Math.min(batchSize, nEvals - i);
+            List<int[]> candidates = new ArrayList<>(k);
+            candidates.add(p);
+            if (k > 1) {
+                List<Pair<int[], Double>> neighbours = new ArrayList<>(nNeighbours);
+                for (int n = 0; n < nNeighbours; n++) {
+                    int[] pp = neighbour(p, searchSpace);
+                    neighbours.add(new Pair<>(pp, landscapeModel.getUpperBound(pp)));
+                }
+                neighbours.sort(Comparator.comparingDouble((Pair<int[], Double> n) -> n.b).reversed());
+                for (Pair<int[], Double> n : neighbours) {
+                    if (candidates.size() == k)
+                        break;
+                    if (candidates.stream().noneMatch(c -> Arrays.equals(c, n.a)))
+                        candidates.add(n.a);
+                }
+                // in a very small search space there may not be enough distinct neighbours
+                for (int n = 0; candidates.size() < k; n++)
+                    candidates.add(neighbours.get(n % neighbours.size()).a);
+            }
+
+            List<int[]> toEvaluate = new ArrayList<>(k * nSamples);
+            for (int[] candidate : candidates)
+                for (int s = 0; s < nSamples; s++)
+                    toEvaluate.add(candidate);
+            double[] results = evaluator.evaluate(toEvaluate);
+            for (int c = 0; c < candidates.size(); c++) {
+                StatSummary ss = new StatSummary();
+                for (int s = 0; s < nSamples; s++)
+                    ss.add(results[c * nSamples + s]);
+                landscapeModel.addPoint(candidates.get(c), ss.mean());
+            }
+
+            double bestSoFar = Double.NEGATIVE_INFINITY;
+            int[] settingToTryNext = p;
+            for (int n = 0; n < nNeighbours; n++) {
+                int[] pp = neighbour(p, searchSpace);
+                double estimatedUpperBound = landscapeModel.getUpperBound(pp);
+                if (estimatedUpperBound > bestSoFar) {
+                    settingToTryNext = pp;
+                    bestSoFar = estimatedUpperBound;
+                }
+            }
+            p = settingToTryNext;
+        }
+    }
+
+    // a random neighbour of p, which differs from it in at least one dimension
+    private int[] neighbour(int[] p, SearchSpace searchSpace) {
+        int nDims = searchSpace.nDims();
+        int[] pp = Arrays.copyOf(p, p.length);
+        boolean mutation = false;
+        for (int d = 0; d < nDims; d++) {
+            if (rnd.nextDouble() < 1.0 / nDims) {
+                pp[d] = rnd.nextInt(searchSpace.nValues(d) - 1);
+                if (p[d] <= pp[d]) pp[d]++;
+                mutation = true;
+            }
+        }
+        // if no mutations made, then change one
+        if (!mutation) {
+            int d = rnd.nextInt(searchSpace.nDims());
+            pp[d] = rnd.nextInt(searchSpace.nValues(d) - 1);
+            if (p[d] <= pp[d]) pp[d]++;
+        }
+        return pp;
+    }
 }
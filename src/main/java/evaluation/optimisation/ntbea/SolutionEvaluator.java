@@ -1,5 +1,7 @@
 package evaluation.optimisation.ntbea;
 
+import java.util.List;
+
 public interface SolutionEvaluator {
     /**
      * Created by simonmarklucas on 06/08/2016.
@@ -19,6 +21,20 @@ public interface SolutionEvaluator {
      * @return
      */
     double evaluate(int[] solution);
+
+    /**
+     * Evaluates several sets of parameter settings. The default evaluates them one at a time, in order; an
+     * implementation may instead evaluate them concurrently.
+     *
+     * @param solutions The settings to evaluate (which may include the same settings more than once)
+     * @return The result of each evaluation, in the same order as solutions
+     */
+    default double[] evaluate(List<int[]> solutions) {
+        double[] results = new double[solutions.size()];
+        for (int i = 0; i < results.length; i++)
+            results[i] = evaluate(solutions.get(i));
+        return results;
+    }
     // has the algorithm found the optimal solution?
 
     /**
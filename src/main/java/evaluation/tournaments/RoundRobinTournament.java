@@ -1,8 +1,11 @@
 package evaluation.tournaments;
 
+import core.AbstractGameState;
 import core.AbstractParameters;
 import core.AbstractPlayer;
+import core.Game;
 import evaluation.RunArg;
+import evaluation.listeners.AsyncEventDispatcher;
 import evaluation.listeners.IGameListener;
 import evaluation.listeners.TournamentMetricsGameListener;
 import games.GameType;
@@ -12,6 +15,10 @@ import utilities.*;
 import java.io.File;
 import java.io.FileWriter;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -46,6 +53,26 @@ public class RoundRobinTournament extends AbstractTournament {
     String seedFile;
     Random seedRnd;
     Map<RunArg, Object> config;
+    // Number of worker threads to play games on. If more than one, then evaluateMatchUp() only queues the match-ups,
+    // in exactly the order (and with exactly the seeds) they would be played serially; runQueuedGames() then plays them
+    protected int nThreads;
+    protected boolean asyncListeners;
+    protected List<QueuedMatchUp> queuedMatchUps = new ArrayList<>();
+
+    /**
+     * The games of one match-up, to be played in order by a single worker thread on the same agent copies, exactly
+     * as a serial run would (so that agents that carry state, such as their random number generator, from one game
+     * to the next behave identically); matchUp is the set of those copies, which the tournament listeners use to find
+     * the data logger for the games
+     */
+    protected record QueuedMatchUp(List<AbstractPlayer> players, Set<AbstractPlayer> matchUp, List<Integer> seeds) {
+    }
+
+    /**
+     * What a worker hands back once a game is finished; a copy of the final state, and the players
+     */
+    protected record FinishedGame(AbstractGameState finalState, List<AbstractPlayer> players) {
+    }
 
     /**
      * Create a round robin tournament, which plays all agents against all others.
@@ -132,6 +159,8 @@ public class RoundRobinTournament extends AbstractTournament {
         this.randomSeed = ((Number) config.getOrDefault(RunArg.seed, System.currentTimeMillis())).longValue();
         this.seedRnd = new Random(randomSeed);
         this.randomGameParams = (boolean) config.getOrDefault(RunArg.randomGameParams, false);
+        this.nThreads = Math.max(1, (int) config.getOrDefault(RunArg.nThreads, 1));
+        this.asyncListeners = (boolean) config.getOrDefault(RunArg.asyncListeners, false);
 
         this.name = String.format("Game: %s, Players: %d, Mode: %s, TotalGames: %d, GamesPerMatchup: %d",
                 gameToPlay.name(), playersPerGame, tournamentMode, actualGames, gamesPerMatchup);
@@ -155,28 +184,42 @@ public class RoundRobinTournament extends AbstractTournament {
 
         for (IGameListener gameTracker : listeners) {
             gameTracker.init(game, nPlayers, agentNames);
-            game.addListener(gameTracker);
+            if (!asyncListeners || nThreads > 1)
+                game.addListener(gameTracker);
+        }
+        AsyncEventDispatcher dispatcher = null;
+        if (asyncListeners && nThreads == 1 && !listeners.isEmpty()) {
+            dispatcher = new AsyncEventDispatcher(listeners);
+            game.addListener(dispatcher);
         }
 
-        LinkedList<Integer> matchUp = new LinkedList<>();
-        // add outer loop if we have tournamentSeeds enabled; if not this will just run once
-        List<Integer> allSeeds = new ArrayList<>(gameSeeds);
-        for (int iter = 0; iter < Math.max(1, tournamentSeeds); iter++) {
-            if (tournamentSeeds > 0) {
-                // use the same seed for each game in the tournament
-                // allSeeds contains the ones loaded from file - if empty then use a random one
-                int nextRnd = allSeeds.isEmpty() ? seedRnd.nextInt() : allSeeds.get(iter);
-                gameSeeds = IntStream.range(0, gamesPerMatchup).mapToObj(i -> nextRnd).collect(toList());
-            } else {
-                // use a seed per matchup
-                gameSeeds = IntStream.range(0, gamesPerMatchup).mapToObj(i -> seedRnd.nextInt()).collect(toList());
+        try {
+            LinkedList<Integer> matchUp = new LinkedList<>();
+            // add outer loop if we have tournamentSeeds enabled; if not this will just run once
+            List<Integer> allSeeds = new ArrayList<>(gameSeeds);
+            for (int iter = 0; iter < Math.max(1, tournamentSeeds); iter++) {
+                if (tournamentSeeds > 0) {
+                    // use the same seed for each game in the tournament
+                    // allSeeds contains the ones loaded from file - if empty then use a random one
+                    int nextRnd = allSeeds.isEmpty() ? seedRnd.nextInt() : allSeeds.get(iter);
+                    gameSeeds = IntStream.range(0, gamesPerMatchup).mapToObj(i -> nextRnd).collect(toList());
+                } else {
+                    // use a seed per matchup
+                    gameSeeds = IntStream.range(0, gamesPerMatchup).mapToObj(i -> seedRnd.nextInt()).collect(toList());
+                }
+                createAndRunMatchUp(matchUp);
             }
-            createAndRunMatchUp(matchUp);
+            if (nThreads > 1)
+                runQueuedGames();
+            reportResults();
+
+            for (IGameListener listener : listeners)
+                listener.report();
+        } finally {
+            // stops the thread the listeners were run on
+            if (dispatcher != null)
+                dispatcher.close();
         }
-        reportResults();
-
-        for (IGameListener listener : listeners)
-            listener.report();
     }
 
     protected List<Integer> loadSeedsFromFile() {
@@ -325,12 +368,19 @@ public class RoundRobinTournament extends AbstractTournament {
 
         // TODO : Not sure this is the ideal place for this...ask Raluca
         Set<String> agentNames = agents.stream().map(AbstractPlayer::toString).collect(Collectors.toSet());
+        Set<AbstractPlayer> matchUp = new HashSet<>(matchUpPlayers);
         for (IGameListener listener : listeners) {
             if (listener instanceof TournamentMetricsGameListener) {
-                ((TournamentMetricsGameListener) listener).tournamentInit(game, nPlayers, agentNames, new HashSet<>(matchUpPlayers));
+                ((TournamentMetricsGameListener) listener).tournamentInit(game, nPlayers, agentNames, matchUp);
             }
         }
 
+        if (nThreads > 1) {
+            // the games are played later, on one of the worker pool, with the same agent copies as here
+            queuedMatchUps.add(new QueuedMatchUp(matchUpPlayers, matchUp, new ArrayList<>(seeds.subList(0, nGames))));
+            return;
+        }
+
         // Run the game N = gamesPerMatchUp times with these players
         for (int i = 0; i < nGames; i++) {
             // if tournamentSeeds > 0, then we are running this many tournaments, each with a different random seed fixed for the whole tournament
@@ -344,26 +394,86 @@ public class RoundRobinTournament extends AbstractTournament {
             }
 
             game.run();  // Always running tournaments without visuals
-            GameResult[] results = game.getGameState().getPlayerResults();
 
             tournamentResults.record(game);
 
-            if (verbose) {
-                StringBuffer sb = new StringBuffer();
-                sb.append("[");
-                for (int j = 0; j < matchUpPlayers.size(); j++) {
-                    for (int player = 0; player < game.getGameState().getNPlayers(); player++) {
-                        if (game.getGameState().getTeam(player) == j) {
-                            sb.append(results[player]).append(",");
-                            break; // we stop after one player on the team to avoid double counting
-                        }
-                    }
+            if (verbose)
+                printResults(game.getGameState(), matchUpPlayers.size());
+        }
+    }
+
+    private void printResults(AbstractGameState finalState, int nTeams) {
+        GameResult[] results = finalState.getPlayerResults();
+        StringBuffer sb = new StringBuffer();
+        sb.append("[");
+        for (int j = 0; j < nTeams; j++) {
+            for (int player = 0; player < finalState.getNPlayers(); player++) {
+                if (finalState.getTeam(player) == j) {
+                    sb.append(results[player]).append(",");
+                    break; // we stop after one player on the team to avoid double counting
                 }
-                sb.setCharAt(sb.length() - 1, ']');
-                System.out.println(sb);
             }
+        }
+        sb.setCharAt(sb.length() - 1, ']');
+        System.out.println(sb);
+    }
+
+    /**
+     * Plays all the match-ups queued by evaluateMatchUp() on a pool of nThreads workers.
+     * Each worker has its own Game (with its own state and forward model), and plays all the games of a match-up in
+     * order on that match-up's agent copies. Results are recorded in queue order, so the TournamentResults are the same
+     * as for a serial run with the same seeds; a worker that finishes early just waits for the match-ups before it to
+     * be recorded.
+     */
+    protected void runQueuedGames() {
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        ThreadLocal<Game> workerGames = ThreadLocal.withInitial(this::createWorkerGame);
+        try {
+            List<Future<List<FinishedGame>>> futures = new ArrayList<>(queuedMatchUps.size());
+            for (QueuedMatchUp queued : queuedMatchUps)
+                futures.add(executor.submit(() -> playQueuedMatchUp(workerGames.get(), queued)));
+            for (int i = 0; i < futures.size(); i++) {
+                List<FinishedGame> finishedGames = futures.get(i).get();
+                futures.set(i, null); // so the final states can be collected
+                for (FinishedGame finished : finishedGames) {
+                    tournamentResults.record(finished.finalState(), finished.players());
+                    if (verbose)
+                        printResults(finished.finalState(), queuedMatchUps.get(i).players().size());
+                }
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error running tournament games in parallel", e);
+        } finally {
+            executor.shutdownNow();
+            queuedMatchUps.clear();
+            // and point the listeners back at the main game
+            for (IGameListener listener : listeners)
+                listener.setGame(game);
+        }
+    }
+
+    private Game createWorkerGame() {
+        AbstractParameters params = game.getGameState().getGameParameters().copy();
+        Game workerGame = game.getGameType().createGameInstance(nPlayers, params);
+        workerGame.setCoreParameters(game.getCoreParameters());
+        for (IGameListener listener : listeners)
+            workerGame.addListener(new ThreadConfinedListener(listener, workerGame));
+        return workerGame;
+    }
 
+    private List<FinishedGame> playQueuedMatchUp(Game workerGame, QueuedMatchUp queued) {
+        for (IGameListener listener : workerGame.getListeners())
+            ((ThreadConfinedListener) listener).setMatchUp(queued.matchUp());
+
+        List<FinishedGame> finishedGames = new ArrayList<>(queued.seeds().size());
+        for (int seed : queued.seeds()) {
+            workerGame.reset(queued.players(), seed);
+            if (randomGameParams)
+                workerGame.getGameState().getGameParameters().randomize();
+            workerGame.run();
+            finishedGames.add(new FinishedGame(workerGame.getGameState().copy(), new ArrayList<>(workerGame.getPlayers())));
         }
+        return finishedGames;
     }
 
     protected void calculateFinalResults() {
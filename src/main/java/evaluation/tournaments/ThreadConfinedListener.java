@@ -0,0 +1,73 @@
+package evaluation.tournaments;
+
+import core.AbstractPlayer;
+import core.Game;
+import evaluation.listeners.IGameListener;
+import evaluation.listeners.TournamentMetricsGameListener;
+import evaluation.metrics.Event;
+
+import java.util.Set;
+
+/**
+ * Used by RoundRobinTournament when games are run on several worker threads.
+ * Each worker has its own Game, and attaches one of these wrappers (per tournament listener) to it.
+ * <p>
+ * The wrapped listener is shared across all the workers, so every call into it is made while holding its monitor,
+ * and the listener is pointed at the worker's Game (and current match-up) before the event is passed on.
+ * A game is always played start to finish on a single worker, so each listener still sees the events of any one
+ * game in order; events from different games may be interleaved. So a listener that keeps anything from one event of
+ * a game to the next must keep it per Game (getGame() is the worker's Game while an event is passed on), as
+ * FeatureListener and GameRecordListener do.
+ */
+class ThreadConfinedListener implements IGameListener {
+
+    final IGameListener wrapped;
+    final Game workerGame;
+    Set<AbstractPlayer> matchUp;
+
+    ThreadConfinedListener(IGameListener wrapped, Game workerGame) {
+        this.wrapped = wrapped;
+        this.workerGame = workerGame;
+    }
+
+    /**
+     * Sets the match-up for the next game on this worker; the tournament has already called tournamentInit() for it
+     */
+    void setMatchUp(Set<AbstractPlayer> matchUp) {
+        this.matchUp = matchUp;
+        synchronized (wrapped) {
+            bindToWorker();
+        }
+    }
+
+    private void bindToWorker() {
+        wrapped.setGame(workerGame);
+        if (matchUp != null && wrapped instanceof TournamentMetricsGameListener tournamentListener) {
+            // this switches back to the data logger for our match-up, as another worker may have changed it
+            tournamentListener.setMatchUp(matchUp);
+        }
+    }
+
+    @Override
+    public void onEvent(Event event) {
+        synchronized (wrapped) {
+            bindToWorker();
+            wrapped.onEvent(event);
+        }
+    }
+
+    @Override
+    public void report() {
+        // reporting is done once by the tournament on the wrapped listener, not per worker
+    }
+
+    @Override
+    public void setGame(Game game) {
+        // the worker Game is fixed at construction
+    }
+
+    @Override
+    public Game getGame() {
+        return workerGame;
+    }
+}
@@ -6,6 +6,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonValue;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import core.AbstractGameState;
 import core.AbstractPlayer;
 import core.Game;
 import org.jspecify.annotations.NonNull;
@@ -47,31 +48,43 @@ public class TournamentResults {
     Map<String, List<Result>> playerResults = new HashMap<>();
 
     public void record(Game game) {
-        if (game.getGameState().isNotTerminal())
+        record(game.getGameState(), game.getPlayers());
+    }
+
+    /**
+     * Records the result of a finished game from its final state and the players that took part.
+     * This is used directly when the Game itself is not available, for example when games are run on worker threads
+     * and only a copy of the final state is handed back.
+     *
+     * @param finalState - the terminal game state
+     * @param players    - the players in the game, indexed by playerID
+     */
+    public void record(AbstractGameState finalState, List<AbstractPlayer> players) {
+        if (finalState.isNotTerminal())
             throw new IllegalArgumentException("Game has not finished yet");
 
-        int winningPlayerCount = game.getGameState().getTied().size() + game.getGameState().getWinners().size();
-        for (int j = 0; j < game.getPlayers().size(); j++) {
+        int winningPlayerCount = finalState.getTied().size() + finalState.getWinners().size();
+        for (int j = 0; j < players.size(); j++) {
             // Firstly we record the raw result for each player
-            boolean playerIsWinner = game.getGameState().getOrdinalPosition(j) == 1;
+            boolean playerIsWinner = finalState.getOrdinalPosition(j) == 1;
             addResult(
-                    game.getPlayers().get(j),
+                    players.get(j),
                     playerIsWinner ? (1.0 / winningPlayerCount) : 0.0,
-                    game.getGameState().getOrdinalPosition(j),
-                    game.getGameState().getGameScore(j),
+                    finalState.getOrdinalPosition(j),
+                    finalState.getGameScore(j),
                     playerIsWinner ? 1 : 0
             );
 
             // Then we record the 1:1 comparisons against all other agents in the game
-            AbstractPlayer playerJ = game.getPlayers().get(j);
-            for (int k = 0; k < game.getPlayers().size(); k++) {
-                AbstractPlayer playerK = game.getPlayers().get(k);
+            AbstractPlayer playerJ = players.get(j);
+            for (int k = 0; k < players.size(); k++) {
+                AbstractPlayer playerK = players.get(k);
                 if (k != j && !playerJ.toString().equals(playerK.toString())) {
                     updateGamePlayed(playerJ, playerK);
                     updateOrdinalResults(playerJ, playerK,
-                            game.getGameState().getOrdinalPosition(k) - game.getGameState().getOrdinalPosition(j));
+                            finalState.getOrdinalPosition(k) - finalState.getOrdinalPosition(j));
                     // negative is good (we came lower than them in ordinal order)
-                    if (playerIsWinner && game.getGameState().getOrdinalPosition(k) != game.getGameState().getOrdinalPosition(j)) {
+                    if (playerIsWinner && finalState.getOrdinalPosition(k) != finalState.getOrdinalPosition(j)) {
                         updateWins(playerJ, playerK, 1);
                     }
                 }
@@ -43,7 +43,7 @@ public class CatanForwardModel extends StandardForwardModel {
         state.scores = new int[state.getNPlayers()];
         state.victoryPoints = new int[state.getNPlayers()];
         state.knights = new int[state.getNPlayers()];
-        state.roadLengths = new int[state.getNPlayers()];
+        state.longestRoad = new CatanLongestRoad(state.getGraph(), state.getNPlayers());
         state.largestArmyOwner = -1;
         state.longestRoadOwner = -1;
         state.largestArmySize = 0;
@@ -22,7 +22,8 @@ public class CatanGameState extends AbstractGameState {
     protected GraphBoardWithEdges catanGraph;
     protected int[] scores; // score for each player
     protected int[] victoryPoints; // secret points from victory cards
-    protected int[] knights, roadLengths; // knight count and road length for each player
+    protected int[] knights; // knight count for each player
+    protected CatanLongestRoad longestRoad; // road length for each player
     protected List<Map<CatanParameters.Resource, Counter>> exchangeRates; // exchange rate with bank for each resource
     protected int largestArmyOwner; // playerID of the player currently holding the largest army
     protected int longestRoadOwner; // playerID of the player currently holding the longest roaf
@@ -109,17 +110,16 @@ public class CatanGameState extends AbstractGameState {
         if (!(o instanceof CatanGameState)) return false;
         if (!super.equals(o)) return false;
         CatanGameState that = (CatanGameState) o;
-        return largestArmyOwner == that.largestArmyOwner && longestRoadOwner == that.longestRoadOwner && longestRoadLength == that.longestRoadLength && largestArmySize == that.largestArmySize && rollValue == that.rollValue && developmentCardPlayed == that.developmentCardPlayed && negotiationStepsCount == that.negotiationStepsCount && nTradesThisTurn == that.nTradesThisTurn && Arrays.deepEquals(board, that.board) && Objects.equals(catanGraph, that.catanGraph) && Arrays.equals(scores, that.scores) && Arrays.equals(victoryPoints, that.victoryPoints) && Arrays.equals(knights, that.knights) && Arrays.equals(roadLengths, that.roadLengths) && Objects.equals(exchangeRates, that.exchangeRates) && Objects.equals(playerResources, that.playerResources) && Objects.equals(playerTokens, that.playerTokens) && Objects.equals(playerDevCards, that.playerDevCards) && Objects.equals(resourcePool, that.resourcePool) && Objects.equals(devCards, that.devCards) && Objects.equals(tradeOffer, that.tradeOffer);
+        return largestArmyOwner == that.largestArmyOwner && longestRoadOwner == that.longestRoadOwner && longestRoadLength == that.longestRoadLength && largestArmySize == that.largestArmySize && rollValue == that.rollValue && developmentCardPlayed == that.developmentCardPlayed && negotiationStepsCount == that.negotiationStepsCount && nTradesThisTurn == that.nTradesThisTurn && Arrays.deepEquals(board, that.board) && Objects.equals(catanGraph, that.catanGraph) && Arrays.equals(scores, that.scores) && Arrays.equals(victoryPoints, that.victoryPoints) && Arrays.equals(knights, that.knights) && Objects.equals(longestRoad, that.longestRoad) && Objects.equals(exchangeRates, that.exchangeRates) && Objects.equals(playerResources, that.playerResources) && Objects.equals(playerTokens, that.playerTokens) && Objects.equals(playerDevCards, that.playerDevCards) && Objects.equals(resourcePool, that.resourcePool) && Objects.equals(devCards, that.devCards) && Objects.equals(tradeOffer, that.tradeOffer);
     }
 
     @Override
     public int hashCode() {
-        int result = Objects.hash(super.hashCode(), catanGraph, exchangeRates, largestArmyOwner, longestRoadOwner, longestRoadLength, largestArmySize, rollValue, playerResources, playerTokens, playerDevCards, resourcePool, devCards, developmentCardPlayed, tradeOffer, negotiationStepsCount, nTradesThisTurn);
+        int result = Objects.hash(super.hashCode(), catanGraph, longestRoad, exchangeRates, largestArmyOwner, longestRoadOwner, longestRoadLength, largestArmySize, rollValue, playerResources, playerTokens, playerDevCards, resourcePool, devCards, developmentCardPlayed, tradeOffer, negotiationStepsCount, nTradesThisTurn);
         result = 31 * result + Arrays.deepHashCode(board);
         result = 31 * result + Arrays.hashCode(scores);
         result = 31 * result + Arrays.hashCode(victoryPoints);
         result = 31 * result + Arrays.hashCode(knights);
-        result = 31 * result + Arrays.hashCode(roadLengths);
         return result;
     }
 
@@ -153,7 +153,11 @@ public class CatanGameState extends AbstractGameState {
     }
 
     public int[] getRoadLengths() {
-        return roadLengths;
+        return longestRoad.getLengths();
+    }
+
+    public CatanLongestRoad getLongestRoad() {
+        return longestRoad;
     }
 
     public CatanTile getRobber(CatanTile[][] board) {
@@ -240,75 +244,6 @@ public class CatanGameState extends AbstractGameState {
         return exchangeRates.get(playerID);
     }
 
-    // The road distance between two adjacent settlements, one at x, y, the other along the specified edgeIdx
-    public int getRoadDistance(int x, int y, int edgeIdx) {
-        // As the settlements are the nodes, we expand them to find roads
-        // calculates the distance length of the road
-        Set<Edge> roadSet = new LinkedHashSet<>();
-        Set<Edge> roadSet2 = new LinkedHashSet<>();
-
-        ArrayList<Building> dir1 = new ArrayList<>();
-        ArrayList<Building> dir2 = new ArrayList<>();
-        Building settl1 = (Building) catanGraph.getNodeByID(board[x][y].getVerticesBoardNodeIDs()[edgeIdx]);
-        Building settl2 = (Building) catanGraph.getNodeByID(board[x][y].getVerticesBoardNodeIDs()[(edgeIdx + 1) % 6]);
-
-        dir1.add(settl1);
-        dir2.add(settl2);
-
-        // find longest segment, we first follow dir_1 then dir_2
-        roadSet = expandRoad(roadSet, new ArrayList<>(dir1), new ArrayList<>(dir2));
-        roadSet.addAll(expandRoad(roadSet2, new ArrayList<>(dir2), new ArrayList<>(dir1)));
-
-//        System.out.println("Current road length is " + roadSet.size() + " for player " + getCurrentPlayer());
-        return roadSet.size();
-    }
-
-    private Set<Edge> expandRoad(Set<Edge> roadSet, List<Building> unexpanded, List<Building> expanded) {
-        // return length, makes it possible to compare segments
-        // modify original set
-        if (unexpanded.size() == 0) {
-            return roadSet;
-        }
-        if (unexpanded.size() == 2) {
-            // Handle branching
-            int length = 0;
-            Set<Edge> longestSegment = new LinkedHashSet<>(roadSet);
-            for (Building settlement : unexpanded) {
-                ArrayList<Building> toExpand = new ArrayList<>();
-                toExpand.add(settlement);
-                Set<Edge> roadSetCopy = new LinkedHashSet<>(roadSet);
-                roadSetCopy = expandRoad(roadSetCopy, toExpand, expanded);
-                if (roadSetCopy.size() >= length) {
-                    length = roadSetCopy.size();
-                    longestSegment = roadSetCopy;
-                }
-            }
-            roadSet.addAll(longestSegment);
-            return roadSet;
-        } else {
-            // case of expanding a single settlement
-            Building settlement = unexpanded.remove(0);
-            expanded.add(settlement);
-
-            for (Map.Entry<Edge, BoardNodeWithEdges> e : settlement.getNeighbourEdgeMapping().entrySet()) {
-                if (e.getKey().getOwnerId() == getCurrentPlayer()) {
-                    if (expanded.contains((Building)e.getValue())) {
-                        // The road used to get here
-                        roadSet.add(e.getKey());
-                    } else {
-                        // if settlement belongs to somebody else it's a deadend
-                        if (e.getValue().getOwnerId() == -1 || e.getValue().getOwnerId() == getCurrentPlayer()) {
-                            unexpanded.add((Building) e.getValue());
-                        }
-                    }
-                }
-            }
-        }
-
-        // only gets here when explored a single road
-        return expandRoad(roadSet, unexpanded, expanded);
-    }
-
     // The number of resource cards in a player's hand
     public int getNResourcesInHand(int player) {
         int deckSize = 0;
@@ -410,7 +345,7 @@ public class CatanGameState extends AbstractGameState {
         copy.playerResults = playerResults.clone();
         copy.scores = scores.clone();
         copy.knights = knights.clone();
-        copy.roadLengths = roadLengths.clone();
+        copy.longestRoad = longestRoad.copy();
 
         copy.tradeOffer = tradeOffer != null? tradeOffer.copy() : null;
         copy.negotiationStepsCount = negotiationStepsCount;
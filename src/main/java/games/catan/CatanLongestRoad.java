@@ -0,0 +1,214 @@
+package games.catan;
+
+import core.components.BoardNodeWithEdges;
+import core.components.Edge;
+import core.components.GraphBoardWithEdges;
+
+import java.util.*;
+
+/**
+ * Keeps the length of each player's longest road: the longest trail along their roads that uses no road twice, and
+ * does not go through a settlement or city of another player.
+ * <p>
+ * The roads and buildings of each player are kept as bitsets over the roads and vertices of the Catan graph, whose
+ * layout (which roads meet at which vertices) does not change during a game, and is shared by all copies. Placing a
+ * road can only make trails through it longer, so only the network it is part of is searched again. A building
+ * can only break the roads of the other players that pass through its vertex, so only those players' lengths are
+ * found again.
+ */
+public class CatanLongestRoad {
+
+    // The layout of the graph, shared by all copies: vertex and road indices, and the roads at each vertex
+    private static final class Layout {
+        final Map<Integer, Integer> vertexIndex = new HashMap<>();
+        final Map<Integer, Integer> roadIndex = new HashMap<>();
+        final int[] roadEnds;  // vertices at either end of road i are roadEnds[2i] and roadEnds[2i + 1]
+        final int[][] vertexRoads;
+        final int roadWords, vertexWords;
+
+        Layout(GraphBoardWithEdges graph) {
+            List<BoardNodeWithEdges> vertices = new ArrayList<>(graph.getBoardNodes());
+            vertices.sort(Comparator.comparingInt(BoardNodeWithEdges::getComponentID));
+            for (BoardNodeWithEdges v : vertices)
+                vertexIndex.put(v.getComponentID(), vertexIndex.size());
+            List<Integer> ends = new ArrayList<>();
+            List<List<Integer>> roadsAt = new ArrayList<>();
+            for (int i = 0; i < vertices.size(); i++)
+                roadsAt.add(new ArrayList<>());
+            for (BoardNodeWithEdges v : vertices) {
+                List<Edge> edges = new ArrayList<>(v.getEdges());
+                edges.sort(Comparator.comparingInt(Edge::getComponentID));
+                for (Edge e : edges) {
+                    if (roadIndex.containsKey(e.getComponentID())) continue;
+                    int road = roadIndex.size();
+                    roadIndex.put(e.getComponentID(), road);
+                    int from = vertexIndex.get(v.getComponentID());
+                    int to = vertexIndex.get(v.getNeighbour(e).getComponentID());
+                    ends.add(from);
+                    ends.add(to);
+                    roadsAt.get(from).add(road);
+                    roadsAt.get(to).add(road);
+                }
+            }
+            roadEnds = ends.stream().mapToInt(Integer::intValue).toArray();
+            vertexRoads = new int[vertices.size()][];
+            for (int i = 0; i < vertices.size(); i++)
+                vertexRoads[i] = roadsAt.get(i).stream().mapToInt(Integer::intValue).toArray();
+            roadWords = (roadIndex.size() + 63) / 64;
+            vertexWords = (vertices.size() + 63) / 64;
+        }
+
+        int otherEnd(int road, int vertex) {
+            return roadEnds[2 * road] == vertex ? roadEnds[2 * road + 1] : roadEnds[2 * road];
+        }
+    }
+
+    private final Layout layout;
+    private final long[][] roads;      // roads[player] has bit i set if the player owns road i
+    private final long[][] buildings;  // buildings[player] has bit v set if the player has a building on vertex v
+    private final int[] lengths;
+
+    public CatanLongestRoad(GraphBoardWithEdges graph, int nPlayers) {
+        layout = new Layout(graph);
+        roads = new long[nPlayers][layout.roadWords];
+        buildings = new long[nPlayers][layout.vertexWords];
+        lengths = new int[nPlayers];
+    }
+
+    private CatanLongestRoad(CatanLongestRoad other) {
+        layout = other.layout;
+        roads = new long[other.roads.length][];
+        buildings = new long[other.buildings.length][];
+        for (int p = 0; p < roads.length; p++) {
+            roads[p] = other.roads[p].clone();
+            buildings[p] = other.buildings[p].clone();
+        }
+        lengths = other.lengths.clone();
+    }
+
+    public CatanLongestRoad copy() {
+        return new CatanLongestRoad(this);
+    }
+
+    /**
+     * Records a road built by a player.
+     *
+     * @param edgeID - component ID of the road's Edge
+     * @return the new length of the player's longest road
+     */
+    public int addRoad(int player, int edgeID) {
+        int road = layout.roadIndex.get(edgeID);
+        set(roads[player], road);
+        // any longer trail must use the new road, so is in the network it joins
+        long[] network = new long[layout.roadWords];
+        Deque<Integer> toVisit = new ArrayDeque<>();
+        set(network, road);
+        toVisit.add(road);
+        while (!toVisit.isEmpty()) {
+            int r = toVisit.poll();
+            for (int end = 0; end < 2; end++) {
+                for (int next : layout.vertexRoads[layout.roadEnds[2 * r + end]]) {
+                    if (isSet(roads[player], next) && !isSet(network, next)) {
+                        set(network, next);
+                        toVisit.add(next);
+                    }
+                }
+            }
+        }
+        lengths[player] = Math.max(lengths[player], longestTrail(player, network));
+        return lengths[player];
+    }
+
+    /**
+     * Records a settlement built by a player, which breaks the roads of other players through the same vertex.
+     *
+     * @param nodeID - component ID of the settlement's Building
+     */
+    public void addBuilding(int player, int nodeID) {
+        int vertex = layout.vertexIndex.get(nodeID);
+        set(buildings[player], vertex);
+        for (int other = 0; other < roads.length; other++) {
+            if (other == player) continue;
+            int roadsHere = 0;
+            for (int road : layout.vertexRoads[vertex])
+                if (isSet(roads[other], road)) roadsHere++;
+            // a trail only goes through the vertex if it uses two of the player's roads there
+            if (roadsHere >= 2)
+                lengths[other] = longestTrail(other, roads[other]);
+        }
+    }
+
+    public int getLength(int player) {
+        return lengths[player];
+    }
+
+    /**
+     * @return the length of each player's longest road (this array is kept up to date, and must not be changed)
+     */
+    public int[] getLengths() {
+        return lengths;
+    }
+
+    /**
+     * @return the length of the longest trail along the player's roads, found by searching all of them
+     */
+    int longestTrail(int player) {
+        return longestTrail(player, roads[player]);
+    }
+
+    // the longest trail using only the roads in the given set (all of which are the player's)
+    private int longestTrail(int player, long[] roadSet) {
+        long[] used = new long[layout.roadWords];
+        int best = 0;
+        for (int road = 0; road < layout.roadIndex.size(); road++) {
+            if (!isSet(roadSet, road)) continue;
+            for (int end = 0; end < 2; end++)
+                best = Math.max(best, extend(player, roadSet, layout.roadEnds[2 * road + end], used, 0));
+        }
+        return best;
+    }
+
+    private int extend(int player, long[] roadSet, int vertex, long[] used, int length) {
+        // another player's building ends the trail (though it may start there)
+        if (length > 0 && isBlocked(player, vertex))
+            return length;
+        int best = length;
+        for (int road : layout.vertexRoads[vertex]) {
+            if (!isSet(roadSet, road) || isSet(used, road)) continue;
+            set(used, road);
+            best = Math.max(best, extend(player, roadSet, layout.otherEnd(road, vertex), used, length + 1));
+            used[road >>> 6] &= ~(1L << road);
+        }
+        return best;
+    }
+
+    private boolean isBlocked(int player, int vertex) {
+        for (int p = 0; p < buildings.length; p++)
+            if (p != player && isSet(buildings[p], vertex))
+                return true;
+        return false;
+    }
+
+    private static boolean isSet(long[] bits, int i) {
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    private static void set(long[] bits, int i) {
+        bits[i >>> 6] |= 1L << i;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CatanLongestRoad that)) return false;
+        return Arrays.deepEquals(roads, that.roads) && Arrays.deepEquals(buildings, that.buildings) && Arrays.equals(lengths, that.lengths);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.deepHashCode(roads);
+        result = 31 * result + Arrays.deepHashCode(buildings);
+        result = 31 * result + Arrays.hashCode(lengths);
+        return result;
+    }
+}
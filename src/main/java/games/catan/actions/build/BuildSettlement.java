@@ -50,6 +50,7 @@ public class BuildSettlement extends AbstractAction {
             settleTokens.increment();
 
             settlement.setOwnerId(playerID);
+            cgs.getLongestRoad().addBuilding(playerID, settlement.getComponentID());
             if(settlement.getHarbour() != null){
                 gs.logEvent(PortSettle, String.valueOf(playerID));
 
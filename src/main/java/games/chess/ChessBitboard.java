@@ -0,0 +1,518 @@
+package games.chess;
+
+import core.actions.AbstractAction;
+import games.chess.actions.Castle;
+import games.chess.actions.EnPassant;
+import games.chess.actions.MovePiece;
+import games.chess.actions.Promotion;
+import games.chess.components.ChessPiece;
+
+import java.util.Arrays;
+
+/**
+ * A chess position held as bitboards, for generating legal moves without copying the game state for each candidate
+ * move, and for searching with makeMove() / unmakeMove().
+ * <p>
+ * Square (x, y) is bit (y * 8 + x). Pieces are indexed by (owner * 6 + ChessPieceType ordinal), with a bitboard for
+ * each, one for each player and one for all pieces, and the piece on each square.
+ * Knight, king and pawn attacks come from tables, and sliding attacks from a table of rays in each direction, cut
+ * off at the first piece in the way.
+ * <p>
+ * The rules are those of ChessForwardModel and the chess actions: a pawn may move two squares while it is NOT_MOVED
+ * (and can then be taken en passant until its owner's next turn), it promotes to any type but a king, and castling
+ * needs an unmoved king and an unmoved piece of the player in the corner.
+ * generateMoves(from, ...) gives the legal moves of a piece in the same order as
+ * ChessForwardModel.computeAvailableActionsPiece, so the forward model can use it without changing its actions.
+ * <p>
+ * A move is an int: from | to << 6 | kind << 12 | promotion type << 15.
+ */
+public class ChessBitboard {
+
+    public static final int MAX_MOVES = 512;
+
+    // move kinds
+    public static final int NORMAL = 0;
+    public static final int DOUBLE_PUSH = 1;
+    public static final int EN_PASSANT = 2;
+    public static final int CASTLE_KING_SIDE = 3;
+    public static final int CASTLE_QUEEN_SIDE = 4;
+    public static final int PROMOTION = 5;
+
+    // piece types, as the ChessPieceType ordinals
+    static final int KING = 0, QUEEN = 1, ROOK = 2, BISHOP = 3, KNIGHT = 4, PAWN = 5;
+    private static final ChessPiece.ChessPieceType[] TYPES = ChessPiece.ChessPieceType.values();
+
+    // rook directions, then bishop directions, each in the order that ChessForwardModel tries them
+    private static final int[] DX = {1, -1, 0, 0, 1, -1, 1, -1};
+    private static final int[] DY = {0, 0, 1, -1, 1, 1, -1, -1};
+    private static final int[] OPPOSITE = {1, 0, 3, 2, 7, 6, 5, 4};
+    // whether the squares along the direction have increasing indices
+    private static final boolean[] POSITIVE = {true, false, true, false, true, true, false, false};
+
+    static final long[][] RAYS = new long[8][64];
+    static final long[] KNIGHT_ATTACKS = new long[64];
+    static final long[] KING_ATTACKS = new long[64];
+    // PAWN_ATTACKS[player][square] are the squares attacked by a pawn of the player on the square
+    static final long[][] PAWN_ATTACKS = new long[2][64];
+    // the squares strictly between two squares on a line, and the whole line through them (or 0 if not on a line)
+    static final long[][] BETWEEN = new long[64][64];
+    static final long[][] LINE = new long[64][64];
+    // the target squares in the order that ChessForwardModel tries them
+    private static final int[][] KNIGHT_TARGETS = new int[64][];
+    private static final int[][] KING_TARGETS = new int[64][];
+
+    static {
+        int[][] knightSteps = {{2, 1}, {2, -1}, {-2, 1}, {-2, -1}, {1, 2}, {1, -2}, {-1, 2}, {-1, -2}};
+        for (int sq = 0; sq < 64; sq++) {
+            int x = sq & 7, y = sq >>> 3;
+            for (int d = 0; d < 8; d++) {
+                for (int i = 1; isWithinBounds(x + i * DX[d], y + i * DY[d]); i++)
+                    RAYS[d][sq] |= 1L << square(x + i * DX[d], y + i * DY[d]);
+            }
+            int[] targets = new int[8];
+            int n = 0;
+            for (int[] step : knightSteps) {
+                if (isWithinBounds(x + step[0], y + step[1])) {
+                    targets[n] = square(x + step[0], y + step[1]);
+                    KNIGHT_ATTACKS[sq] |= 1L << targets[n++];
+                }
+            }
+            KNIGHT_TARGETS[sq] = Arrays.copyOf(targets, n);
+            n = 0;
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    if ((dx != 0 || dy != 0) && isWithinBounds(x + dx, y + dy)) {
+                        targets[n] = square(x + dx, y + dy);
+                        KING_ATTACKS[sq] |= 1L << targets[n++];
+                    }
+                }
+            }
+            KING_TARGETS[sq] = Arrays.copyOf(targets, n);
+            for (int player = 0; player < 2; player++) {
+                int ny = y + (player == 0 ? 1 : -1);
+                for (int nx = x - 1; nx <= x + 1; nx += 2)
+                    if (isWithinBounds(nx, ny))
+                        PAWN_ATTACKS[player][sq] |= 1L << square(nx, ny);
+            }
+        }
+        for (int a = 0; a < 64; a++) {
+            for (int d = 0; d < 8; d++) {
+                long ray = RAYS[d][a];
+                while (ray != 0) {
+                    int b = Long.numberOfTrailingZeros(ray);
+                    ray &= ray - 1;
+                    BETWEEN[a][b] = RAYS[d][a] & RAYS[OPPOSITE[d]][b];
+                    LINE[a][b] = RAYS[d][a] | RAYS[OPPOSITE[d]][a] | 1L << a;
+                }
+            }
+        }
+    }
+
+    final long[] pieces = new long[12];
+    final long[] playerPieces = new long[2];
+    long occupied;
+    // the piece index on each square, or -1
+    final int[] board = new int[64];
+    // pieces that are NOT_MOVED
+    long unmoved;
+    // pawns that can be taken en passant
+    long enPassant;
+    int sideToMove;
+
+    // what is needed to undo each move made
+    private int ply;
+    private int[] moveStack = new int[16];
+    private int[] capturedStack = new int[16];
+    private long[] unmovedStack = new long[16];
+    private long[] enPassantStack = new long[16];
+
+    // the king of the side to move, the pieces giving check and the pieces pinned to the king; computed when needed
+    private boolean checkInfoValid;
+    private int kingSquare;
+    private long checkers;
+    private long pinned;
+
+    public ChessBitboard(ChessGameState state) {
+        Arrays.fill(board, -1);
+        ChessPiece[][] cells = state.getBoard().getBoard();
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 8; y++) {
+                ChessPiece piece = cells[x][y];
+                if (piece == null) continue;
+                int sq = square(x, y);
+                put(piece.getOwnerId() * 6 + piece.getChessPieceType().ordinal(), sq);
+                if (piece.getMoved() == ChessPiece.MovedState.NOT_MOVED)
+                    unmoved |= 1L << sq;
+                if (piece.getEnPassant())
+                    enPassant |= 1L << sq;
+            }
+        }
+        sideToMove = state.getCurrentPlayer();
+    }
+
+    public static int square(int x, int y) {
+        return y * 8 + x;
+    }
+
+    static boolean isWithinBounds(int x, int y) {
+        return x >= 0 && x < 8 && y >= 0 && y < 8;
+    }
+
+    public static int move(int from, int to, int kind) {
+        return from | to << 6 | kind << 12;
+    }
+
+    public static int promotion(int from, int to, ChessPiece.ChessPieceType type) {
+        return move(from, to, PROMOTION) | type.ordinal() << 15;
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    public static int kind(int move) {
+        return (move >>> 12) & 7;
+    }
+
+    public static ChessPiece.ChessPieceType promotionType(int move) {
+        return TYPES[move >>> 15];
+    }
+
+    /**
+     * @return The chess action that makes the move
+     */
+    public static AbstractAction toAction(int move) {
+        int from = from(move), to = to(move);
+        return switch (kind(move)) {
+            case EN_PASSANT -> new EnPassant(from & 7, from >>> 3, to & 7);
+            case CASTLE_KING_SIDE -> new Castle(Castle.CastleType.KING_SIDE);
+            case CASTLE_QUEEN_SIDE -> new Castle(Castle.CastleType.QUEEN_SIDE);
+            case PROMOTION -> new Promotion(from & 7, from >>> 3, to & 7, to >>> 3, promotionType(move));
+            default -> new MovePiece(from & 7, from >>> 3, to & 7, to >>> 3);
+        };
+    }
+
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    private void put(int piece, int sq) {
+        long bit = 1L << sq;
+        pieces[piece] |= bit;
+        playerPieces[piece / 6] |= bit;
+        occupied |= bit;
+        board[sq] = piece;
+    }
+
+    private void remove(int sq) {
+        int piece = board[sq];
+        long mask = ~(1L << sq);
+        pieces[piece] &= mask;
+        playerPieces[piece / 6] &= mask;
+        occupied &= mask;
+        board[sq] = -1;
+    }
+
+    private static long rayAttacks(int direction, int sq, long occupied) {
+        long attacks = RAYS[direction][sq];
+        long blockers = attacks & occupied;
+        if (blockers != 0) {
+            int blocker = POSITIVE[direction] ? Long.numberOfTrailingZeros(blockers) : 63 - Long.numberOfLeadingZeros(blockers);
+            attacks ^= RAYS[direction][blocker];
+        }
+        return attacks;
+    }
+
+    static long rookAttacks(int sq, long occupied) {
+        return rayAttacks(0, sq, occupied) | rayAttacks(1, sq, occupied) | rayAttacks(2, sq, occupied) | rayAttacks(3, sq, occupied);
+    }
+
+    static long bishopAttacks(int sq, long occupied) {
+        return rayAttacks(4, sq, occupied) | rayAttacks(5, sq, occupied) | rayAttacks(6, sq, occupied) | rayAttacks(7, sq, occupied);
+    }
+
+    /**
+     * @return The pieces of the player that attack the square
+     */
+    public long attackers(int sq, int player) {
+        int p = player * 6;
+        return (PAWN_ATTACKS[1 - player][sq] & pieces[p + PAWN])
+                | (KNIGHT_ATTACKS[sq] & pieces[p + KNIGHT])
+                | (KING_ATTACKS[sq] & pieces[p + KING])
+                | (rookAttacks(sq, occupied) & (pieces[p + ROOK] | pieces[p + QUEEN]))
+                | (bishopAttacks(sq, occupied) & (pieces[p + BISHOP] | pieces[p + QUEEN]));
+    }
+
+    public boolean isAttacked(int sq, int player) {
+        return attackers(sq, player) != 0;
+    }
+
+    public boolean isInCheck(int player) {
+        long king = pieces[player * 6 + KING];
+        return king != 0 && isAttacked(Long.numberOfTrailingZeros(king), 1 - player);
+    }
+
+    private void updateCheckInfo() {
+        if (checkInfoValid) return;
+        int us = sideToMove, them = 1 - us;
+        long king = pieces[us * 6 + KING];
+        checkers = 0;
+        pinned = 0;
+        kingSquare = king == 0 ? -1 : Long.numberOfTrailingZeros(king);
+        if (kingSquare >= 0) {
+            checkers = attackers(kingSquare, them);
+            // sliders that would attack the king on an empty board pin the piece in between, if there is only one
+            int p = them * 6;
+            long snipers = (rookAttacks(kingSquare, 0) & (pieces[p + ROOK] | pieces[p + QUEEN]))
+                    | (bishopAttacks(kingSquare, 0) & (pieces[p + BISHOP] | pieces[p + QUEEN]));
+            while (snipers != 0) {
+                int sniper = Long.numberOfTrailingZeros(snipers);
+                snipers &= snipers - 1;
+                long between = BETWEEN[kingSquare][sniper] & occupied;
+                if (Long.bitCount(between) == 1 && (between & playerPieces[us]) != 0)
+                    pinned |= between;
+            }
+        }
+        checkInfoValid = true;
+    }
+
+    /**
+     * A move that is not by the king, not en passant and not out of check is legal unless it takes a pinned piece off
+     * the line of its pin. Anything else is made, to see whether the king is then attacked.
+     */
+    private boolean isLegal(int move) {
+        if (kingSquare < 0) return true;
+        int from = from(move);
+        if (checkers == 0 && from != kingSquare && kind(move) != EN_PASSANT)
+            return (pinned & 1L << from) == 0 || (LINE[kingSquare][from] & 1L << to(move)) != 0;
+        int us = sideToMove;
+        makeMove(move);
+        boolean legal = !isInCheck(us);
+        unmakeMove();
+        // making and unmaking the move does not change the check information
+        checkInfoValid = true;
+        return legal;
+    }
+
+    /**
+     * Adds the legal moves of all the pieces of the side to move (in order of their squares).
+     *
+     * @return the number of moves
+     */
+    public int generateMoves(int[] moves) {
+        int n = 0;
+        long own = playerPieces[sideToMove];
+        while (own != 0) {
+            int sq = Long.numberOfTrailingZeros(own);
+            own &= own - 1;
+            n = generateMoves(sq, moves, n);
+        }
+        return n;
+    }
+
+    /**
+     * Adds the legal moves of the piece on the square (if it belongs to the side to move) to moves, from index n.
+     *
+     * @return the number of moves in the array after adding them
+     */
+    public int generateMoves(int from, int[] moves, int n) {
+        int piece = board[from];
+        if (piece < 0 || piece / 6 != sideToMove) return n;
+        updateCheckInfo();
+        return switch (piece % 6) {
+            case KING -> addCastles(from, moves, addTargets(from, KING_TARGETS[from], moves, n));
+            case QUEEN -> addSliding(from, 0, 8, moves, n);
+            case ROOK -> addSliding(from, 0, 4, moves, n);
+            case BISHOP -> addSliding(from, 4, 8, moves, n);
+            case KNIGHT -> addTargets(from, KNIGHT_TARGETS[from], moves, n);
+            default -> addPawnMoves(from, moves, n);
+        };
+    }
+
+    private int addTargets(int from, int[] targets, int[] moves, int n) {
+        long own = playerPieces[sideToMove];
+        for (int to : targets) {
+            int move = move(from, to, NORMAL);
+            if ((own & 1L << to) == 0 && isLegal(move))
+                moves[n++] = move;
+        }
+        return n;
+    }
+
+    private int addSliding(int from, int firstDirection, int lastDirection, int[] moves, int n) {
+        long own = playerPieces[sideToMove];
+        for (int d = firstDirection; d < lastDirection; d++) {
+            long targets = rayAttacks(d, from, occupied) & ~own;
+            // outwards from the piece
+            while (targets != 0) {
+                int to = POSITIVE[d] ? Long.numberOfTrailingZeros(targets) : 63 - Long.numberOfLeadingZeros(targets);
+                targets ^= 1L << to;
+                int move = move(from, to, NORMAL);
+                if (isLegal(move))
+                    moves[n++] = move;
+            }
+        }
+        return n;
+    }
+
+    private int addCastles(int from, int[] moves, int n) {
+        int us = sideToMove, them = 1 - us;
+        int x = from & 7, row = from & ~7;
+        long ownUnmoved = unmoved & playerPieces[us];
+        if ((ownUnmoved & 1L << from) == 0 || checkers != 0) return n;
+        if (x >= 2 && (ownUnmoved & 1L << row) != 0 && (occupied & 7L << (row + 1)) == 0
+                && !isAttacked(from - 2, them) && !isAttacked(from - 1, them))
+            moves[n++] = move(from, from - 2, CASTLE_QUEEN_SIDE);
+        if (x <= 5 && (ownUnmoved & 1L << (row + 7)) != 0 && (occupied & 3L << (row + 5)) == 0
+                && !isAttacked(from + 2, them) && !isAttacked(from + 1, them))
+            moves[n++] = move(from, from + 2, CASTLE_KING_SIDE);
+        return n;
+    }
+
+    private int addPawnMoves(int from, int[] moves, int n) {
+        int us = sideToMove, them = 1 - us;
+        int x = from & 7, y = from >>> 3;
+        int direction = us == 0 ? 1 : -1;
+        int ny = y + direction;
+        if (ny < 0 || ny > 7) return n;
+        boolean lastRow = ny == 0 || ny == 7;
+        int push = square(x, ny);
+        if ((occupied & 1L << push) == 0)
+            n = addPawnMove(from, push, lastRow, moves, n);
+        if ((unmoved & 1L << from) != 0 && isWithinBounds(x, ny + direction)) {
+            int doublePush = square(x, ny + direction);
+            int move = move(from, doublePush, DOUBLE_PUSH);
+            if ((occupied & (1L << push | 1L << doublePush)) == 0 && isLegal(move))
+                moves[n++] = move;
+        }
+        // captures and en passant to the left, then to the right
+        for (int nx = x - 1; nx <= x + 1; nx += 2) {
+            if (nx < 0 || nx > 7) continue;
+            int to = square(nx, ny);
+            if ((playerPieces[them] & 1L << to) != 0)
+                n = addPawnMove(from, to, lastRow, moves, n);
+            int move = move(from, to, EN_PASSANT);
+            if ((enPassant & pieces[them * 6 + PAWN] & 1L << square(nx, y)) != 0 && isLegal(move))
+                moves[n++] = move;
+        }
+        return n;
+    }
+
+    private int addPawnMove(int from, int to, boolean lastRow, int[] moves, int n) {
+        int move = move(from, to, NORMAL);
+        if (!isLegal(move)) return n;
+        if (!lastRow) {
+            moves[n++] = move;
+        } else {
+            for (ChessPiece.ChessPieceType type : TYPES)
+                if (type != ChessPiece.ChessPieceType.KING)
+                    moves[n++] = promotion(from, to, type);
+        }
+        return n;
+    }
+
+    /**
+     * Makes the move, as the corresponding action and the end of the turn in ChessForwardModel would.
+     * This does not check that the move is legal.
+     */
+    public void makeMove(int move) {
+        if (ply == moveStack.length) {
+            moveStack = Arrays.copyOf(moveStack, ply * 2);
+            capturedStack = Arrays.copyOf(capturedStack, ply * 2);
+            unmovedStack = Arrays.copyOf(unmovedStack, ply * 2);
+            enPassantStack = Arrays.copyOf(enPassantStack, ply * 2);
+        }
+        int from = from(move), to = to(move), kind = kind(move);
+        int us = sideToMove, them = 1 - us;
+        int capturedSquare = kind == EN_PASSANT ? (from & ~7) | (to & 7) : to;
+        int captured = board[capturedSquare];
+        moveStack[ply] = move;
+        capturedStack[ply] = captured;
+        unmovedStack[ply] = unmoved;
+        enPassantStack[ply] = enPassant;
+        ply++;
+
+        long fromBit = 1L << from, toBit = 1L << to, capturedBit = 1L << capturedSquare;
+        int piece = board[from];
+        if (captured >= 0)
+            remove(capturedSquare);
+        remove(from);
+        put(kind == PROMOTION ? us * 6 + (move >>> 15) : piece, to);
+
+        if (kind == EN_PASSANT) {
+            // EnPassant does not change the moved state of the pawn
+            boolean wasUnmoved = (unmoved & fromBit) != 0;
+            unmoved &= ~(fromBit | capturedBit);
+            if (wasUnmoved) unmoved |= toBit;
+        } else {
+            unmoved &= ~(fromBit | toBit);
+        }
+        if (kind == CASTLE_KING_SIDE || kind == CASTLE_QUEEN_SIDE) {
+            int row = from & ~7;
+            int rookFrom = kind == CASTLE_KING_SIDE ? row + 7 : row;
+            int rook = board[rookFrom];
+            remove(rookFrom);
+            put(rook, kind == CASTLE_KING_SIDE ? to - 1 : to + 1);
+            unmoved &= ~(1L << rookFrom);
+        }
+
+        boolean flagged = (enPassant & fromBit) != 0;
+        enPassant &= ~(fromBit | capturedBit);
+        if (flagged || kind == DOUBLE_PUSH)
+            enPassant |= toBit;
+        // the pawns of the next player can no longer be taken en passant
+        enPassant &= ~playerPieces[them];
+
+        sideToMove = them;
+        checkInfoValid = false;
+    }
+
+    /**
+     * Undoes the last move made with makeMove().
+     */
+    public void unmakeMove() {
+        ply--;
+        int move = moveStack[ply];
+        int from = from(move), to = to(move), kind = kind(move);
+        int us = 1 - sideToMove;
+        if (kind == CASTLE_KING_SIDE || kind == CASTLE_QUEEN_SIDE) {
+            int row = from & ~7;
+            int rookTo = kind == CASTLE_KING_SIDE ? to - 1 : to + 1;
+            int rook = board[rookTo];
+            remove(rookTo);
+            put(rook, kind == CASTLE_KING_SIDE ? row + 7 : row);
+        }
+        int piece = kind == PROMOTION ? us * 6 + PAWN : board[to];
+        remove(to);
+        put(piece, from);
+        int captured = capturedStack[ply];
+        if (captured >= 0)
+            put(captured, kind == EN_PASSANT ? (from & ~7) | (to & 7) : to);
+        unmoved = unmovedStack[ply];
+        enPassant = enPassantStack[ply];
+        sideToMove = us;
+        checkInfoValid = false;
+    }
+
+    /**
+     * @return The number of sequences of depth legal moves from this position (ignoring the end of the game by
+     * repetition, the 50-move rule or the number of rounds)
+     */
+    public long perft(int depth) {
+        if (depth == 0) return 1;
+        int[] moves = new int[MAX_MOVES];
+        int n = generateMoves(moves);
+        if (depth == 1) return n;
+        long nodes = 0;
+        for (int i = 0; i < n; i++) {
+            makeMove(moves[i]);
+            nodes += perft(depth - 1);
+            unmakeMove();
+        }
+        return nodes;
+    }
+}
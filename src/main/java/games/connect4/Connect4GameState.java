@@ -2,37 +2,113 @@ package games.connect4;
 
 import core.AbstractGameState;
 import core.AbstractParameters;
+import core.Zobrist;
 import core.components.BoardNode;
 import core.components.Component;
 import core.components.GridBoard;
-import core.components.Token;
 import core.interfaces.IGridGameState;
 import core.interfaces.IPrintable;
 import games.GameType;
 import utilities.Pair;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
 
+/**
+ * The board is held as a bitboard for each player, with the number of tokens in each column, so that copying a state
+ * copies a few longs and ints rather than a grid of components.
+ * Cell (x, row) is bit (x * height + row), where row 0 is the bottom of the column; this is one long per player for
+ * boards of up to 64 cells (the default 8x8 included), and a few more for larger ones.
+ * <p>
+ * getGridBoard() provides the board as a GridBoard (with y = 0 at the top) for the GUI and other code that expects one.
+ */
 public class Connect4GameState extends AbstractGameState implements IPrintable, IGridGameState {
 
-    GridBoard gridBoard;
+    int width, height;
+    int nWords;
+    // the bits of player p are boards[p * nWords ... (p + 1) * nWords - 1]
+    long[] boards;
+    int[] columnHeights;
+    int tokens;
+    long boardHash;
     LinkedList<Pair<Integer, Integer>> winnerCells;
+    // built on demand from the bitboards, and discarded when a token is added
+    private GridBoard gridView;
 
     public Connect4GameState(AbstractParameters gameParameters, int nPlayers) {
         super(gameParameters, nPlayers);
         winnerCells = new LinkedList<>();
-        gridBoard = null;
+    }
+
+    void setupBoard(int width, int height) {
+        this.width = width;
+        this.height = height;
+        nWords = (width * height + 63) / 64;
+        boards = new long[getNPlayers() * nWords];
+        columnHeights = new int[width];
+        tokens = 0;
+        boardHash = 0;
+        winnerCells = new LinkedList<>();
+        gridView = null;
+    }
+
+    /**
+     * Adds a token of the player to the lowest empty cell in the column
+     *
+     * @return the row of the token (where 0 is the bottom)
+     */
+    public int dropToken(int column, int player) {
+        int row = columnHeights[column];
+        if (row >= height)
+            throw new IllegalArgumentException("Column " + column + " is full");
+        int cell = column * height + row;
+        boards[player * nWords + (cell >>> 6)] |= 1L << cell;
+        boardHash ^= Zobrist.key(player, cell);
+        columnHeights[column]++;
+        tokens++;
+        gridView = null;
+        return row;
     }
 
     /**
-     * This returns the player id of the token at the given position. Or -1 if this is empty.
+     * @return true if the player has a token at (x, row), where row 0 is the bottom of the column
+     */
+    public boolean hasToken(int player, int x, int row) {
+        if (x < 0 || x >= width || row < 0 || row >= columnHeights[x])
+            return false;
+        int cell = x * height + row;
+        return (boards[player * nWords + (cell >>> 6)] & (1L << cell)) != 0;
+    }
+
+    public int getColumnHeight(int x) {
+        return columnHeights[x];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public boolean isFull() {
+        return tokens == width * height;
+    }
+
+    /**
+     * This returns the player id of the token at the given position (with y = 0 at the top, as in the GridBoard).
+     * Or -1 if this is empty.
      */
     public int getPlayerAt(int x, int y) {
-        BoardNode token = gridBoard.getElement(x, y);
-        return token == null ? -1 : token.getOwnerId();
+        int row = height - 1 - y;
+        for (int p = 0; p < getNPlayers(); p++)
+            if (hasToken(p, x, row))
+                return p;
+        return -1;
     }
 
     @Override
@@ -42,16 +118,19 @@ public class Connect4GameState extends AbstractGameState implements IPrintable,
 
     @Override
     protected List<Component> _getAllComponents() {
-        return new ArrayList<>() {{
-            add(gridBoard);
-            addAll(Connect4Constants.playerMapping);
-        }};
+        return new ArrayList<>(Connect4Constants.playerMapping);
     }
 
     @Override
     protected AbstractGameState _copy(int playerId) {
         Connect4GameState s = new Connect4GameState(gameParameters.copy(), getNPlayers());
-        s.gridBoard = gridBoard.copy();
+        s.width = width;
+        s.height = height;
+        s.nWords = nWords;
+        s.boards = boards.clone();
+        s.columnHeights = columnHeights.clone();
+        s.tokens = tokens;
+        s.boardHash = boardHash;
 
         s.winnerCells.clear();
         for (Pair<Integer, Integer> wC : this.winnerCells)
@@ -77,8 +156,7 @@ public class Connect4GameState extends AbstractGameState implements IPrintable,
     protected boolean _equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof Connect4GameState that)) return false;
-        if (!super.equals(o)) return false;
-        return Objects.equals(gridBoard, that.gridBoard);
+        return width == that.width && height == that.height && Arrays.equals(boards, that.boards);
     }
 
     @Override
@@ -86,13 +164,14 @@ public class Connect4GameState extends AbstractGameState implements IPrintable,
         StringBuilder sb = new StringBuilder();
         sb.append("{");
 
-        for (int y = 0; y < gridBoard.getHeight(); y++) {
-            for (int x = 0; x < gridBoard.getWidth(); x++) {
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
                 if (y != 0 || x != 0) {
                     sb.append(",");
                 }
-                BoardNode t = gridBoard.getElement(x, y);
-                sb.append("\"").append("Grid_").append(x).append('_').append(y).append("\":\"").append(t.getComponentName()).append("\"");
+                int player = getPlayerAt(x, y);
+                String name = player == -1 ? Connect4Constants.emptyCell : Connect4Constants.playerMapping.get(player).getComponentName();
+                sb.append("\"").append("Grid_").append(x).append('_').append(y).append("\":\"").append(name).append("\"");
             }
         }
 
@@ -102,17 +181,33 @@ public class Connect4GameState extends AbstractGameState implements IPrintable,
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), gridBoard);
+        return Objects.hash(super.hashCode(), width, height, Arrays.hashCode(boards));
     }
 
+    @Override
+    public long getZobristHash() {
+        return super.getZobristHash() ^ boardHash;
+    }
+
+    /**
+     * @return The board as a GridBoard of BoardNodes (the player tokens in Connect4Constants.playerMapping, or empty
+     * cells). This is a view built from the state, so changes to it do not change the state.
+     */
     @Override
     public GridBoard getGridBoard() {
-        return gridBoard;
+        if (gridView == null) {
+            GridBoard grid = new GridBoard(width, height, new BoardNode(Connect4Constants.emptyCell));
+            for (int x = 0; x < width; x++)
+                for (int row = 0; row < columnHeights[x]; row++)
+                    grid.setElement(x, height - 1 - row, Connect4Constants.playerMapping.get(getPlayerAt(x, height - 1 - row)));
+            gridView = grid;
+        }
+        return gridView;
     }
 
     @Override
     public void printToConsole() {
-        System.out.println(gridBoard.toString());
+        System.out.println(getGridBoard().toString());
     }
 
     void registerWinningCells(LinkedList<Pair<Integer, Integer>> winnerCells) {
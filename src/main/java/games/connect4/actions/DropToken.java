@@ -0,0 +1,69 @@
+package games.connect4.actions;
+
+import core.AbstractGameState;
+import core.actions.AbstractAction;
+import core.interfaces.IPrintable;
+import games.connect4.Connect4Constants;
+import games.connect4.Connect4GameState;
+
+import java.util.Objects;
+
+/**
+ * Drops a token of the player into a column, where it falls to the lowest empty cell.
+ */
+public class DropToken extends AbstractAction implements IPrintable {
+
+    private final int column;
+    private final int player;
+
+    public DropToken(int column, int player) {
+        this.column = column;
+        this.player = player;
+    }
+
+    @Override
+    public boolean execute(AbstractGameState gs) {
+        ((Connect4GameState) gs).dropToken(column, player);
+        return true;
+    }
+
+    @Override
+    public DropToken copy() {
+        return this;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public int getPlayer() {
+        return player;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DropToken that)) return false;
+        return column == that.column && player == that.player;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(column, player);
+    }
+
+    @Override
+    public String getString(AbstractGameState gameState) {
+        return toString();
+    }
+
+    @Override
+    public String toString() {
+        return "Play " + Connect4Constants.playerMapping.get(player).getComponentName() + " in column " + (column + 1);
+    }
+
+    @Override
+    public void printToConsole(AbstractGameState gameState) {
+        System.out.println(this);
+    }
+}
@@ -4,10 +4,10 @@ import core.AbstractPlayer;
 import core.CoreConstants;
 import core.Game;
 import core.actions.AbstractAction;
-import core.actions.SetGridValueAction;
 import core.components.Token;
 import games.connect4.Connect4Constants;
 import games.connect4.Connect4GameState;
+import games.connect4.actions.DropToken;
 import gui.AbstractGUIManager;
 import gui.GamePanel;
 import gui.IScreenHighlight;
@@ -68,12 +68,12 @@ public class Connect4GUIManager extends AbstractGUIManager {
             if (highlight.size() > 0) {
                 Rectangle r = highlight.get(0);
                 for (AbstractAction abstractAction : actions) {
-                    SetGridValueAction action = (SetGridValueAction) abstractAction;
-                    if (action.getX() == r.x/defaultItemSize) { // && action.getY() == r.y/defaultItemSize) {
+                    DropToken action = (DropToken) abstractAction;
+                    if (action.getColumn() == r.x/defaultItemSize) {
                         actionButtons[0].setVisible(true);
                         actionButtons[0].setButtonAction(action, "Play " +
                                 Connect4Constants.playerMapping.get(player.getPlayerID()).getComponentName()
-                          + " in column " + (action.getX() + 1));
+                          + " in column " + (action.getColumn() + 1));
                         break;
                     }
                 }
@@ -1263,6 +1263,7 @@ public class DescentForwardModel extends StandardForwardModel {
 
             // This is the final master board!
             dgs.masterBoard = new GridBoard(trimBoard);
+            dgs.lineOfSight = new DescentLineOfSight(dgs.masterBoard.getWidth(), dgs.masterBoard.getHeight());
             // Init each node (cell) properties - not occupied ("players" int property), and its position in the master grid
             for (int i = 0; i < height; i++) {
                 for (int j = 0; j < width; j++) {
@@ -35,6 +35,8 @@ public class DescentGameState extends AbstractGameState implements IPrintable {
 
     Deck<Card> searchCards;
     GridBoard masterBoard;
+    // Line of sight through the terrain of the master board, shared by all copies
+    DescentLineOfSight lineOfSight;
     DicePool attackDicePool;
     DicePool defenceDicePool;
     DicePool attributeDicePool;
@@ -127,6 +129,7 @@ public class DescentGameState extends AbstractGameState implements IPrintable {
             copy.tiles.put(e.getKey(), e.getValue().copy());
         }
         copy.masterBoard = masterBoard.copy();
+        copy.lineOfSight = lineOfSight;
         copy.attackDicePool = attackDicePool.copy();
         copy.defenceDicePool = defenceDicePool.copy();
         copy.attributeDicePool = attributeDicePool.copy();
@@ -304,6 +307,10 @@ public class DescentGameState extends AbstractGameState implements IPrintable {
         return masterBoard;
     }
 
+    public DescentLineOfSight getLineOfSight() {
+        return lineOfSight;
+    }
+
     public List<Hero> getHeroes() {
         return heroes;
     }
@@ -15,7 +15,6 @@ import games.descent2e.actions.items.RerollAttributeTest;
 import games.descent2e.actions.monsterfeats.MonsterAbilities;
 import games.descent2e.components.*;
 import games.descent2e.components.tokens.DToken;
-import utilities.LineOfSight;
 import utilities.Pair;
 import utilities.Vector2D;
 
@@ -189,56 +188,13 @@ public class DescentHelper {
         return newTiles;
     }
 
+    /**
+     * There is line of sight between two cells if every cell on the line between them (by Bresenham's algorithm) is
+     * on the board, connected to the one before it, and not occupied by a figure other than the two at either end.
+     * The terrain part of this is cached for each pair of cells in the game state's DescentLineOfSight.
+     */
     public static boolean hasLineOfSight(DescentGameState dgs, Vector2D startPoint, Vector2D endPoint){
-        int counter = 0;
-        boolean hasLineOfSight = true;
-
-        ArrayList<Vector2D> containedPoints = LineOfSight.bresenhamsLineAlgorithm(startPoint, endPoint);
-
-        BoardNode startTile = dgs.masterBoard.getElement(startPoint.getX(), startPoint.getY());
-        int start = ((PropertyInt) startTile.getProperty(playersHash)).value;
-
-        BoardNode targetTile = dgs.masterBoard.getElement(endPoint.getX(), endPoint.getY());
-        int target = ((PropertyInt) targetTile.getProperty(playersHash)).value;
-
-        // For each coordinate in the line, check:
-        // 1) Does the coordinate have its board node
-        // 2) Is the board node empty (no character on location)
-        // 3) Is the board node connected to previously checked board node
-        // If any of these are false, then there is no LOS
-        for (int i = 1; i < containedPoints.size(); i++){
-
-            Vector2D previousPoint = containedPoints.get(i - 1);
-            Vector2D point = containedPoints.get(i);
-
-            // Check 1) Does the board node exist at this coordinate
-            BoardNode currentTile = dgs.masterBoard.getElement(point.getX(), point.getY());
-            if (currentTile == null){
-                hasLineOfSight = false;
-                break;
-            }
-
-            // Check 2) Is the board node empty (or, if either figure is large, not occupied by itself or the target)
-            int owner = ((PropertyInt) currentTile.getProperty(playersHash)).value;
-            if (owner != -1 && i != containedPoints.size() - 1){
-                if (owner != target && owner != start){
-                    hasLineOfSight = false;
-                    break;
-                }
-            }
-
-            // Check 3) Is the board node connected to previous board node
-            BoardNode previousTile = dgs.masterBoard.getElement(previousPoint.getX(), previousPoint.getY());
-            if (!previousTile.getNeighbours().containsKey(currentTile)){
-                hasLineOfSight = false;
-                break;
-            }
-        }
-
-        if (hasLineOfSight)
-            counter++;
-
-        return (counter > 0);
+        return dgs.lineOfSight.hasLineOfSight(dgs.masterBoard, startPoint, endPoint);
     }
 
     public static List<AbstractAction> moveActions(DescentGameState dgs, Figure f) {
@@ -0,0 +1,98 @@
+package games.descent2e;
+
+import core.components.BoardNode;
+import core.components.GridBoard;
+import core.properties.PropertyInt;
+import utilities.LineOfSight;
+import utilities.Vector2D;
+
+import java.util.List;
+
+import static core.CoreConstants.playersHash;
+
+/**
+ * Line of sight between cells of the master board.
+ * <p>
+ * Whether the terrain lets a line through (every cell on it exists, and is connected to the one before) does not
+ * change during a quest. So this is found once for each pair of cells, the first time it is asked for, and the
+ * cells strictly between the two are kept. The DescentGameState copies share this, so after that a query only has
+ * to check the figures on those cells.
+ */
+public class DescentLineOfSight {
+
+    // the cells (y * width + x) strictly between two cells, or null cells if the terrain blocks the line
+    private static final class Line {
+        final int[] cells;
+
+        Line(int[] cells) {
+            this.cells = cells;
+        }
+    }
+
+    private static final Line BLOCKED = new Line(null);
+
+    private final int width;
+    private final int height;
+    // lines[from][to], filled in as they are needed (they are the same whichever copy of the board works them out)
+    private final Line[][] lines;
+
+    public DescentLineOfSight(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.lines = new Line[width * height][];
+    }
+
+    public boolean hasLineOfSight(GridBoard board, Vector2D startPoint, Vector2D endPoint) {
+        int x1 = startPoint.getX(), y1 = startPoint.getY();
+        int x2 = endPoint.getX(), y2 = endPoint.getY();
+        BoardNode startTile = board.getElement(x1, y1);
+        BoardNode targetTile = board.getElement(x2, y2);
+        if (startTile == null || targetTile == null) return false;
+
+        int from = y1 * width + x1;
+        Line[] row = lines[from];
+        if (row == null) {
+            row = new Line[width * height];
+            lines[from] = row;
+        }
+        Line line = row[y2 * width + x2];
+        if (line == null) {
+            line = terrainLine(board, startPoint, endPoint);
+            row[y2 * width + x2] = line;
+        }
+        if (line == BLOCKED) return false;
+
+        // Figures block the line, unless they are the figures at either end (which may be large, and so take up more
+        // than one cell)
+        int start = ((PropertyInt) startTile.getProperty(playersHash)).value;
+        int target = ((PropertyInt) targetTile.getProperty(playersHash)).value;
+        for (int cell : line.cells) {
+            int owner = ((PropertyInt) board.getElement(cell % width, cell / width).getProperty(playersHash)).value;
+            if (owner != -1 && owner != start && owner != target)
+                return false;
+        }
+        return true;
+    }
+
+    private Line terrainLine(GridBoard board, Vector2D startPoint, Vector2D endPoint) {
+        List<Vector2D> points = LineOfSight.bresenhamsLineAlgorithm(startPoint, endPoint);
+        for (int i = 1; i < points.size(); i++) {
+            BoardNode previousTile = board.getElement(points.get(i - 1).getX(), points.get(i - 1).getY());
+            BoardNode currentTile = board.getElement(points.get(i).getX(), points.get(i).getY());
+            if (currentTile == null || !previousTile.getNeighbours().containsKey(currentTile))
+                return BLOCKED;
+        }
+        int[] cells = new int[Math.max(0, points.size() - 2)];
+        for (int i = 1; i < points.size() - 1; i++)
+            cells[i - 1] = points.get(i).getY() * width + points.get(i).getX();
+        return new Line(cells);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
@@ -13,6 +13,7 @@ import games.GameType;
 import games.dominion.DominionConstants.DeckType;
 import games.dominion.actions.IDelayedAction;
 import games.dominion.cards.CardType;
+import games.dominion.cards.CardTypeDeck;
 import games.dominion.cards.DominionCard;
 
 import java.util.*;
@@ -29,10 +30,10 @@ public class DominionGameState extends AbstractGameState implements IPrintable {
     // Then Decks for each player - Hand, Discard and Draw
     PartialObservableDeck<DominionCard>[] playerHands;
     PartialObservableDeck<DominionCard>[] playerDrawPiles;
-    Deck<DominionCard>[] playerDiscards;
+    CardTypeDeck[] playerDiscards;  // the order of the discards and the trash does not matter
     Deck<DominionCard>[] playerTableaux;
     // Trash pile and other global decks
-    Deck<DominionCard> trashPile;
+    CardTypeDeck trashPile;
     boolean[] defenceStatus;
     int buysLeftForCurrentPlayer = 1;
     int actionsLeftForCurrentPlayer = 1;
@@ -212,20 +213,18 @@ public class DominionGameState extends AbstractGameState implements IPrintable {
         switch (deck) {
             case SUPPLY:
                 return cardsIncludedInGame.getOrDefault(type, 0);
+            case DISCARD:
+                return playerDiscards[playerId].count(type);
+            case TRASH:
+                return trashPile.count(type);
             case HAND:
             case TABLE:
             case DRAW:
-            case DISCARD:
-            case TRASH:
                 allCards = getDeck(deck, playerId);
                 break;
             case ALL:
-                allCards = new Deck<>("temp", VISIBLE_TO_ALL);
-                allCards.add(playerHands[playerId]);
-                allCards.add(playerDiscards[playerId]);
-                allCards.add(playerDrawPiles[playerId]);
-                allCards.add(playerTableaux[playerId]);
-                break;
+                return cardsOfType(type, playerId, DeckType.HAND) + cardsOfType(type, playerId, DeckType.DISCARD) +
+                        cardsOfType(type, playerId, DeckType.DRAW) + cardsOfType(type, playerId, DeckType.TABLE);
             default:
                 throw new IllegalStateException("Unexpected value: " + deck);
         }
@@ -273,8 +272,8 @@ public class DominionGameState extends AbstractGameState implements IPrintable {
         }
         for (int p = 0; p < nPlayers; p++) {
             if (playerId == -1) {
-                retValue.playerHands[p] = playerHands[p].copy();
-                retValue.playerDrawPiles[p] = playerDrawPiles[p].copy();
+                retValue.playerHands[p] = playerHands[p].copyOnWrite();
+                retValue.playerDrawPiles[p] = playerDrawPiles[p].copyOnWrite();
             } else if (playerId == p) {
                 // need to shuffle drawpile separately
                 retValue.playerHands[p] = playerHands[p].copy();
@@ -307,8 +306,9 @@ public class DominionGameState extends AbstractGameState implements IPrintable {
                     }
                 }
             }
+            // the tableaux are often not looked at again in a copy, so we only copy them if they are
             retValue.playerDiscards[p] = playerDiscards[p].copy();
-            retValue.playerTableaux[p] = playerTableaux[p].copy();
+            retValue.playerTableaux[p] = playerTableaux[p].copyOnWrite();
         }
         retValue.trashPile = trashPile.copy();
         retValue.buysLeftForCurrentPlayer = buysLeftForCurrentPlayer;
@@ -391,16 +391,16 @@ public class DominionGameState extends AbstractGameState implements IPrintable {
     protected void reset() {
         playerHands = new PartialObservableDeck[nPlayers];
         playerDrawPiles = new PartialObservableDeck[nPlayers];
-        playerDiscards = new Deck[nPlayers];
+        playerDiscards = new CardTypeDeck[nPlayers];
         playerTableaux = new Deck[nPlayers];
 
-        trashPile = new Deck<>("Trash", VISIBLE_TO_ALL);
+        trashPile = new CardTypeDeck("Trash", -1, VISIBLE_TO_ALL);
         for (int i = 0; i < nPlayers; i++) {
             boolean[] handVisibility = new boolean[nPlayers];
             handVisibility[i] = true;
             playerHands[i] = new PartialObservableDeck<>("Hand of Player " + i + 1, i, handVisibility);
             playerDrawPiles[i] = new PartialObservableDeck<>("Drawpile of Player " + i + 1, i, new boolean[nPlayers]);
-            playerDiscards[i] = new Deck<>("Discard of Player " + i + 1, i, VISIBLE_TO_ALL);
+            playerDiscards[i] = new CardTypeDeck("Discard of Player " + i + 1, i, VISIBLE_TO_ALL);
             playerTableaux[i] = new Deck<>("Tableau of Player " + i + 1, i, VISIBLE_TO_ALL);
         }
         super.reset();
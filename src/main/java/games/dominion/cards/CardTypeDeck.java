@@ -0,0 +1,325 @@
+package games.dominion.cards;
+
+import core.CoreConstants.VisibilityMode;
+import core.Zobrist;
+import core.components.Deck;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * A Deck of DominionCards in which the order of the cards does not matter, such as a discard pile or the trash.
+ * As cards of the same CardType are equal, only the number of cards of each type is kept.
+ * Copying the deck copies one count per CardType, and shuffling it does nothing.
+ * <p>
+ * Where the deck is seen as a list (getComponents(), get(), peek() and so on) the cards are in CardType order, and
+ * all the cards of one type are the same object, which belongs to this deck (and not to any copy of it).
+ * A card taken out of the deck (with draw(), pick(), remove() and so on) is the caller's, and is equal to, but not the
+ * same object as, the one that was added. Once a card of a type has been taken out, the deck uses a new object for
+ * the cards of that type.
+ */
+public class CardTypeDeck extends Deck<DominionCard> {
+
+    private int[] counts = new int[CardType.values().length];
+    private int size;
+    private List<DominionCard> view;  // the cards as a list, kept until the deck is next changed
+    private DominionCard[] cards;  // the card of each type that has been seen in this deck, created when first needed
+
+    public CardTypeDeck(String name, int ownerId, VisibilityMode visibility) {
+        super(name, ownerId, visibility);
+    }
+
+    protected CardTypeDeck(String name, int ownerId, int ID, VisibilityMode visibility) {
+        super(name, ownerId, ID, visibility);
+    }
+
+    // the card of the given type in this deck
+    private DominionCard card(int type) {
+        if (cards == null)
+            cards = new DominionCard[counts.length];
+        DominionCard card = cards[type];
+        if (card == null) {
+            card = DominionCard.create(CardType.values()[type]);
+            card.setOwnerId(ownerId);
+            cards[type] = card;
+        }
+        return card;
+    }
+
+    // a card of the given type that is no longer in this deck
+    private DominionCard takeCard(int type) {
+        DominionCard card = card(type);
+        forgetCard(type);
+        card.setOwnerId(-1);
+        return card;
+    }
+
+    // a card of the given type has been removed, and the caller may have been handed this deck's card of that
+    // type (by get(), or from the list of cards) and now be giving it to another deck
+    private void forgetCard(int type) {
+        if (cards != null)
+            cards[type] = null;
+    }
+
+    /**
+     * @return the number of cards of the given type in the deck
+     */
+    public int count(CardType type) {
+        return counts[type.ordinal()];
+    }
+
+    // the type of the card at the given position in the list of cards
+    private int typeAt(int idx) {
+        if (idx < 0 || idx >= size)
+            throw new IndexOutOfBoundsException("Index " + idx + " is out of bounds for deck of size " + size);
+        for (int type = 0; ; type++) {
+            idx -= counts[type];
+            if (idx < 0)
+                return type;
+        }
+    }
+
+    private void changed() {
+        view = null;
+        componentsChanged();
+    }
+
+    @NotNull
+    @Override
+    public Iterator<DominionCard> iterator() {
+        return getComponents().iterator();
+    }
+
+    @Override
+    public DominionCard pick(Random rnd) {
+        return pick(rnd.nextInt(size));
+    }
+
+    @Override
+    public DominionCard pick(int idx) {
+        if (idx < 0 || idx >= size)
+            return null;
+        int type = typeAt(idx);
+        counts[type]--;
+        size--;
+        changed();
+        return takeCard(type);
+    }
+
+    @Override
+    public DominionCard pickLast() {
+        return pick(size - 1);
+    }
+
+    @Override
+    public DominionCard peek(int idx) {
+        if (idx < 0 || idx >= size)
+            return null;
+        return card(typeAt(idx));
+    }
+
+    @Override
+    public boolean add(DominionCard c) {
+        return add(c, 0);
+    }
+
+    /**
+     * Adds a card to the deck. The index is ignored, as the cards are not kept in any order.
+     */
+    @Override
+    public boolean add(DominionCard c, int index) {
+        if (c == null)
+            throw new IllegalArgumentException("null cannot be added to a Deck");
+        counts[c.cardType().ordinal()]++;
+        size++;
+        changed();
+        return capacity == -1 || size <= capacity;
+    }
+
+    @Override
+    public boolean addToBottom(DominionCard c) {
+        return add(c, 0);
+    }
+
+    @Override
+    public boolean add(Deck<DominionCard> d, int index) {
+        if (d instanceof CardTypeDeck other) {
+            int[] added = other.counts.clone();  // as other may be this deck
+            for (int type = 0; type < counts.length; type++)
+                counts[type] += added[type];
+            size += other.size;
+            changed();
+            return capacity == -1 || size <= capacity;
+        }
+        return add(d.getComponents(), index);
+    }
+
+    @Override
+    public boolean add(Collection<DominionCard> d, int index) {
+        for (DominionCard c : d)
+            add(c, index);
+        return capacity == -1 || size <= capacity;
+    }
+
+    @Override
+    public void remove(DominionCard component) {
+        int type = component.cardType().ordinal();
+        if (counts[type] == 0)
+            throw new IllegalArgumentException(component + " not found in " + this);
+        counts[type]--;
+        size--;
+        forgetCard(type);
+        changed();
+    }
+
+    @Override
+    public void remove(int idx) {
+        int type = typeAt(idx);
+        counts[type]--;
+        size--;
+        forgetCard(type);
+        changed();
+    }
+
+    @Override
+    public boolean contains(DominionCard card) {
+        return counts[card.cardType().ordinal()] > 0;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(counts, 0);
+        size = 0;
+        cards = null;  // as the cards may have been handed to another deck before it was cleared
+        changed();
+    }
+
+    /**
+     * The order of the cards is not kept, so there is nothing to shuffle.
+     */
+    @Override
+    public void shuffle(Random rnd) {
+    }
+
+    @Override
+    public void shuffle(int fromIndex, int toIndex, Random rnd) {
+    }
+
+    /**
+     * @return the cards in the deck, in CardType order. This list cannot be changed.
+     */
+    @Override
+    public List<DominionCard> getComponents() {
+        if (view == null) {
+            List<DominionCard> list = new ArrayList<>(size);
+            for (int type = 0; type < counts.length; type++)
+                for (int i = 0; i < counts[type]; i++)
+                    list.add(card(type));
+            view = Collections.unmodifiableList(list);
+        }
+        return view;
+    }
+
+    /**
+     * @return new cards, one for each card in the deck, as the other deck will take them as its own
+     */
+    @Override
+    protected List<DominionCard> contents() {
+        List<DominionCard> list = new ArrayList<>(size);
+        for (int type = 0; type < counts.length; type++)
+            for (int i = 0; i < counts[type]; i++)
+                list.add(DominionCard.create(CardType.values()[type]));
+        return list;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public void setComponents(List<DominionCard> components) {
+        clear();
+        add(components, 0);
+    }
+
+    @Override
+    public boolean isOverCapacity() {
+        return capacity != -1 && size > capacity;
+    }
+
+    @Override
+    public void setComponent(int idx, DominionCard component) {
+        remove(idx);
+        add(component, idx);
+    }
+
+    @Override
+    public DominionCard get(int idx) {
+        return card(typeAt(idx));
+    }
+
+    @Override
+    public int sumInt(Function<DominionCard, Integer> lambda) {
+        int retValue = 0;
+        for (int type = 0; type < counts.length; type++)
+            if (counts[type] > 0)
+                retValue += counts[type] * lambda.apply(card(type));
+        return retValue;
+    }
+
+    @Override
+    public double sumDouble(Function<DominionCard, Double> lambda) {
+        double retValue = 0.0;
+        for (int type = 0; type < counts.length; type++)
+            if (counts[type] > 0)
+                retValue += counts[type] * lambda.apply(card(type));
+        return retValue;
+    }
+
+    @Override
+    public CardTypeDeck copy() {
+        CardTypeDeck copy = new CardTypeDeck(componentName, ownerId, componentID, visibility);
+        copy.counts = counts.clone();
+        copy.size = size;
+        copy.capacity = capacity;
+        copyComponentTo(copy);
+        return copy;
+    }
+
+    @Override
+    public long getZobristHash() {
+        long contentHash = 0;
+        for (int type = 0; type < counts.length; type++)
+            if (counts[type] > 0)
+                contentHash += counts[type] * Zobrist.key(type);
+        return Zobrist.key(componentID, contentHash);
+    }
+
+    @Override
+    public String toString() {
+        if (size == 0)
+            return "EmptyDeck";
+        StringBuilder sb = new StringBuilder();
+        for (DominionCard c : getComponents()) {
+            sb.append(c.toString());
+            sb.append(",");
+        }
+        sb.deleteCharAt(sb.length() - 1);
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CardTypeDeck other)) return false;
+        return componentID == other.componentID && ownerId == other.ownerId && capacity == other.capacity &&
+                Arrays.equals(counts, other.counts);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(capacity, ownerId, componentID, Arrays.hashCode(counts));
+    }
+}
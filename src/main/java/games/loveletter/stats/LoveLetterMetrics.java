@@ -39,7 +39,7 @@ public class LoveLetterMetrics implements IMetricsCollection {
         protected boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
             if (e.action instanceof PlayCard) {
                 PlayCard pc = (PlayCard) e.action;
-                String playerName = listener.getGame().getPlayers().get(e.playerID).toString();
+                String playerName = listener.getPlayers().get(e.playerID).toString();
                 boolean record = false;
 
                 if (pc.getCardType() == CardType.King) {
@@ -127,7 +127,7 @@ public class LoveLetterMetrics implements IMetricsCollection {
                 if (e.action instanceof PlayCard) {
                     CardType cardType = ((PlayCard) e.action).getCardType();
                     if (cardType == CardType.Guard || cardType == CardType.Baron) {
-                        String playerName = listener.getGame().getPlayers().get(e.playerID).toString();
+                        String playerName = listener.getPlayers().get(e.playerID).toString();
                         if (cardPlayed != null && cardPlayed == cardType) {
                             records.put(playerName + "-" + cardType.name() + "Success", successfulPlay ? 1 : 0);
                         } else {
@@ -203,12 +203,12 @@ public class LoveLetterMetrics implements IMetricsCollection {
         protected boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
             if (e.action instanceof PlayCard) {
                 PlayCard pc = (PlayCard) e.action;
-                for (int i = 0; i < listener.getGame().getPlayers().size(); i++) {
+                for (int i = 0; i < listener.getPlayers().size(); i++) {
                     if (i == e.state.getCurrentPlayer())
                         records.put("Player-" + e.state.getCurrentPlayer(), pc.getCardType().toString());
                     else records.put("Player-" + i, null);
                     for (int j = 0; j < playerNames.size(); j++) {
-                        for (AbstractPlayer player : listener.getGame().getPlayers()) {
+                        for (AbstractPlayer player : listener.getPlayers()) {
                             if (player.toString().equals(playerNames.get(j))) {
                                 records.put(playerNames.get(j) + "-" + j, pc.getCardType().toString());
                             } else {
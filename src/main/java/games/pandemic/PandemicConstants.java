@@ -1,6 +1,6 @@
 package games.pandemic;
 
-import utilities.Hash;
+import core.properties.PropertyKeys;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -8,27 +8,27 @@ import java.util.List;
 public class PandemicConstants {
     public final static String[] colors = new String[]{"yellow", "red", "blue", "black"};
 
-    public final static int playerLocationHash = Hash.GetInstance().hash("playerLocation");
-    public final static int neighboursHash = Hash.GetInstance().hash("neighbours");
-    public final static int researchStationHash = Hash.GetInstance().hash("Research Stations");
-    public final static int playerCardHash = Hash.GetInstance().hash("playerCard");
-    public final static int pandemicBoardHash = Hash.GetInstance().hash("pandemicBoard");
-    public final static int infectionRateHash = Hash.GetInstance().hash("Infection Rate");
-    public final static int outbreaksHash = Hash.GetInstance().hash("Outbreaks");
-    public final static int epidemicCard = Hash.GetInstance().hash("epidemic");
-    public final static int infectionHash = Hash.GetInstance().hash("infection");
-    public final static int countryHash = Hash.GetInstance().hash("country");
-    public final static int edgeHash = Hash.GetInstance().hash("edge");
-    public final static int effectHash = Hash.GetInstance().hash("effect");
+    public final static int playerLocationHash = PropertyKeys.key("playerLocation");
+    public final static int neighboursHash = PropertyKeys.key("neighbours");
+    public final static int researchStationHash = PropertyKeys.key("Research Stations");
+    public final static int playerCardHash = PropertyKeys.key("playerCard");
+    public final static int pandemicBoardHash = PropertyKeys.key("pandemicBoard");
+    public final static int infectionRateHash = PropertyKeys.key("Infection Rate");
+    public final static int outbreaksHash = PropertyKeys.key("Outbreaks");
+    public final static String epidemicCard = "epidemic";  // the name of epidemic cards
+    public final static int infectionHash = PropertyKeys.key("infection");
+    public final static int countryHash = PropertyKeys.key("country");
+    public final static int edgeHash = PropertyKeys.key("edge");
+    public final static int effectHash = PropertyKeys.key("effect");
 
     // mostly for setup
-    public final static int playerDeckHash = Hash.GetInstance().hash("Player Deck");
-    public final static int playerDeckDiscardHash = Hash.GetInstance().hash("Player Deck Discard");
-    public final static int infectionDiscardHash = Hash.GetInstance().hash("Infection Discard");
-    public final static int playerRolesHash = Hash.GetInstance().hash("Player Roles");
+    public final static int playerDeckHash = PropertyKeys.key("Player Deck");
+    public final static int playerDeckDiscardHash = PropertyKeys.key("Player Deck Discard");
+    public final static int infectionDiscardHash = PropertyKeys.key("Infection Discard");
+    public final static int playerRolesHash = PropertyKeys.key("Player Roles");
 
     // for contingency planner
-    public final static int plannerDeckHash = Hash.GetInstance().hash("plannerDeck");
+    public final static int plannerDeckHash = PropertyKeys.key("plannerDeck");
 
     public enum PlayerRole {
         Any,
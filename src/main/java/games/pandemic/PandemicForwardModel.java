@@ -20,7 +20,7 @@ import games.pandemic.actions.InfectCity;
 import games.pandemic.rules.conditions.*;
 import games.pandemic.rules.gameOver.*;
 import games.pandemic.rules.rules.*;
-import utilities.Hash;
+import core.properties.PropertyKeys;
 
 import java.util.*;
 
@@ -194,12 +194,12 @@ public class PandemicForwardModel extends AbstractRuleBasedForwardModel {
         gameArea.putComponent(PandemicConstants.researchStationHash, researchStations);
 
         for (String color : colors) {
-            int hash = Hash.GetInstance().hash("Disease " + color);
+            int hash = PropertyKeys.key("Disease " + color);
             Counter diseaseC = _data.findCounter("Disease " + color);
             diseaseC.setValue(0);  // 0 - cure not discovered; 1 - cure discovered; 2 - eradicated
             gameArea.putComponent(hash, diseaseC);
 
-            hash = Hash.GetInstance().hash("Disease Cube " + color);
+            hash = PropertyKeys.key("Disease Cube " + color);
             Counter diseaseCubeCounter = _data.findCounter("Disease Cube " + color);
             diseaseCubeCounter.setMaximum(pp.nInitialDiseaseCubes);
             diseaseCubeCounter.setValue(pp.nInitialDiseaseCubes);
@@ -282,7 +282,7 @@ public class PandemicForwardModel extends AbstractRuleBasedForwardModel {
             }
 
             for (Card card: playerHandDeck.getComponents()) {
-                Property property = card.getProperty(Hash.GetInstance().hash("population"));
+                Property property = card.getProperty(PropertyKeys.key("population"));
                 if (property != null){
                     long pop = ((PropertyLong) property).value;
                     if (pop > maxPop) {
@@ -303,7 +303,7 @@ public class PandemicForwardModel extends AbstractRuleBasedForwardModel {
                 int index = i * range + i + state.getRnd().nextInt(range);
 
                 Card card = new Card("Epidemic");
-                card.setProperty(new PropertyString("name", "epidemic"));
+                card.setProperty(new PropertyString("name", PandemicConstants.epidemicCard));
                 playerDeck.add(card, index);
             }
         }
@@ -9,7 +9,6 @@ import core.components.Area;
 import core.AbstractParameters;
 import core.turnorders.TurnOrder;
 import games.GameType;
-import utilities.Hash;
 
 import java.util.*;
 
@@ -68,10 +67,10 @@ public class PandemicGameState extends AbstractGameStateWithTurnOrder implements
         int nDiseasesCured = 0;
         int i = 3;
         for (String color: colors) {
-            Counter disease = (Counter) getComponent(Hash.GetInstance().hash("Disease " + color));
+            Counter disease = (Counter) getComponent(PropertyKeys.key("Disease " + color));
             if (disease.getValue() >= 1) nDiseasesCured++;
 
-            Counter diseaseCube = (Counter) getComponent(Hash.GetInstance().hash("Disease cube " + color));
+            Counter diseaseCube = (Counter) getComponent(PropertyKeys.key("Disease cube " + color));
             features[i++] = diseaseCube.getValue();
         }
 
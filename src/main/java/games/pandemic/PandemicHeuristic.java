@@ -7,7 +7,7 @@ import core.components.Deck;
 import core.interfaces.IStateHeuristic;
 import core.properties.PropertyString;
 import evaluation.optimisation.TunableParameters;
-import utilities.Hash;
+import core.properties.PropertyKeys;
 
 import static games.pandemic.PandemicConstants.*;
 import static utilities.Utils.indexOf;
@@ -70,8 +70,8 @@ public class PandemicHeuristic extends TunableParameters implements IStateHeuris
         double nDiseaseCubes = 0;
 
         for (String color : colors) {
-            nDiseaseCubes += ((Counter) pgs.getComponent(Hash.GetInstance().hash("Disease Cube " + color))).getValue();
-            if (((Counter) pgs.getComponent(Hash.GetInstance().hash("Disease Cube " + color))).getValue() > 0)
+            nDiseaseCubes += ((Counter) pgs.getComponent(PropertyKeys.key("Disease Cube " + color))).getValue();
+            if (((Counter) pgs.getComponent(PropertyKeys.key("Disease Cube " + color))).getValue() > 0)
                 nCuresDiscovered += 1;
         }
 
@@ -6,7 +6,7 @@ import core.components.Counter;
 import core.properties.PropertyIntArray;
 import core.AbstractGameState;
 import games.pandemic.PandemicGameState;
-import utilities.Hash;
+import core.properties.PropertyKeys;
 import utilities.Utils;
 
 import java.util.Objects;
@@ -39,8 +39,8 @@ public class TreatDisease extends AbstractAction {
     public boolean execute(AbstractGameState gs) {
         PandemicGameState pgs = (PandemicGameState) gs;
 
-        Counter diseaseToken = (Counter) pgs.getComponent(Hash.GetInstance().hash("Disease " + color));
-        Counter diseaseCubeCounter = (Counter) pgs.getComponent(Hash.GetInstance().hash("Disease Cube " + color));
+        Counter diseaseToken = (Counter) pgs.getComponent(PropertyKeys.key("Disease " + color));
+        Counter diseaseCubeCounter = (Counter) pgs.getComponent(PropertyKeys.key("Disease Cube " + color));
         int colorIdx = Utils.indexOf(colors, color);
 
         BoardNode bn = pgs.getWorld().getNodeByStringProperty(nameHash, city);
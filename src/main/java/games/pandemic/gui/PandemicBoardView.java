@@ -98,9 +98,9 @@ public class PandemicBoardView extends JComponent {
         this.outbreakCounterImg = ImageIO.GetInstance().getImage(dataPath +
                 ((PropertyString)outbreakCounter.getProperty(imgHash)).value);
         this.outbreakCounterBG = ImageIO.GetInstance().getImage(dataPath +
-                ((PropertyString)outbreakCounter.getProperty(Hash.GetInstance().hash("backgroundImg"))).value);
+                ((PropertyString)outbreakCounter.getProperty(PropertyKeys.key("backgroundImg"))).value);
         this.outbreakImgLast = ImageIO.GetInstance().getImage(dataPath +
-                ((PropertyString)outbreakCounter.getProperty(Hash.GetInstance().hash("imgMax"))).value);
+                ((PropertyString)outbreakCounter.getProperty(PropertyKeys.key("imgMax"))).value);
         this.outbreakMarkerSize = (int) (outbreakCounterBG.getWidth(null) * scale);
 
         width = (int)(background.getWidth(null) * scale);
@@ -462,16 +462,16 @@ public class PandemicBoardView extends JComponent {
         g.setFont(f);
 
         // Disease markers
-        Counter yC = (Counter) gameState.getComponent(Hash.GetInstance().hash("Disease yellow"));
+        Counter yC = (Counter) gameState.getComponent(PropertyKeys.key("Disease yellow"));
         drawCounter(g, yC.getValue(), Color.yellow, 0);
 
-        Counter rC = (Counter) gameState.getComponent(Hash.GetInstance().hash("Disease red"));
+        Counter rC = (Counter) gameState.getComponent(PropertyKeys.key("Disease red"));
         drawCounter(g, rC.getValue(), Color.red, 1);
 
-        Counter bC = (Counter) gameState.getComponent(Hash.GetInstance().hash("Disease blue"));
+        Counter bC = (Counter) gameState.getComponent(PropertyKeys.key("Disease blue"));
         drawCounter(g, bC.getValue(), Color.blue, 2);
 
-        Counter bkC = (Counter) gameState.getComponent(Hash.GetInstance().hash("Disease black"));
+        Counter bkC = (Counter) gameState.getComponent(PropertyKeys.key("Disease black"));
         drawCounter(g, bkC.getValue(), Color.black, 3);
     }
 
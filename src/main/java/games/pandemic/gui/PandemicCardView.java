@@ -7,7 +7,7 @@ import core.properties.PropertyColor;
 import core.properties.PropertyLong;
 import core.properties.PropertyString;
 import org.davidmoten.text.utils.WordWrap;
-import utilities.Hash;
+import core.properties.PropertyKeys;
 import utilities.ImageIO;
 import utilities.Utils;
 
@@ -40,8 +40,8 @@ public class PandemicCardView extends CardView {
         String dataPath = "data/pandemic/img/";
         if (c != null) {
             Property country = c.getProperty(countryHash);
-            Property pop = c.getProperty(Hash.GetInstance().hash("population"));
-            Property act = c.getProperty(Hash.GetInstance().hash("action"));
+            Property pop = c.getProperty(PropertyKeys.key("population"));
+            Property act = c.getProperty(PropertyKeys.key("action"));
             Property effect = c.getProperty(effectHash);
             if (country != null) {
                 if (pop != null) {
@@ -73,8 +73,8 @@ public class PandemicCardView extends CardView {
         Image background = null;
         if (c != null) {
             Property country = c.getProperty(countryHash);
-            Property pop = c.getProperty(Hash.GetInstance().hash("population"));
-            Property act = c.getProperty(Hash.GetInstance().hash("action"));
+            Property pop = c.getProperty(PropertyKeys.key("population"));
+            Property act = c.getProperty(PropertyKeys.key("action"));
             if (country != null) {
                 if (pop != null) {
                     // City card
@@ -119,7 +119,7 @@ public class PandemicCardView extends CardView {
             double scaleH = height*1.0/h;
             g.drawImage(background, x, y, (int) (w*scaleW), (int) (h*scaleH), null);
         } else {
-            if (card == null || card.getProperty(Hash.GetInstance().hash("action")) == null) {
+            if (card == null || card.getProperty(PropertyKeys.key("action")) == null) {
                 g.setColor(Color.lightGray);
                 g.fillRect(x, y, width - 1, height - 1);
                 g.setColor(Color.black);
@@ -21,7 +21,7 @@ import gui.AbstractGUIManager;
 import gui.GamePanel;
 import players.human.ActionController;
 import players.human.HumanGUIPlayer;
-import utilities.Hash;
+import core.properties.PropertyKeys;
 import utilities.Utils;
 
 import javax.swing.*;
@@ -309,16 +309,16 @@ public class PandemicGUIManager extends AbstractGUIManager implements IScreenHig
         JPanel counterArea = new JPanel();
 
         counterArea.add(new JLabel("Disease Cubes left:"));
-        Counter cnY = (Counter) gameState.getComponent(Hash.GetInstance().hash("Disease Cube yellow"));
+        Counter cnY = (Counter) gameState.getComponent(PropertyKeys.key("Disease Cube yellow"));
         cY = new PandemicCounterView(cnY, Color.yellow, null);
         counterArea.add(cY);
-        Counter cnR = (Counter) gameState.getComponent(Hash.GetInstance().hash("Disease Cube red"));
+        Counter cnR = (Counter) gameState.getComponent(PropertyKeys.key("Disease Cube red"));
         cR = new PandemicCounterView(cnR, Color.red, null);
         counterArea.add(cR);
-        Counter cnB = (Counter) gameState.getComponent(Hash.GetInstance().hash("Disease Cube blue"));
+        Counter cnB = (Counter) gameState.getComponent(PropertyKeys.key("Disease Cube blue"));
         cB = new PandemicCounterView(cnB, Color.blue, null);
         counterArea.add(cB);
-        Counter cnK = (Counter) gameState.getComponent(Hash.GetInstance().hash("Disease Cube black"));
+        Counter cnK = (Counter) gameState.getComponent(PropertyKeys.key("Disease Cube black"));
         cK = new PandemicCounterView(cnK, Color.black, null);
         counterArea.add(cK);
 
@@ -337,13 +337,13 @@ public class PandemicGUIManager extends AbstractGUIManager implements IScreenHig
         currentGamePhase = gameState.getGamePhase();
         activePlayer = this.gameState.getTurnOrder().getCurrentPlayer(gameState);
         // Update counters
-        Counter cnY = (Counter) this.gameState.getComponent(Hash.GetInstance().hash("Disease Cube yellow"));
+        Counter cnY = (Counter) this.gameState.getComponent(PropertyKeys.key("Disease Cube yellow"));
         cY.updateComponent(cnY);
-        Counter cnR = (Counter) this.gameState.getComponent(Hash.GetInstance().hash("Disease Cube red"));
+        Counter cnR = (Counter) this.gameState.getComponent(PropertyKeys.key("Disease Cube red"));
         cR.updateComponent(cnR);
-        Counter cnB = (Counter) this.gameState.getComponent(Hash.GetInstance().hash("Disease Cube blue"));
+        Counter cnB = (Counter) this.gameState.getComponent(PropertyKeys.key("Disease Cube blue"));
         cB.updateComponent(cnB);
-        Counter cnK = (Counter) this.gameState.getComponent(Hash.GetInstance().hash("Disease Cube black"));
+        Counter cnK = (Counter) this.gameState.getComponent(PropertyKeys.key("Disease Cube black"));
         cK.updateComponent(cnK);
 
         for (int i = 0; i < nPlayers; i++) {
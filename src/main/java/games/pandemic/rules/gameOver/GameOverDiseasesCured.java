@@ -6,7 +6,7 @@ import core.components.Counter;
 import core.rules.GameOverCondition;
 import games.pandemic.PandemicConstants;
 import games.pandemic.PandemicGameState;
-import utilities.Hash;
+import core.properties.PropertyKeys;
 
 import static core.CoreConstants.GameResult.GAME_ONGOING;
 import static core.CoreConstants.GameResult.WIN_GAME;
@@ -16,7 +16,7 @@ public class GameOverDiseasesCured extends GameOverCondition {
     public CoreConstants.GameResult test(AbstractGameState gs) {
         boolean all_cured = true;
         for (String c : PandemicConstants.colors) {
-            if (((Counter)((PandemicGameState)gs).getComponent(Hash.GetInstance().hash("Disease " + c))).getValue() < 1) all_cured = false;
+            if (((Counter)((PandemicGameState)gs).getComponent(PropertyKeys.key("Disease " + c))).getValue() < 1) all_cured = false;
         }
         if (all_cured) {
             if (gs.getCoreGameParameters().verbose) {
@@ -44,7 +44,7 @@ public class DrawCards extends RuleNode {
 
             Card c = tempDeck.draw();  // Check the drawn card
             // If epidemic card, do epidemic, only one per draw
-            if (((PropertyString) c.getProperty(nameHash)).value.hashCode() == PandemicConstants.epidemicCard) {
+            if (PandemicConstants.epidemicCard.equals(((PropertyString) c.getProperty(nameHash)).value)) {
                 epidemic = true;
             } else {  // Otherwise, give card to player
                 if (playerHand != null) {
@@ -14,7 +14,7 @@ import games.pandemic.actions.Forecast;
 import games.pandemic.actions.MovePlayer;
 import games.pandemic.actions.QuietNight;
 import games.pandemic.actions.TreatDisease;
-import utilities.Hash;
+import core.properties.PropertyKeys;
 
 import static core.CoreConstants.playerHandHash;
 import static core.CoreConstants.nameHash;
@@ -58,7 +58,7 @@ public class PlayerAction extends core.rules.rulenodes.PlayerAction {
 
                 if (roleString.equals("Medic")) {
                     for (String color : PandemicConstants.colors) {
-                        Counter diseaseToken = (Counter) ((PandemicGameState) gs).getComponent(Hash.GetInstance().hash("Disease " + color));
+                        Counter diseaseToken = (Counter) ((PandemicGameState) gs).getComponent(PropertyKeys.key("Disease " + color));
                         String city = ((MovePlayer) action).getDestination();
                         boolean disease_cured = diseaseToken.getValue() > 0;
                         if (disease_cured) {
@@ -14,7 +14,7 @@ import evaluation.metrics.IMetricsCollection;
 import games.pandemic.PandemicConstants;
 import games.pandemic.PandemicGameState;
 import games.pandemic.PandemicParameters;
-import utilities.Hash;
+import core.properties.PropertyKeys;
 
 import java.util.*;
 
@@ -31,7 +31,7 @@ public class PandemicMetrics implements IMetricsCollection {
         @Override
         protected boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
             for (String deck: deckNames) {
-                Component c = ((PandemicGameState) e.state).getComponent(Hash.GetInstance().hash(deck));
+                Component c = ((PandemicGameState) e.state).getComponent(PropertyKeys.key(deck));
                 records.put(deck + " Deck Size", ((Deck<?>) c).getSize());
             }
             return true;
@@ -62,7 +62,7 @@ public class PandemicMetrics implements IMetricsCollection {
         @Override
         protected boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
             for (String counter: counters) {
-                Component c = ((PandemicGameState) e.state).getComponent(Hash.GetInstance().hash(counter));
+                Component c = ((PandemicGameState) e.state).getComponent(PropertyKeys.key(counter));
                 records.put(counter, ((Counter) c).getValue());
             }
             return true;
@@ -118,9 +118,9 @@ public class PandemicMetrics implements IMetricsCollection {
         int count = 0;
         for (String color: colors) {
             if (cubes) {
-                count += ((Counter) pgs.getComponent(Hash.GetInstance().hash("Disease Cube " + color))).getValue();
+                count += ((Counter) pgs.getComponent(PropertyKeys.key("Disease Cube " + color))).getValue();
             } else {
-                if (((Counter) pgs.getComponent(Hash.GetInstance().hash("Disease " + color))).getValue() == targetValue)
+                if (((Counter) pgs.getComponent(PropertyKeys.key("Disease " + color))).getValue() == targetValue)
                     count++;
             }
         }
@@ -32,6 +32,7 @@ public class MoneyPot extends Counter {
 
     public void increment(int value, int player) {
         this.valueIdx += value;
+        valueChanged();
 
         int contribution = value;
         if (playerContribution.containsKey(player)) {
@@ -1,6 +1,7 @@
 package games.powergrid.components;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -31,8 +32,10 @@ import core.components.Component;
  * <ul>
  *   <li>{@link #cities()} / {@link #city(int)} – iterate or look up cities.</li>
  *   <li>{@link #edgesFrom(int)} – read-only neighbors (costed connections).</li>
- *   <li>{@link #shortestPathCosts(java.util.Set, java.util.Set)} – Dijkstra from sources to targets,
+ *   <li>{@link #shortestPathCosts(java.util.Set, java.util.Set)} – connection costs from sources to targets,
  *       modeling the “first city is free” rule when sources are empty.</li>
+ *   <li>{@link #distance(int, int)} / {@link #connectionCosts(java.util.Collection)} – shortest path costs,
+ *       read from a distance matrix computed once when the board is built.</li>
  *   <li>{@link #penalizeRegions(java.util.Set, int)} – keep cities but raise costs for edges that
  *       are not fully within a set of active regions (useful for RL without changing input size).</li>
  *   <li>{@link #validCities(java.util.Set)} / {@link #invalidCities(java.util.Set)} – filter city IDs
@@ -54,6 +57,10 @@ public final class PowerGridGraphBoard extends Component {
     private final Map<Integer, List<Edge>> adj;
     private final int maxCost;
     private final List<double[]>  AdjacencyVector; 
+    // shortest path cost between every pair of cities, distances[from * stride + to] (Integer.MAX_VALUE if there is
+    // no path). The board is immutable, so this is shared by every copy of a game using it.
+    private final int stride;
+    private final int[] distances;
     private static final int INVALID_EDGE_COST = 1000;
     public static final Map<Integer, Set<Integer>> REGION_ADJ_NA = Map.of(
     	    1, Set.of(2),      
@@ -88,6 +95,8 @@ public final class PowerGridGraphBoard extends Component {
         }
         this.adj = tmp.entrySet().stream().collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, e -> List.copyOf(e.getValue())));
         this.maxCost =  maxValidShortestPathCost();
+        this.stride = maxCityId() + 1;
+        this.distances = allPairsDistances();
         this.AdjacencyVector = normalizedAdjacency2D();
               
     }
@@ -396,16 +405,16 @@ public final class PowerGridGraphBoard extends Component {
 
 
     /**
-     * Computes the minimum connection cost (Dijkstra) from any of the given {@code sources}
+     * Computes the minimum connection cost from any of the given {@code sources}
      * to each city in {@code targets}.
      * <p>
      * Special case: if {@code sources} is {@code null} or empty, this models the
      * “first city is free” rule and returns cost {@code 0} for every target.
      * Results are returned as an unmodifiable map from target city ID to its cost.
-     * The search stops early once all targets are settled.
      *
-     * <p><b>Algorithm:</b> Dijkstra with a min-heap keyed by cumulative cost.
-     * Distances are initialized to {@link Integer#MAX_VALUE}, sources start at 0.
+     * <p><b>Algorithm:</b> the costs from the player's network are the element-wise minimum of the rows of the
+     * distance matrix for each source (see {@link #connectionCosts(Collection)}), so this is
+     * {@code O(|sources| * V)} with no search.
      *
      * @param targets set of destination city IDs to compute costs for (must not be null)
      * @param sources set of starting city IDs (may be null/empty to apply the free-first-city rule)
@@ -414,9 +423,6 @@ public final class PowerGridGraphBoard extends Component {
      * @throws NullPointerException if {@code targets} is null
      * @throws IllegalArgumentException if any city ID in {@code targets} is unknown
      * @throws IllegalStateException if any target is unreachable from the provided {@code sources}
-     *
-     * @implNote Uses {@code hasCity(int)} to validate city IDs, and {@code edgesFrom(int)}
-     *           to iterate outgoing edges. Runs in {@code O((V+E) log V)} time in the worst case.
      */
     
     public Map<Integer,Integer> shortestPathCosts(java.util.Set<Integer> targets,
@@ -434,43 +440,68 @@ public final class PowerGridGraphBoard extends Component {
             return java.util.Collections.unmodifiableMap(zero);
         }
 
-        int maxId = maxCityId();
-        int[] dist = new int[maxId + 1];
-        java.util.Arrays.fill(dist, Integer.MAX_VALUE);
-
-        java.util.PriorityQueue<int[]> pq =
-            new java.util.PriorityQueue<>(java.util.Comparator.comparingInt(a -> a[1]));
-
-        for (int s : sources) {
-            if (!hasCity(s)) continue;
-            dist[s] = 0;
-            pq.add(new int[]{s, 0});
-        }
-
-        java.util.Set<Integer> remaining = new java.util.HashSet<>();
+        int[] costs = connectionCosts(sources);
+        java.util.Map<Integer,Integer> result = new java.util.HashMap<>();
+        java.util.Set<Integer> unreachable = new java.util.HashSet<>();
         for (int t : targets) {
             if (!hasCity(t)) throw new IllegalArgumentException("Unknown target city: " + t);
-            remaining.add(t);
+            if (costs[t] == Integer.MAX_VALUE) unreachable.add(t);
+            else result.put(t, costs[t]);
         }
 
-        java.util.Map<Integer,Integer> result = new java.util.HashMap<>();
+        if (!unreachable.isEmpty()) {
+            throw new IllegalStateException("Unreachable cities: " + unreachable + " from sources " + sources);
+        }
+        return java.util.Collections.unmodifiableMap(result);
+    }
 
-        while (!pq.isEmpty() && !remaining.isEmpty()) {
-            int[] cur = pq.poll();
-            int u = cur[0], d = cur[1];
-            if (d != dist[u]) continue;
+    /**
+     * @return the shortest path cost between two cities, or {@link Integer#MAX_VALUE} if there is no path
+     */
+    public int distance(int from, int to) {
+        return distances[from * stride + to];
+    }
 
-            if (remaining.remove(u)) result.put(u, d);
-            for (Edge e : edgesFrom(u)) {
-                int v = e.to, nd = d + e.cost;
-                if (nd < dist[v]) { dist[v] = nd; pq.add(new int[]{v, nd}); }
+    /**
+     * Returns the cost of connecting each city to the nearest of the {@code sources}, indexed by city ID
+     * ({@link Integer#MAX_VALUE} for cities that cannot be reached, or for every city if there are no sources).
+     * Unknown source IDs are ignored.
+     */
+    public int[] connectionCosts(Collection<Integer> sources) {
+        int[] costs = new int[stride];
+        Arrays.fill(costs, Integer.MAX_VALUE);
+        for (int source : sources) {
+            if (!hasCity(source)) continue;
+            int row = source * stride;
+            for (int to = 0; to < stride; to++) {
+                if (distances[row + to] < costs[to]) costs[to] = distances[row + to];
             }
         }
+        return costs;
+    }
 
-        if (!remaining.isEmpty()) {
-            throw new IllegalStateException("Unreachable cities: " + remaining + " from sources " + sources);
+    // Floyd-Warshall over all edges (including penalized ones), as the map has only a few dozen cities
+    private int[] allPairsDistances() {
+        int n = stride;
+        int[] dist = new int[n * n];
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        for (int id : citiesById.keySet()) dist[id * n + id] = 0;
+        for (List<Edge> edges : adj.values()) {
+            for (Edge e : edges) {
+                if (e.cost < dist[e.from * n + e.to]) dist[e.from * n + e.to] = e.cost;
+            }
         }
-        return java.util.Collections.unmodifiableMap(result);
+        for (int k = 0; k < n; k++) {
+            for (int i = 0; i < n; i++) {
+                int ik = dist[i * n + k];
+                if (ik == Integer.MAX_VALUE) continue;
+                for (int j = 0; j < n; j++) {
+                    int kj = dist[k * n + j];
+                    if (kj != Integer.MAX_VALUE && ik + kj < dist[i * n + j]) dist[i * n + j] = ik + kj;
+                }
+            }
+        }
+        return dist;
     }
 
     
@@ -397,8 +397,8 @@ public class RootForwardModel extends StandardForwardModel {
     protected void _afterAction(AbstractGameState gs, AbstractAction action) {
         //if (gs.getTurnCounter() % 50 == 0) System.out.println(gs.getTurnCounter() + ": " + gs.getGameScore(0) + " " + gs.getGameScore(1) + gs.getGameScore(2) + " " + gs.getGameScore(3));
         RootGameState state = (RootGameState) gs;
-        //1st Recalculate Clearing rulers -> based on number of buildings/warriors of each player
-        state.getGameMap().updateRulers();
+        //Clearing rulers are kept up to date as warriors and buildings are placed and removed
+        if (RootGraphBoard.verifyRulers) state.getGameMap().checkRulers();
         if (state.isActionInProgress()) return;
 
         if (state.scoreGameOver() || state.getTurnCounter() > 200) {
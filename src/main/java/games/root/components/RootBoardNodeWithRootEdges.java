@@ -27,7 +27,9 @@ public class RootBoardNodeWithRootEdges extends Component {
     protected int currentBuildings = 0;
     protected int maxBuildings = 4;
 
-    public int rulerID;
+    // The faction ruling this clearing (-1 if none), kept up to date by the methods that add or remove warriors and
+    // buildings (see updateOwner())
+    public int rulerID = -1;
 
     public enum ClearingType {
         MOUSE, FOX, RABBIT, Forrest
@@ -209,10 +211,12 @@ public class RootBoardNodeWithRootEdges extends Component {
 
     public void addWorkshop() {
         workshops += 1;
+        updateOwner();
     }
 
     public void removeWorkshop() {
         workshops -= 1;
+        updateOwner();
     }
 
     public int getRecruiters() {
@@ -221,10 +225,12 @@ public class RootBoardNodeWithRootEdges extends Component {
 
     public void addRecruiter() {
         recruiter++;
+        updateOwner();
     }
 
     public void removeRecruiter() {
         recruiter--;
+        updateOwner();
     }
 
     public int getSawmill() {
@@ -233,22 +239,27 @@ public class RootBoardNodeWithRootEdges extends Component {
 
     public void addSawmill() {
         sawmill++;
+        updateOwner();
     }
 
     public void removeSawmill() {
         sawmill--;
+        updateOwner();
     }
 
     public void addCatWarrior() {
         catWarriors++;
+        updateOwner();
     }
 
     public void addBirdWarrior() {
         eyrieWarriors++;
+        updateOwner();
     }
 
     public void addWoodlandWarrior() {
         woodlandWarriors++;
+        updateOwner();
     }
 
     public void addVagabondWarrior() {
@@ -267,6 +278,7 @@ public class RootBoardNodeWithRootEdges extends Component {
         if (catWarriors < 0) {
             System.out.println("Error with cat warrior count");
         }
+        updateOwner();
     }
 
     public void removeBirdWarrior() {
@@ -274,6 +286,7 @@ public class RootBoardNodeWithRootEdges extends Component {
         if (eyrieWarriors < 0) {
             System.out.println("Error with bird warrior count");
         }
+        updateOwner();
     }
 
     public void removeWoodlandWarrior() {
@@ -281,6 +294,7 @@ public class RootBoardNodeWithRootEdges extends Component {
         if (woodlandWarriors < 0) {
             System.out.println("Error with woodland warrior count");
         }
+        updateOwner();
     }
 
     public void removeVagabondWarrior() {
@@ -314,6 +328,7 @@ public class RootBoardNodeWithRootEdges extends Component {
         } else if (faction == RootParameters.Factions.Vagabond) {
             vagabond += 1;
         }
+        updateOwner();
     }
 
     public void removeWarrior(RootParameters.Factions faction) {
@@ -326,6 +341,7 @@ public class RootBoardNodeWithRootEdges extends Component {
         } else if (faction == RootParameters.Factions.Vagabond) {
             vagabond -= 1;
         }
+        updateOwner();
     }
 
     public boolean isAttackable(RootParameters.Factions faction) {
@@ -450,6 +466,7 @@ public class RootBoardNodeWithRootEdges extends Component {
                     currentBuildings++;
             }
         }
+        updateOwner();
     }
 
     public void removeBuilding(RootParameters.BuildingType bt) {
@@ -497,7 +514,7 @@ public class RootBoardNodeWithRootEdges extends Component {
                 break;
 
         }
-
+        updateOwner();
     }
 
     public RootParameters.ClearingTypes getClearingType() {
@@ -521,6 +538,10 @@ public class RootBoardNodeWithRootEdges extends Component {
         return y;
     }
 
+    /**
+     * Works out the ruler of this clearing from the warriors and buildings in it. This is called by every method
+     * that changes those.
+     */
     public void updateOwner(){
         //Vagabond cannot rule a clearing
         int catCount = catWarriors + workshops + sawmill + recruiter;
@@ -11,8 +11,18 @@ import java.util.stream.Collectors;
 @SuppressWarnings("unused")
 public class RootGraphBoard extends Component implements IComponentContainer<RootBoardNodeWithRootEdges> {
 
+    /**
+     * Debug mode: if true, the ruler of every clearing (which each clearing keeps up to date as warriors and
+     * buildings are placed and removed) is checked against a full recalculation after every action, and an
+     * AssertionError is thrown if they differ.
+     */
+    public static boolean verifyRulers = false;
+
     // List of nodes in the board graph, mapping component ID to object reference
     protected Map<Integer, RootBoardNodeWithRootEdges> boardNodes;
+    // The clearings of each type, and those that are not forest, found when first asked for
+    private Map<RootParameters.ClearingTypes, List<RootBoardNodeWithRootEdges>> nodesOfType;
+    private List<RootBoardNodeWithRootEdges> nonForrestNodes;
 
     public RootGraphBoard(String name) {
         super(CoreConstants.ComponentType.BOARD, name);
@@ -103,10 +113,15 @@ public class RootGraphBoard extends Component implements IComponentContainer<Roo
         return boardNodes.values();
     }
 
+    /**
+     * @return the clearings that are not forest (this list must not be changed)
+     */
     public Collection<RootBoardNodeWithRootEdges> getNonForrestBoardNodes() {
-        return boardNodes.values().stream()
-                .filter(node -> !node.getClearingType().equals(RootParameters.ClearingTypes.Forrest))
-                .collect(Collectors.toList());
+        if (nonForrestNodes == null)
+            nonForrestNodes = Collections.unmodifiableList(boardNodes.values().stream()
+                    .filter(node -> !node.getClearingType().equals(RootParameters.ClearingTypes.Forrest))
+                    .collect(Collectors.toList()));
+        return nonForrestNodes;
     }
 
     public Collection<RootBoardNodeWithRootEdges> getNonSympathyNodesAdjacentToSympathy(){
@@ -160,24 +175,29 @@ public class RootGraphBoard extends Component implements IComponentContainer<Roo
      * @param boardNodes - new list of board nodes.
      */
     public void setBoardNodes(List<RootBoardNodeWithRootEdges> boardNodes) {
+        clearNodeLists();
         for (RootBoardNodeWithRootEdges bn : boardNodes) {
             this.boardNodes.put(bn.getComponentID(), bn);
         }
     }
 
     public void setBoardNodes(Map<Integer, RootBoardNodeWithRootEdges> boardNodes) {
+        clearNodeLists();
         this.boardNodes = boardNodes;
     }
 
     public void addBoardNode(RootBoardNodeWithRootEdges bn) {
+        clearNodeLists();
         this.boardNodes.put(bn.getComponentID(), bn);
     }
 
     public void removeBoardNode(RootBoardNodeWithRootEdges bn) {
+        clearNodeLists();
         this.boardNodes.remove(bn.getComponentID());
     }
 
     public void breakConnection(RootBoardNodeWithRootEdges bn1, RootBoardNodeWithRootEdges bn2, RootEdge RootEdge) {
+        clearNodeLists();
         bn1.removeNeighbour(bn2, RootEdge);
         bn2.removeNeighbour(bn1, RootEdge);
 
@@ -201,6 +221,11 @@ public class RootGraphBoard extends Component implements IComponentContainer<Roo
         if (!inBoard) boardNodes.remove(bn2.getComponentID());
     }
 
+    private void clearNodeLists() {
+        nodesOfType = null;
+        nonForrestNodes = null;
+    }
+
     public RootEdge addConnection(RootBoardNodeWithRootEdges bn1, RootBoardNodeWithRootEdges bn2) {
         RootEdge RootEdge = new RootEdge();
         addConnection(bn1, bn2, RootEdge);
@@ -264,11 +289,18 @@ public class RootGraphBoard extends Component implements IComponentContainer<Roo
         return tmp;
     }
 
+    /**
+     * @return the clearings of the given type, or all that are not forest for Bird (this list must not be changed)
+     */
     public List<RootBoardNodeWithRootEdges> getNodesOfType(RootParameters.ClearingTypes type) {
-        if(type == RootParameters.ClearingTypes.Bird){
-            return boardNodes.values().stream().filter(node-> node.getClearingType()!= RootParameters.ClearingTypes.Forrest).collect(Collectors.toList());
-        }
-        return boardNodes.values().stream().filter(node -> node.getClearingType() == type).collect(Collectors.toList());
+        if (nodesOfType == null)
+            nodesOfType = new EnumMap<>(RootParameters.ClearingTypes.class);
+        return nodesOfType.computeIfAbsent(type, t -> {
+            if (t == RootParameters.ClearingTypes.Bird) {
+                return Collections.unmodifiableList(boardNodes.values().stream().filter(node -> node.getClearingType() != RootParameters.ClearingTypes.Forrest).collect(Collectors.toList()));
+            }
+            return Collections.unmodifiableList(boardNodes.values().stream().filter(node -> node.getClearingType() == t).collect(Collectors.toList()));
+        });
     }
 
     public List<RootBoardNodeWithRootEdges> getRecruiters() {
@@ -279,10 +311,29 @@ public class RootGraphBoard extends Component implements IComponentContainer<Roo
         return boardNodes.values().stream().filter(node -> node.sawmill > 0).collect(Collectors.toList());
     }
 
+    /**
+     * Works out the ruler of every clearing again. Each clearing keeps its ruler up to date, so this is only needed
+     * after changing warriors or buildings other than through the methods of RootBoardNodeWithRootEdges.
+     */
     public void updateRulers(){
         for (RootBoardNodeWithRootEdges node: boardNodes.values()){
             node.updateOwner();
         }
     }
 
+    /**
+     * Checks the ruler that each clearing has kept against a full recalculation.
+     *
+     * @throws AssertionError if any clearing has the wrong ruler
+     */
+    public void checkRulers(){
+        for (RootBoardNodeWithRootEdges node: boardNodes.values()){
+            int kept = node.rulerID;
+            node.updateOwner();
+            if (node.rulerID != kept) {
+                throw new AssertionError("Clearing " + node.identifier + " has ruler " + kept + " but should have " + node.rulerID);
+            }
+        }
+    }
+
 }
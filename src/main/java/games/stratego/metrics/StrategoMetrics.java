@@ -76,12 +76,12 @@ public class StrategoMetrics implements IMetricsCollection {
             String[] players = text[0].split(" vs ");
             String[] pieces = text[1].split(" vs ");
             int winner = Integer.parseInt(text[2].trim());
-            String attackerName = listener.getGame().getPlayers().get(Integer.parseInt(players[0].trim())).toString();
-            String defenderName = listener.getGame().getPlayers().get(Integer.parseInt(players[1].trim())).toString();
+            String attackerName = listener.getPlayers().get(Integer.parseInt(players[0].trim())).toString();
+            String defenderName = listener.getPlayers().get(Integer.parseInt(players[1].trim())).toString();
 
             for (String s : players) {
                 int i = Integer.parseInt(s.trim());
-                String player = listener.getGame().getPlayers().get(i).toString();
+                String player = listener.getPlayers().get(i).toString();
                 if (winner == i) {
                     records.put(player + "_wins", 1);
                     records.put(player + "_ties", 0);
@@ -138,7 +138,7 @@ public class StrategoMetrics implements IMetricsCollection {
             if (e.action instanceof NormalMove) {
                 NormalMove move = (NormalMove) e.action;
                 Piece movedPiece = move.getPiece((StrategoGameState) e.state);
-                String player = listener.getGame().getPlayers().get(movedPiece.getOwnerId()).toString();
+                String player = listener.getPlayers().get(movedPiece.getOwnerId()).toString();
                 records.put(player + "_move", movedPiece.getPieceType().name());
                 records.put(player + "_moveRank", movedPiece.getPieceRank());
 
@@ -158,7 +158,7 @@ public class StrategoMetrics implements IMetricsCollection {
             } else if (e.action instanceof AttackMove) {
                 AttackMove move = (AttackMove) e.action;
                 Piece movedPiece = move.getPiece((StrategoGameState) e.state);
-                String player = listener.getGame().getPlayers().get(movedPiece.getOwnerId()).toString();
+                String player = listener.getPlayers().get(movedPiece.getOwnerId()).toString();
                 records.put(player + "_attack", movedPiece.getPieceType().name());
                 records.put(player + "_attackRank", movedPiece.getPieceRank());
 
@@ -201,8 +201,8 @@ public class StrategoMetrics implements IMetricsCollection {
                 n[p.getOwnerId()] ++;
             }
 
-            for (int i = 0; i < listener.getGame().getPlayers().size(); i++) {
-                String player = listener.getGame().getPlayers().get(i).toString();
+            for (int i = 0; i < listener.getPlayers().size(); i++) {
+                String player = listener.getPlayers().get(i).toString();
                 records.put(player + "_rankSum", sum[i]);
                 records.put(player + "_nPieces", n[i]);
                 records.put(player + "_rankSumOpp", sum[(i+1)%e.state.getNPlayers()]);
@@ -710,13 +710,13 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
                             resMap.rate += resMapNew.rate;
                         } else {
                             toRemove.add(resMap);
-                            toAdd.add(resMapNew);
+                            toAdd.add(resMapNew.copy());
                         }
                         added = true;
                     }
                 }
             }
-            if (!added) toAdd.add(resMapNew);
+            if (!added) toAdd.add(resMapNew.copy());  // The card's own mappings are shared by its copies, so are not changed
         }
         playerResourceMap[player].removeAll(toRemove);
         playerResourceMap[player].addAll(toAdd);
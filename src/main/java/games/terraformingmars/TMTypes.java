@@ -20,6 +20,8 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static games.terraformingmars.components.TMMapTile.parseMapTile;
 
@@ -304,77 +306,72 @@ public class TMTypes {
 
         public void loadBoard(GridBoard board, HashSet<TMMapTile> extraTiles, HashSet<Bonus> bonuses,
                               HashSet<Milestone> milestones, HashSet<Award> awards, HashMap<GlobalParameter, games.terraformingmars.components.GlobalParameter> globalParameters) {
-            JSONParser jsonParser = new JSONParser();
-            try (FileReader reader = new FileReader(getBoardPath())) {
-                JSONObject data = (JSONObject) jsonParser.parse(reader);
-
-                // Process main map
-                if (data.get("board") != null) {
-                    JSONArray b = (JSONArray) data.get("board");
-                    int y = 0;
-                    for (Object g : b) {
-                        JSONArray row = (JSONArray) g;
-                        int x = 0;
-                        for (Object o1 : row) {
-                            board.setElement(x, y, parseMapTile((String) o1, x, y));
-                            x++;
-                        }
-                        y++;
+            JSONObject data = (JSONObject) loadDefinitions(getBoardPath());
+            if (data == null) return;
+
+            // Process main map
+            if (data.get("board") != null) {
+                JSONArray b = (JSONArray) data.get("board");
+                int y = 0;
+                for (Object g : b) {
+                    JSONArray row = (JSONArray) g;
+                    int x = 0;
+                    for (Object o1 : row) {
+                        board.setElement(x, y, parseMapTile((String) o1, x, y));
+                        x++;
                     }
+                    y++;
                 }
+            }
 
-                // Process extra tiles not on regular board
-                if (data.get("extra") != null) {
-                    JSONArray extra = (JSONArray) data.get("extra");
-                    for (Object o : extra) {
-                        extraTiles.add(parseMapTile((String) o));
-                    }
+            // Process extra tiles not on regular board
+            if (data.get("extra") != null) {
+                JSONArray extra = (JSONArray) data.get("extra");
+                for (Object o : extra) {
+                    extraTiles.add(parseMapTile((String) o));
                 }
+            }
 
-                // Process milestones and awards
-                if (data.get("milestones") != null) {
-                    JSONArray milestonesStr = (JSONArray) data.get("milestones");
-                    for (Object o : milestonesStr) {
-                        String[] split = ((String) o).split(":");
-                        milestones.add(new Milestone(split[0], Integer.parseInt(split[2]), split[1]));
-                    }
+            // Process milestones and awards
+            if (data.get("milestones") != null) {
+                JSONArray milestonesStr = (JSONArray) data.get("milestones");
+                for (Object o : milestonesStr) {
+                    String[] split = ((String) o).split(":");
+                    milestones.add(new Milestone(split[0], Integer.parseInt(split[2]), split[1]));
                 }
-                if (data.get("awards") != null) {
-                    JSONArray awardsStr = (JSONArray) data.get("awards");
-                    for (Object o : awardsStr) {
-                        String[] split = ((String) o).split(":");
-                        awards.add(new Award(split[0], split[1]));
-                    }
+            }
+            if (data.get("awards") != null) {
+                JSONArray awardsStr = (JSONArray) data.get("awards");
+                for (Object o : awardsStr) {
+                    String[] split = ((String) o).split(":");
+                    awards.add(new Award(split[0], split[1]));
                 }
+            }
 
-                // Process global parameters enabled
-                if (data.get("globalParameters") != null) {
-                    JSONArray gps = (JSONArray) data.get("globalParameters");
-                    for (Object o : gps) {
-                        JSONObject gp = (JSONObject) o;
-                        GlobalParameter p = GlobalParameter.valueOf((String) gp.get("name"));
-                        JSONArray valuesJSON = (JSONArray) gp.get("range");
-                        int[] values = new int[valuesJSON.size()];
-                        for (int i = 0; i < valuesJSON.size(); i++) {
-                            values[i] = (int)(long)valuesJSON.get(i);
-                        }
-                        globalParameters.put(p, new games.terraformingmars.components.GlobalParameter(values, p.name()));
-
-                        // Process bonuses for this game when counters reach specific points
-                        if (gp.get("bonus") != null) {
-                            JSONArray bonus = (JSONArray) gp.get("bonus");
-                            for (Object o2 : bonus) {
-                                JSONObject b = (JSONObject) o2;
-                                String effectString = (String) b.get("effect");
-                                int threshold = (int)(long) b.get("threshold");
-                                bonuses.add(new Bonus(p, threshold, TMAction.parseActionOnCard(effectString, null, true)));
-                            }
+            // Process global parameters enabled
+            if (data.get("globalParameters") != null) {
+                JSONArray gps = (JSONArray) data.get("globalParameters");
+                for (Object o : gps) {
+                    JSONObject gp = (JSONObject) o;
+                    GlobalParameter p = GlobalParameter.valueOf((String) gp.get("name"));
+                    JSONArray valuesJSON = (JSONArray) gp.get("range");
+                    int[] values = new int[valuesJSON.size()];
+                    for (int i = 0; i < valuesJSON.size(); i++) {
+                        values[i] = (int)(long)valuesJSON.get(i);
+                    }
+                    globalParameters.put(p, new games.terraformingmars.components.GlobalParameter(values, p.name()));
+
+                    // Process bonuses for this game when counters reach specific points
+                    if (gp.get("bonus") != null) {
+                        JSONArray bonus = (JSONArray) gp.get("bonus");
+                        for (Object o2 : bonus) {
+                            JSONObject b = (JSONObject) o2;
+                            String effectString = (String) b.get("effect");
+                            int threshold = (int)(long) b.get("threshold");
+                            bonuses.add(new Bonus(p, threshold, TMAction.parseActionOnCard(effectString, null, true)));
                         }
                     }
                 }
-            } catch (IOException ignored) {
-            } catch (ParseException e) {
-                e.printStackTrace();
             }
         }
 
@@ -387,24 +384,39 @@ public class TMTypes {
         }
 
         private void loadCards(Deck<TMCard> deck, String path) {
-            JSONParser jsonParser = new JSONParser();
-            try (FileReader reader = new FileReader(path)) {
-                JSONArray data = (JSONArray) jsonParser.parse(reader);
-                for (Object o: data) {
-                    TMCard card;
-                    if (deck.getComponentName().equalsIgnoreCase("corporations")) {
-                        card = TMCard.loadCorporation((JSONObject)o);
-                    } else {
-//                        card = TMCard.loadCardHTML((JSONObject) o);
-                        card = TMCard.loadCardJSON((JSONObject) o);
-                    }
-                    deck.add(card);
+            JSONArray data = (JSONArray) loadDefinitions(path);
+            if (data == null) return;
+            for (Object o: data) {
+                TMCard card;
+                if (deck.getComponentName().equalsIgnoreCase("corporations")) {
+                    card = TMCard.loadCorporation((JSONObject)o);
+                } else {
+//                    card = TMCard.loadCardHTML((JSONObject) o);
+                    card = TMCard.loadCardJSON((JSONObject) o);
                 }
+                deck.add(card);
+            }
+        }
+    }
+
+    // The parsed contents of the board and card definition files, which are read once and then shared by all games
+    private static final Map<String, Object> definitions = new ConcurrentHashMap<>();
+
+    /**
+     * Reads a JSON file of board or card definitions, the first time it is asked for. The result must not be changed.
+     * @param path - path to the file
+     * @return the parsed contents of the file, or null if it doesn't exist
+     */
+    static Object loadDefinitions(String path) {
+        return definitions.computeIfAbsent(path, p -> {
+            try (FileReader reader = new FileReader(p)) {
+                return new JSONParser().parse(reader);
             } catch (IOException ignored) {
             } catch (ParseException e) {
                 e.printStackTrace();
             }
-        }
+            return null;
+        });
     }
 
 }
@@ -19,6 +19,8 @@ import java.util.*;
 import static games.terraformingmars.actions.TMAction.parseActionOnCard;
 
 public class TMCard extends Card {
+    // The requirements, tags, discounts and resource mappings of a card are set when it is loaded and never change
+    // after, so copies of the card share them. Actions and effects are copied, as playing the card changes them.
     public int number;
     public String annotation;
     public TMTypes.CardType cardType;
@@ -564,25 +566,10 @@ public class TMCard extends Card {
         copy.actionPlayed = actionPlayed;
         copy.annotation = annotation;
         copy.cost = cost;
-        if (requirements != null) {
-            copy.requirements = new HashSet<>();
-            for (Requirement r: requirements) {
-                copy.requirements.add(r.copy());
-            }
-        }
-        copy.tags = tags.clone();
-        if (discountEffects != null) {
-            copy.discountEffects = new LinkedList<>();
-            for (Discount discountEffect : discountEffects) {
-                copy.discountEffects.add(new Discount(discountEffect.a.copy(), discountEffect.b));
-            }
-        }
-        if (resourceMappings != null) {
-            copy.resourceMappings = new HashSet<>();
-            for (TMGameState.ResourceMapping rm: resourceMappings) {
-                copy.resourceMappings.add(rm.copy());
-            }
-        }
+        copy.requirements = requirements;
+        copy.tags = tags;
+        copy.discountEffects = discountEffects;
+        copy.resourceMappings = resourceMappings;
         if (persistingEffects != null) {
             copy.persistingEffects =  new Effect[persistingEffects.length];
             for (int i = 0; i < persistingEffects.length; i++) {
@@ -124,7 +124,7 @@ public class TMMapTile extends BoardNode {
         copyComponentTo(copy);
         copy.tilePlaced = tilePlaced;
         copy.type = type;
-        copy.resources = resources.clone();
+        copy.resources = resources;  // Never changed after the tile is loaded
         copy.volcanic = volcanic;
         copy.reserved = reserved;
         return copy;
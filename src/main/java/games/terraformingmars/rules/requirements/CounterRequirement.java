@@ -13,7 +13,9 @@ public class CounterRequirement implements Requirement<TMGameState> {
 
     public String counterCode;
 
-    int counterID = -1;
+    // Global parameter counter, found the first time the requirement is tested. Card requirements are shared by all
+    // copies of a card, which may be tested from several threads, so this is only done once.
+    volatile int counterID = -1;
     int thresholdIdx;
     public boolean max;  // if true, value of counter must be <= threshold, if false >=
 
@@ -25,11 +27,21 @@ public class CounterRequirement implements Requirement<TMGameState> {
 
     @Override
     public boolean testCondition(TMGameState gs) {
-        int value = getCounter(gs).getValueIdx();
+        Counter counter = getCounter(gs);
+        int value = counter.getValueIdx();
         int discount = discount(gs);
+        int threshold = threshold(counter);
 
-        if (max && (value - discount <= thresholdIdx)) return true;
-        return !max && (value + discount >= thresholdIdx);
+        if (max && (value - discount <= threshold)) return true;
+        return !max && (value + discount >= threshold);
+    }
+
+    // A max requirement without a threshold is limited by the maximum of the counter
+    private int threshold(Counter counter) {
+        if (max && thresholdIdx == -1) {
+            return counter.getMaximum()-1;
+        }
+        return thresholdIdx;
     }
 
     private int discount(TMGameState gs) {
@@ -62,7 +74,7 @@ public class CounterRequirement implements Requirement<TMGameState> {
         if (c == null) return text;
         TMTypes.GlobalParameter p = Utils.searchEnum(TMTypes.GlobalParameter.class, c.getComponentName());
         if (p != null) {
-            text = c.getValues()[thresholdIdx] + " " + p.getShortString();
+            text = c.getValues()[threshold(c)] + " " + p.getShortString();
         } else {
             text = c.getValue() + " " + c.getComponentName();
         }
@@ -94,25 +106,26 @@ public class CounterRequirement implements Requirement<TMGameState> {
     }
 
     private Counter getCounter(TMGameState gs) {
-        Counter which;
         if (counterID == -1) {
-            which = gs.stringToGPOrPlayerResCounter(counterCode, -1);
-            counterID = which.getComponentID();
-            if (which.getComponentName().equalsIgnoreCase("temperature") ||
-                    which.getComponentName().equalsIgnoreCase("venus")) {
-                // Turn to index
-                thresholdIdx = Utils.indexOf(which.getValues(), thresholdIdx);
+            Counter which = gs.stringToGPCounter(counterCode);
+            if (which == null) {
+                // A resource or production of the current player, which depends on who is testing it
+                return gs.stringToGPOrPlayerResCounter(counterCode, -1);
             }
-        } else {
-            gs.getAllComponents();
-            which = (Counter) gs.getComponentById(counterID);
-        }
-
-        if (max && thresholdIdx == -1) {
-            thresholdIdx = which.getMaximum()-1;
+            synchronized (this) {
+                if (counterID == -1) {
+                    if (which.getComponentName().equalsIgnoreCase("temperature") ||
+                            which.getComponentName().equalsIgnoreCase("venus")) {
+                        // Turn to index
+                        thresholdIdx = Utils.indexOf(which.getValues(), thresholdIdx);
+                    }
+                    counterID = which.getComponentID();
+                }
+            }
+            return which;
         }
-
-        return which;
+        gs.getAllComponents();
+        return (Counter) gs.getComponentById(counterID);
     }
 
     @Override
@@ -38,7 +38,7 @@ public class TicTacToeGameState extends AbstractGameState implements IPrintable,
     @Override
     protected TicTacToeGameState _copy(int playerId) {
         TicTacToeGameState s = new TicTacToeGameState(gameParameters.copy(), getNPlayers());
-        s.gridBoard = gridBoard.copy();
+        s.gridBoard = gridBoard.copyOnWrite();  // cells are only ever replaced, with setElement()
         return s;
     }
 
@@ -8,17 +8,17 @@ import games.loveletter.LoveLetterGameState;
 import games.tictactoe.TicTacToeGameState;
 
 import javax.tools.*;
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
-import java.io.IOException;
+import java.io.*;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.net.MalformedURLException;
 import java.net.URI;
-import java.net.URL;
-import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class StringHeuristic implements IStateHeuristic {
 
@@ -27,8 +27,11 @@ public class StringHeuristic implements IStateHeuristic {
 
     private String str;
 
+    // compiled heuristic classes, keyed by a hash of their source code
+    private static final Map<String, Class<?>> compiledClasses = new ConcurrentHashMap<>();
+
     Object heuristicClass;
-    Method heuristicFunction;
+    IStateHeuristic heuristicFunction;
 
 
     public String getFileName() {
@@ -71,11 +74,50 @@ public class StringHeuristic implements IStateHeuristic {
         // Method string
         //String className = fileName.replaceAll(".*/(.*?)\\.java", "$1");
         // Replace class name in the source code
-        String sourceCode = str.replaceAll("public class .*? \\{", "public class " + className + " {");
+        // The class also implements IStateHeuristic, so that evaluateState() is called directly (and not by reflection)
+        String sourceCode = str.replaceAll("public class .*? \\{", "public class " + className + " implements core.interfaces.IStateHeuristic {");
+
+        // The same code is only compiled once per JVM (for example when JavaCoder and a tournament use the same heuristic)
+        Class<?> dynamicClass = compiledClasses.computeIfAbsent(sourceHash(sourceCode), k -> compileAndLoad(sourceCode));
 
+        try {
+            // Create an instance of the compiled class (each StringHeuristic has its own, in case it has any state)
+            heuristicClass = dynamicClass.getDeclaredConstructor().newInstance();
+        } catch (InvocationTargetException | InstantiationException | IllegalAccessException |
+                 NoSuchMethodException | NoClassDefFoundError e) {
+            throw new RuntimeException(e);
+        }
+        heuristicFunction = (IStateHeuristic) heuristicClass;
+    }
+
+    private static String sourceHash(String sourceCode) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(sourceCode.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError("SHA-256 is not available", e);
+        }
+    }
+
+    // Compiles the source code in memory, and loads the class it defines (with any nested classes) from there
+    private Class<?> compileAndLoad(String sourceCode) {
         // Compile source code
         JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
-        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+        StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(null, null, null);
+        Map<String, ByteArrayOutputStream> classBytes = new HashMap<>();
+        JavaFileManager fileManager = new ForwardingJavaFileManager<>(standardFileManager) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(Location location, String name, JavaFileObject.Kind kind, FileObject sibling) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                classBytes.put(name, bytes);
+                return new SimpleJavaFileObject(URI.create("bytes:///" + name.replace('.', '/') + kind.extension), kind) {
+                    @Override
+                    public OutputStream openOutputStream() {
+                        return bytes;
+                    }
+                };
+            }
+        };
 
         // Create a file object for the source code
         JavaFileObject javaFileObject = new SimpleJavaFileObject(
@@ -110,20 +152,19 @@ public class StringHeuristic implements IStateHeuristic {
         }
 
         // Load the compiled class
+        ClassLoader classLoader = new ClassLoader(StringHeuristic.class.getClassLoader()) {
+            @Override
+            protected Class<?> findClass(String name) throws ClassNotFoundException {
+                ByteArrayOutputStream bytes = classBytes.get(name);
+                if (bytes == null)
+                    return super.findClass(name);
+                byte[] b = bytes.toByteArray();
+                return defineClass(name, b, 0, b.length);
+            }
+        };
         try {
-            URLClassLoader classLoader = URLClassLoader.newInstance(new URL[]{new File("").toURI().toURL()});
-
-            Class<?> dynamicClass = classLoader.loadClass(className);
-
-            // Create an instance of the compiled class
-            heuristicClass = dynamicClass.getDeclaredConstructor().newInstance();
-
-            // Find and invoke the method using reflection
-            heuristicFunction = dynamicClass.getMethod("evaluateState", AbstractGameState.class, int.class);
-
-            classLoader.close();
-        } catch (ClassNotFoundException | InvocationTargetException | InstantiationException | IllegalAccessException |
-                 NoSuchMethodException | IOException | NoClassDefFoundError e) {
+            return classLoader.loadClass(className);
+        } catch (ClassNotFoundException | NoClassDefFoundError e) {
             throw new RuntimeException(e);
         }
     }
@@ -138,11 +179,7 @@ public class StringHeuristic implements IStateHeuristic {
         if (playerResult == CoreConstants.GameResult.WIN_GAME)
             return 1;
 
-        try {
-            return (double) heuristicFunction.invoke(heuristicClass, gs, playerId);
-        } catch (IllegalAccessException | InvocationTargetException e) {
-            throw new RuntimeException("Error invoking heuristic function as it returns a null value : ", e);
-        }
+        return heuristicFunction.evaluateState(gs, playerId);
     }
 
     @Override
@@ -0,0 +1,456 @@
+package players.mcts;
+
+import core.actions.AbstractAction;
+
+import java.util.*;
+
+import static players.mcts.MCTSEnums.Information.Closed_Loop;
+import static players.mcts.MCTSEnums.OpponentTreePolicy.SelfOnly;
+import static players.mcts.MCTSEnums.TreePolicy.RegretMatching;
+import static utilities.Utils.normalise;
+import static utilities.Utils.pdf;
+
+/**
+ * An alternative layout for the statistics of a node, used when MCTSParams.statsLayout = FlatArrays.
+ * <p>
+ * Each action is given an index the first time it is seen at this node, which is its position in the list of
+ * actions. The visits, valid visits, total value and total squared value for each action are kept only in flat
+ * arrays by that index (with one array of values per player). On each visit the actions available are given their
+ * indices once, and selection and backup then run as indexed loops over the arrays, with no action hashing and no
+ * allocation. Ties are broken with the same shuffle as SingleTreeNode, so for the same seed both layouts make the
+ * same choices.
+ * <p>
+ * actionValues is a read-only view of the arrays, for bestAction() and anything looking at the tree after the
+ * search. Each ActionStats it returns is a new copy of the statistics of that action.
+ * With progressive widening (which sorts the actions on each visit anyway) the standard selection code is used.
+ * <p>
+ * This is not used with OMA or MCGS, which have their own node classes.
+ */
+public class ArrayStatsNode extends SingleTreeNode {
+
+    // the actions seen at this node, in the order they were first seen, and the index of each
+    List<AbstractAction> actions = new ArrayList<>();
+    Map<AbstractAction, Integer> actionIndex = new HashMap<>();
+    int nActions;
+    int[] visits = new int[0];
+    int[] validVisits = new int[0];
+    double[][] totValue;  // [player][action index]
+    double[][] squaredTotValue;
+
+    // The indices (plus the pUCT and progressive bias values, if used) of each of actionsFromOpenLoopState, in order.
+    // With open loop actionsFromOpenLoopState is a new list on every visit, and is indexed once when first used
+    List<AbstractAction> indexedActions;
+    int[] openLoopIndices = new int[0];
+    double[] openLoopPDF = new double[0];
+    double[] openLoopEstimates = new double[0];
+    double[] potentials = new double[0];  // working space for EXP3 and Regret Matching
+    int[] order = new int[0];  // the slots in the (shuffled) order they are considered in
+    int[] considered = new int[0];  // the slots of the actions considered at the last backup
+    int chosenSlot = -1;  // the slot of the last action returned by treePolicyAction()
+
+    protected ArrayStatsNode() {
+        actionValues = new StatsView();
+    }
+
+    @Override
+    protected void addActionStats(AbstractAction action, ActionStats stats) {
+        int i = nActions++;
+        actions.add(action);
+        actionIndex.put(action, i);
+        ensureCapacity(nActions, stats.totValue.length);
+        // as these may have been initialised from the action heuristic
+        visits[i] = stats.nVisits;
+        validVisits[i] = stats.validVisits;
+        for (int p = 0; p < totValue.length; p++) {
+            totValue[p][i] = stats.totValue[p];
+            squaredTotValue[p][i] = stats.squaredTotValue[p];
+        }
+    }
+
+    private ActionStats statsOf(int i) {
+        ActionStats stats = new ActionStats(totValue.length);
+        stats.nVisits = visits[i];
+        stats.validVisits = validVisits[i];
+        for (int p = 0; p < totValue.length; p++) {
+            stats.totValue[p] = totValue[p][i];
+            stats.squaredTotValue[p] = squaredTotValue[p][i];
+        }
+        return stats;
+    }
+
+    /**
+     * The statistics of this node as a Map from action to ActionStats. This cannot be changed.
+     */
+    private class StatsView extends AbstractMap<AbstractAction, ActionStats> {
+        @Override
+        public int size() {
+            return nActions;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return actionIndex.containsKey(key);
+        }
+
+        @Override
+        public ActionStats get(Object key) {
+            Integer i = actionIndex.get(key);
+            return i == null ? null : statsOf(i);
+        }
+
+        @Override
+        public Set<AbstractAction> keySet() {
+            return Collections.unmodifiableSet(actionIndex.keySet());
+        }
+
+        @Override
+        public Set<Entry<AbstractAction, ActionStats>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<AbstractAction, ActionStats>> iterator() {
+                    return new Iterator<>() {
+                        int i = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            return i < nActions;
+                        }
+
+                        @Override
+                        public Entry<AbstractAction, ActionStats> next() {
+                            if (i >= nActions)
+                                throw new NoSuchElementException();
+                            Entry<AbstractAction, ActionStats> entry = new SimpleImmutableEntry<>(actions.get(i), statsOf(i));
+                            i++;
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return nActions;
+                }
+            };
+        }
+    }
+
+    private void indexOpenLoopActions() {
+        int n = actionsFromOpenLoopState.size();
+        if (openLoopIndices.length < n) {
+            openLoopIndices = new int[n];
+            openLoopPDF = new double[n];
+            openLoopEstimates = new double[n];
+            potentials = new double[n];
+            order = new int[n];
+            considered = new int[n];
+        }
+        for (int slot = 0; slot < n; slot++) {
+            AbstractAction action = actionsFromOpenLoopState.get(slot);
+            openLoopIndices[slot] = actionIndex.get(action);
+            if (params.pUCTTemperature < 10000.0)
+                openLoopPDF[slot] = actionPDFEstimates.get(action);
+            if (params.progressiveBias > 0)
+                openLoopEstimates[slot] = actionValueEstimates.getOrDefault(action, 0.0);
+        }
+        indexedActions = actionsFromOpenLoopState;
+        chosenSlot = -1;
+    }
+
+    private void ensureCapacity(int size, int nPlayers) {
+        if (totValue == null) {
+            totValue = new double[nPlayers][0];
+            squaredTotValue = new double[nPlayers][0];
+        }
+        if (visits.length >= size)
+            return;
+        int capacity = Math.max(size, visits.length * 2);
+        visits = Arrays.copyOf(visits, capacity);
+        validVisits = Arrays.copyOf(validVisits, capacity);
+        for (int p = 0; p < nPlayers; p++) {
+            totValue[p] = Arrays.copyOf(totValue[p], capacity);
+            squaredTotValue[p] = Arrays.copyOf(squaredTotValue[p], capacity);
+        }
+    }
+
+    @Override
+    public int actionVisits(AbstractAction action) {
+        Integer i = actionIndex.get(action);
+        return i == null ? 0 : visits[i];
+    }
+
+    @Override
+    public double actionTotValue(AbstractAction action, int playerId) {
+        Integer i = actionIndex.get(action);
+        return i == null ? 0.0 : totValue[playerId][i];
+    }
+
+    @Override
+    public double nodeValue(int playerId) {
+        if (nVisits == 0) return 0.0;
+        double total = 0.0;
+        double[] values = totValue[playerId];
+        for (int i = 0; i < nActions; i++)
+            total += values[i];
+        return total / nVisits;
+    }
+
+    @Override
+    int[] actionVisits() {
+        return Arrays.copyOf(visits, nActions);
+    }
+
+    @Override
+    public AbstractAction treePolicyAction(boolean explore) {
+        if (params.progressiveWideningConstant >= 1.0)
+            return super.treePolicyAction(explore);
+        if (params.opponentTreePolicy == SelfOnly && parent != null && openLoopState != null && openLoopState.getCurrentPlayer() != decisionPlayer)
+            throw new AssertionError("An error has occurred. SelfOnly should only call uct when we are moving.");
+
+        if (indexedActions != actionsFromOpenLoopState)
+            indexOpenLoopActions();
+        int n = actionsFromOpenLoopState.size();
+        if (n == 0)
+            throw new AssertionError("We need to have at least one option");
+        if (n == 1) {
+            chosenSlot = 0;
+            return actionsFromOpenLoopState.get(0);
+        }
+
+        // The same shuffle (drawing the same random numbers) as SingleTreeNode uses to break ties, so that both
+        // layouts make the same choices from the same seed
+        for (int slot = 0; slot < n; slot++)
+            order[slot] = slot;
+        for (int i = n; i > 1; i--) {
+            int j = rnd.nextInt(i);
+            int swap = order[i - 1];
+            order[i - 1] = order[j];
+            order[j] = swap;
+        }
+        chosenSlot = switch (params.treePolicy) {
+            case Uniform -> order[rnd.nextInt(n)];
+            case Greedy -> explore && rnd.nextDouble() < params.exploreEpsilon ? order[rnd.nextInt(n)] : argMax(n, false);
+            case UCB, AlphaGo, UCB_Tuned -> argMax(n, true);
+            case RegretMatching, EXP3, NoAveragingRM ->
+                    explore && rnd.nextDouble() < params.exploreEpsilon ? order[rnd.nextInt(n)] : sample(n);
+        };
+        return actionsFromOpenLoopState.get(chosenSlot);
+    }
+
+    /**
+     * As SingleTreeNode.backUpSingleNode(), but updating the arrays directly. The action taken is found from the
+     * slot chosen by treePolicyAction(), so no action is looked up (unless progressive widening is used).
+     */
+    @Override
+    protected double[] backUpSingleNode(AbstractAction actionTaken, double[] result) {
+        if (params.discardStateAfterEachIteration) {
+            if (depth > 0)
+                openLoopState = null; // releases for Garbage Collection
+            if (depth > 0 && !params.maintainMasterState)
+                state = null;
+        }
+        nVisits++;
+        if (indexedActions != actionsFromOpenLoopState)
+            indexOpenLoopActions();
+        int n = consideredSlots();
+
+        int taken = takenSlot(actionTaken);
+        boolean valid = false;
+        for (int k = 0; k < n; k++) {
+            validVisits[openLoopIndices[considered[k]]]++;
+            valid |= considered[k] == taken;
+        }
+        if (!valid)
+            throw new AssertionError("We have somehow failed to find the action taken in the list of valid actions");
+
+        int i = openLoopIndices[taken];
+        for (int p = 0; p < result.length; p++) {
+            totValue[p][i] += result[p];
+            squaredTotValue[p][i] += result[p] * result[p];
+        }
+        visits[i]++;
+
+        if (params.treePolicy == RegretMatching) {
+            int updateEvery = Math.max(n, 10);
+            if (nVisits >= updateEvery && nVisits % updateEvery == 0)
+                updateRegretMatchingAverage(n);
+        }
+
+        if (params.backupPolicy == MCTSEnums.BackupPolicy.MonteCarlo)
+            return result;
+
+        double[] resultToPropagateUpwards = result.clone();
+        int best = bestSlot(n);
+        int b = openLoopIndices[best];
+        double[] maxValue = new double[result.length];
+        for (int p = 0; p < maxValue.length; p++)
+            maxValue[p] = totValue[p][b] / visits[b];
+        return switch (params.backupPolicy) {
+            case MonteCarlo -> result;
+            case Lambda -> {
+                for (int p = 0; p < result.length; p++)
+                    resultToPropagateUpwards[p] = params.backupLambda * result[p] + (1.0 - params.backupLambda) * totValue[p][i] / visits[i];
+                yield resultToPropagateUpwards;
+            }
+            case MaxLambda -> {
+                for (int p = 0; p < result.length; p++)
+                    resultToPropagateUpwards[p] = params.backupLambda * result[p] + (1.0 - params.backupLambda) * maxValue[p];
+                yield resultToPropagateUpwards;
+            }
+            case MaxMC -> {
+                if (nVisits > params.maxBackupThreshold && b != i) {
+                    double maxWeight = (nVisits - params.maxBackupThreshold) / (double) nVisits;
+                    for (int p = 0; p < result.length; p++)
+                        resultToPropagateUpwards[p] = (1 - maxWeight) * result[p] + maxWeight * maxValue[p];
+                }
+                yield resultToPropagateUpwards;
+            }
+        };
+    }
+
+    /**
+     * Puts the slots of the actions that are considered (all of them, unless progressive widening is used)
+     * into considered.
+     *
+     * @return the number of actions considered
+     */
+    private int consideredSlots() {
+        int n = actionsFromOpenLoopState.size();
+        if (params.progressiveWideningConstant < 1.0) {
+            for (int slot = 0; slot < n; slot++)
+                considered[slot] = slot;
+            return n;
+        }
+        List<AbstractAction> actionsToConsider = actionsToConsider(actionsFromOpenLoopState);
+        int count = 0;
+        for (int slot = 0; slot < n; slot++)
+            if (actionsToConsider.contains(actionsFromOpenLoopState.get(slot)))
+                considered[count++] = slot;
+        return count;
+    }
+
+    private int takenSlot(AbstractAction actionTaken) {
+        int n = actionsFromOpenLoopState.size();
+        if (chosenSlot >= 0 && chosenSlot < n && actionsFromOpenLoopState.get(chosenSlot) == actionTaken)
+            return chosenSlot;
+        for (int slot = 0; slot < n; slot++)
+            if (actionsFromOpenLoopState.get(slot).equals(actionTaken))
+                return slot;
+        throw new AssertionError("We have somehow failed to find the action taken in the list of actions");
+    }
+
+    /**
+     * As SingleTreeNode.bestAction(actionsToConsider): the considered slot with the highest mean value
+     */
+    private int bestSlot(int n) {
+        int best = -1;
+        double maxValue = -Double.MAX_VALUE;
+        for (int k = 0; k < n; k++) {
+            int i = openLoopIndices[considered[k]];
+            double value = visits[i] == 0 ? -Double.MAX_VALUE : totValue[decisionPlayer][i] / visits[i];
+            if (value > maxValue) {
+                maxValue = value;
+                best = considered[k];
+            }
+        }
+        return best == -1 ? considered[rnd.nextInt(n)] : best;
+    }
+
+    private void updateRegretMatchingAverage(int n) {
+        double nodeValue = nodeValue(decisionPlayer);
+        double[] av = new double[n];
+        for (int k = 0; k < n; k++)
+            av[k] = rmValue(considered[k], nodeValue);
+        double[] pdf = pdf(av);
+        for (int k = 0; k < n; k++)
+            regretMatchingAverage.merge(actionsFromOpenLoopState.get(considered[k]), pdf[k], Double::sum);
+    }
+
+    /**
+     * @return the slot in actionsFromOpenLoopState with the highest UCB (or Greedy) value, taking the first in the
+     * shuffled order if there are ties
+     */
+    private int argMax(int n, boolean ucb) {
+        int best = -1;
+        double bestValue = -Double.MAX_VALUE;
+        for (int k = 0; k < n; k++) {
+            int slot = order[k];
+            double value = ucb ? ucbValue(slot) : fullValue(slot);
+            if (value > bestValue) {
+                best = slot;
+                bestValue = value;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return a slot in actionsFromOpenLoopState sampled in proportion to its EXP3 or Regret Matching value
+     */
+    private int sample(int n) {
+        boolean exp3 = params.treePolicy == MCTSEnums.TreePolicy.EXP3;
+        double nodeValue = nodeValue(decisionPlayer);
+        double sum = 0.0;
+        boolean anyPositive = false;
+        for (int k = 0; k < n; k++) {
+            potentials[k] = exp3 ? exp3Value(order[k], nodeValue) : rmValue(order[k], nodeValue);
+            sum += potentials[k];
+            anyPositive |= potentials[k] > 0.0;
+        }
+        if (!anyPositive)
+            return order[rnd.nextInt(n)];
+        boolean uniform = Double.isNaN(sum) || Double.isInfinite(sum) || sum <= 0.0;
+        double target = rnd.nextDouble();
+        double cdf = 0.0;
+        for (int k = 0; k < n; k++) {
+            cdf += uniform ? 1.0 / n : potentials[k] / sum;
+            if (cdf >= target)
+                return order[k];
+        }
+        return order[n - 1];  // rounding error
+    }
+
+    private double actionValue(int i) {
+        return visits[i] > 0 ? totValue[decisionPlayer][i] / visits[i] : 0.0;
+    }
+
+    private double biasValue(int slot, int i) {
+        return params.progressiveBias * openLoopEstimates[slot] / (visits[i] + 1);
+    }
+
+    private double fullValue(int slot) {
+        int i = openLoopIndices[slot];
+        double value = actionValue(i);
+        if (params.normaliseRewards && visits[i] > 0)
+            value = normalise(value, root.lowReward, root.highReward);
+        if (params.progressiveBias > 0)
+            value += biasValue(slot, i);
+        return value;
+    }
+
+    private double ucbValue(int slot) {
+        int i = openLoopIndices[slot];
+        double childValue = fullValue(slot);
+        int effectiveTotalVisits = params.information == Closed_Loop ? nVisits : validVisits[i];
+        double explorationTerm = TreePolicyValues.explorationTerm(params, childValue, visits[i], effectiveTotalVisits,
+                totValue[decisionPlayer][i], squaredTotValue[decisionPlayer][i], root.lowReward, root.highReward);
+        if (params.pUCTTemperature < 10000.0)
+            explorationTerm *= openLoopPDF[slot];
+        double uctValue = childValue + explorationTerm;
+        if (Double.isNaN(uctValue))
+            throw new AssertionError("Numeric error calculating uctValue");
+        return uctValue;
+    }
+
+    private double exp3Value(int slot, double nodeValue) {
+        int i = openLoopIndices[slot];
+        return TreePolicyValues.exp3Value(params, actionValue(i), visits[i], nodeValue,
+                params.progressiveBias > 0 ? biasValue(slot, i) : 0.0, root.lowReward, root.highReward);
+    }
+
+    private double rmValue(int slot, double nodeValue) {
+        int i = openLoopIndices[slot];
+        return TreePolicyValues.rmValue(params, actionValue(i), visits[i], nodeValue, nVisits,
+                params.progressiveBias > 0 ? biasValue(slot, i) : 0.0);
+    }
+}
@@ -7,7 +7,8 @@ import java.util.*;
 
 public class MCGSNode extends SingleTreeNode {
 
-    private Map<Object, MCGSNode> transpositionMap = new HashMap<>();
+    // only used on the root node; either a HashMap, or a TranspositionTable if MCGSTableSize is set
+    private Map<Object, MCGSNode> transpositionMap;
     public List<Object> trajectory = new ArrayList<>();
     protected List<Object> keysTorRemove = new ArrayList<>();
 
@@ -17,6 +18,11 @@ public class MCGSNode extends SingleTreeNode {
 
     @Override
     protected void instantiate(SingleTreeNode parent, AbstractAction actionToReach, AbstractGameState state) {
+        if (parent == null && transpositionMap == null) {
+            // a new root (a reused one has been given the existing map)
+            transpositionMap = params.MCGSTableSize > 0 ?
+                    new TranspositionTable(params.MCGSTableSize, params.MCGSReplacement) : new HashMap<>();
+        }
         super.instantiate(parent, actionToReach, state);
         // the only additional instantiation we need to do is to add the state to the transposition table
         addToTranspositionTable(this, state);
@@ -25,13 +31,12 @@ public class MCGSNode extends SingleTreeNode {
     private void addToTranspositionTable(MCGSNode node, AbstractGameState keyState) {
         Object key = params.MCGSStateKey.getKey(keyState);
         MCGSNode graphRoot = (MCGSNode) root;
-        if (graphRoot.transpositionMap.containsKey(key)) {
-            if (graphRoot.transpositionMap.get(key) != node) {
-                throw new AssertionError("We have found a clash in the transposition table for key: " + key +
-                        ". We are expanding a new node, and this key already exists in the transposition table, but it is not the same node.");
-            }
-        } else {
+        MCGSNode existing = graphRoot.transpositionMap.get(key);
+        if (existing == null) {
             graphRoot.transpositionMap.put(key, node);
+        } else if (existing != node) {
+            throw new AssertionError("We have found a clash in the transposition table for key: " + key +
+                    ". We are expanding a new node, and this key already exists in the transposition table, but it is not the same node.");
         }
     }
 
@@ -48,13 +53,13 @@ public class MCGSNode extends SingleTreeNode {
         // this enforces (for the moment) the rule that each iteration adds one new node.
         MCGSNode graphRoot = (MCGSNode) root;
         Object key = params.MCGSStateKey.getKey(nextState);
-        if (graphRoot.transpositionMap.containsKey(key)) {
+        MCGSNode existing = graphRoot.transpositionMap.get(key);
+        if (existing != null) {
             if (params.MCGSExpandAfterClash) {
                 throw new AssertionError("Unexpected?");
             } else {
-                MCGSNode retValue = graphRoot.transpositionMap.get(key);
-                retValue.setActionsFromOpenLoopState(openLoopState);
-                return retValue;
+                existing.setActionsFromOpenLoopState(openLoopState);
+                return existing;
             }
         }
         return createChildNode(actionCopy, nextState);
@@ -104,11 +109,11 @@ public class MCGSNode extends SingleTreeNode {
         int depthDelta = depth;
         root = this;
         keysTorRemove = new ArrayList<>();
-        for (Object key : transpositionMap.keySet()) {
-            MCGSNode node = transpositionMap.get(key);
+        for (Map.Entry<Object, MCGSNode> entry : transpositionMap.entrySet()) {
+            MCGSNode node = entry.getValue();
             node.depth -= depthDelta;
             if (node.depth < 0) {
-                keysTorRemove.add(key);
+                keysTorRemove.add(entry.getKey());
             }
             node.root = this;
         }
@@ -135,6 +140,9 @@ public class MCGSNode extends SingleTreeNode {
             MCGSNode node = nRoot.transpositionMap.get(key);
             AbstractAction action = nRoot.actionsInTree.get(i).b;
             if (node == null) {
+                // a bounded table may have replaced a node on the trajectory with the one expanded on this iteration
+                if (nRoot.transpositionMap instanceof TranspositionTable)
+                    continue;
                 throw new AssertionError("Node should not be null");
             }
             result = node.backUpSingleNode(action, result);
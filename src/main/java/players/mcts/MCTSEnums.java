@@ -28,6 +28,26 @@ public class MCTSEnums {
         SingleVote, AverageValue, TotalVisits
     }
 
+    public enum StatsLayout {
+        ActionMap, FlatArrays
+        // ActionMap keeps the statistics for each action in an ActionStats object, looked up by action
+        // FlatArrays (ArrayStatsNode) keeps them only in arrays indexed by action, which are used for selection and backup
+    }
+
+    public enum TranspositionReplacement {
+        Depth, Visits, Always
+        // Which node in a full bucket of a bounded MCGS TranspositionTable is replaced by a new node
+        // Depth replaces the deepest (keeping the nodes nearest the root), Visits the one with fewest visits,
+        // and Always cycles through the bucket, replacing the node that was added longest ago
+    }
+
+    public enum ParallelMode {
+        None, Root, Tree
+        // None is the standard single-threaded search
+        // Root runs nThreads independent trees from the root state, and sums their root statistics at the end
+        // Tree has nThreads threads searching one shared tree, using virtual loss to spread them across different branches
+    }
+
     public enum BackupPolicy {
         MonteCarlo, Lambda, MaxLambda, MaxMC
         // MonteCarlo is the standard backup policy
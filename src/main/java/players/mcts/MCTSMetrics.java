@@ -106,6 +106,12 @@ public class MCTSMetrics implements IMetricsCollection {
             return new HashSet<>(Collections.singletonList(Event.GameEvent.ACTION_CHOSEN));
         }
 
+        @Override
+        public Set<Event.Content> eventContent(IGameEvent type) {
+            // the player's tree is replaced at its next decision, so must be read straight away
+            return EnumSet.allOf(Event.Content.class);
+        }
+
         @Override
         public Map<String, Class<?>> getColumns(int nPlayersPerGame, Set<String> playerNames) {
             Map<String, Class<?>> cols = new HashMap<>();
@@ -180,6 +186,12 @@ public class MCTSMetrics implements IMetricsCollection {
             return new HashSet<>(Collections.singletonList(Event.GameEvent.ACTION_CHOSEN));
         }
 
+        @Override
+        public Set<Event.Content> eventContent(IGameEvent type) {
+            // as TreeStats
+            return EnumSet.allOf(Event.Content.class);
+        }
+
         @Override
         public Map<String, Class<?>> getColumns(int nPlayersPerGame, Set<String> playerNames) {
             Map<String, Class<?>> cols = new HashMap<>();
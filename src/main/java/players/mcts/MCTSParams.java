@@ -22,7 +22,7 @@ import static players.mcts.MCTSEnums.Strategies.*;
 import static players.mcts.MCTSEnums.TreePolicy.*;
 import static  players.mcts.MCTSEnums.PerfectInformationPolicy.*;
 
-public class MCTSParams extends PlayerParameters {
+public class MCTSParams extends PlayerParameters implements Cloneable {
 
     public double K = 1.0;
     public int rolloutLength = 1000; // effectively to end of game
@@ -59,6 +59,8 @@ public class MCTSParams extends PlayerParameters {
     public IActionKey MASTActionKey;
     public IStateKey MCGSStateKey;
     public boolean MCGSExpandAfterClash = true;
+    public int MCGSTableSize = 0;  // maximum nodes in the MCGS graph; zero (or less) is unbounded
+    public MCTSEnums.TranspositionReplacement MCGSReplacement = MCTSEnums.TranspositionReplacement.Depth;
     public double firstPlayUrgency = 1e6;
     @NotNull public IActionHeuristic actionHeuristic = IActionHeuristic.nullReturn;
     public boolean useActionHeuristicForMoveOrdering = true;
@@ -77,6 +79,10 @@ public class MCTSParams extends PlayerParameters {
     public Class<?> instantiationClass;
     public int numDeterminizations = 1;
     public MCTSEnums.PerfectInformationPolicy perfectInformationPolicy = AverageValue;
+    public MCTSEnums.StatsLayout statsLayout = MCTSEnums.StatsLayout.ActionMap;
+    public MCTSEnums.ParallelMode parallelMode = MCTSEnums.ParallelMode.None;
+    public int nThreads = 1;
+    public int virtualLoss = 1;  // only used with ParallelMode.Tree; the number of visits at the lowest reward added to a path while a thread is rolling out from it
 
     public MCTSParams() {
         addTunableParameter("K", 1.0, Arrays.asList(0.03, 0.1, 0.3, 1.0, 3.0, 10.0, 30.0, 100.0));
@@ -114,6 +120,8 @@ public class MCTSParams extends PlayerParameters {
         addTunableParameter("MASTDefaultValue", 0.0);
         addTunableParameter("MCGSStateKey", IStateKey.class);
         addTunableParameter("MCGSExpandAfterClash", true);
+        addTunableParameter("MCGSTableSize", 0);
+        addTunableParameter("MCGSReplacement", MCTSEnums.TranspositionReplacement.Depth, Arrays.asList(MCTSEnums.TranspositionReplacement.values()));
         addTunableParameter("FPU", 1_000_000.0);
         addTunableParameter("actionHeuristic", IActionHeuristic.class,  IActionHeuristic.nullReturn);
         addTunableParameter("progressiveBias", 0.0);
@@ -128,6 +136,10 @@ public class MCTSParams extends PlayerParameters {
         addTunableParameter("instantiationClass", "players.mcts.MCTSPlayer");
         addTunableParameter("perfectInformationPolicy", AverageValue, Arrays.asList(MCTSEnums.PerfectInformationPolicy.values()));
         addTunableParameter("numDeterminizations", 1, Arrays.asList(1, 10, 30, 100, 300, 1000));
+        addTunableParameter("statsLayout", MCTSEnums.StatsLayout.ActionMap, Arrays.asList(MCTSEnums.StatsLayout.values()));
+        addTunableParameter("parallelMode", MCTSEnums.ParallelMode.None, Arrays.asList(MCTSEnums.ParallelMode.values()));
+        addTunableParameter("nThreads", 1, Arrays.asList(1, 2, 4, 8, 16));
+        addTunableParameter("virtualLoss", 1, Arrays.asList(0, 1, 3, 10));
     }
 
     @Override
@@ -178,6 +190,8 @@ public class MCTSParams extends PlayerParameters {
         heuristic = (IStateHeuristic) getParameterValue("heuristic");
         MCGSStateKey = (IStateKey) getParameterValue("MCGSStateKey");
         MCGSExpandAfterClash = (boolean) getParameterValue("MCGSExpandAfterClash");
+        MCGSTableSize = (int) getParameterValue("MCGSTableSize");
+        MCGSReplacement = (MCTSEnums.TranspositionReplacement) getParameterValue("MCGSReplacement");
         rolloutPolicyParams = (TunableParameters) getParameterValue("rolloutPolicyParams");
         opponentModelParams = (TunableParameters) getParameterValue("opponentModelParams");
         // we then null those elements of params which are constructed (lazily) from the above
@@ -214,6 +228,23 @@ public class MCTSParams extends PlayerParameters {
         if (numDeterminizations > 1) {
             budget = budget / numDeterminizations;
         }
+        statsLayout = (MCTSEnums.StatsLayout) getParameterValue("statsLayout");
+        parallelMode = (MCTSEnums.ParallelMode) getParameterValue("parallelMode");
+        nThreads = (int) getParameterValue("nThreads");
+        virtualLoss = (int) getParameterValue("virtualLoss");
+        if (parallelMode != MCTSEnums.ParallelMode.None) {
+            if (opponentTreePolicy == MCTSEnums.OpponentTreePolicy.MultiTree || numDeterminizations > 1) {
+                System.out.println("Setting Parallel Mode to None as it does not currently support MultiTree or Perfect Information");
+                parallelMode = MCTSEnums.ParallelMode.None;
+            } else if (parallelMode == MCTSEnums.ParallelMode.Tree && TreeParallelNode.unsupportedOption(this) != null) {
+                System.out.println("Setting Parallel Mode to Root as Tree parallelisation does not currently support " + TreeParallelNode.unsupportedOption(this));
+                parallelMode = MCTSEnums.ParallelMode.Root;
+            }
+            if (reuseTree) {
+                System.out.println("Setting reuseTree to false as it is not supported with parallel search");
+                reuseTree = false;
+            }
+        }
     }
 
     @Override
@@ -224,6 +255,49 @@ public class MCTSParams extends PlayerParameters {
         return new MCTSParams();
     }
 
+    /**
+     * Creates the parameters for one worker thread of a parallel search.
+     * Unlike copy() this is a field-by-field copy, so any local changes to the fields are retained. Each thread
+     * gets its own copy of the rollout policy and opponent model, and of the heuristics and keys (see
+     * copyForSearchThread(T)), so these can keep state safely. It also gets a new random seed and its share of the
+     * budget. The worker itself always searches with ParallelMode.None.
+     */
+    MCTSParams copyForSearchThread(long seed, int threadBudget) {
+        MCTSParams retValue;
+        try {
+            retValue = (MCTSParams) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+        retValue.setRandomSeed(seed);
+        retValue.budget = threadBudget;
+        retValue.parallelMode = MCTSEnums.ParallelMode.None;
+        retValue.nThreads = 1;
+        AbstractPlayer rollout = getRolloutStrategy();
+        AbstractPlayer opponent = getOpponentModel();
+        retValue.rolloutPolicy = rollout.copy();
+        retValue.opponentModel = opponent == rollout ? retValue.rolloutPolicy : opponent.copy();
+        retValue.heuristic = copyForSearchThread(heuristic);
+        retValue.actionHeuristic = copyForSearchThread(actionHeuristic);
+        retValue.MASTActionKey = copyForSearchThread(MASTActionKey);
+        retValue.MCGSStateKey = copyForSearchThread(MCGSStateKey);
+        return retValue;
+    }
+
+    /**
+     * A heuristic (or key) that is a player or a set of TunableParameters (such as MASTActionHeuristic) may keep
+     * state, and so each thread is given its own copy. Anything else (a lambda, say) is shared by all the threads,
+     * and must not change during the search.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T copyForSearchThread(T heuristic) {
+        if (heuristic instanceof AbstractPlayer player)
+            return (T) player.copy();
+        if (heuristic instanceof TunableParameters<?> tunable)
+            return (T) tunable.copy();
+        return heuristic;
+    }
+
     public AbstractPlayer getOpponentModel() {
         if (opponentModel == null) {
             if (oppModelType == PARAMS)
@@ -13,6 +13,7 @@ import utilities.Pair;
 import utilities.Utils;
 
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -28,6 +29,8 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer, IHasSt
     List<Map<Object, Pair<Integer, Double>>> MASTStats;
     protected Map<Object, Integer> oldGraphKeys = new HashMap<>();
     protected List<Object> recentlyRemovedKeys = new ArrayList<>();
+    // threads for a parallel search, kept from one decision to the next (see getSearchPool())
+    private ThreadPoolExecutor searchPool;
 
     public MCTSPlayer() {
         this(new MCTSParams());
@@ -79,6 +82,8 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer, IHasSt
                 return new OMATreeNode();
             else if (getParameters().opponentTreePolicy == MCGS || getParameters().opponentTreePolicy == MCGSSelfOnly)
                 return new MCGSNode();
+            else if (getParameters().statsLayout == MCTSEnums.StatsLayout.FlatArrays)
+                return new ArrayStatsNode();
             else
                 return new SingleTreeNode();
         };
@@ -135,7 +140,8 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer, IHasSt
                         // no change, so remove
                         mcgsRoot.getTranspositionMap().remove(key);
                         recentlyRemovedKeys.add(key);
-                    } else if (newVisits < oldVisits) {
+                    } else if (newVisits < oldVisits && !(mcgsRoot.getTranspositionMap() instanceof TranspositionTable)) {
+                        // (a bounded table can replace a node, and a new one for the same state then be added)
                         throw new AssertionError("Unexpectedly fewer visits to a state than before");
                     }
                 }
@@ -255,6 +261,12 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer, IHasSt
                 {
                     root = new ForestNode(this, gameState, rnd);
                 }
+                else if (getParameters().nThreads > 1 && getParameters().parallelMode == MCTSEnums.ParallelMode.Root) {
+                    root = new RootParallelNode(this, gameState, rnd);
+                }
+                else if (getParameters().nThreads > 1 && getParameters().parallelMode == MCTSEnums.ParallelMode.Tree) {
+                    root = new TreeParallelNode(this, gameState, rnd);
+                }
                 else {
                     root = SingleTreeNode.createRootNode(this, gameState, rnd, getFactory());
                 }
@@ -321,6 +333,38 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer, IHasSt
 
     }
 
+    /**
+     * Creates the player used by one worker thread of a parallel search (see RootParallelNode and TreeParallelNode).
+     * This has its own parameters, random seed and forward model (with copies of any decorators), and the same playerID.
+     * Forward models themselves hold no state (see AbstractForwardModel.reset()), so only the decorators need copying.
+     */
+    MCTSPlayer copyForSearchThread(long seed, int threadBudget) {
+        MCTSPlayer retValue = new MCTSPlayer(getParameters().copyForSearchThread(seed, threadBudget), toString());
+        retValue.setPlayerID(getPlayerID());
+        retValue.setForwardModel(getForwardModel());
+        return retValue;
+    }
+
+    /**
+     * The threads used by RootParallelNode and TreeParallelNode, one per params.nThreads. These are created on
+     * first use, and then shared by all the decisions of this player; they are daemon threads, and stop once they
+     * have been idle for a minute, so a player that is no longer used does not keep any threads running.
+     */
+    ExecutorService getSearchPool() {
+        int nThreads = getParameters().nThreads;
+        if (searchPool == null || searchPool.getMaximumPoolSize() != nThreads) {
+            if (searchPool != null)
+                searchPool.shutdown();
+            searchPool = new ThreadPoolExecutor(nThreads, nThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, toString() + " search");
+                thread.setDaemon(true);
+                return thread;
+            });
+            searchPool.allowCoreThreadTimeOut(true);
+        }
+        return searchPool;
+    }
+
     @Override
     public MCTSPlayer copy() {
         MCTSPlayer retValue = new MCTSPlayer((MCTSParams) getParameters().copy(), toString());
@@ -0,0 +1,118 @@
+package players.mcts;
+
+import core.AbstractGameState;
+import core.actions.AbstractAction;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static players.PlayerConstants.BUDGET_TIME;
+
+/**
+ * Root parallelisation of MCTS.
+ * <p>
+ * This runs params.nThreads completely independent searches from the root state, each on its own thread with its
+ * own tree, random seed, forward model and rollout policy. Once all have finished the statistics for each action
+ * at the root are summed across the trees, and the final decision is made from these in the usual way.
+ * <p>
+ * With a time budget each thread has the full (wall-clock) time available; with any other budget type the budget
+ * is split equally between the threads. The threads are run on the search pool of the MCTSPlayer.
+ */
+public class RootParallelNode extends SingleTreeNode {
+
+    SingleTreeNode[] roots;
+    MCTSPlayer mctsPlayer;
+
+    public RootParallelNode(MCTSPlayer player, AbstractGameState state, Random rnd) {
+        this.decisionPlayer = state.getCurrentPlayer();
+        this.params = player.getParameters();
+        this.forwardModel = player.getForwardModel();
+        this.rnd = rnd;
+        this.state = state;
+        this.root = this;
+        mctsPlayer = player;
+        MASTStatistics = new ArrayList<>();
+        for (int i = 0; i < state.getNPlayers(); i++)
+            MASTStatistics.add(new HashMap<>());
+        actionsFromOpenLoopState = forwardModel.computeAvailableActions(state, params.actionSpace);
+        roots = new SingleTreeNode[params.nThreads];
+    }
+
+    @Override
+    public void mctsSearch(long initialisationTime) {
+        initialiseRootMetrics();
+        initialisationTimeTaken = initialisationTime;
+        int nThreads = roots.length;
+        int threadBudget = params.budgetType == BUDGET_TIME ? params.budget : Math.max(1, params.budget / nThreads);
+
+        // All the set-up (and use of rnd) is done here, so that the search is reproducible for a given seed
+        // with any budget other than time
+        List<Callable<SingleTreeNode>> searches = new ArrayList<>();
+        for (int i = 0; i < nThreads; i++) {
+            long seed = rnd.nextLong();
+            MCTSPlayer worker = mctsPlayer.copyForSearchThread(seed, threadBudget);
+            AbstractGameState rootState = state.copy();
+            searches.add(() -> {
+                SingleTreeNode tree = SingleTreeNode.createRootNode(worker, rootState, new Random(seed), worker.getFactory());
+                tree.wallClockBudget = true;
+                if (worker.getParameters().getRolloutStrategy() instanceof IMASTUser)
+                    ((IMASTUser) worker.getParameters().getRolloutStrategy()).setMASTStats(tree.MASTStatistics);
+                if (worker.getParameters().getOpponentModel() instanceof IMASTUser)
+                    ((IMASTUser) worker.getParameters().getOpponentModel()).setMASTStats(tree.MASTStatistics);
+                tree.mctsSearch(initialisationTime);
+                return tree;
+            });
+        }
+
+        try {
+            List<Future<SingleTreeNode>> results = mctsPlayer.getSearchPool().invokeAll(searches);
+            for (int i = 0; i < nThreads; i++)
+                roots[i] = results.get(i).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Interrupted during parallel MCTS search", e);
+        } catch (ExecutionException e) {
+            throw new AssertionError("Error in parallel MCTS search thread", e.getCause());
+        }
+        mergeRootStatistics();
+    }
+
+    /**
+     * Sums the root statistics of each tree into this node, so that bestAction() and any later analysis of the
+     * decision see the combined search.
+     */
+    protected void mergeRootStatistics() {
+        actionValues = new HashMap<>();
+        nVisits = 0;
+        for (SingleTreeNode tree : roots) {
+            for (Map.Entry<AbstractAction, ActionStats> entry : tree.actionValues.entrySet()) {
+                ActionStats stats = entry.getValue();
+                ActionStats accumulated = actionValues.get(entry.getKey());
+                if (accumulated == null) {
+                    actionValues.put(entry.getKey(), stats.copy());
+                } else {
+                    for (int j = 0; j < stats.totValue.length; j++) {
+                        accumulated.totValue[j] += stats.totValue[j];
+                        accumulated.squaredTotValue[j] += stats.squaredTotValue[j];
+                    }
+                    accumulated.nVisits += stats.nVisits;
+                    accumulated.validVisits += stats.validVisits;
+                }
+            }
+            nVisits += tree.nVisits;
+            fmCallsCount += tree.fmCallsCount;
+            copyCount += tree.copyCount;
+            rolloutActionsTaken += tree.rolloutActionsTaken;
+            timeTaken = Math.max(timeTaken, tree.timeTaken);
+            highReward = Math.max(highReward, tree.highReward);
+            lowReward = Math.min(lowReward, tree.lowReward);
+        }
+        // any action valid at the root, but never tried, still needs an entry for bestAction()
+        for (AbstractAction action : actionsFromOpenLoopState)
+            actionValues.computeIfAbsent(action, a -> new ActionStats(state.getNPlayers()));
+    }
+
+    public SingleTreeNode[] getRoots() {
+        return roots;
+    }
+}
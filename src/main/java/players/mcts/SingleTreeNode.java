@@ -60,6 +60,8 @@ public class SingleTreeNode {
     protected double lowReward = Double.POSITIVE_INFINITY;
     protected Map<AbstractAction, Double> regretMatchingAverage = new HashMap<>();
     protected int nodeClash;
+    // if true, a time budget is wall-clock time rather than CPU time (as for the threads of a parallel search)
+    boolean wallClockBudget;
     // Root node of tree
     protected SingleTreeNode root;
     // Parent of this node
@@ -262,7 +264,7 @@ public class SingleTreeNode {
             }
             for (AbstractAction action : actionsFromOpenLoopState) {
                 if (!actionValues.containsKey(action)) {
-                    actionValues.put(action, new ActionStats(actionState.getNPlayers()));
+                    ActionStats stats = new ActionStats(actionState.getNPlayers());
                     children.put(action.copy(), null); // mark a new node to be expanded
                     // This *does* rely on a good equals method being implemented for Actions
                     if (!children.containsKey(action))
@@ -273,13 +275,12 @@ public class SingleTreeNode {
                         // This also ignores Progressive widening and initialises all possible actions
                         // As with pUCT, this won't cause any major issues, but will mean that the effective node visits
                         // will be higher than the visits of the considered actions.
-                        ActionStats stats = actionValues.get(action);
                         double actionEstimate = actionValueEstimates.getOrDefault(action, 0.0);
                         if (params.normaliseRewards) {
                             if (actionEstimate > root.highReward) root.highReward = actionEstimate;
                             if (actionEstimate < root.lowReward) root.lowReward = actionEstimate;
                         }
-                        int nActions = Math.max(actionValues.size(), actionsFromOpenLoopState.size());
+                        int nActions = Math.max(actionValues.size() + 1, actionsFromOpenLoopState.size());
                         stats.nVisits = params.initialiseVisits;
                         stats.validVisits = params.initialiseVisits * nActions;
                         stats.totValue[decisionPlayer] = actionEstimate * params.initialiseVisits;
@@ -292,6 +293,7 @@ public class SingleTreeNode {
                             nVisits = params.initialiseVisits * nActions;
                         }
                     }
+                    addActionStats(action, stats);
                 }
             }
         } else if (!params.opponentTreePolicy.selfOnlyTree) {
@@ -300,6 +302,14 @@ public class SingleTreeNode {
         }
     }
 
+    /**
+     * Stores the statistics for an action that has been seen at this node for the first time.
+     * Node types that keep their statistics in some other form (see ArrayStatsNode) override this.
+     */
+    protected void addActionStats(AbstractAction action, ActionStats stats) {
+        actionValues.put(action, stats);
+    }
+
     protected void initialiseRootMetrics() {
         timeTaken = 0.0;
         initialisationTimeTaken = 0.0;
@@ -318,7 +328,7 @@ public class SingleTreeNode {
         double avgTimeTaken;
         long remaining;
         int remainingLimit = params.breakMS;
-        ElapsedCpuTimer elapsedTimer = new ElapsedCpuTimer();
+        ElapsedCpuTimer elapsedTimer = wallClockBudget ? new ElapsedWallTimer() : new ElapsedCpuTimer();
         if (params.budgetType == BUDGET_TIME) {
             elapsedTimer.setMaxTimeMillis(params.budget - initialisationTime);
         }
@@ -520,7 +530,7 @@ public class SingleTreeNode {
             // However, we do break ties in favour of already expanded actions
             List<AbstractAction> sortedActions = new ArrayList<>(allAvailable);
             sortedActions.sort(Comparator.comparingDouble(a -> -actionValueEstimates.getOrDefault(a, 0.0) -
-                    actionValues.getOrDefault(a, new ActionStats(1)).nVisits * 1e-6));
+                    actionVisits(a) * 1e-6));
             return new ArrayList<>(sortedActions.subList(0, actionsToConsider));
         }
         return new ArrayList<>(allAvailable);
@@ -791,35 +801,10 @@ public class SingleTreeNode {
         // Now for the exploration term
         // default to standard UCB
         int effectiveTotalVisits = validVisitsFor(action);
-        // use first play urgency as replacement for exploration term if action not previously taken
-        // we add in the second term based on the AlphaGo selection rule, so that the exploration term is monotonically increasing with N
-        // this will come into play for small values of FPU and acts as soft-pruning rather than the harder form if FPU is a fixed constant
-        double explorationTerm = Math.max(params.firstPlayUrgency, params.K * Math.sqrt(effectiveTotalVisits));
-        if (actionVisits > 0) {
-            explorationTerm = switch (params.treePolicy) {
-                case UCB_Tuned -> {
-                    double range = root.highReward - root.lowReward;
-                    if (range < 1e-6) range = 1e-6;
-                    double meanSq = actionSquaredValue(action, decisionPlayer) / actionVisits;
-                    double standardVar = 0.25;
-                    if (params.normaliseRewards) {
-                        // we also need to standardise the sum of squares to calculate the variance
-                        meanSq = (meanSq
-                                + root.lowReward * root.lowReward
-                                - 2 * root.lowReward * actionTotValue(action, decisionPlayer) / actionVisits
-                        ) / (range * range);
-                    } else {
-                        // we need to modify the standard variance as it is not on a 0..1 basis (which is where 0.25 comes from)
-                        standardVar = Math.sqrt(range / 2.0);
-                    }
-                    double variance = Math.max(0.0, meanSq - childValue * childValue);
-                    double minTerm = Math.min(standardVar, variance + Math.sqrt(2 * Math.log(effectiveTotalVisits) / actionVisits));
-                    yield params.K * Math.sqrt(Math.log(effectiveTotalVisits) / actionVisits * minTerm);
-                }
-                case AlphaGo -> params.K * Math.sqrt(effectiveTotalVisits) / actionVisits;
-                default -> Math.sqrt(Math.log(effectiveTotalVisits) / actionVisits);
-            };
-        }
+        boolean tuned = TreePolicyValues.needsRewardStatistics(params);
+        double explorationTerm = TreePolicyValues.explorationTerm(params, childValue, actionVisits, effectiveTotalVisits,
+                tuned ? actionTotValue(action, decisionPlayer) : 0.0, tuned ? actionSquaredValue(action, decisionPlayer) : 0.0,
+                root.lowReward, root.highReward);
         if (params.pUCTTemperature < 10000.0) {
             // in this case we multiply the exploration term by the pUCT factor (the probability that the action would be taken by
             // our actionHeuristic). These were calculated in setActionsFromOpenLoopState
@@ -839,45 +824,16 @@ public class SingleTreeNode {
     }
 
     public double exp3Value(AbstractAction action) {
-        double actionValue = getActionValue(action);
         int actionVisits = actionVisits(action);
-        // we then normalise to [0, 1], or we subtract the mean action value to get an advantage (and reduce risk of
-        // NaN or Infinities when we exponentiate)
-        if (actionVisits > 0) {
-            if (params.normaliseRewards)
-                actionValue = normalise(actionValue, root.lowReward, root.highReward);
-            else
-                actionValue = actionValue - nodeValue(decisionPlayer);
-        }
-        if (params.progressiveBias > 0)
-            actionValue += getBiasValue(action);
-        double retValue = Math.exp(actionValue / params.exp3Boltzmann);
-
-        if (Double.isNaN(retValue) || Double.isInfinite(retValue)) {
-            System.out.printf("We have a non-number %s in EXP3 (from %.0f) somewhere from %s %n", retValue, actionValue, action);
-            retValue = 1e6;  // to avoid numeric issues later
-        }
-        // We add FPU after exponentiation for safety (as it likely a large number)
-        if (actionVisits == 0) {
-            retValue += params.firstPlayUrgency;
-        }
-        return retValue;
+        // the node value is only used for the advantage of an action that has been taken
+        double nodeValue = actionVisits > 0 && !params.normaliseRewards ? nodeValue(decisionPlayer) : 0.0;
+        return TreePolicyValues.exp3Value(params, getActionValue(action), actionVisits, nodeValue,
+                params.progressiveBias > 0 ? getBiasValue(action) : 0.0, root.lowReward, root.highReward);
     }
 
     public double rmValue(AbstractAction action) {
-        double actionValue = getActionValue(action);
-        if (params.progressiveBias > 0)
-            actionValue += getBiasValue(action);
-        double nodeValue = nodeValue(decisionPlayer);
-        // potential value is our estimate of our accumulated reward if we had always taken this action
-        double potentialValue = actionValue * nVisits;
-        double regret = potentialValue - nodeValue * nVisits;
-        // We add FPU after all the exponentiation for safety
-        int actionVisits = actionVisits(action);
-        if (actionVisits == 0) {
-            regret += params.firstPlayUrgency;
-        }
-        return Math.max(0.0, regret);
+        return TreePolicyValues.rmValue(params, getActionValue(action), actionVisits(action), nodeValue(decisionPlayer),
+                nVisits, params.progressiveBias > 0 ? getBiasValue(action) : 0.0);
     }
 
     private double getActionValue(AbstractAction action) {
@@ -0,0 +1,287 @@
+package players.mcts;
+
+import core.Zobrist;
+
+import java.util.*;
+
+/**
+ * A fixed-capacity transposition table for MCGS, used in place of the unbounded HashMap when
+ * MCTSParams.MCGSTableSize is greater than zero.
+ * <p>
+ * Each key is reduced to a 64-bit hash (all 64 bits of a Long key, such as a Zobrist hash, are used; anything else
+ * starts from its hashCode()). The low bits of this pick a bucket of WAYS slots, and a key can only be stored in its
+ * own bucket. The full key is kept as well, so that two keys with the same 64-bit hash are never confused. A lookup
+ * that finds a different key in its bucket is counted as a collision.
+ * <p>
+ * When a new node is added to a full bucket, one of the nodes already there is replaced according to the
+ * MCTSEnums.TranspositionReplacement policy. The root of the search (the only node at depth 0) is never replaced;
+ * in the rare case that a bucket holds nothing else, the new node is not stored (and is counted as a failed insert).
+ * A replaced node is simply dropped from the graph; its statistics are lost, and if the same state is reached again
+ * it is expanded afresh.
+ */
+public class TranspositionTable extends AbstractMap<Object, MCGSNode> {
+
+    public static final int WAYS = 4;
+
+    private final long[] hashes;
+    private final Object[] keys;
+    private final MCGSNode[] nodes;
+    private final byte[] nextToReplace;  // by bucket, for the Always policy
+    private final int bucketMask;
+    private final MCTSEnums.TranspositionReplacement replacement;
+    private int size;
+
+    // counters; these are cumulative across searches until resetCounters() is called
+    private long hits, misses, collisions, replacements, failedInserts;
+
+    /**
+     * @param capacity    - the maximum number of nodes stored; rounded up so that the number of buckets is a power of two
+     * @param replacement - which node in a full bucket is replaced by a new one
+     */
+    public TranspositionTable(int capacity, MCTSEnums.TranspositionReplacement replacement) {
+        int buckets = Integer.highestOneBit(Math.max(1, (capacity + WAYS - 1) / WAYS));
+        if (buckets * WAYS < capacity)
+            buckets *= 2;
+        hashes = new long[buckets * WAYS];
+        keys = new Object[buckets * WAYS];
+        nodes = new MCGSNode[buckets * WAYS];
+        nextToReplace = new byte[buckets];
+        bucketMask = buckets - 1;
+        this.replacement = replacement;
+    }
+
+    public static long hash64(Object key) {
+        // mixed, so that all bits of the hash depend on all bits of the key
+        return Zobrist.mix(key instanceof Long ? (Long) key : key.hashCode());
+    }
+
+    private int bucketStart(long hash) {
+        return ((int) hash & bucketMask) * WAYS;
+    }
+
+    // the slot holding key, or -1 if it is not in the table; a different key in any slot looked at is a collision
+    private int find(Object key, long hash) {
+        int start = bucketStart(hash);
+        boolean collided = false;
+        for (int i = start; i < start + WAYS; i++) {
+            if (keys[i] == null)
+                continue;
+            if (hashes[i] == hash && keys[i].equals(key)) {
+                if (collided)
+                    collisions++;
+                return i;
+            }
+            collided = true;
+        }
+        if (collided)
+            collisions++;
+        return -1;
+    }
+
+    @Override
+    public MCGSNode get(Object key) {
+        if (key == null)
+            return null;
+        int slot = find(key, hash64(key));
+        if (slot == -1) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return nodes[slot];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key != null && find(key, hash64(key)) != -1;
+    }
+
+    /**
+     * Adds the node, replacing one already in its bucket if that is full.
+     *
+     * @return the node previously stored under this key (if any), but not a node with a different key that was
+     * replaced
+     */
+    @Override
+    public MCGSNode put(Object key, MCGSNode node) {
+        Objects.requireNonNull(key);
+        long hash = hash64(key);
+        int slot = find(key, hash);
+        if (slot != -1) {
+            MCGSNode old = nodes[slot];
+            nodes[slot] = node;
+            return old;
+        }
+        slot = emptyOrReplaceable(hash);
+        if (slot == -1) {
+            failedInserts++;  // every node in the bucket is a root; so this one is not stored
+            return null;
+        }
+        if (keys[slot] != null)
+            replacements++;
+        else
+            size++;
+        hashes[slot] = hash;
+        keys[slot] = key;
+        nodes[slot] = node;
+        return null;
+    }
+
+    private int emptyOrReplaceable(long hash) {
+        int start = bucketStart(hash);
+        int best = -1;
+        for (int i = start; i < start + WAYS; i++) {
+            if (keys[i] == null)
+                return i;
+            if (nodes[i].depth <= 0)
+                continue;  // the root (or a node about to be removed as it is above the root)
+            if (best == -1 || replaceBefore(nodes[i], nodes[best]))
+                best = i;
+        }
+        if (replacement == MCTSEnums.TranspositionReplacement.Always) {
+            // we cycle round the slots of the bucket, so the node replaced is the one stored longest ago
+            int bucket = start / WAYS;
+            for (int n = 0; n < WAYS; n++) {
+                int i = start + (nextToReplace[bucket] + n) % WAYS;
+                if (nodes[i].depth > 0) {
+                    nextToReplace[bucket] = (byte) ((i - start + 1) % WAYS);
+                    return i;
+                }
+            }
+        }
+        return best;
+    }
+
+    // true if a should be replaced in preference to b (under the Always policy the bucket is cycled through instead)
+    private boolean replaceBefore(MCGSNode a, MCGSNode b) {
+        return switch (replacement) {
+            case Depth -> a.depth > b.depth || (a.depth == b.depth && a.nVisits < b.nVisits);
+            case Visits -> a.nVisits < b.nVisits || (a.nVisits == b.nVisits && a.depth > b.depth);
+            case Always -> false;
+        };
+    }
+
+    @Override
+    public MCGSNode remove(Object key) {
+        if (key == null)
+            return null;
+        int slot = find(key, hash64(key));
+        if (slot == -1)
+            return null;
+        MCGSNode old = nodes[slot];
+        clearSlot(slot);
+        return old;
+    }
+
+    private void clearSlot(int slot) {
+        keys[slot] = null;
+        nodes[slot] = null;
+        size--;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(nodes, null);
+        size = 0;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of times a key was looked up and a different key was found in its bucket before it (or at
+     * all, if it was not there)
+     */
+    public long getCollisions() {
+        return collisions;
+    }
+
+    /**
+     * @return the number of nodes replaced by a new node with a different key
+     */
+    public long getReplacements() {
+        return replacements;
+    }
+
+    /**
+     * @return the number of nodes that were not stored, as every node in their bucket was the root
+     */
+    public long getFailedInserts() {
+        return failedInserts;
+    }
+
+    public void resetCounters() {
+        hits = 0;
+        misses = 0;
+        collisions = 0;
+        replacements = 0;
+        failedInserts = 0;
+    }
+
+    @Override
+    public Set<Entry<Object, MCGSNode>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Object, MCGSNode>> iterator() {
+                return new Iterator<>() {
+                    int next = advance(0);
+                    int last = -1;
+
+                    private int advance(int from) {
+                        while (from < keys.length && keys[from] == null)
+                            from++;
+                        return from;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < keys.length;
+                    }
+
+                    @Override
+                    public Entry<Object, MCGSNode> next() {
+                        if (!hasNext())
+                            throw new NoSuchElementException();
+                        last = next;
+                        next = advance(next + 1);
+                        int slot = last;
+                        return new SimpleEntry<>(keys[slot], nodes[slot]) {
+                            @Override
+                            public MCGSNode setValue(MCGSNode value) {
+                                nodes[slot] = value;
+                                return super.setValue(value);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (last == -1 || keys[last] == null)
+                            throw new IllegalStateException();
+                        clearSlot(last);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
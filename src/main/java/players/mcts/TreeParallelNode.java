@@ -0,0 +1,413 @@
+package players.mcts;
+
+import core.AbstractGameState;
+import core.actions.AbstractAction;
+import utilities.Pair;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import static players.PlayerConstants.BUDGET_TIME;
+import static players.mcts.MCTSEnums.TreePolicy.*;
+
+/**
+ * Tree parallelisation of MCTS.
+ * <p>
+ * params.nThreads threads all search one shared tree, without any lock on it. The shared tree is made of
+ * TreeParallelNode.Node objects rather than SingleTreeNodes: all their statistics are atomic counters and adders,
+ * and children are added with a compare-and-set, so any number of threads can select through, expand and back up
+ * the tree at once. Everything that changes during one iteration (the open loop state, the available actions, the
+ * path taken) is kept by the thread doing it, and never stored on the nodes.
+ * <p>
+ * Each thread has its own parameters, forward model, rollout policy and random number generator, from
+ * MCTSPlayer.copyForSearchThread(). The threads are run on the search pool of the MCTSPlayer.
+ * <p>
+ * As soon as a thread has chosen its path through the tree, every (node, action) on that path has params.virtualLoss
+ * visits at the lowest reward seen so far added. This makes that path less attractive to the other threads, so
+ * they spread out across the tree rather than all following the same line. The virtual loss is removed when the
+ * real result is backed up.
+ * <p>
+ * Budgets other than time are shared across all threads (so the total number of iterations or FM calls is
+ * the same as in a single-threaded search). A time budget is wall-clock time for the whole search.
+ * <p>
+ * Options that need more than the statistics on each node are not supported; see unsupportedOption().
+ */
+public class TreeParallelNode extends SingleTreeNode {
+
+    MCTSPlayer mctsPlayer;
+    Node tree;
+    private final AtomicInteger iterationsStarted = new AtomicInteger();
+    private final AtomicLong fmCalls = new AtomicLong();
+    private final AtomicLong copies = new AtomicLong();
+    private final AtomicLong rolloutActions = new AtomicLong();
+    // the lowest and highest rewards seen so far, as the bits of a double
+    private final AtomicLong lowRewardBits = new AtomicLong();
+    private final AtomicLong highRewardBits = new AtomicLong();
+
+    /**
+     * One node of the shared tree. visits is the number of times a path has passed through the node (including any
+     * virtual visits of paths still being rolled out).
+     */
+    static class Node {
+        final int decisionPlayer;
+        final int depth;
+        final AtomicInteger visits = new AtomicInteger();
+        final ConcurrentHashMap<AbstractAction, Edge> edges = new ConcurrentHashMap<>();
+
+        Node(int decisionPlayer, int depth) {
+            this.decisionPlayer = decisionPlayer;
+            this.depth = depth;
+        }
+
+        Edge edge(AbstractAction action, int nPlayers) {
+            Edge edge = edges.get(action);
+            if (edge == null) {
+                Edge newEdge = new Edge(nPlayers);
+                edge = edges.putIfAbsent(action.copy(), newEdge);
+                if (edge == null)
+                    edge = newEdge;
+            }
+            return edge;
+        }
+    }
+
+    /**
+     * The statistics for one action from a Node, and the nodes it leads to (by the player to act next).
+     */
+    static class Edge {
+        final AtomicInteger visits = new AtomicInteger();
+        final AtomicInteger validVisits = new AtomicInteger();
+        final DoubleAdder[] totValue;
+        final DoubleAdder[] squaredTotValue;
+        final AtomicReferenceArray<Node> children;
+
+        Edge(int nPlayers) {
+            totValue = new DoubleAdder[nPlayers];
+            squaredTotValue = new DoubleAdder[nPlayers];
+            for (int p = 0; p < nPlayers; p++) {
+                totValue[p] = new DoubleAdder();
+                squaredTotValue[p] = new DoubleAdder();
+            }
+            children = new AtomicReferenceArray<>(nPlayers);
+        }
+
+        ActionStats toActionStats() {
+            ActionStats stats = new ActionStats(totValue.length);
+            stats.nVisits = visits.get();
+            stats.validVisits = validVisits.get();
+            for (int p = 0; p < totValue.length; p++) {
+                stats.totValue[p] = totValue[p].sum();
+                stats.squaredTotValue[p] = squaredTotValue[p].sum();
+            }
+            return stats;
+        }
+    }
+
+    /**
+     * What one thread needs to remember about its path through the tree while it rolls out.
+     */
+    private record Selection(AbstractGameState leafState, int lastActor, List<Node> trajectory, List<Edge> edges,
+                             double virtualReward, int virtualVisits) {
+    }
+
+    public TreeParallelNode(MCTSPlayer player, AbstractGameState state, Random rnd) {
+        this.decisionPlayer = state.getCurrentPlayer();
+        this.params = player.getParameters();
+        this.forwardModel = player.getForwardModel();
+        this.rnd = rnd;
+        this.state = state;
+        this.root = this;
+        mctsPlayer = player;
+        MASTStatistics = new ArrayList<>();
+        for (int i = 0; i < state.getNPlayers(); i++)
+            MASTStatistics.add(new HashMap<>());
+        actionsFromOpenLoopState = forwardModel.computeAvailableActions(state, params.actionSpace);
+    }
+
+    /**
+     * @return why the shared tree cannot be used with these parameters, or null if it can
+     */
+    static String unsupportedOption(MCTSParams params) {
+        if (params.useMAST)
+            return "MAST";
+        if (params.information == MCTSEnums.Information.Closed_Loop)
+            return "Closed_Loop";
+        switch (params.opponentTreePolicy) {
+            case MCGS, MCGSSelfOnly, OMA, OMA_All, MultiTree:
+                return params.opponentTreePolicy.name();
+            default:
+        }
+        if (params.treePolicy == EXP3 || params.treePolicy == RegretMatching || params.treePolicy == NoAveragingRM)
+            return params.treePolicy.name();
+        if (params.backupPolicy != MCTSEnums.BackupPolicy.MonteCarlo)
+            return params.backupPolicy.name() + " backup";
+        if (params.progressiveWideningConstant >= 1.0 || params.progressiveBias > 0 || params.pUCTTemperature < 10000.0
+                || params.initialiseVisits > 0)
+            return "action heuristics in the tree";
+        return null;
+    }
+
+    @Override
+    public void mctsSearch(long initialisationTime) {
+        String unsupported = unsupportedOption(params);
+        if (unsupported != null)
+            throw new AssertionError("Tree parallelisation does not support " + unsupported);
+        initialiseRootMetrics();
+        initialisationTimeTaken = initialisationTime;
+        tree = new Node(decisionPlayer, 0);
+        iterationsStarted.set(0);
+        fmCalls.set(0);
+        copies.set(0);
+        rolloutActions.set(0);
+        lowRewardBits.set(Double.doubleToLongBits(Double.POSITIVE_INFINITY));
+        highRewardBits.set(Double.doubleToLongBits(Double.NEGATIVE_INFINITY));
+        long startTime = System.nanoTime();
+        long deadline = startTime + (params.budget - initialisationTime) * 1_000_000;
+
+        List<Callable<Void>> searches = new ArrayList<>();
+        for (int i = 0; i < params.nThreads; i++) {
+            MCTSPlayer worker = mctsPlayer.copyForSearchThread(rnd.nextLong(), params.budget);
+            searches.add(() -> {
+                search(worker, deadline);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> result : mctsPlayer.getSearchPool().invokeAll(searches))
+                result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Interrupted during parallel MCTS search", e);
+        } catch (ExecutionException e) {
+            throw new AssertionError("Error in parallel MCTS search thread", e.getCause());
+        }
+        timeTaken = (System.nanoTime() - startTime) / 1_000_000.0;
+
+        // we then copy the root statistics of the shared tree, so that bestAction() and any later
+        // analysis of the decision work as normal
+        actionValues = new HashMap<>();
+        children = new LinkedHashMap<>();
+        for (Map.Entry<AbstractAction, Edge> entry : tree.edges.entrySet()) {
+            actionValues.put(entry.getKey(), entry.getValue().toActionStats());
+            children.put(entry.getKey(), null);
+        }
+        for (AbstractAction action : actionsFromOpenLoopState)
+            actionValues.computeIfAbsent(action, a -> new ActionStats(state.getNPlayers()));
+        nVisits = tree.visits.get();
+        fmCallsCount = (int) fmCalls.get();
+        copyCount = (int) copies.get();
+        rolloutActionsTaken = (int) rolloutActions.get();
+        lowReward = Double.longBitsToDouble(lowRewardBits.get());
+        highReward = Double.longBitsToDouble(highRewardBits.get());
+    }
+
+    /**
+     * The loop run by each thread, until the budget is used up
+     */
+    private void search(MCTSPlayer worker, long deadline) {
+        // The thread's own node, which is never part of the tree. It uses the thread's parameters, forward model
+        // and rollout policy, and is used to move through the tree and to roll out from the leaf
+        SingleTreeNode roller = new SingleTreeNode();
+        roller.params = worker.getParameters();
+        roller.forwardModel = worker.getForwardModel();
+        roller.rnd = worker.getRnd();
+        roller.root = roller;
+        roller.decisionPlayer = decisionPlayer;
+        roller.redeterminisationPlayer = redeterminisationPlayer == -1 ? decisionPlayer : redeterminisationPlayer;
+
+        long threadStart = System.nanoTime();
+        int numIters = 0;
+        while (!budgetUsed()) {
+            roller.forwardModel.reset();
+            roller.fmCallsCount = 0;
+            roller.copyCount = 0;
+            roller.actionsInTree = new ArrayList<>();
+            roller.actionsInRollout = new ArrayList<>();
+
+            Selection selection = select(roller);
+            roller.openLoopState = selection.leafState;
+            double[] delta = roller.rollout(selection.lastActor);
+            backUp(selection, roller.processResultsForParanoidOrSelfOnly(delta), delta);
+
+            fmCalls.addAndGet(roller.fmCallsCount);
+            copies.addAndGet(roller.copyCount);
+            rolloutActions.addAndGet(roller.actionsInRollout.size());
+
+            numIters++;
+            if (params.budgetType == BUDGET_TIME) {
+                long now = System.nanoTime();
+                double remaining = (deadline - now) / 1_000_000.0;
+                double avgTimeTaken = (now - threadStart) / 1_000_000.0 / numIters;
+                if (remaining <= 2 * avgTimeTaken || remaining <= params.breakMS)
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Reserves the next iteration, if there is any budget left. The time budget is checked by each thread
+     * after each of its iterations.
+     */
+    private boolean budgetUsed() {
+        int started = iterationsStarted.getAndIncrement();
+        return switch (params.budgetType) {
+            case BUDGET_TIME -> false;
+            case BUDGET_ITERATIONS -> started >= params.budget;
+            case BUDGET_FM_CALLS -> fmCalls.get() > params.budget || started > params.budget;
+            case BUDGET_COPY_CALLS -> copies.get() > params.budget || started > params.budget;
+            case BUDGET_FMANDCOPY_CALLS -> (copies.get() + fmCalls.get()) > params.budget || started > params.budget;
+        };
+    }
+
+    /**
+     * Selection and expansion, from a new copy of the root state
+     */
+    private Selection select(SingleTreeNode roller) {
+        MCTSParams threadParams = roller.params;
+        AbstractGameState current = params.information == MCTSEnums.Information.Open_Loop ?
+                state.copy() : state.copy(roller.redeterminisationPlayer);
+        roller.copyCount++;
+        boolean selfOnly = params.opponentTreePolicy.selfOnlyTree;
+        int nPlayers = current.getNPlayers();
+
+        List<Node> trajectory = new ArrayList<>();
+        List<Edge> edges = new ArrayList<>();
+        Node cur = tree;
+        while (current.isNotTerminalForPlayer(cur.decisionPlayer) && cur.depth < params.maxTreeDepth
+                && current.getCurrentPlayer() == cur.decisionPlayer) {
+            List<AbstractAction> available = roller.forwardModel.computeAvailableActions(current, threadParams.actionSpace);
+            if (available.isEmpty())
+                break;
+            AbstractAction chosen = chooseAction(cur, available, nPlayers, roller.rnd);
+            Edge edge = cur.edge(chosen, nPlayers);
+            roller.advanceState(current, chosen, false);
+            trajectory.add(cur);
+            edges.add(edge);
+
+            boolean terminal = !current.isNotTerminal() || (selfOnly && !current.isNotTerminalForPlayer(decisionPlayer));
+            if (terminal)
+                break;
+            int nextPlayer = selfOnly ? cur.decisionPlayer : current.getCurrentPlayer();
+            Node next = edge.children.get(nextPlayer);
+            if (next == null) {
+                // expansion; if another thread gets there first, we use its node
+                edge.children.compareAndSet(nextPlayer, null, new Node(current.getCurrentPlayer(), cur.depth + 1));
+                break;
+            }
+            cur = next;
+        }
+        List<Pair<Integer, AbstractAction>> actions = roller.actionsInTree;
+        int lastActor = actions.isEmpty() ? decisionPlayer : actions.get(actions.size() - 1).a;
+
+        // until the first result is backed up we have no idea what a 'loss' is, and no virtual loss is applied
+        double low = Double.longBitsToDouble(lowRewardBits.get());
+        boolean rewardsKnown = Double.isFinite(low);
+        double virtualReward = rewardsKnown ? low : 0.0;
+        int virtualVisits = rewardsKnown ? params.virtualLoss : 0;
+        for (int i = 0; i < trajectory.size(); i++)
+            update(trajectory.get(i), edges.get(i), virtualVisits, virtualReward, null);
+        return new Selection(current, lastActor, trajectory, edges, virtualReward, virtualVisits);
+    }
+
+    /**
+     * The tree policy, from the statistics on the node and the actions available in this thread's state.
+     * This counts a valid visit for each of the available actions.
+     */
+    private AbstractAction chooseAction(Node node, List<AbstractAction> available, int nPlayers, Random rnd) {
+        Edge[] nodeEdges = new Edge[available.size()];
+        for (int i = 0; i < available.size(); i++) {
+            nodeEdges[i] = node.edge(available.get(i), nPlayers);
+            nodeEdges[i].validVisits.incrementAndGet();
+        }
+        if (available.size() == 1)
+            return available.get(0);
+        if (params.treePolicy == Uniform || (params.treePolicy == Greedy && rnd.nextDouble() < params.exploreEpsilon))
+            return available.get(rnd.nextInt(available.size()));
+
+        double low = Double.longBitsToDouble(lowRewardBits.get());
+        double high = Double.longBitsToDouble(highRewardBits.get());
+        // ties are broken at random, by starting from a random point
+        int offset = rnd.nextInt(available.size());
+        int best = -1;
+        double bestValue = -Double.MAX_VALUE;
+        for (int j = 0; j < available.size(); j++) {
+            int i = (j + offset) % available.size();
+            double value = params.treePolicy == Greedy ?
+                    meanValue(nodeEdges[i], node.decisionPlayer, low, high) :
+                    ucbValue(nodeEdges[i], node.decisionPlayer, low, high);
+            if (value > bestValue) {
+                bestValue = value;
+                best = i;
+            }
+        }
+        return available.get(best);
+    }
+
+    private double meanValue(Edge edge, int player, double low, double high) {
+        int actionVisits = edge.visits.get();
+        if (actionVisits <= 0)
+            return 0.0;
+        double value = edge.totValue[player].sum() / actionVisits;
+        if (params.normaliseRewards)
+            value = high > low ? (value - low) / (high - low) : 0.0;
+        return value;
+    }
+
+    /**
+     * As SingleTreeNode.ucbValue(), for the UCB, AlphaGo and UCB_Tuned tree policies
+     */
+    private double ucbValue(Edge edge, int player, double low, double high) {
+        double childValue = meanValue(edge, player, low, high);
+        boolean tuned = TreePolicyValues.needsRewardStatistics(params);
+        return childValue + TreePolicyValues.explorationTerm(params, childValue, edge.visits.get(),
+                Math.max(1, edge.validVisits.get()), tuned ? edge.totValue[player].sum() : 0.0,
+                tuned ? edge.squaredTotValue[player].sum() : 0.0, low, high);
+    }
+
+    /**
+     * Removes the virtual loss from the path, and adds the result of the rollout.
+     *
+     * @param result - the result to back up (after any Paranoid or SelfOnly processing)
+     * @param delta  - the raw result of the rollout, used to track the range of rewards
+     */
+    private void backUp(Selection selection, double[] result, double[] delta) {
+        for (double reward : delta) {
+            lowRewardBits.getAndUpdate(bits -> reward < Double.longBitsToDouble(bits) ? Double.doubleToLongBits(reward) : bits);
+            highRewardBits.getAndUpdate(bits -> reward > Double.longBitsToDouble(bits) ? Double.doubleToLongBits(reward) : bits);
+        }
+        for (int i = selection.trajectory.size() - 1; i >= 0; i--) {
+            Node node = selection.trajectory.get(i);
+            Edge edge = selection.edges.get(i);
+            update(node, edge, -selection.virtualVisits, selection.virtualReward, null);
+            update(node, edge, 1, 0.0, result);
+        }
+    }
+
+    /**
+     * Adds count visits to the node and edge; with the given result for all players, or (if result is null) with
+     * the given reward for the player acting at the node. A negative count removes visits.
+     */
+    private static void update(Node node, Edge edge, int count, double reward, double[] result) {
+        if (count == 0)
+            return;
+        if (result == null) {
+            edge.totValue[node.decisionPlayer].add(count * reward);
+            edge.squaredTotValue[node.decisionPlayer].add(count * reward * reward);
+        } else {
+            for (int p = 0; p < result.length; p++) {
+                edge.totValue[p].add(count * result[p]);
+                edge.squaredTotValue[p].add(count * result[p] * result[p]);
+            }
+        }
+        edge.visits.addAndGet(count);
+        node.visits.addAndGet(count);
+    }
+
+    /**
+     * @return the root of the shared tree of the last search
+     */
+    Node getTree() {
+        return tree;
+    }
+}
@@ -0,0 +1,120 @@
+package players.mcts;
+
+import static players.mcts.MCTSEnums.TreePolicy.UCB_Tuned;
+import static utilities.Utils.normalise;
+
+/**
+ * The formulae used by the tree policies to value an action, from the statistics of that action. These are shared
+ * by the node layouts (SingleTreeNode, ArrayStatsNode and TreeParallelNode), which each keep the statistics in their
+ * own way and pass them in.
+ */
+final class TreePolicyValues {
+
+    private TreePolicyValues() {
+    }
+
+    /**
+     * The exploration term of the UCB, AlphaGo and UCB_Tuned tree policies (before any pUCT factor is applied).
+     *
+     * @param childValue      - the value of the action, as used for exploitation (normalised if normaliseRewards)
+     * @param actionVisits    - the number of times the action has been taken
+     * @param totalVisits     - the number of times the action could have been taken
+     * @param totValue        - the total reward of the action for the deciding player (only used by UCB_Tuned)
+     * @param squaredTotValue - the total squared reward of the action for the deciding player (only used by UCB_Tuned)
+     * @param lowReward       - the lowest reward seen so far in the search (only used by UCB_Tuned)
+     * @param highReward      - the highest reward seen so far in the search (only used by UCB_Tuned)
+     */
+    static double explorationTerm(MCTSParams params, double childValue, int actionVisits, int totalVisits,
+                                  double totValue, double squaredTotValue, double lowReward, double highReward) {
+        // use first play urgency as replacement for exploration term if action not previously taken
+        // we add in the second term based on the AlphaGo selection rule, so that the exploration term is monotonically increasing with N
+        // this will come into play for small values of FPU and acts as soft-pruning rather than the harder form if FPU is a fixed constant
+        if (actionVisits == 0)
+            return Math.max(params.firstPlayUrgency, params.K * Math.sqrt(totalVisits));
+        return switch (params.treePolicy) {
+            case UCB_Tuned -> {
+                double range = highReward - lowReward;
+                if (!(range >= 1e-6)) range = 1e-6;
+                double meanSq = squaredTotValue / actionVisits;
+                double standardVar = 0.25;
+                if (params.normaliseRewards) {
+                    // we also need to standardise the sum of squares to calculate the variance
+                    meanSq = (meanSq
+                            + lowReward * lowReward
+                            - 2 * lowReward * totValue / actionVisits
+                    ) / (range * range);
+                } else {
+                    // we need to modify the standard variance as it is not on a 0..1 basis (which is where 0.25 comes from)
+                    standardVar = Math.sqrt(range / 2.0);
+                }
+                double variance = Math.max(0.0, meanSq - childValue * childValue);
+                double minTerm = Math.min(standardVar, variance + Math.sqrt(2 * Math.log(totalVisits) / actionVisits));
+                yield params.K * Math.sqrt(Math.log(totalVisits) / actionVisits * minTerm);
+            }
+            case AlphaGo -> params.K * Math.sqrt(totalVisits) / actionVisits;
+            default -> Math.sqrt(Math.log(totalVisits) / actionVisits);
+        };
+    }
+
+    /**
+     * @return true if explorationTerm() reads the total (squared) reward and range of rewards
+     */
+    static boolean needsRewardStatistics(MCTSParams params) {
+        return params.treePolicy == UCB_Tuned;
+    }
+
+    /**
+     * The potential of an action for the EXP3 tree policy.
+     *
+     * @param actionValue  - the mean reward of the action for the deciding player (0 if it has not been taken)
+     * @param actionVisits - the number of times the action has been taken
+     * @param nodeValue    - the mean reward of the node for the deciding player (only used if the action has been
+     *                     taken and rewards are not normalised)
+     * @param bias         - the progressive bias of the action
+     */
+    static double exp3Value(MCTSParams params, double actionValue, int actionVisits, double nodeValue, double bias,
+                            double lowReward, double highReward) {
+        // we normalise to [0, 1], or we subtract the mean action value to get an advantage (and reduce risk of
+        // NaN or Infinities when we exponentiate)
+        if (actionVisits > 0) {
+            if (params.normaliseRewards)
+                actionValue = normalise(actionValue, lowReward, highReward);
+            else
+                actionValue = actionValue - nodeValue;
+        }
+        actionValue += bias;
+        double retValue = Math.exp(actionValue / params.exp3Boltzmann);
+
+        if (Double.isNaN(retValue) || Double.isInfinite(retValue)) {
+            System.out.printf("We have a non-number %s in EXP3 (from %.0f) somewhere %n", retValue, actionValue);
+            retValue = 1e6;  // to avoid numeric issues later
+        }
+        // We add FPU after exponentiation for safety (as it likely a large number)
+        if (actionVisits == 0) {
+            retValue += params.firstPlayUrgency;
+        }
+        return retValue;
+    }
+
+    /**
+     * The potential of an action for the Regret Matching tree policies; the regret of not always having taken it.
+     *
+     * @param actionValue  - the mean reward of the action for the deciding player (0 if it has not been taken)
+     * @param actionVisits - the number of times the action has been taken
+     * @param nodeValue    - the mean reward of the node for the deciding player
+     * @param nodeVisits   - the number of visits to the node
+     * @param bias         - the progressive bias of the action
+     */
+    static double rmValue(MCTSParams params, double actionValue, int actionVisits, double nodeValue, int nodeVisits,
+                          double bias) {
+        actionValue += bias;
+        // potential value is our estimate of our accumulated reward if we had always taken this action
+        double potentialValue = actionValue * nodeVisits;
+        double regret = potentialValue - nodeValue * nodeVisits;
+        // We add FPU after all the exponentiation for safety
+        if (actionVisits == 0) {
+            regret += params.firstPlayUrgency;
+        }
+        return Math.max(0.0, regret);
+    }
+}
@@ -24,10 +24,13 @@ public class TreeStatistics {
     public double meanActionsAtNode;
     public double meanActionsExpanded;
     public int oneActionNodes;
+    public TranspositionTable transpositionTable;  // only for MCGS with a bounded table
 
 
     public void mcgsStats(MCGSNode root) {
         Map<Object, MCGSNode> transpositionMap = root.getTranspositionMap();
+        if (transpositionMap instanceof TranspositionTable table)
+            transpositionTable = table;
         totalNodes = transpositionMap.size();
         Map<Integer, List<MCGSNode>> byDepth = transpositionMap.values().stream()
                 .collect(Collectors.groupingBy(MCGSNode::getDepth));
@@ -130,6 +133,10 @@ public class TreeStatistics {
         List<String> leafDist = Arrays.stream(leafDistribution).mapToObj(n -> String.format("%2.0f%%", n * 100.0)).collect(toList());
         retValue.append(String.format("\tNodes  by depth: %s\n", String.join(", ", nodeDist)));
         retValue.append(String.format("\tLeaves by depth: %s\n", String.join(", ", leafDist)));
+        if (transpositionTable != null)
+            retValue.append(String.format("\tTransposition table: capacity %d, %d hits, %d misses, %d collisions, %d replacements, %d failed inserts\n",
+                    transpositionTable.capacity(), transpositionTable.getHits(), transpositionTable.getMisses(),
+                    transpositionTable.getCollisions(), transpositionTable.getReplacements(), transpositionTable.getFailedInserts()));
 
         return retValue.toString();
     }
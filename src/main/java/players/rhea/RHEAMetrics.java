@@ -41,6 +41,12 @@ public class RHEAMetrics implements IMetricsCollection {
             return new HashSet<>(Collections.singletonList(Event.GameEvent.ACTION_CHOSEN));
         }
 
+        @Override
+        public Set<Event.Content> eventContent(IGameEvent type) {
+            // reads the current population of the player
+            return EnumSet.allOf(Event.Content.class);
+        }
+
         @Override
         public Map<String, Class<?>> getColumns(int nPlayersPerGame, Set<String> playerNames) {
             Map<String, Class<?>> stats = new LinkedHashMap<>();
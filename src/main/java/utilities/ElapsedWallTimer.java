@@ -0,0 +1,13 @@
+package utilities;
+
+/**
+ * An ElapsedCpuTimer that measures wall-clock time rather than the CPU time of the current thread.
+ * This is for budgets shared by several threads, which between them may use more CPU time than has passed.
+ */
+public class ElapsedWallTimer extends ElapsedCpuTimer {
+
+    @Override
+    protected long getTime() {
+        return System.nanoTime();
+    }
+}
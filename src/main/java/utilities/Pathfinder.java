@@ -1,6 +1,7 @@
 package utilities;
 import core.AbstractGameState;
 import core.components.BoardNode;
+import core.components.GraphBoard;
 import core.components.GridBoard;
 import core.properties.PropertyVector2D;
 
@@ -8,373 +9,415 @@ import java.util.*;
 
 import static core.CoreConstants.coordinateHash;
 /**
- * Path finding utility. Pre-computes and caches shortest paths between nodes.
- * At the moment, it uses GridBoard objects as nodes in the pathfinding graph.
+ * Path finding utility for the nodes of a GridBoard or a GraphBoard.
+ * <p>
+ * The nodes are numbered 0..nNodes()-1 (see indexOf()), and the connections between them are held in arrays: the
+ * neighbours of node i are targets[start[i]] ... targets[start[i + 1] - 1], with the costs in the same positions of
+ * costs. The searches (A*, a breadth-first distance field and Dijkstra from several sources) work on these arrays,
+ * and share a set of scratch arrays (including the heap), so repeated queries do not allocate, apart from their
+ * results. A Pathfinder is therefore not thread-safe.
+ * <p>
+ * The connections are read from the nodes when the Pathfinder is created; call notifyNewNode() after the board
+ * changes.
  */
 public class Pathfinder {
 
     /**
-     * Graph to be used for the path finding.
-     * TODO: This could become a GraphBoard at some point.
+     * The board the nodes come from (one of these is null).
      */
-    private GridBoard graph;
+    private final GridBoard grid;
+    private final GraphBoard graph;
 
-    /**
-     * Cache of shortest path from node i to the others
-     */
-    private TreeMap<Integer, TreeMap<Integer, Path>> shortestPaths;
+    private BoardNode[] nodes;
+    private Map<Integer, Integer> indexById;
+    private int[] start;
+    private int[] targets;
+    private double[] costs;
 
     /**
-     * Utility for comparing nodes in A*'s priority queue.
+     * Positions of the nodes for the A* heuristic, and the factor that makes the straight line distance a lower
+     * bound of the cost (0 if some nodes have no position, when A* is Dijkstra).
      */
-    private NodeComparator nodeComparator;
-
+    private double[] xs, ys;
+    private double heuristicScale;
+
+    // Scratch arrays for the searches. A node's entries are only valid if its stamp is the current search's.
+    private int[] stamp;
+    private int currentStamp;
+    private double[] g;
+    private int[] parent;
+    private int[] closed;  // a node is closed if this is the current search's stamp
+    private int[] heap;
+    private int[] heapPos;
+    private double[] heapKey;
+    private int heapSize;
+    private int[] queue;
 
     /**
      * Constructor of the pathfinder.
-     * @param g Graph of the game.
+     * @param g Grid of the game; its cells are the nodes.
      */
     public Pathfinder(GridBoard g)
     {
-        graph = g;
-        shortestPaths = new TreeMap<>();
-        nodeComparator = new NodeComparator();
-
-        initShortestPaths();
+        grid = g;
+        graph = null;
+        build();
     }
 
-    private void initShortestPaths()
+    /**
+     * Constructor of the pathfinder.
+     * @param g Graph of the game.
+     */
+    public Pathfinder(GraphBoard g)
     {
-        int w = graph.getWidth();
-        int h = graph.getHeight();
-        for(int i = 0; i < w; i++)
-        {
-            for (int j = 0; j < h; j++)
-            {
-                BoardNode n = graph.getElement(i,j);
-                if(n != null)
-                    initShortestPaths(n);
-            }
-        }
+        grid = null;
+        graph = g;
+        build();
     }
 
     /**
-     * Initializes the cache of shortest paths from a given node.
-     * @param origin node the paths start in.
+     * Reads the nodes and connections from the board again, after nodes or connections have been added.
      */
-    private void initShortestPaths(BoardNode origin)
+    public void notifyNewNode()
     {
-        HashMap<BoardNode, Double> nodeNeighbours = origin.getNeighbours();
-        int originID = origin.getComponentID();
+        build();
+    }
 
-        for(BoardNode node : nodeNeighbours.keySet()) {
-            assignCost(originID, node.getComponentID(), nodeNeighbours.get(node));
+    private void build()
+    {
+        List<BoardNode> nodeList = new ArrayList<>();
+        List<double[]> positions = new ArrayList<>();
+        if (grid != null) {
+            for (int j = 0; j < grid.getHeight(); j++) {
+                for (int i = 0; i < grid.getWidth(); i++) {
+                    BoardNode n = grid.getElement(i, j);
+                    if (n != null) {
+                        nodeList.add(n);
+                        positions.add(new double[]{i, j});
+                    }
+                }
+            }
+        } else {
+            for (BoardNode n : graph.getBoardNodes()) {
+                nodeList.add(n);
+                PropertyVector2D position = (PropertyVector2D) n.getProperty(coordinateHash);
+                positions.add(position == null ? null : new double[]{position.values.getX(), position.values.getY()});
+            }
         }
 
-        //Default one, to itself
-        assignCost(originID, originID, 0);
+        int n = nodeList.size();
+        nodes = nodeList.toArray(new BoardNode[0]);
+        indexById = new HashMap<>();
+        for (int i = 0; i < n; i++)
+            indexById.put(nodes[i].getComponentID(), i);
+
+        start = new int[n + 1];
+        int nEdges = 0;
+        for (BoardNode node : nodes)
+            nEdges += node.getNeighbours().size();
+        targets = new int[nEdges];
+        costs = new double[nEdges];
+        int e = 0;
+        for (int i = 0; i < n; i++) {
+            start[i] = e;
+            for (Map.Entry<BoardNode, Double> neighbour : nodes[i].getNeighbours().entrySet()) {
+                Integer index = indexById.get(neighbour.getKey().getComponentID());
+                if (index == null) continue;
+                targets[e] = index;
+                costs[e++] = neighbour.getValue();
+            }
+        }
+        start[n] = e;
+
+        xs = new double[n];
+        ys = new double[n];
+        heuristicScale = positions.contains(null) ? 0 : Double.MAX_VALUE;
+        for (int i = 0; i < n && heuristicScale > 0; i++) {
+            xs[i] = positions.get(i)[0];
+            ys[i] = positions.get(i)[1];
+        }
+        // the smallest cost per unit of distance over all connections, so the heuristic never over-estimates
+        for (int i = 0; i < n && heuristicScale > 0; i++) {
+            for (int k = start[i]; k < start[i + 1]; k++) {
+                double d = straightLine(i, targets[k]);
+                if (d > 0) heuristicScale = Math.min(heuristicScale, costs[k] / d);
+            }
+        }
+        if (heuristicScale == Double.MAX_VALUE) heuristicScale = 0;
+
+        stamp = new int[n];
+        currentStamp = 0;
+        g = new double[n];
+        parent = new int[n];
+        closed = new int[n];
+        heap = new int[n];
+        heapPos = new int[n];
+        heapKey = new double[n];
+        queue = new int[n];
     }
 
-    public void notifyNewNode()
-    {
-        initShortestPaths();
+    public int nNodes() {
+        return nodes.length;
     }
 
     /**
-     * Assigns a cost to a path between origin and destination.
-     * @param originID Origin node id.
-     * @param destID Destination node id.
-     * @param cost Cost from a_originID to a_destID
+     * @return the index of the node with the given component ID, or -1 if it is not on the board
      */
-    private void assignCost(int originID, int destID, double cost)
-    {
-        //1st, get the origin:
-        TreeMap<Integer, Path> originPaths = shortestPaths.get(originID);
-        if(originPaths == null)
-        {
-            originPaths = new TreeMap<>();
-
-            //There will be no destination, for sure, so lets assign it.
-            Path newPath = new Path(originID, destID, cost);
-            originPaths.put(destID, newPath);
-
-            //To the array!
-            shortestPaths.put(originID, originPaths);
-
-            //And that's all
-            return;
-        }
-
-        //2nd, destination
-        Path pathToDest = originPaths.get(destID);
-        if(pathToDest == null)
-        {
-            //no path, create it and insert.
-            Path newPath = new Path(originID, destID, cost);
-            originPaths.put(destID, newPath);
-
-            //And that's all
-            return;
-        }
+    public int indexOf(int componentID) {
+        Integer index = indexById.get(componentID);
+        return index == null ? -1 : index;
+    }
 
-        //3rd, there is a path, no cost; assign.
-        pathToDest.cost = cost;
+    public BoardNode getNode(int index) {
+        return nodes[index];
     }
 
     /**
-     * Gets the shortest path from origin to destination, stored in the shortestPath cache.
-     * Returns an empty path with maximum cost (Double.MAX_VALUE) if no path can be found.
+     * Gets the shortest path between two nodes in the graph.
+     * @param gState game state (not used; the nodes are those of the board given to the constructor).
      * @param origin origin node id.
      * @param destination destination node id.
-     * @return Path from origin to destination, an empty path with maximum cost (Double.MAX_VALUE) if not found.
+     * @return the path from origin to destination (with the IDs of all the nodes on it, and its cost), or an empty
+     * path from origin to origin if there is none.
      */
-    private Path getShortestPath(int origin, int destination)
+    public Path getPath(AbstractGameState gState, int origin, int destination)
     {
-        Path p = shortestPaths.get(origin).get(destination);
-        if(p == null)
-            return new Path(origin, destination, Double.MAX_VALUE);
+        int from = indexOf(origin), to = indexOf(destination);
+        if (from < 0 || to < 0)
+            return new Path(origin, origin);
+        int[] nodePath = path(from, to);
+        if (nodePath == null)
+            return new Path(origin, origin);
+
+        Path p = new Path(origin, destination, g[to]);
+        p.points.clear();
+        for (int i : nodePath)
+            p.points.add(nodes[i].getComponentID());
         return p;
     }
 
     /**
-     * Returns all the shortest paths in cache from a given node.
-     * @param origin origin node id.
-     * @return a TreeMap with all the paths from the origin node.
+     * A* search between two nodes.
+     * @return the node indices on the shortest path from 'from' to 'to' (both included), or null if there is none
      */
-    private TreeMap<Integer, Path> getShortestPaths(int origin){return shortestPaths.get(origin);}
+    public int[] path(int from, int to)
+    {
+        if (Double.isInfinite(aStar(from, to)))
+            return null;
+        int length = 1;
+        for (int i = to; i != from; i = parent[i])
+            length++;
+        int[] result = new int[length];
+        for (int i = to, k = length - 1; k >= 0; i = parent[i], k--)
+            result[k] = i;
+        return result;
+    }
 
     /**
-     * Includes the given path in the shortest paths cache.
-     * @param p Path to include.
+     * A* search between two nodes.
+     * @return the cost of the shortest path, or Double.POSITIVE_INFINITY if there is none
      */
-    private void setShortestPath(Path p)
+    public double cost(int from, int to)
     {
-        TreeMap<Integer, Path> shortest = getShortestPaths(p.originID);
-        shortest.put(p.destinationID, p);
+        return aStar(from, to);
     }
 
-    /**
-     * Gets a path between two nodes in the graph.  It checks the cache of shortest paths to see if it was calculated before.
-     * @param gState game state with access to the board.
-     * @param origin origin node id.
-     * @param destination destination node id.
-     * @return the path from a_origin to a_destination.
-     */
-    public Path getPath(AbstractGameState gState, int origin, int destination)
+    private double aStar(int from, int to)
     {
-        Path shortestP = getShortestPath(origin, destination);
-        if(shortestP.cost != Double.MAX_VALUE)
-            //The path was there.
-            return shortestP;
-
-        //No path, need to calculate with A*
-        Path p = new Path(origin, destination);
-        boolean pathFound = _a_star(gState, p);
-
-        if(!pathFound)
-            //If path could not be found, clear it
-            p.points.clear();
-        else
-            //Else, extract the path
-            p = getShortestPath(origin,destination);
-
-        //Return the path if it is meaningful.
-        if (p.points.size() > 0 && p.cost < Integer.MAX_VALUE)
-            return p;
-
-        //If not, return an empty path.
-        else return new Path(origin, origin);
+        newSearch();
+        visit(from, 0, -1);
+        push(from, heuristic(from, to));
+        while (heapSize > 0) {
+            int current = pop();
+            if (current == to)
+                return g[to];
+            closed[current] = currentStamp;
+            for (int k = start[current]; k < start[current + 1]; k++) {
+                int next = targets[k];
+                double cost = g[current] + costs[k];
+                if (stamp[next] != currentStamp) {
+                    visit(next, cost, current);
+                    push(next, cost + heuristic(next, to));
+                } else if (closed[next] != currentStamp && cost < g[next]) {
+                    g[next] = cost;
+                    parent[next] = current;
+                    decreaseKey(next, cost + heuristic(next, to));
+                }
+            }
+        }
+        return Double.POSITIVE_INFINITY;
     }
 
     /**
-     * A* (A Star) method, to calculate the shortest path between the nodes path.originID and path.destinationID
-     * @param gState game state
-     * @param path Path to fill with intermediate nodes.
-     * @return true if the path could be found.
+     * Breadth-first search, counting the connections (whatever their cost) from 'from' to every node.
+     * @param result array of nNodes() to fill in (or null to create one)
+     * @return the number of connections to each node, or -1 for nodes that cannot be reached
      */
-    private boolean _a_star(AbstractGameState gState, Path path)
+    public int[] hopDistances(int from, int[] result)
     {
-        //Sets of evaluated and not evaluated nodes.
-        TreeSet<Integer> evaluatedSet = new TreeSet<>();
-        TreeSet<Integer> toEvaluateSetMarker = new TreeSet<>();
-        PriorityQueue<BoardNode> toEvaluateSet = new PriorityQueue<>(1000, nodeComparator);
-
-        //Initialize current node (origin).
-        BoardNode currentNode = (BoardNode) gState.getComponentById(path.originID);
-        BoardNode destinationNode = (BoardNode) gState.getComponentById(path.destinationID);
-        toEvaluateSet.add(currentNode);
-        toEvaluateSetMarker.add(currentNode.getComponentID());
-
-        nodeComparator.nodeGCosts.put(currentNode.getComponentID(), 0.0);
-        nodeComparator.nodeHCosts.put(currentNode.getComponentID(), heuristic(currentNode, destinationNode));
-
-        //Check while there are still nodes in the array of nods to evaluate.
-        while(!toEvaluateSet.isEmpty())
-        {
-            //Take next node to evaluate.
-            currentNode = toEvaluateSet.poll();
-            int currentNodeId = currentNode.getComponentID();
-            evaluatedSet.add(currentNode.getComponentID());
-
-            //If destination found, that's it.
-            if(currentNode.getComponentID() == path.destinationID)
-            {
-                return true;
-            }
-
-            //For all connections from the current node...
-            HashMap<BoardNode, Double> conn = currentNode.getNeighbours();
-            for(BoardNode connected : conn.keySet())
-            {
-                //If it has not been evaluated yet.
-                if(!evaluatedSet.contains(connected.getComponentID()))
-                {
-                    // Cost from origin to 'connected' stored
-                    Path D1 = getShortestPath(path.originID,connected.getComponentID());
-                    // Cost from origin to current node stored
-                    Path DA = getShortestPath(path.originID,currentNodeId);
-                    // Cost from current to connected (edge cost)
-                    double dA1 = conn.get(connected);
-
-                    //Path to this node
-                    PathCH pc = new PathCH();
-                    pc.p = D1;
-                    pc.destID = connected.getComponentID();
-
-                    //If the new cost is smaller.
-                    double newCost = DA.cost + dA1;
-                    if(D1.cost > newCost)
-                    {
-                        //update cost
-                        Path newD1 = new Path(DA);
-                        newD1.destinationID = connected.getComponentID();
-                        newD1.cost += dA1;
-                        //update path
-                        pc.p = newD1;
-                        newD1.points.add(connected.getComponentID());
-                        setShortestPath(newD1);
-                    }
-
-                    //Set cost, used by priority queue to navigate more efficiently
-                    nodeComparator.nodeGCosts.put(connected.getComponentID(), pc.p.cost);
-                    nodeComparator.nodeHCosts.put(connected.getComponentID(), heuristic(connected, destinationNode));
-
-                    //connected.m_g = pc.p.cost;
-                    //connected.m_f = pc.heuristicCost = pc.p.cost + heuristic(currentNode, destinationNode);
-                    if(!toEvaluateSetMarker.contains(connected.getComponentID()))
-                    {
-                        //Mark this node as evaluated.
-                        toEvaluateSet.add(connected);
-                        toEvaluateSetMarker.add(connected.getComponentID());
-                    }
-
+        if (result == null || result.length != nodes.length)
+            result = new int[nodes.length];
+        Arrays.fill(result, -1);
+        result[from] = 0;
+        int head = 0, tail = 0;
+        queue[tail++] = from;
+        while (head < tail) {
+            int current = queue[head++];
+            for (int k = start[current]; k < start[current + 1]; k++) {
+                int next = targets[k];
+                if (result[next] == -1) {
+                    result[next] = result[current] + 1;
+                    queue[tail++] = next;
                 }
             }
         }
-
-        //If we didn't find the destination, the path could not be extracted.
-        return false;
+        return result;
     }
 
     /**
-     * Heuristic for A*: euclidean distance.
-     * @param origin origin node.
-     * @param destination destination node.
-     * @return the euclidean distance between origin and destination.
+     * Dijkstra from the nearest of several sources.
+     * @param sources the nodes the costs are measured from
+     * @param goals   the nodes the costs are needed for; the search stops once all of these are found (or null for
+     *                all nodes)
+     * @param maxCost the search stops at this cost, so nodes further away are left unreached
+     * @param result  array of nNodes() to fill in (or null to create one)
+     * @return the cost to each node, or Double.POSITIVE_INFINITY if it was not reached (only those of the goals,
+     * and of nodes closer than the furthest goal, are certain to be filled in)
      */
-    private double heuristic(BoardNode origin, BoardNode destination)
+    public double[] costs(int[] sources, int[] goals, double maxCost, double[] result)
     {
-        Vector2D originLoc = ((PropertyVector2D) origin.getProperty(coordinateHash)).values;
-        Vector2D destLoc = ((PropertyVector2D) destination.getProperty(coordinateHash)).values;
-        return Distance.euclidian_distance(  new double[]{originLoc.getX(),  originLoc.getY()},
-                                             new double[]{destLoc.getX(),    destLoc.getY()});
+        if (result == null || result.length != nodes.length)
+            result = new double[nodes.length];
+        Arrays.fill(result, Double.POSITIVE_INFINITY);
+        newSearch();
+        int remaining = nodes.length;
+        if (goals != null) {
+            // closed marks the goals still to be found, until they are settled
+            remaining = 0;
+            for (int t : goals) {
+                if (closed[t] != currentStamp) {
+                    closed[t] = currentStamp;
+                    remaining++;
+                }
+            }
+        }
+        for (int s : sources) {
+            if (stamp[s] != currentStamp) {
+                visit(s, 0, -1);
+                push(s, 0);
+            }
+        }
+        while (heapSize > 0 && remaining > 0) {
+            int current = pop();
+            if (g[current] > maxCost)
+                break;
+            result[current] = g[current];
+            if (goals == null || closed[current] == currentStamp) {
+                closed[current] = 0;
+                remaining--;
+            }
+            for (int k = start[current]; k < start[current + 1]; k++) {
+                int next = targets[k];
+                double cost = g[current] + costs[k];
+                if (stamp[next] != currentStamp) {
+                    visit(next, cost, current);
+                    push(next, cost);
+                } else if (heapPos[next] >= 0 && cost < g[next]) {
+                    g[next] = cost;
+                    parent[next] = current;
+                    decreaseKey(next, cost);
+                }
+            }
+        }
+        return result;
     }
 
-}
-
-
-/**
- * CLASS to compare two nodes by the heuristic cost.
- */
-class NodeComparator implements Comparator<BoardNode>
-{
-
-    /**
-     * Cache for graph costs (no heuristic)
-     */
-    public TreeMap<Integer, Double> nodeGCosts;
+    private double straightLine(int a, int b)
+    {
+        double dx = xs[a] - xs[b], dy = ys[a] - ys[b];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
 
-    /**
-     * Cache for heuristic costs
-     */
-    public TreeMap<Integer, Double> nodeHCosts;
+    private double heuristic(int node, int destination)
+    {
+        return heuristicScale == 0 ? 0 : heuristicScale * straightLine(node, destination);
+    }
 
-    /**
-     * Constructor that initializes the above caches.
-     */
-    public NodeComparator()
+    private void newSearch()
     {
-        nodeGCosts = new TreeMap<>();
-        nodeHCosts = new TreeMap<>();
+        currentStamp++;
+        if (currentStamp == 0) {
+            // wrapped around, so old stamps could look current
+            Arrays.fill(stamp, 0);
+            Arrays.fill(closed, 0);
+            currentStamp = 1;
+        }
+        heapSize = 0;
     }
 
-    /**
-     * Compares two nodes.
-     * @param x one node.
-     * @param y another node.
-     * @return returns -1, 0, or 1 depending on the nodes: -1 if x has a smaller heuristic cost than y, 1 if opposite, 0 if it is the same cost.
-     */
-    public int compare(BoardNode x, BoardNode y)
+    private void visit(int node, double cost, int from)
     {
-        double xCost = nodeGCosts.get(x.getComponentID()) + nodeHCosts.get(x.getComponentID());
-        double yCost = nodeGCosts.get(y.getComponentID()) + nodeHCosts.get(y.getComponentID());
-        return Double.compare(xCost, yCost);
+        stamp[node] = currentStamp;
+        g[node] = cost;
+        parent[node] = from;
+        heapPos[node] = -1;
     }
-}
 
-///**
-// * CLASS to compare two paths by the heuristic cost.
-// */
-//class PathCHComparator implements Comparator<PathCH>
-//{
-//    /**
-//     * Compares two paths.
-//     * @param x one path.
-//     * @param y another path.
-//     * @return returns -1, 0, or 1 depending on the pat:hs -1 if x has a smaller heuristic cost than y, 1 if opposite, 0 if it is the same cost.
-//     */
-//    public int compare(PathCH x, PathCH y)
-//    {
-//        // Assume neither PathCH is null. Real code should
-//        // probably be more robust
-//        return Double.compare(x.heuristicCost, y.heuristicCost);
-//    }
-//}
+    // binary min-heap of node indices, keyed by heapKey, with the position of each node in heapPos (-1 once popped)
+    private void push(int node, double key)
+    {
+        heapKey[node] = key;
+        heap[heapSize] = node;
+        heapPos[node] = heapSize;
+        siftUp(heapSize++);
+    }
 
-/**
- * Helper CLASS used by A*
- */
-class PathCH
-{
-    /**
-     * Path
-     */
-    public Path p;
+    private int pop()
+    {
+        int top = heap[0];
+        heapPos[top] = -1;
+        if (--heapSize > 0) {
+            heap[0] = heap[heapSize];
+            heapPos[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
 
-    /**
-     * Destination node.
-     */
-    public int destID;
+    private void decreaseKey(int node, double key)
+    {
+        heapKey[node] = key;
+        siftUp(heapPos[node]);
+    }
 
-    /**
-     * Heuristic cost
-     */
-    public double heuristicCost;
+    private void siftUp(int pos)
+    {
+        int node = heap[pos];
+        while (pos > 0) {
+            int parentPos = (pos - 1) >>> 1;
+            int above = heap[parentPos];
+            if (heapKey[above] <= heapKey[node]) break;
+            heap[pos] = above;
+            heapPos[above] = pos;
+            pos = parentPos;
+        }
+        heap[pos] = node;
+        heapPos[node] = pos;
+    }
 
-    /**
-     * Overrides toString() [debug purposes].
-     * @return A string representation of the path
-     */
-    @Override
-    public String toString() {return "[" + p.toString() + "] hC: " + heuristicCost; }
+    private void siftDown(int pos)
+    {
+        int node = heap[pos];
+        while (true) {
+            int child = 2 * pos + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && heapKey[heap[child + 1]] < heapKey[heap[child]]) child++;
+            if (heapKey[heap[child]] >= heapKey[node]) break;
+            heap[pos] = heap[child];
+            heapPos[heap[pos]] = pos;
+            pos = child;
+        }
+        heap[pos] = node;
+        heapPos[node] = pos;
+    }
 }
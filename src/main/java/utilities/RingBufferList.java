@@ -0,0 +1,167 @@
+package utilities;
+
+import java.util.*;
+
+/**
+ * A List backed by a circular array, used for the contents of a Deck.
+ * <p>
+ * Like an ArrayList, get() and set() at any index take constant time; unlike an ArrayList, adding or removing at the
+ * front does too (as it does at the back). Adding or removing anywhere else moves whichever of the elements before
+ * or after that index are fewer. This suits decks, which are mostly drawn from and added to at the top (index 0),
+ * but are also iterated over, peeked into and shuffled by index.
+ */
+public class RingBufferList<T> extends AbstractList<T> implements RandomAccess {
+
+    private Object[] elements;
+    private int head;  // position in elements of index 0
+    private int size;
+
+    public RingBufferList() {
+        this(8);
+    }
+
+    public RingBufferList(int initialCapacity) {
+        elements = new Object[Math.max(initialCapacity, 1)];
+    }
+
+    public RingBufferList(Collection<? extends T> other) {
+        this(other.size());
+        for (T t : other)
+            elements[size++] = t;
+    }
+
+    // position in elements of the given index, which may be anywhere in [-size, 2 * size)
+    private int slot(int index) {
+        int slot = head + index;
+        if (slot >= elements.length)
+            slot -= elements.length;
+        else if (slot < 0)
+            slot += elements.length;
+        return slot;
+    }
+
+    private void checkIndex(int index, int limit) {
+        if (index < 0 || index >= limit)
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= elements.length)
+            return;
+        Object[] newElements = new Object[Math.max(capacity, elements.length * 2)];
+        int firstPart = Math.min(size, elements.length - head);
+        System.arraycopy(elements, head, newElements, 0, firstPart);
+        System.arraycopy(elements, 0, newElements, firstPart, size - firstPart);
+        elements = newElements;
+        head = 0;
+    }
+
+    // moves the elements in [from, from + count) by offset positions (towards the back if positive)
+    private void move(int from, int count, int offset) {
+        if (offset > 0) {
+            for (int i = from + count - 1; i >= from; i--)
+                elements[slot(i + offset)] = elements[slot(i)];
+        } else {
+            for (int i = from; i < from + count; i++)
+                elements[slot(i + offset)] = elements[slot(i)];
+        }
+    }
+
+    /**
+     * Opens a gap of count empty positions starting at index
+     */
+    private void openGap(int index, int count) {
+        ensureCapacity(size + count);
+        if (index < size - index) {
+            // move the front of the list back towards the head
+            head = slot(-count);
+            move(count, index, -count);
+        } else {
+            move(index, size - index, count);
+        }
+        size += count;
+        modCount++;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        checkIndex(index, size);
+        return (T) elements[slot(index)];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T set(int index, T element) {
+        checkIndex(index, size);
+        int slot = slot(index);
+        T old = (T) elements[slot];
+        elements[slot] = element;
+        return old;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean add(T element) {
+        ensureCapacity(size + 1);
+        elements[slot(size)] = element;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void add(int index, T element) {
+        checkIndex(index, size + 1);
+        openGap(index, 1);
+        elements[slot(index)] = element;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> c) {
+        return addAll(size, c);
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends T> c) {
+        checkIndex(index, size + 1);
+        if (c.isEmpty())
+            return false;
+        Object[] toAdd = c.toArray();  // in case c is this list
+        openGap(index, toAdd.length);
+        for (int i = 0; i < toAdd.length; i++)
+            elements[slot(index + i)] = toAdd[i];
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T remove(int index) {
+        checkIndex(index, size);
+        T old = (T) elements[slot(index)];
+        if (index < size - 1 - index) {
+            move(0, index, 1);
+            elements[head] = null;
+            head = slot(1);
+        } else {
+            move(index + 1, size - 1 - index, -1);
+            elements[slot(size - 1)] = null;
+        }
+        size--;
+        modCount++;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++)
+            elements[slot(i)] = null;
+        head = 0;
+        size = 0;
+        modCount++;
+    }
+}
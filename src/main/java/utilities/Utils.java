@@ -1,5 +1,6 @@
 package utilities;
 
+import evaluation.loggers.BinaryStatsFile;
 import org.apache.commons.math3.distribution.NormalDistribution;
 import org.apache.commons.math3.distribution.TDistribution;
 import org.apache.commons.math3.util.CombinatoricsUtils;
@@ -361,7 +362,8 @@ public abstract class Utils {
     /**
      *
      * Loads in tab-delimitted data from a file, and returns the data as a List of the
-     * raw data, plus a separate list of the header row
+     * raw data, plus a separate list of the header row. Files in the binary format of
+     * BinaryStatsFile are recognised and read as if they were delimited.
      *
      * @param files files to load (all must have same format)
      * @return Pair<List<String>, List<double[]>> The first item is the header details, the second
@@ -371,6 +373,12 @@ public abstract class Utils {
         List<List<String>> data = new ArrayList<>();
         List<String> header = new ArrayList<>();
         for (String file : files) {
+            if (BinaryStatsFile.isBinary(file)) {
+                Pair<List<String>, List<List<String>>> binaryData = BinaryStatsFile.loadDataWithHeader(file);
+                header = binaryData.a;
+                data.addAll(binaryData.b);
+                continue;
+            }
             try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
                 header = Arrays.asList(reader.readLine().split(Pattern.quote(delimiter)));
                 while (reader.ready()) {
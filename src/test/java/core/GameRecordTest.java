@@ -0,0 +1,111 @@
+package core;
+
+import evaluation.listeners.GameRecordListener;
+import games.GameType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class GameRecordTest {
+
+    File file;
+
+    @Before
+    public void setup() throws IOException {
+        file = File.createTempFile("GameRecordTest", ".tagr");
+    }
+
+    @After
+    public void cleanup() {
+        file.delete();
+    }
+
+    private List<AbstractGameState> playGames(GameType gameType, int nPlayers, long... seeds) {
+        GameRecordListener listener = new GameRecordListener(file.getPath());
+        List<AbstractGameState> finalStates = new ArrayList<>();
+        for (long seed : seeds) {
+            Game game = gameType.createGameInstance(nPlayers, seed);
+            List<AbstractPlayer> players = new ArrayList<>();
+            for (int p = 0; p < nPlayers; p++)
+                players.add(new RandomPlayer(new Random(seed + p)));
+            game.reset(players, seed);
+            game.addListener(listener);
+            game.run();
+            finalStates.add(game.getGameState());
+        }
+        listener.report();
+        return finalStates;
+    }
+
+    // the replayed game creates new components (with new IDs), so we compare what has happened in the games
+    private void assertSameState(AbstractGameState expected, AbstractGameState actual) {
+        assertEquals(expected.getHistoryAsText(), actual.getHistoryAsText());
+        assertEquals(expected.getGameTick(), actual.getGameTick());
+        assertArrayEquals(expected.getPlayerResults(), actual.getPlayerResults());
+        for (int p = 0; p < expected.getNPlayers(); p++)
+            assertEquals(expected.getGameScore(p), actual.getGameScore(p), 0.0);
+    }
+
+    private void checkReplay(GameType gameType, int nPlayers) {
+        long[] seeds = {1, 2, 3};
+        List<AbstractGameState> finalStates = playGames(gameType, nPlayers, seeds);
+        List<GameRecord> records = GameRecord.readAll(file.getPath());
+        assertEquals(seeds.length, records.size());
+        for (int i = 0; i < seeds.length; i++) {
+            GameRecord record = records.get(i);
+            assertEquals(gameType, record.gameType);
+            assertEquals(nPlayers, record.nPlayers);
+            assertEquals(seeds[i], record.seed);
+            assertTrue(record.length() > 0);
+            assertSameState(finalStates.get(i), new GameReplayer(record).finalState());
+        }
+    }
+
+    @Test
+    public void replayTicTacToe() {
+        checkReplay(GameType.TicTacToe, 2);
+    }
+
+    @Test
+    public void replayLoveLetter() {
+        checkReplay(GameType.LoveLetter, 3);
+    }
+
+    @Test
+    public void replayDominion() {
+        checkReplay(GameType.Dominion, 2);
+    }
+
+    @Test
+    public void seekingMatchesReplayingFromTheStart() {
+        playGames(GameType.LoveLetter, 4, 7);
+        GameRecord record = GameRecord.readAll(file.getPath()).get(0);
+        GameReplayer withCheckpoints = new GameReplayer(record, 3);
+        GameReplayer fromStart = new GameReplayer(record, Integer.MAX_VALUE);
+        // jump around, so that some states are reached from a checkpoint and some create them
+        int[] decisions = {record.length() / 2, 1, record.length(), 0, 4, record.length() - 1, 6};
+        for (int decision : decisions)
+            assertSameState(fromStart.stateAt(decision), withCheckpoints.stateAt(decision));
+    }
+
+    @Test
+    public void recordsAreAppended() {
+        playGames(GameType.TicTacToe, 2, 1);
+        GameRecord first = GameRecord.readAll(file.getPath()).get(0);
+        try (GameRecord.Writer writer = new GameRecord.Writer(file.getPath(), true)) {
+            writer.write(first);
+        }
+        List<GameRecord> records = GameRecord.readAll(file.getPath());
+        assertEquals(2, records.size());
+        assertEquals(first.length(), records.get(1).length());
+        for (int n = 0; n < first.length(); n++)
+            assertEquals(first.getAction(n), records.get(1).getAction(n));
+    }
+}
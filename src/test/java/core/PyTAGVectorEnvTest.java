@@ -0,0 +1,81 @@
+package core;
+
+import games.GameType;
+import org.junit.Test;
+import players.python.PythonAgent;
+import players.simple.RandomPlayer;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PyTAGVectorEnvTest {
+
+    private PyTAGVectorEnv createEnv(int nThreads) throws Exception {
+        List<AbstractPlayer> players = List.of(new PythonAgent(), new RandomPlayer(new Random(3)));
+        return new PyTAGVectorEnv(GameType.TicTacToe, null, players, 42, false, 8, nThreads);
+    }
+
+    // picks the first valid action in each environment
+    private int[] firstValidActions(PyTAGVectorEnv env) {
+        ByteBuffer masks = env.getActionMasks();
+        int[] actions = new int[env.getNumEnvs()];
+        for (int i = 0; i < actions.length; i++) {
+            actions[i] = -1;
+            for (int a = 0; a < env.getActionSpace(); a++) {
+                if (masks.get(i * env.getActionSpace() + a) == 1) {
+                    actions[i] = a;
+                    break;
+                }
+            }
+            assertTrue(actions[i] >= 0);
+        }
+        return actions;
+    }
+
+    private static byte[] contents(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.capacity()];
+        buffer.get(0, bytes);
+        return bytes;
+    }
+
+    @Test
+    public void gamesAreResetWhenTheyFinish() throws Exception {
+        try (PyTAGVectorEnv env = createEnv(1)) {
+            assertEquals(9, env.getActionSpace());
+            assertEquals(env.getNumEnvs() * env.getObservationSpace() * Float.BYTES, env.getObservations().capacity());
+            int finished = 0;
+            for (int step = 0; step < 20; step++) {
+                env.step(firstValidActions(env));
+                for (int i = 0; i < env.getNumEnvs(); i++) {
+                    if (env.getDones().get(i) == 1) {
+                        finished++;
+                        assertNotNull(env.getPlayerResults(i));
+                        // the new game has started, with its first decision to make
+                        assertFalse(env.getEnv(i).isDone());
+                    }
+                    assertEquals(0, env.getPlayerIDs().getInt(i * Integer.BYTES));
+                }
+            }
+            // a game of TicTacToe has at most five moves by the first player
+            assertTrue(finished >= 8 * 4);
+        }
+    }
+
+    @Test
+    public void parallelStepsMatchSerialSteps() throws Exception {
+        try (PyTAGVectorEnv serial = createEnv(1); PyTAGVectorEnv parallel = createEnv(4)) {
+            for (int step = 0; step < 12; step++) {
+                int[] actions = firstValidActions(serial);
+                serial.step(actions);
+                parallel.step(actions);
+                assertArrayEquals(contents(serial.getObservations()), contents(parallel.getObservations()));
+                assertArrayEquals(contents(serial.getActionMasks()), contents(parallel.getActionMasks()));
+                assertArrayEquals(contents(serial.getRewards()), contents(parallel.getRewards()));
+                assertArrayEquals(contents(serial.getDones()), contents(parallel.getDones()));
+            }
+        }
+    }
+}
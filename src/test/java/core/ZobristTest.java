@@ -0,0 +1,194 @@
+package core;
+
+import core.actions.SetGridValueAction;
+import core.components.*;
+import games.GameType;
+import games.tictactoe.TicTacToeConstants;
+import games.tictactoe.TicTacToeForwardModel;
+import games.tictactoe.TicTacToeGameParameters;
+import games.tictactoe.TicTacToeGameState;
+import org.junit.Test;
+
+import java.util.*;
+
+import static core.CoreConstants.VisibilityMode.VISIBLE_TO_ALL;
+import static org.junit.Assert.*;
+
+public class ZobristTest {
+
+    Random rnd = new Random(393);
+
+    // the hash of a copy whose hash is calculated from scratch
+    private long recalculated(Deck<Card> deck) {
+        Deck<Card> copy = deck.copy();
+        copy.getComponents();
+        return copy.getZobristHash();
+    }
+
+    @Test
+    public void deckHashIsKeptUpToDate() {
+        Deck<Card> deck = new Deck<>("Test", 1, VISIBLE_TO_ALL);
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+            cards.add(new Card("Card " + i));
+        long emptyHash = deck.getZobristHash();
+        for (int step = 0; step < 500; step++) {
+            switch (rnd.nextInt(8)) {
+                case 0 -> deck.add(cards.get(rnd.nextInt(cards.size())));
+                case 1 -> deck.addToBottom(cards.get(rnd.nextInt(cards.size())));
+                case 2 -> deck.draw();
+                case 3 -> deck.pickLast();
+                case 4 -> {
+                    if (deck.getSize() > 0) deck.remove(rnd.nextInt(deck.getSize()));
+                }
+                case 5 -> {
+                    if (deck.getSize() > 0)
+                        deck.setComponent(rnd.nextInt(deck.getSize()), cards.get(rnd.nextInt(cards.size())));
+                }
+                case 6 -> deck.add(cards.subList(0, rnd.nextInt(3)), rnd.nextBoolean() ? 0 : deck.getSize());
+                case 7 -> deck.shuffle(rnd);
+            }
+            assertEquals(recalculated(deck), deck.getZobristHash());
+        }
+        long hash = deck.getZobristHash();
+        deck.add(cards.get(0));
+        assertNotEquals(hash, deck.getZobristHash());
+        deck.clear();
+        assertEquals(emptyHash, deck.getZobristHash());
+    }
+
+    @Test
+    public void duplicatesDoNotCancelOut() {
+        Deck<Card> deck = new Deck<>("Test", 1, VISIBLE_TO_ALL);
+        Card card = new Card("Card");
+        long emptyHash = deck.getZobristHash();
+        deck.add(card);
+        long oneCopy = deck.getZobristHash();
+        deck.add(card);
+        assertNotEquals(emptyHash, deck.getZobristHash());
+        assertNotEquals(oneCopy, deck.getZobristHash());
+    }
+
+    @Test
+    public void deckHashDependsOnOrder() {
+        Deck<Card> deck = new Deck<>("Test", 1, VISIBLE_TO_ALL);
+        Card first = new Card("First");
+        Card second = new Card("Second");
+        deck.add(first);
+        deck.add(second);
+        long hash = deck.getZobristHash();
+        deck.draw();
+        deck.addToBottom(second);
+        assertNotEquals(hash, deck.getZobristHash());
+        deck.pickLast();
+        deck.add(second);
+        assertEquals(hash, deck.getZobristHash());
+    }
+
+    @Test
+    public void stateHashFollowsItsComponents() {
+        TicTacToeGameParameters params = new TicTacToeGameParameters();
+        Game game = new Game(GameType.TicTacToe, new TicTacToeForwardModel(), new TicTacToeGameState(params, 2));
+        TicTacToeForwardModel fm = (TicTacToeForwardModel) game.getForwardModel();
+        TicTacToeGameState state = (TicTacToeGameState) game.getGameState();
+        long start = state.getZobristHash();
+        // the grid is changed directly, not through the forward model
+        BoardNode empty = state.getGridBoard().getElement(1, 2);
+        state.getGridBoard().setElement(1, 2, TicTacToeConstants.playerMapping.get(0));
+        assertNotEquals(start, state.getZobristHash());
+        assertEquals(state.copy().getZobristHash(), state.getZobristHash());
+        state.getGridBoard().setElement(1, 2, empty);
+        assertEquals(start, state.getZobristHash());
+        play(state, fm, 0, 1);
+        assertEquals(state.copy().getZobristHash(), state.getZobristHash());
+    }
+
+    // a state whose only component is the grid of another state, as a game that does not copy a component might have
+    static class SharedGridState extends TicTacToeGameState {
+        final GridBoard grid;
+
+        SharedGridState(TicTacToeGameState state) {
+            super(state.getGameParameters(), state.getNPlayers());
+            grid = state.getGridBoard();
+            reset();
+        }
+
+        @Override
+        protected List<Component> _getAllComponents() {
+            return List.of(grid);
+        }
+    }
+
+    @Test
+    public void statesSharingAComponentBothFollowIt() {
+        Game game = new Game(GameType.TicTacToe, new TicTacToeForwardModel(), new TicTacToeGameState(new TicTacToeGameParameters(), 2));
+        TicTacToeGameState first = (TicTacToeGameState) game.getGameState();
+        SharedGridState second = new SharedGridState(first);
+        long firstStart = first.getZobristHash();
+        long secondStart = second.getZobristHash();
+        long gridStart = first.getGridBoard().getZobristHash();
+
+        first.getGridBoard().setElement(1, 2, TicTacToeConstants.playerMapping.get(0));
+        long gridChange = gridStart ^ first.getGridBoard().getZobristHash();
+        assertNotEquals(0, gridChange);
+        assertEquals(firstStart ^ gridChange, first.getZobristHash());
+        assertEquals(secondStart ^ gridChange, second.getZobristHash());
+        assertEquals(first.copy().getZobristHash(), first.getZobristHash());
+    }
+
+    @Test
+    public void gridHashIsKeptUpToDate() {
+        BoardNode empty = new BoardNode("empty");
+        List<BoardNode> pieces = List.of(new BoardNode("x"), new BoardNode("o"), empty);
+        GridBoard grid = new GridBoard(4, 3, empty);
+        long emptyHash = grid.getZobristHash();
+        for (int step = 0; step < 200; step++) {
+            grid.setElement(rnd.nextInt(4), rnd.nextInt(3), pieces.get(rnd.nextInt(pieces.size())));
+            assertEquals(grid.copy().getZobristHash(), grid.getZobristHash());
+            assertEquals(grid.getZobristHash(), grid.copyOnWrite().getZobristHash());
+        }
+        for (int y = 0; y < 3; y++)
+            for (int x = 0; x < 4; x++)
+                grid.setElement(x, y, empty);
+        assertEquals(emptyHash, grid.getZobristHash());
+    }
+
+    @Test
+    public void counterHash() {
+        Counter counter = new Counter(10, "Test");
+        long zero = counter.getZobristHash();
+        counter.increment(3);
+        assertNotEquals(zero, counter.getZobristHash());
+        assertEquals(counter.copy().getZobristHash(), counter.getZobristHash());
+        counter.decrement(3);
+        assertEquals(zero, counter.getZobristHash());
+    }
+
+    private void play(TicTacToeGameState state, TicTacToeForwardModel fm, int x, int y) {
+        int player = state.getCurrentPlayer();
+        fm.next(state, new SetGridValueAction(state.getGridBoard().getComponentID(), x, y,
+                TicTacToeConstants.playerMapping.get(player).getComponentID()));
+    }
+
+    @Test
+    public void transpositionsHaveTheSameHash() {
+        TicTacToeGameParameters params = new TicTacToeGameParameters();
+        Game game = new Game(GameType.TicTacToe, new TicTacToeForwardModel(), new TicTacToeGameState(params, 2));
+        TicTacToeForwardModel fm = (TicTacToeForwardModel) game.getForwardModel();
+        TicTacToeGameState start = (TicTacToeGameState) game.getGameState();
+
+        TicTacToeGameState first = (TicTacToeGameState) start.copy();
+        TicTacToeGameState second = (TicTacToeGameState) start.copy();
+        assertEquals(start.getZobristHash(), first.getZobristHash());
+        play(first, fm, 0, 0);
+        play(second, fm, 2, 2);
+        assertNotEquals(first.getZobristHash(), second.getZobristHash());
+        play(first, fm, 1, 1);
+        play(second, fm, 1, 1);
+        play(first, fm, 2, 2);
+        play(second, fm, 0, 0);
+        assertEquals(first.getZobristHash(), second.getZobristHash());
+        assertEquals(first.getZobristHash(), first.copy().getZobristHash());
+        assertNotEquals(start.getZobristHash(), first.getZobristHash());
+    }
+}
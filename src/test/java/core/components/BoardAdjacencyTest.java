@@ -0,0 +1,149 @@
+package core.components;
+
+import core.properties.PropertyInt;
+import games.GameType;
+import games.pandemic.PandemicGameState;
+import org.junit.Test;
+import core.properties.PropertyKeys;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class BoardAdjacencyTest {
+
+    private final int countHash = PropertyKeys.key("count");
+
+    // a ring of n nodes, each connected to the next one with a cost of its index + 1
+    private GraphBoard ring(int n) {
+        GraphBoard graph = new GraphBoard("Ring");
+        List<BoardNode> nodes = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            BoardNode node = new BoardNode(-1, "node " + i);
+            node.setProperty(new PropertyInt("count", i));
+            nodes.add(node);
+            graph.addBoardNode(node);
+        }
+        for (int i = 0; i < n; i++)
+            graph.addConnection(nodes.get(i), nodes.get((i + 1) % n), i + 1);
+        return graph;
+    }
+
+    // the neighbours of each node as component IDs, with their costs
+    private Map<Integer, Map<Integer, Double>> connections(GraphBoard graph) {
+        Map<Integer, Map<Integer, Double>> retValue = new HashMap<>();
+        for (BoardNode node : graph.getBoardNodes()) {
+            Map<Integer, Double> neighbours = new HashMap<>();
+            for (Map.Entry<BoardNode, Double> e : node.getNeighbours().entrySet()) {
+                // the neighbours are the nodes of the same board
+                assertSame(graph.getNodeByID(e.getKey().getComponentID()), e.getKey());
+                neighbours.put(e.getKey().getComponentID(), e.getValue());
+            }
+            retValue.put(node.getComponentID(), neighbours);
+        }
+        return retValue;
+    }
+
+    @Test
+    public void copiesShareTheAdjacency() {
+        GraphBoard graph = ring(6);
+        GraphBoard copy = graph.copy();
+        GraphBoard copyOfCopy = copy.copy();
+        assertSame(graph.getAdjacency(), copy.getAdjacency());
+        assertSame(graph.getAdjacency(), copyOfCopy.getAdjacency());
+        assertEquals(connections(graph), connections(copy));
+        assertEquals(connections(graph), connections(copyOfCopy));
+        assertEquals(6, graph.getAdjacency().size());
+    }
+
+    @Test
+    public void adjacencyMatchesTheNeighbours() {
+        GraphBoard graph = ring(5);
+        BoardAdjacency adjacency = graph.copy().getAdjacency();
+        for (BoardNode node : graph.getBoardNodes()) {
+            int i = adjacency.indexOf(node.getComponentID());
+            assertEquals(node.getComponentID(), adjacency.getComponentID(i));
+            assertEquals(node.getNeighbours().size(), adjacency.end(i) - adjacency.start(i));
+            for (int k = adjacency.start(i); k < adjacency.end(i); k++) {
+                BoardNode neighbour = graph.getNodeByID(adjacency.getComponentID(adjacency.neighbour(k)));
+                assertEquals(node.getNeighbourCost(neighbour), adjacency.cost(k), 0);
+                assertEquals(-1, adjacency.side(k));
+            }
+        }
+        assertEquals(-1, adjacency.indexOf(-12345));
+    }
+
+    @Test
+    public void propertiesAreCopied() {
+        GraphBoard graph = ring(4);
+        GraphBoard copy = graph.copy();
+        for (BoardNode node : copy.getBoardNodes())
+            node.setProperty(new PropertyInt("count", 100));
+        for (BoardNode node : graph.getBoardNodes())
+            assertNotEquals(100, ((PropertyInt) node.getProperty(countHash)).value);
+    }
+
+    @Test
+    public void changedConnectionsBuildANewAdjacency() {
+        GraphBoard graph = ring(4);
+        GraphBoard copy = graph.copy();
+        BoardAdjacency original = graph.getAdjacency();
+
+        List<BoardNode> nodes = new ArrayList<>(copy.getBoardNodes());
+        copy.addConnection(nodes.get(0), nodes.get(2), 7);
+        assertNotSame(original, copy.getAdjacency());
+        assertSame(original, graph.getAdjacency());
+        assertEquals(7, nodes.get(0).getNeighbourCost(nodes.get(2)), 0);
+        assertFalse(graph.getNodeByID(nodes.get(0).getComponentID()).getNeighbours()
+                .containsKey(graph.getNodeByID(nodes.get(2).getComponentID())));
+
+        GraphBoard copyOfCopy = copy.copy();
+        assertEquals(connections(copy), connections(copyOfCopy));
+        assertSame(copy.getAdjacency(), copyOfCopy.getAdjacency());
+
+        BoardNode extra = new BoardNode(-1, "extra");
+        copyOfCopy.addBoardNode(extra);
+        assertEquals(5, copyOfCopy.getAdjacency().size());
+        assertEquals(4, copy.getAdjacency().size());
+    }
+
+    @Test
+    public void copyingDoesNotChangeTheOriginal() {
+        // connections changed on the nodes themselves, which the board does not know about
+        BoardNode a = new BoardNode(-1, "a"), b = new BoardNode(-1, "b");
+        a.addNeighbourWithCost(b, 2);
+        b.addNeighbourWithCost(a, 2);
+        GraphBoard graph = new GraphBoard("Direct");
+        graph.setBoardNodes(List.of(a, b));
+
+        GraphBoard copy = graph.copy();
+        assertNull(a.adjacency);
+        assertNull(b.adjacency);
+        assertEquals(connections(graph), connections(copy));
+        assertNotSame(graph.getAdjacency(), copy.getAdjacency());
+
+        graph.updateAdjacency();
+        assertSame(graph.getAdjacency(), graph.copy().getAdjacency());
+    }
+
+    @Test
+    public void sidesAreCopied() {
+        GraphBoard graph = new GraphBoard("Sides");
+        BoardNode a = new BoardNode(-1, "a"), b = new BoardNode(-1, "b");
+        a.addNeighbourOnSideWithCost(b, 3, 2.5);
+        graph.addBoardNode(a);
+        graph.addBoardNode(b);
+        BoardNode aCopy = graph.copy().getNodeByID(a.getComponentID());
+        assertEquals(2.5, aCopy.getNeighbourCost(b), 0);
+        assertEquals(3, (int) aCopy.getNeighbourSideMapping().get(b));
+    }
+
+    @Test
+    public void pandemicWorldCopies() {
+        PandemicGameState state = (PandemicGameState) GameType.Pandemic.createGameInstance(4, 42).getGameState();
+        GraphBoard world = state.getWorld();
+        GraphBoard copy = ((PandemicGameState) state.copy()).getWorld();
+        assertSame(world.getAdjacency(), copy.getAdjacency());
+        assertEquals(connections(world), connections(copy));
+    }
+}
@@ -0,0 +1,288 @@
+package core.components;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import core.properties.PropertyInt;
+import games.GameType;
+import games.dominion.DominionForwardModel;
+import games.dominion.DominionGameState;
+import games.dominion.DominionParameters;
+import games.tictactoe.TicTacToeForwardModel;
+import games.tictactoe.TicTacToeGameParameters;
+import games.tictactoe.TicTacToeGameState;
+import org.junit.*;
+
+import java.util.*;
+
+import static core.CoreConstants.VisibilityMode.VISIBLE_TO_ALL;
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class CopyOnWriteTest {
+
+    Random rnd = new Random(393);
+
+    private Deck<Card> deckOfCards(int n) {
+        Deck<Card> deck = new Deck<>("Test", 1, VISIBLE_TO_ALL);
+        for (int i = 0; i < n; i++)
+            deck.add(new Card("Card " + i));
+        return deck;
+    }
+
+    @Test
+    public void deckCopyIsIndependentOnceChanged() {
+        Deck<Card> deck = deckOfCards(5);
+        Card top = deck.peek();
+        Deck<Card> copy = deck.copyOnWrite();
+        assertEquals(deck, copy);
+        assertEquals(5, copy.getSize());
+
+        Card drawn = copy.draw();
+        assertEquals(top, drawn);
+        assertNotSame(top, drawn);
+        assertEquals(5, deck.getSize());
+        assertEquals(4, copy.getSize());
+
+        copy.shuffle(rnd);
+        copy.add(new Card("New"));
+        assertEquals(5, deck.getSize());
+        assertSame(top, deck.peek());
+    }
+
+    @Test
+    public void sharedComponentsAreNeverChanged() {
+        Deck<Card> deck = deckOfCards(5);
+        List<Card> original = new ArrayList<>();
+        for (int i = 0; i < deck.getSize(); i++)
+            original.add(deck.peek(i));
+        Deck<Card> copy = deck.copyOnWrite();
+
+        // the original is changed first, and takes new objects, while the copy goes on reading the shared ones
+        deck.remove(0);
+        deck.get(0).setOwnerId(2);
+        for (int i = 0; i < deck.getSize(); i++) {
+            assertNotSame(original.get(i + 1), deck.get(i));
+            assertEquals(original.get(i + 1), deck.get(i));
+        }
+        assertEquals(5, copy.getSize());
+        for (int i = 0; i < copy.getSize(); i++) {
+            assertSame(original.get(i), copy.get(i));
+            assertEquals(1, copy.get(i).getOwnerId());
+        }
+    }
+
+    @Test
+    public void readingDoesNotStopSharing() {
+        Deck<Card> deck = deckOfCards(4);
+        Deck<Card> copy = deck.copyOnWrite();
+        for (int i = 0; i < deck.getSize(); i++) {
+            assertSame(deck.peek(i), copy.get(i));
+            assertTrue(copy.contains(deck.get(i)));
+        }
+        int i = 0;
+        for (Card c : copy)
+            assertSame(deck.get(i++), c);
+
+        // once the original is changed, the copy has components of its own
+        Card first = deck.draw();
+        assertEquals(4, copy.getSize());
+        assertEquals(first, copy.peek());
+        assertNotSame(first, copy.peek());
+    }
+
+    @Test
+    public void readingTheListOfComponentsDoesNotStopSharing() {
+        Deck<Card> deck = deckOfCards(4);
+        long hash = deck.getZobristHash();
+        Deck<Card> copy = deck.copyOnWrite();
+        List<Card> components = copy.getComponents();
+        for (int i = 0; i < deck.getSize(); i++)
+            assertSame(deck.peek(i), components.get(i));
+        assertEquals(hash, copy.getZobristHash());
+
+        // changing the list changes the copy, which then has components of its own
+        Card removed = components.remove(0);
+        assertEquals(deck.peek(), removed);
+        assertEquals(3, copy.getSize());
+        assertEquals(4, deck.getSize());
+        assertNotSame(deck.peek(1), copy.peek());
+        assertNotEquals(hash, copy.getZobristHash());
+        assertEquals(hash, deck.getZobristHash());
+        Collections.reverse(components);
+        assertEquals("Card 0", copy.peek().getComponentName());
+        assertEquals("Card 3", deck.peek().getComponentName());
+    }
+
+    @Test
+    public void copiesOfCopiesShareUntilChanged() {
+        Deck<Card> deck = deckOfCards(3);
+        Deck<Card> copy = deck.copyOnWrite();
+        Deck<Card> copyOfCopy = copy.copyOnWrite();
+        copy.clear();
+        assertEquals(3, deck.getSize());
+        assertEquals(3, copyOfCopy.getSize());
+        deck.pickLast();
+        assertEquals(3, copyOfCopy.getSize());
+        assertEquals(0, copy.getSize());
+        assertEquals("Card 0", copyOfCopy.peek(2).getComponentName());
+    }
+
+    @Test
+    public void partialObservableDeckVisibilityIsCopied() {
+        PartialObservableDeck<Card> deck = new PartialObservableDeck<>("Test", 0, new boolean[]{true, false, false});
+        for (int i = 0; i < 4; i++)
+            deck.add(new Card("Card " + i));
+        PartialObservableDeck<Card> copy = deck.copyOnWrite();
+        copy.setVisibilityOfComponent(1, 2, true);
+        assertTrue(copy.isComponentVisible(1, 2));
+        assertFalse(deck.isComponentVisible(1, 2));
+
+        deck.setVisibilityOfComponent(0, 1, true);
+        PartialObservableDeck<Card> secondCopy = deck.copyOnWrite();
+        deck.pick(0);
+        assertEquals(3, deck.getSize());
+        assertEquals(4, secondCopy.getSize());
+        assertTrue(secondCopy.isComponentVisible(0, 1));
+        assertFalse(secondCopy.isComponentVisible(1, 1));
+        secondCopy.shuffleAndKeepVisibility(rnd);
+        assertEquals(4, secondCopy.getSize());
+    }
+
+    @Test
+    public void subclassesGetNormalCopy() {
+        Deck<Card> deck = new Deck<>("Test", 1, VISIBLE_TO_ALL) {
+        };
+        deck.add(new Card("Card"));
+        Deck<Card> copy = deck.copyOnWrite();
+        assertNotSame(deck.peek(), copy.peek());
+    }
+
+    @Test(expected = AssertionError.class)
+    public void verifyDetectsChangesToSharedComponents() {
+        assumeTrue(CopyOnWrite.verify);
+        Deck<Card> deck = deckOfCards(3);
+        Card card = deck.peek(1);
+        Deck<Card> copy = deck.copyOnWrite();
+        card.setProperty(new PropertyInt("value", 3));
+        copy.draw();
+    }
+
+    @Test
+    public void gridRowsAreCopiedOnWrite() {
+        BoardNode empty = new BoardNode(-1, "empty");
+        BoardNode x = new BoardNode(-1, "x");
+        GridBoard grid = new GridBoard(3, 3, empty);
+        GridBoard copy = grid.copyOnWrite();
+        copy.setElement(1, 1, x);
+        assertSame(x, copy.getElement(1, 1));
+        assertSame(empty, grid.getElement(1, 1));
+        assertSame(empty, copy.getElement(1, 0));
+
+        GridBoard copyOfCopy = copy.copyOnWrite();
+        grid.setElement(2, 2, x);
+        copyOfCopy.setElement(0, 1, x);
+        assertSame(empty, copy.getElement(0, 1));
+        assertSame(empty, copy.getElement(2, 2));
+        assertSame(x, copyOfCopy.getElement(1, 1));
+
+        // the values are a copy, so changing them changes no board
+        BoardNode[][] values = copy.getGridValues();
+        assertSame(x, values[1][1]);
+        values[0][0] = x;
+        assertSame(empty, copy.getElement(0, 0));
+        assertSame(empty, grid.getElement(0, 0));
+        assertSame(empty, copyOfCopy.getElement(0, 0));
+    }
+
+    @Test
+    public void gridCopyConstructorTakesItsOwnRows() {
+        BoardNode empty = new BoardNode(-1, "empty");
+        BoardNode x = new BoardNode(-1, "x");
+        GridBoard grid = new GridBoard(3, 3, empty);
+        GridBoard copy = grid.copyOnWrite();
+        GridBoard constructed = new GridBoard(copy);
+        constructed.setElement(1, 1, x);
+        assertSame(x, constructed.getElement(1, 1));
+        assertSame(empty, copy.getElement(1, 1));
+        assertSame(empty, grid.getElement(1, 1));
+    }
+
+    @Test(expected = AssertionError.class)
+    public void verifyDetectsChangesToSharedGridNodes() {
+        assumeTrue(CopyOnWrite.verify);
+        GridBoard grid = new GridBoard(3, 3, new BoardNode(-1, "empty"));
+        GridBoard copy = grid.copyOnWrite();
+        grid.getElement(0, 0).setComponentName("changed");
+        copy.setElement(0, 0, new BoardNode(-1, "x"));
+    }
+
+    @Test
+    public void graphIsCopiedOnFirstChange() {
+        GraphBoard graph = new GraphBoard("Test");
+        BoardNode a = new BoardNode(4, "a");
+        BoardNode b = new BoardNode(4, "b");
+        BoardNode c = new BoardNode(4, "c");
+        graph.addBoardNode(a);
+        graph.addBoardNode(b);
+        graph.addBoardNode(c);
+        graph.addConnection(a, b);
+        graph.addConnection(b, c);
+        GraphBoard copy = graph.copyOnWrite();
+        assertSame(a, copy.getNodeByID(a.getComponentID()));
+
+        copy.addConnection(a.getComponentID(), c.getComponentID());
+        assertEquals(1, a.getNeighbours().size());
+        assertSame(a, graph.getNodeByID(a.getComponentID()));
+        BoardNode copyOfA = copy.getNodeByID(a.getComponentID());
+        assertNotSame(a, copyOfA);
+        assertEquals(2, copyOfA.getNeighbours().size());
+
+        // and the same when the original is changed
+        GraphBoard secondCopy = graph.copyOnWrite();
+        graph.breakConnection(null, b, c);
+        assertEquals(2, b.getNeighbours().size());
+        assertSame(b, secondCopy.getNodeByID(b.getComponentID()));
+        assertNotSame(b, graph.getNodeByID(b.getComponentID()));
+        assertEquals(1, graph.getNodeByID(b.getComponentID()).getNeighbours().size());
+    }
+
+    @Test
+    public void dominionCopiesMatchDeepCopies() {
+        DominionParameters params = new DominionParameters();
+        params.setRandomSeed(330245);
+        Game game = new Game(GameType.Dominion, new DominionForwardModel(), new DominionGameState(params, 3));
+        playWithCopies(game.getGameState(), game.getForwardModel(), 300);
+    }
+
+    @Test
+    public void ticTacToeCopiesMatchDeepCopies() {
+        TicTacToeGameParameters params = new TicTacToeGameParameters();
+        params.setRandomSeed(330245);
+        Game game = new Game(GameType.TicTacToe, new TicTacToeForwardModel(), new TicTacToeGameState(params, 2));
+        playWithCopies(game.getGameState(), game.getForwardModel(), 9);
+    }
+
+    /**
+     * Plays random moves; before each one a copy of the state is taken and played forward a few moves. Neither the
+     * state nor the copy must see the changes made to the other (and verify checks everything that was shared).
+     */
+    private void playWithCopies(AbstractGameState state, AbstractForwardModel fm, int moves) {
+        for (int move = 0; move < moves && state.isNotTerminal(); move++) {
+            int hash = state.hashCode();
+            AbstractGameState copy = state.copy();
+            AbstractGameState copyOfCopy = copy.copy();
+            for (int i = 0; i < 5 && copy.isNotTerminal(); i++) {
+                List<AbstractAction> actions = fm.computeAvailableActions(copy);
+                fm.next(copy, actions.get(rnd.nextInt(actions.size())));
+            }
+            assertEquals(hash, state.hashCode());
+            assertEquals(hash, copyOfCopy.hashCode());
+
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            fm.next(state, actions.get(rnd.nextInt(actions.size())));
+            assertEquals(hash, copyOfCopy.hashCode());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package core.properties;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class PropertyMapTest {
+
+    @Test
+    public void keysAreDenseAndStable() {
+        int a = PropertyKeys.key("propertyMapTestA");
+        int b = PropertyKeys.key("propertyMapTestB");
+        assertNotEquals(a, b);
+        assertEquals(a, PropertyKeys.key("propertyMapTestA"));
+        assertEquals("propertyMapTestB", PropertyKeys.name(b));
+        assertTrue(a >= 0 && b < PropertyKeys.size());
+        assertNull(PropertyKeys.name(-1));
+    }
+
+    @Test
+    public void keysAreTheSameFromAllThreads() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<int[]>> results = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            results.add(pool.submit(() -> {
+                int[] keys = new int[200];
+                for (int i = 0; i < keys.length; i++)
+                    keys[i] = PropertyKeys.key("threaded" + i);
+                return keys;
+            }));
+        }
+        int[] first = results.get(0).get();
+        for (Future<int[]> r : results)
+            assertArrayEquals(first, r.get());
+        assertEquals(first.length, Arrays.stream(first).distinct().count());
+        pool.shutdown();
+    }
+
+    @Test
+    public void behavesAsAMap() {
+        PropertyMap map = new PropertyMap();
+        Map<Integer, Property> expected = new TreeMap<>();
+        Random rnd = new Random(5);
+        for (int i = 0; i < 500; i++) {
+            int key = rnd.nextInt(40);
+            if (rnd.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                PropertyInt p = new PropertyInt("k" + key, i);
+                assertEquals(expected.put(key, p), map.put(key, p));
+            }
+            assertEquals(expected, map);
+            assertEquals(expected.get(key), map.get(key));
+        }
+        // iteration is in key order, and can remove entries
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(map.keySet()));
+        map.entrySet().removeIf(e -> e.getKey() % 2 == 0);
+        expected.keySet().removeIf(k -> k % 2 == 0);
+        assertEquals(expected, map);
+    }
+
+    @Test
+    public void copiesAreDeep() {
+        PropertyMap map = new PropertyMap();
+        PropertyInt p = new PropertyInt("count", 3);
+        map.put(p.getHashKey(), p);
+        PropertyMap copy = map.copy();
+        assertEquals(map, copy);
+        assertNotSame(p, copy.get(p.getHashKey()));
+        copy.put(PropertyKeys.key("other"), new PropertyInt("other", 1));
+        assertEquals(1, map.size());
+        assertEquals(2, copy.size());
+    }
+}
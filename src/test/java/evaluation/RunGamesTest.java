@@ -2,12 +2,20 @@ package evaluation;
 
 import core.AbstractPlayer;
 import core.Game;
+import core.interfaces.IStatisticLogger;
+import evaluation.features.TurnAndPlayerOnly;
+import evaluation.listeners.StateFeatureListener;
+import evaluation.loggers.SummaryLogger;
+import evaluation.metrics.Event;
 import evaluation.tournaments.AbstractTournament;
 import evaluation.tournaments.RoundRobinTournament;
+import evaluation.tournaments.TournamentResults;
 import games.GameType;
 import org.junit.*;
 import players.basicMCTS.BasicMCTSPlayer;
+import players.mcts.MCTSParams;
 import players.mcts.MCTSPlayer;
+import players.simple.FirstActionPlayer;
 import players.simple.RandomPlayer;
 
 import java.io.File;
@@ -138,6 +146,114 @@ public class RunGamesTest {
         assertEquals(66, tournament.getNGamesPlayed()[3], 15);
     }
 
+    @Test
+    public void parallelGamesMatchSerialRun() {
+        // FirstActionPlayer is deterministic, so the outcome of every game depends only on the seed and matchup
+        agents = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            agents.add(new FirstActionPlayer());
+            agents.get(i).setName("Agent" + i);
+        }
+        config.put(RunArg.mode, "random");
+        config.put(RunArg.seed, 42L);
+        tournament = new RoundRobinTournament(agents, GameType.Poker, 3, null, config);
+        tournament.run();
+        TournamentResults serial = tournament.getTournamentResults();
+
+        config.put(RunArg.nThreads, 4);
+        tournament = new RoundRobinTournament(agents, GameType.Poker, 3, null, config);
+        tournament.run();
+        TournamentResults parallel = tournament.getTournamentResults();
+
+        assertSameResults(serial, parallel);
+    }
+
+    @Test
+    public void parallelGamesWithSeededMCTSMatchSerialRun() {
+        // each MCTSPlayer carries its random number generator on from one game of a match-up to the next
+        // (resetSeedEachGame is false), so the games of a match-up must be played in order on the same copies.
+        // TicTacToe is used as MCTS redeterminises hidden information with an unseeded random number generator
+        agents = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            MCTSParams params = new MCTSParams();
+            params.setParameterValue("randomSeed", 100 + i);
+            params.setParameterValue("budget", 50);
+            agents.add(new MCTSPlayer(params, "MCTS" + i));
+        }
+        config.put(RunArg.mode, "exhaustive");
+        config.put(RunArg.matchups, 24);
+        config.put(RunArg.seed, 42L);
+        tournament = new RoundRobinTournament(agents, GameType.TicTacToe, 2, null, config);
+        tournament.run();
+        TournamentResults serial = tournament.getTournamentResults();
+
+        config.put(RunArg.nThreads, 4);
+        tournament = new RoundRobinTournament(agents, GameType.TicTacToe, 2, null, config);
+        tournament.run();
+        TournamentResults parallel = tournament.getTournamentResults();
+
+        assertSameResults(serial, parallel);
+    }
+
+    // the length of each game recorded by a StateFeatureListener, from the rows written at the end of it
+    private List<String> recordedGames(int nThreads) {
+        List<Map<String, ?>> rows = Collections.synchronizedList(new ArrayList<>());
+        IStatisticLogger logger = new SummaryLogger() {
+            @Override
+            public void record(Map<String, ?> data) {
+                rows.add(new HashMap<>(data));
+            }
+        };
+        config.put(RunArg.mode, "random");
+        config.put(RunArg.matchups, 40);
+        config.put(RunArg.seed, 42L);
+        config.put(RunArg.nThreads, nThreads);
+        tournament = new RoundRobinTournament(agents, GameType.Poker, 3, null, config);
+        tournament.addListener(new StateFeatureListener(new TurnAndPlayerOnly(), Event.GameEvent.ACTION_TAKEN, false).setLogger(logger));
+        tournament.run();
+
+        Map<Object, List<Map<String, ?>>> byGame = new HashMap<>();
+        for (Map<String, ?> row : rows)
+            byGame.computeIfAbsent(row.get("GameID"), id -> new ArrayList<>()).add(row);
+        List<String> games = new ArrayList<>();
+        for (List<Map<String, ?>> gameRows : byGame.values()) {
+            Object totalTicks = gameRows.get(0).get("TotalTicks");
+            for (Map<String, ?> row : gameRows)
+                assertEquals(totalTicks, row.get("TotalTicks"));
+            games.add(gameRows.size() + " rows, " + totalTicks + " ticks");
+        }
+        Collections.sort(games);
+        return games;
+    }
+
+    @Test
+    public void parallelGamesDoNotMixTheirFeatureRows() {
+        agents = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            agents.add(new FirstActionPlayer());
+            agents.get(i).setName("Agent" + i);
+        }
+        List<String> serial = recordedGames(1);
+        assertEquals(40, serial.size());
+        assertEquals(serial, recordedGames(4));
+    }
+
+    private void assertSameResults(TournamentResults serial, TournamentResults parallel) {
+        assertEquals(serial.totalResults(), parallel.totalResults());
+        for (AbstractPlayer agent : agents) {
+            String name = agent.toString();
+            assertEquals(serial.getPlayerResults(name).size(), parallel.getPlayerResults(name).size());
+            for (int i = 0; i < serial.getPlayerResults(name).size(); i++) {
+                assertEquals(serial.getPlayerResults(name).get(i).ordinal, parallel.getPlayerResults(name).get(i).ordinal);
+                assertEquals(serial.getPlayerResults(name).get(i).score, parallel.getPlayerResults(name).get(i).score, 1e-9);
+            }
+            for (AbstractPlayer other : agents) {
+                if (agent != other)
+                    assertEquals(serial.getWins(name, other.toString()), parallel.getWins(name, other.toString()));
+            }
+        }
+    }
+
     @Test
     public void playersCopiedCorrectly() {
         config.put(RunArg.mode, "random");
@@ -0,0 +1,327 @@
+package evaluation.listeners;
+
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import core.actions.AbstractAction;
+import core.interfaces.IGameEvent;
+import evaluation.metrics.AbstractMetric;
+import evaluation.metrics.Event;
+import evaluation.metrics.GameMetrics;
+import games.GameType;
+import games.dominion.DominionConstants;
+import games.dominion.DominionFGParameters;
+import games.dominion.DominionForwardModel;
+import games.dominion.DominionGameState;
+import games.dominion.cards.DominionCard;
+import games.tictactoe.TicTacToeForwardModel;
+import games.tictactoe.TicTacToeGameParameters;
+import games.tictactoe.TicTacToeGameState;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static games.dominion.DominionConstants.DeckType.*;
+import static org.junit.Assert.*;
+
+public class AsyncEventDispatcherTest {
+
+    static class RecordingListener implements IGameListener {
+        final Set<Event.Content> content;
+        final List<String> events = new ArrayList<>();
+        final Set<Thread> threads = new HashSet<>();
+        Game game;
+
+        RecordingListener(Set<Event.Content> content) {
+            this.content = content;
+        }
+
+        @Override
+        public void onEvent(Event event) {
+            threads.add(Thread.currentThread());
+            String action = event.action == null ? "" : event.action.toString();
+            String state = event.state == null ? "" : String.valueOf(event.state.getZobristHash());
+            events.add(event.type + " " + event.playerID + " " + action + " " + state);
+        }
+
+        @Override
+        public Set<Event.Content> eventContent(IGameEvent type) {
+            return content;
+        }
+
+        @Override
+        public void report() {
+        }
+
+        @Override
+        public void setGame(Game game) {
+            this.game = game;
+        }
+
+        @Override
+        public Game getGame() {
+            return game;
+        }
+    }
+
+    private Game createGame() {
+        Game game = new Game(GameType.TicTacToe, new TicTacToeForwardModel(), new TicTacToeGameState(new TicTacToeGameParameters(), 2));
+        List<AbstractPlayer> players = List.of(new RandomPlayer(new Random(1)), new RandomPlayer(new Random(2)));
+        game.reset(players, 42);
+        return game;
+    }
+
+    @Test
+    public void asyncListenerSeesTheSameEventsInOrder() {
+        RecordingListener sync = new RecordingListener(EnumSet.allOf(Event.Content.class));
+        RecordingListener async = new RecordingListener(EnumSet.of(Event.Content.STATE, Event.Content.ACTION));
+        Game game = createGame();
+        try (AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(sync, async)) {
+            game.addListener(dispatcher);
+            game.run();
+        }
+
+        // everything has been processed by the time the game is over
+        assertTrue(sync.events.size() > 10);
+        assertEquals(sync.events, async.events);
+        assertEquals(Set.of(Thread.currentThread()), sync.threads);
+        assertNotEquals(Set.of(Thread.currentThread()), async.threads);
+    }
+
+    @Test
+    public void onlyTheDeclaredContentIsCopied() {
+        RecordingListener stateOnly = new RecordingListener(EnumSet.of(Event.Content.STATE));
+        Game game = createGame();
+        try (AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(stateOnly)) {
+            game.addListener(dispatcher);
+            game.run();
+        }
+        long withAction = stateOnly.events.stream()
+                .filter(e -> e.startsWith("ACTION_TAKEN") && !e.startsWith("ACTION_TAKEN 0  ") && !e.startsWith("ACTION_TAKEN 1  "))
+                .count();
+        assertEquals(0, withAction);
+    }
+
+    @Test
+    public void ignoredEventsAreNotPassedOn() {
+        RecordingListener none = new RecordingListener(EnumSet.noneOf(Event.Content.class));
+        Game game = createGame();
+        try (AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(none)) {
+            game.addListener(dispatcher);
+            game.run();
+        }
+        assertTrue(none.events.isEmpty());
+    }
+
+    @Test
+    public void listenerExceptionsAreRethrown() {
+        RecordingListener failing = new RecordingListener(EnumSet.of(Event.Content.STATE)) {
+            @Override
+            public void onEvent(Event event) {
+                throw new IllegalStateException("Listener failure");
+            }
+        };
+        Game game = createGame();
+        try (AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(failing)) {
+            game.addListener(dispatcher);
+            game.run();
+            fail("Exception expected");
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    // an action that (unlike those of TicTacToe) is copied by copy()
+    static class MutableAction extends AbstractAction {
+        int value;
+
+        @Override
+        public boolean execute(AbstractGameState gs) {
+            return true;
+        }
+
+        @Override
+        public MutableAction copy() {
+            MutableAction copy = new MutableAction();
+            copy.value = value;
+            return copy;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof MutableAction && ((MutableAction) obj).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return value;
+        }
+
+        @Override
+        public String getString(AbstractGameState gameState) {
+            return "Mutable " + value;
+        }
+    }
+
+    @Test
+    public void listenersShareOneCopyOfTheAction() {
+        List<AbstractAction> received = Collections.synchronizedList(new ArrayList<>());
+        List<IGameListener> listeners = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            listeners.add(new RecordingListener(EnumSet.of(Event.Content.ACTION)) {
+                @Override
+                public void onEvent(Event event) {
+                    received.add(event.action);
+                }
+            });
+        }
+        MutableAction action = new MutableAction();
+        action.value = 3;
+        try (AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(listeners)) {
+            dispatcher.onEvent(Event.createEvent(Event.GameEvent.ACTION_TAKEN, null, action, null, 0));
+            action.value = 4;  // the game carries on
+        }
+
+        assertEquals(2, received.size());
+        assertEquals(3, ((MutableAction) received.get(0)).value);
+        assertSame(received.get(0), received.get(1));
+        assertNotSame(action, received.get(0));
+    }
+
+    @Test
+    public void synchronousListenersShareOneCopyOfTheAction() {
+        // the actions of DotsAndBoxes (unlike those of TicTacToe) are copied by copy(), but only once per action
+        List<List<AbstractAction>> received = new ArrayList<>();
+        Game game = GameType.DotsAndBoxes.createGameInstance(2);
+        for (int i = 0; i < 2; i++) {
+            List<AbstractAction> actions = new ArrayList<>();
+            received.add(actions);
+            game.addListener(new RecordingListener(EnumSet.of(Event.Content.ACTION)) {
+                @Override
+                public void onEvent(Event event) {
+                    if (event.type == Event.GameEvent.ACTION_TAKEN)
+                        actions.add(event.action);
+                }
+            });
+        }
+        game.reset(List.of(new RandomPlayer(new Random(1)), new RandomPlayer(new Random(2))), 42);
+        game.run();
+
+        assertFalse(received.get(0).isEmpty());
+        assertEquals(received.get(0).size(), received.get(1).size());
+        for (int i = 0; i < received.get(0).size(); i++)
+            assertSame(received.get(0).get(i), received.get(1).get(i));
+    }
+
+    @Test
+    public void closeStopsTheThread() throws InterruptedException {
+        RecordingListener async = new RecordingListener(EnumSet.of(Event.Content.STATE));
+        Game game = createGame();
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(async);
+        game.addListener(dispatcher);
+        game.run();
+        dispatcher.close();
+
+        // GAME_OVER is passed on on the game thread, everything else on the dispatcher's own thread
+        async.threads.remove(Thread.currentThread());
+        assertEquals(1, async.threads.size());
+        Thread thread = async.threads.iterator().next();
+        thread.join(5000);
+        assertFalse(thread.isAlive());
+    }
+
+    @Test
+    public void metricsThatOnlyReadThePlayersAreAsync() {
+        MetricsGameListener players = new MetricsGameListener(new AbstractMetric[]{new GameMetrics.ActionsReduced()});
+        assertFalse(players.eventContent(Event.GameEvent.ACTION_CHOSEN).contains(Event.Content.GAME));
+        assertTrue(players.eventContent(Event.GameEvent.ACTION_CHOSEN).contains(Event.Content.PLAYERS));
+        assertTrue(players.eventContent(Event.GameEvent.ACTION_TAKEN).isEmpty());
+
+        MetricsGameListener timings = new MetricsGameListener(new AbstractMetric[]{new GameMetrics.ComputationTimes()});
+        assertTrue(timings.eventContent(Event.GameEvent.ACTION_TAKEN).contains(Event.Content.GAME));
+
+        // and both can be run through a dispatcher
+        Game game = createGame();
+        try (AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(players, timings)) {
+            dispatcher.init(game, 2, Set.of("Player1", "Player2"));
+            game.addListener(dispatcher);
+            game.run();
+        }
+    }
+
+    @Test
+    public void metricsMustDeclareThatTheyReadTheGame() {
+        AbstractMetric undeclared = new AbstractMetric() {
+            @Override
+            protected boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
+                records.put("Ticks", listener.getGame().getTick());
+                return true;
+            }
+
+            @Override
+            public Set<IGameEvent> getDefaultEventTypes() {
+                return Collections.singleton(Event.GameEvent.ACTION_TAKEN);
+            }
+
+            @Override
+            public Map<String, Class<?>> getColumns(int nPlayersPerGame, Set<String> playerNames) {
+                return Collections.singletonMap("Ticks", Integer.class);
+            }
+        };
+        MetricsGameListener listener = new MetricsGameListener(new AbstractMetric[]{undeclared});
+        Game game = createGame();
+        listener.init(game, 2, Set.of("Player1", "Player2"));
+        game.addListener(listener);
+        assertThrows(IllegalStateException.class, game::run);
+    }
+
+    // the cards in each of the decks of each player, which copyOnWrite() shares between copies of the state
+    private static String describe(DominionGameState state) {
+        StringBuilder sb = new StringBuilder();
+        for (int p = 0; p < state.getNPlayers(); p++)
+            for (DominionConstants.DeckType type : List.of(HAND, DRAW, TABLE, DISCARD)) {
+                sb.append(p).append(type).append(':');
+                for (DominionCard card : state.getDeck(type, p))
+                    sb.append(card.cardType()).append(',');
+            }
+        return sb.toString();
+    }
+
+    @Test
+    public void dominionSnapshotsCanBeReadWhileTheGameCarriesOn() {
+        List<String> live = new ArrayList<>();
+        List<String> snapshots = Collections.synchronizedList(new ArrayList<>());
+        RecordingListener sync = new RecordingListener(EnumSet.allOf(Event.Content.class)) {
+            @Override
+            public void onEvent(Event event) {
+                if (event.type == Event.GameEvent.ACTION_TAKEN)
+                    live.add(describe((DominionGameState) event.state));
+            }
+        };
+        RecordingListener async = new RecordingListener(EnumSet.of(Event.Content.STATE)) {
+            @Override
+            public void onEvent(Event event) {
+                if (event.type == Event.GameEvent.ACTION_TAKEN) {
+                    // read the copy twice, as the game changes the state it was copied from
+                    String first = describe((DominionGameState) event.state);
+                    String second = describe((DominionGameState) event.state);
+                    snapshots.add(first.equals(second) ? first : "changed while reading: " + first + " / " + second);
+                }
+            }
+        };
+        for (int seed = 0; seed < 5; seed++) {
+            List<AbstractPlayer> players = List.of(new RandomPlayer(new Random(seed)), new RandomPlayer(new Random(seed + 10)),
+                    new RandomPlayer(new Random(seed + 20)));
+            Game game = new Game(GameType.Dominion, new DominionForwardModel(),
+                    new DominionGameState(new DominionFGParameters(), players.size()));
+            game.reset(players, seed);
+            try (AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(sync, async)) {
+                game.addListener(dispatcher);
+                game.run();
+            }
+        }
+        assertTrue(live.size() > 100);
+        assertEquals(live, snapshots);
+    }
+}
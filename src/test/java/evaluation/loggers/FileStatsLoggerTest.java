@@ -0,0 +1,120 @@
+package evaluation.loggers;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import utilities.Pair;
+import utilities.Utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class FileStatsLoggerTest {
+
+    File folder;
+
+    @Before
+    public void setup() throws IOException {
+        folder = Files.createTempDirectory("FileStatsLoggerTest").toFile();
+    }
+
+    @After
+    public void cleanup() {
+        File[] files = folder.listFiles();
+        if (files != null)
+            for (File f : files)
+                f.delete();
+        folder.delete();
+    }
+
+    private Map<String, Object> row(int i) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("Int", i);
+        data.put("Double", i / 3.0);
+        data.put("Long", i * 10_000_000_000L);
+        data.put("Text", "Row " + i);
+        data.put("Missing", i % 7 == 0 ? null : i % 7);
+        data.put("Nested", Map.of("Inner", i % 2 == 0));
+        return data;
+    }
+
+    private void writeRows(FileStatsLogger logger, int rows) {
+        for (int i = 0; i < rows; i++)
+            logger.record(row(i));
+        logger.processDataAndFinish();
+    }
+
+    @Test
+    public void asyncTextMatchesSynchronous() throws IOException {
+        FileStatsLogger async = new FileStatsLogger(new File(folder, "async.txt").getPath());
+        FileStatsLogger sync = new FileStatsLogger(new File(folder, "sync.txt").getPath());
+        sync.async = false;
+        writeRows(async, 1000);
+        writeRows(sync, 1000);
+        List<String> lines = Files.readAllLines(new File(folder, "async.txt").toPath());
+        assertEquals(1001, lines.size());
+        assertEquals("Int\tDouble\tLong\tText\tMissing\tInner", lines.get(0));
+        assertEquals("7\t2.33\t70000000000\tRow 7\tNA\tfalse", lines.get(8));
+        assertEquals(Files.readAllLines(new File(folder, "sync.txt").toPath()), lines);
+    }
+
+    @Test
+    public void dataIsWrittenByProcessDataAndNotFinish() throws IOException {
+        File file = new File(folder, "partial.txt");
+        FileStatsLogger logger = new FileStatsLogger(file.getPath());
+        for (int i = 0; i < 10; i++)
+            logger.record(row(i));
+        logger.processDataAndNotFinish();
+        assertEquals(11, Files.readAllLines(file.toPath()).size());
+        logger.record(row(10));
+        logger.processDataAndFinish();
+        assertEquals(12, Files.readAllLines(file.toPath()).size());
+    }
+
+    @Test
+    public void binaryFileReadsBackAsText() {
+        File file = new File(folder, "data" + BinaryStatsFile.SUFFIX);
+        FileStatsLogger logger = new FileStatsLogger(file.getPath());
+        assertTrue(logger.isBinary());
+        writeRows(logger, 1000);
+        assertTrue(BinaryStatsFile.isBinary(file.getPath()));
+
+        Pair<List<String>, List<List<String>>> data = Utils.loadDataWithHeader("\t", file.getPath());
+        assertEquals(List.of("Int", "Double", "Long", "Text", "Missing", "Inner"), data.a);
+        assertEquals(1000, data.b.size());
+        for (int i = 0; i < 1000; i++) {
+            List<String> row = data.b.get(i);
+            assertEquals(String.valueOf(i), row.get(0));
+            assertEquals(i / 3.0, Double.parseDouble(row.get(1)), 0.0);
+            assertEquals(String.valueOf(i * 10_000_000_000L), row.get(2));
+            assertEquals("Row " + i, row.get(3));
+            assertEquals(i % 7 == 0 ? "NA" : String.valueOf(i % 7), row.get(4));
+            assertEquals(String.valueOf(i % 2 == 0), row.get(5));
+        }
+    }
+
+    @Test
+    public void appendingToBinaryFile() {
+        File file = new File(folder, "append" + BinaryStatsFile.SUFFIX);
+        writeRows(new FileStatsLogger(file.getPath()), 300);
+        writeRows(new FileStatsLogger(file.getPath()), 5);
+        Pair<List<String>, List<List<String>>> data = Utils.loadDataWithHeader("\t", file.getPath());
+        assertEquals(6, data.a.size());
+        assertEquals(305, data.b.size());
+        assertEquals("4", data.b.get(304).get(0));
+    }
+
+    @Test
+    public void emptyCopyKeepsFormat() {
+        FileStatsLogger logger = new FileStatsLogger(new File(folder, "copy" + BinaryStatsFile.SUFFIX).getPath());
+        logger.async = false;
+        FileStatsLogger copy = logger.emptyCopy("A");
+        assertTrue(copy.isBinary());
+        assertFalse(copy.async);
+        assertTrue(copy.getFileName().endsWith("copy_A" + BinaryStatsFile.SUFFIX));
+    }
+}
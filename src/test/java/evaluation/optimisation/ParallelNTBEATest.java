@@ -0,0 +1,108 @@
+package evaluation.optimisation;
+
+import core.AbstractPlayer;
+import evaluation.optimisation.ntbea.*;
+import evaluation.optimisation.ntbea.functions.Branin;
+import evaluation.optimisation.ntbea.functions.FunctionEvaluator;
+import evaluation.optimisation.ntbea.functions.FunctionSearchSpace;
+import games.GameType;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.junit.Test;
+import players.heuristics.WinOnlyHeuristic;
+import players.mcts.MCTSParams;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ParallelNTBEATest {
+
+    // records the size of each batch, and checks the settings within a batch
+    static class RecordingEvaluator extends FunctionEvaluator {
+        List<Integer> batchSizes = new ArrayList<>();
+        int samples;
+
+        RecordingEvaluator(SearchSpace searchSpace, int samples) {
+            super(new Branin(), searchSpace);
+            this.samples = samples;
+        }
+
+        @Override
+        public double[] evaluate(List<int[]> solutions) {
+            batchSizes.add(solutions.size());
+            // each candidate is repeated once per sample, and the candidates differ from each other
+            Set<String> distinct = new HashSet<>();
+            for (int i = 0; i < solutions.size(); i += samples) {
+                for (int s = 1; s < samples; s++)
+                    assertArrayEquals(solutions.get(i), solutions.get(i + s));
+                distinct.add(Arrays.toString(solutions.get(i)));
+            }
+            assertEquals(solutions.size() / samples, distinct.size());
+            return super.evaluate(solutions);
+        }
+    }
+
+    @Test
+    public void batchedTrialUsesTheSameNumberOfEvaluations() {
+        NTBEAParameters params = new NTBEAParameters();
+        params.searchSpace = new FunctionSearchSpace(10, new Branin());
+        params.batchSize = 4;
+        params.evaluationsPerTrial = 2;
+        NTupleSystem model = new NTupleSystem(params);
+        model.reset();
+        NTupleBanditEA ea = new NTupleBanditEA(model, params);
+        RecordingEvaluator evaluator = new RecordingEvaluator(params.searchSpace, 2);
+
+        ea.runTrial(evaluator, 10);
+        assertEquals(List.of(8, 8, 4), evaluator.batchSizes);
+        assertEquals(20, evaluator.nEvals());
+        assertEquals(10, model.getSampledPoints().size());
+    }
+
+    // an evaluator of MCTS settings on TicTacToe, with everything random fixed by the seed
+    private static GameEvaluator mctsEvaluator(int nThreads, boolean parallelGames) {
+        NTBEAParameters params = new NTBEAParameters();
+        JSONObject json = new JSONObject();
+        JSONArray kValues = new JSONArray();
+        kValues.addAll(List.of(0.1, 1.0, 10.0));
+        json.put("K", kValues);
+        JSONArray budgets = new JSONArray();
+        budgets.addAll(List.of(1, 20));  // a weak player makes for more varied results
+        json.put("budgetType", "BUDGET_ITERATIONS");
+        json.put("budget", budgets);
+        MCTSParams mctsParams = new MCTSParams();
+        mctsParams.setParameterValue("randomSeed", 7);
+        params.searchSpace = new ITPSearchSpace<>(mctsParams, json);
+        params.mode = NTBEAParameters.Mode.StableNTBEA;
+        params.seed = 42;
+        params.nThreads = nThreads;
+        params.parallelGames = parallelGames;
+        List<AbstractPlayer> opponents = List.of(new RandomPlayer(new Random(3)));
+        return new GameEvaluator(GameType.TicTacToe, params, 2, opponents,
+                new WinOnlyHeuristic(), null, false);
+    }
+
+    @Test
+    public void parallelGameEvaluationMatchesSerial() {
+        List<int[]> settings = new ArrayList<>();
+        for (int i = 0; i < 12; i++)
+            settings.add(new int[]{i % 3, i % 2});
+
+        GameEvaluator serialEvaluator = mctsEvaluator(1, false);
+        double[] serial = serialEvaluator.evaluate(settings);
+        assertEquals(settings.size(), serial.length);
+        assertEquals(settings.size(), serialEvaluator.nEvals());
+        // each is the mean of two games (one in each position)
+        for (double result : serial)
+            assertTrue(result == 0.0 || result == 0.25 || result == 0.5 || result == 0.75 || result == 1.0);
+
+        for (boolean parallelGames : new boolean[]{true, false}) {
+            GameEvaluator evaluator = mctsEvaluator(4, parallelGames);
+            double[] results = evaluator.evaluate(settings);
+            assertEquals(settings.size(), evaluator.nEvals());
+            assertArrayEquals("parallelGames = " + parallelGames, serial, results, 0.0);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package games.catan;
+
+import core.actions.AbstractAction;
+import core.components.BoardNodeWithEdges;
+import core.components.Edge;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class CatanLongestRoadTest {
+
+    CatanForwardModel fm = new CatanForwardModel();
+
+    // the longest trail along the player's roads, by searching the graph itself from every vertex
+    private int longestTrail(CatanGameState state, int player) {
+        int best = 0;
+        for (BoardNodeWithEdges vertex : state.getGraph().getBoardNodes())
+            best = Math.max(best, walk(vertex, player, new HashSet<>(), 0));
+        return best;
+    }
+
+    private int walk(BoardNodeWithEdges vertex, int player, Set<Integer> used, int length) {
+        if (length > 0 && vertex.getOwnerId() != -1 && vertex.getOwnerId() != player)
+            return length;
+        int best = length;
+        for (Map.Entry<Edge, BoardNodeWithEdges> e : vertex.getNeighbourEdgeMapping().entrySet()) {
+            if (e.getKey().getOwnerId() == player && used.add(e.getKey().getComponentID())) {
+                best = Math.max(best, walk(e.getValue(), player, used, length + 1));
+                used.remove(e.getKey().getComponentID());
+            }
+        }
+        return best;
+    }
+
+    @Test
+    public void lengthsMatchASearchOfTheGraphInRandomGames() {
+        Random rnd = new Random(11);
+        int longest = 0;
+        for (int g = 0; g < 5; g++) {
+            CatanParameters params = new CatanParameters();
+            params.setRandomSeed(g);
+            CatanGameState state = new CatanGameState(params, 3);
+            fm.setup(state);
+            for (int step = 0; step < 3000 && state.isNotTerminal(); step++) {
+                List<AbstractAction> actions = fm.computeAvailableActions(state);
+                fm.next(state, actions.get(rnd.nextInt(actions.size())));
+                for (int p = 0; p < state.getNPlayers(); p++) {
+                    assertEquals(longestTrail(state, p), state.getRoadLengths()[p]);
+                    assertEquals(state.getRoadLengths()[p], state.getLongestRoad().longestTrail(p));
+                    longest = Math.max(longest, state.getRoadLengths()[p]);
+                }
+            }
+        }
+        // check that the games built some roads of more than one section
+        assertTrue(String.valueOf(longest), longest >= 4);
+    }
+
+    @Test
+    public void copiesAreIndependent() {
+        Random rnd = new Random(3);
+        CatanParameters params = new CatanParameters();
+        params.setRandomSeed(3);
+        CatanGameState state = new CatanGameState(params, 4);
+        fm.setup(state);
+        for (int step = 0; step < 400 && state.isNotTerminal(); step++) {
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            fm.next(state, actions.get(rnd.nextInt(actions.size())));
+        }
+        CatanLongestRoad original = state.getLongestRoad();
+        CatanLongestRoad copy = original.copy();
+        assertEquals(original, copy);
+        assertEquals(original.hashCode(), copy.hashCode());
+
+        // a road for player 0 on any free edge
+        for (BoardNodeWithEdges vertex : state.getGraph().getBoardNodes()) {
+            for (Edge edge : vertex.getEdges()) {
+                if (edge.getOwnerId() == -1) {
+                    int[] before = original.getLengths().clone();
+                    copy.addRoad(0, edge.getComponentID());
+                    assertArrayEquals(before, original.getLengths());
+                    assertNotEquals(original, copy);
+                    return;
+                }
+            }
+        }
+        fail("No free edge");
+    }
+}
@@ -0,0 +1,178 @@
+package games.chess;
+
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import games.chess.components.ChessBoard;
+import games.chess.components.ChessPiece;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ChessBitboardTest {
+    ChessForwardModel fm = new ChessForwardModel();
+    Game game = GameType.Chess.createGameInstance(2, new ChessParameters());
+
+    // The standard perft test positions, given as the piece placement of a FEN string. Pawns on their starting row
+    // are NOT_MOVED, and kings and rooks on their starting squares are NOT_MOVED if castlingSquares contains them.
+    private ChessGameState position(String placement, int player, String castlingSquares) {
+        ChessGameState state = (ChessGameState) game.getGameState().copy();
+        state.board = new ChessBoard();
+        state.whitePieces.clear();
+        state.blackPieces.clear();
+        String[] rows = placement.split("/");
+        for (int r = 0; r < 8; r++) {
+            int y = 7 - r;
+            int x = 0;
+            for (char c : rows[r].toCharArray()) {
+                if (Character.isDigit(c)) {
+                    x += c - '0';
+                    continue;
+                }
+                int owner = Character.isUpperCase(c) ? 0 : 1;
+                ChessPiece.ChessPieceType type = switch (Character.toLowerCase(c)) {
+                    case 'k' -> ChessPiece.ChessPieceType.KING;
+                    case 'q' -> ChessPiece.ChessPieceType.QUEEN;
+                    case 'r' -> ChessPiece.ChessPieceType.ROOK;
+                    case 'b' -> ChessPiece.ChessPieceType.BISHOP;
+                    case 'n' -> ChessPiece.ChessPieceType.KNIGHT;
+                    default -> ChessPiece.ChessPieceType.PAWN;
+                };
+                boolean unmoved = switch (type) {
+                    case PAWN -> y == (owner == 0 ? 1 : 6);
+                    case KING, ROOK -> castlingSquares.contains(state.getChessCoordinates(x, y));
+                    default -> false;
+                };
+                ChessPiece.MovedState moved = unmoved ? ChessPiece.MovedState.NOT_MOVED :
+                        (type == ChessPiece.ChessPieceType.KING || type == ChessPiece.ChessPieceType.ROOK || type == ChessPiece.ChessPieceType.PAWN)
+                                ? ChessPiece.MovedState.MOVED : ChessPiece.MovedState.NOT_RELEVANT;
+                state.setPiece(x, y, new ChessPiece(type, owner, x, y, moved));
+                x++;
+            }
+        }
+        state.setTurnOwner(player);
+        return state;
+    }
+
+    private ChessGameState kiwipete() {
+        return position("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R", 0, "a1 e1 h1 a8 e8 h8");
+    }
+
+    // the actions from the original move generation, one piece at a time
+    private List<AbstractAction> pieceByPieceActions(ChessGameState state) {
+        List<AbstractAction> actions = new ArrayList<>();
+        for (ChessPiece piece : state.getPlayerPieces(state.getCurrentPlayer()))
+            actions.addAll(fm.computeAvailableActionsPiece(state, piece));
+        return actions;
+    }
+
+    private long pieceByPiecePerft(ChessGameState state, int depth) {
+        List<AbstractAction> actions = pieceByPieceActions(state);
+        if (depth == 1) return actions.size();
+        long nodes = 0;
+        for (AbstractAction action : actions) {
+            ChessGameState next = (ChessGameState) state.copy();
+            fm.next(next, action);
+            nodes += pieceByPiecePerft(next, depth - 1);
+        }
+        return nodes;
+    }
+
+    @Test
+    public void perftFromTheStart() {
+        ChessBitboard bitboard = new ChessBitboard((ChessGameState) game.getGameState());
+        long[] expected = {1, 20, 400, 8902, 197281};
+        for (int depth = 0; depth < expected.length; depth++)
+            assertEquals(expected[depth], bitboard.perft(depth));
+    }
+
+    @Test
+    public void perftKiwipete() {
+        // castling, en passant and pins (there are no promotions in the first three moves)
+        ChessBitboard bitboard = new ChessBitboard(kiwipete());
+        assertEquals(48, bitboard.perft(1));
+        assertEquals(2039, bitboard.perft(2));
+        assertEquals(97862, bitboard.perft(3));
+    }
+
+    @Test
+    public void perftEndgame() {
+        // a rook and pawn ending, with checks along the ranks that pin pawns which could be taken en passant
+        ChessBitboard bitboard = new ChessBitboard(position("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8", 0, ""));
+        long[] expected = {1, 14, 191, 2812, 43238};
+        for (int depth = 0; depth < expected.length; depth++)
+            assertEquals(expected[depth], bitboard.perft(depth));
+    }
+
+    @Test
+    public void perftMatchesPieceByPieceGeneration() {
+        ChessGameState start = (ChessGameState) game.getGameState().copy();
+        assertEquals(new ChessBitboard(start).perft(3), pieceByPiecePerft(start, 3));
+        ChessGameState kiwipete = kiwipete();
+        assertEquals(new ChessBitboard(kiwipete).perft(2), pieceByPiecePerft(kiwipete, 2));
+    }
+
+    @Test
+    public void unmakeRestoresThePosition() {
+        ChessGameState state = kiwipete();
+        ChessBitboard bitboard = new ChessBitboard(state);
+        ChessBitboard original = new ChessBitboard(state);
+        bitboard.perft(3);
+        assertArrayEquals(original.pieces, bitboard.pieces);
+        assertArrayEquals(original.playerPieces, bitboard.playerPieces);
+        assertArrayEquals(original.board, bitboard.board);
+        assertEquals(original.occupied, bitboard.occupied);
+        assertEquals(original.unmoved, bitboard.unmoved);
+        assertEquals(original.enPassant, bitboard.enPassant);
+        assertEquals(original.sideToMove, bitboard.sideToMove);
+    }
+
+    @Test
+    public void sameActionsAsPieceByPieceGenerationInRandomGames() {
+        Random rnd = new Random(42);
+        int promotions = 0, enPassants = 0, castles = 0;
+        for (int g = 0; g < 20; g++) {
+            ChessGameState state = (ChessGameState) game.getGameState().copy();
+            while (state.isNotTerminal()) {
+                List<AbstractAction> actions = fm.computeAvailableActions(state);
+                assertEquals(pieceByPieceActions(state), actions);
+                for (int p = 0; p < 2; p++)
+                    assertEquals(fm.isInCheck(state, p), new ChessBitboard(state).isInCheck(p));
+                AbstractAction action = actions.get(rnd.nextInt(actions.size()));
+                String name = action.getClass().getSimpleName();
+                if (name.equals("Promotion")) promotions++;
+                if (name.equals("EnPassant")) enPassants++;
+                if (name.equals("Castle")) castles++;
+                fm.next(state, action);
+            }
+        }
+        // check that the games covered the special moves
+        assertTrue(Arrays.toString(new int[]{promotions, enPassants, castles}), promotions > 0 && enPassants > 0 && castles > 0);
+    }
+
+    @Test
+    public void movesMadeOnTheBitboardMatchTheActions() {
+        Random rnd = new Random(7);
+        for (int g = 0; g < 10; g++) {
+            ChessGameState state = (ChessGameState) game.getGameState().copy();
+            ChessBitboard bitboard = new ChessBitboard(state);
+            int[] moves = new int[ChessBitboard.MAX_MOVES];
+            while (state.isNotTerminal()) {
+                int n = bitboard.generateMoves(moves);
+                int move = moves[rnd.nextInt(n)];
+                fm.next(state, ChessBitboard.toAction(move));
+                bitboard.makeMove(move);
+                ChessBitboard fromState = new ChessBitboard(state);
+                assertArrayEquals(fromState.board, bitboard.board);
+                assertEquals(fromState.unmoved, bitboard.unmoved);
+                assertEquals(fromState.enPassant, bitboard.enPassant);
+                assertEquals(fromState.sideToMove, bitboard.sideToMove);
+            }
+        }
+    }
+}
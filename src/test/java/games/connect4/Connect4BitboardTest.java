@@ -0,0 +1,105 @@
+package games.connect4;
+
+import core.CoreConstants;
+import core.components.GridBoard;
+import games.connect4.actions.DropToken;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class Connect4BitboardTest {
+
+    Connect4ForwardModel fm = new Connect4ForwardModel();
+
+    private Connect4GameState newGame(int gridSize, int winCount) {
+        Connect4GameParameters params = new Connect4GameParameters();
+        params.setParameterValue("gridSize", gridSize);
+        params.setParameterValue("winCount", winCount);
+        Connect4GameState state = new Connect4GameState(params, 2);
+        fm.setup(state);
+        return state;
+    }
+
+    // the winner found by scanning every line of the board, or -1
+    private int scanForWinner(Connect4GameState state, int winCount) {
+        int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        for (int p = 0; p < 2; p++)
+            for (int x = 0; x < state.getWidth(); x++)
+                for (int row = 0; row < state.getHeight(); row++)
+                    for (int[] d : directions) {
+                        int n = 0;
+                        while (n < winCount && state.hasToken(p, x + d[0] * n, row + d[1] * n))
+                            n++;
+                        if (n == winCount)
+                            return p;
+                    }
+        return -1;
+    }
+
+    @Test
+    public void winsAndDrawsMatchAFullScan() {
+        Random rnd = new Random(23);
+        int[][] settings = {{8, 4}, {6, 3}, {10, 5}, {12, 6}};
+        for (int[] setting : settings) {
+            for (int game = 0; game < 200; game++) {
+                Connect4GameState state = newGame(setting[0], setting[1]);
+                while (state.isNotTerminal()) {
+                    // before the game ends there is no line
+                    assertEquals(-1, scanForWinner(state, setting[1]));
+                    List<core.actions.AbstractAction> actions = fm.computeAvailableActions(state);
+                    fm.next(state, actions.get(rnd.nextInt(actions.size())));
+                }
+                int winner = scanForWinner(state, setting[1]);
+                if (winner == -1) {
+                    assertTrue(state.isFull());
+                    assertEquals(CoreConstants.GameResult.DRAW_GAME, state.getPlayerResults()[0]);
+                } else {
+                    assertEquals(CoreConstants.GameResult.WIN_GAME, state.getPlayerResults()[winner]);
+                    assertEquals(CoreConstants.GameResult.LOSE_GAME, state.getPlayerResults()[1 - winner]);
+                    assertTrue(state.getWinningCells().size() >= setting[1]);
+                    for (var cell : state.getWinningCells())
+                        assertEquals(winner, state.getPlayerAt(cell.a, cell.b));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void copiesAreIndependent() {
+        Connect4GameState state = newGame(8, 4);
+        fm.next(state, new DropToken(3, 0));
+        Connect4GameState copy = (Connect4GameState) state.copy();
+        assertEquals(state, copy);
+        assertEquals(state.hashCode(), copy.hashCode());
+        assertEquals(state.getZobristHash(), copy.getZobristHash());
+
+        fm.next(copy, new DropToken(3, 1));
+        assertEquals(1, state.getColumnHeight(3));
+        assertEquals(2, copy.getColumnHeight(3));
+        assertNotEquals(state, copy);
+        assertNotEquals(state.getZobristHash(), copy.getZobristHash());
+    }
+
+    @Test
+    public void gridBoardAdapter() {
+        Connect4GameState state = newGame(8, 4);
+        fm.next(state, new DropToken(0, 0));
+        fm.next(state, new DropToken(0, 1));
+        GridBoard grid = state.getGridBoard();
+        assertEquals("x", grid.getElement(0, 7).getComponentName());
+        assertEquals("o", grid.getElement(0, 6).getComponentName());
+        assertEquals(Connect4Constants.emptyCell, grid.getElement(0, 5).getComponentName());
+        assertEquals(0, state.getPlayerAt(0, 7));
+        assertEquals(1, state.getPlayerAt(0, 6));
+        assertEquals(-1, state.getPlayerAt(1, 7));
+
+        double[] vector = new Connect4StateVector().doubleVector(state, 0);
+        assertEquals(64, vector.length);
+        assertEquals(1.0, vector[7 * 8], 0.0);
+        assertEquals(-1.0, vector[6 * 8], 0.0);
+        assertEquals(0.0, vector[5 * 8], 0.0);
+    }
+}
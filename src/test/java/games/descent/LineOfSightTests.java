@@ -0,0 +1,103 @@
+package games.descent;
+
+import core.actions.AbstractAction;
+import core.components.BoardNode;
+import core.components.GridBoard;
+import core.properties.PropertyInt;
+import games.descent2e.DescentForwardModel;
+import games.descent2e.DescentGameState;
+import games.descent2e.DescentHelper;
+import games.descent2e.DescentParameters;
+import games.descent2e.components.Figure;
+import org.junit.Before;
+import org.junit.Test;
+import utilities.LineOfSight;
+import utilities.Vector2D;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static core.CoreConstants.playersHash;
+import static org.junit.Assert.*;
+
+public class LineOfSightTests {
+
+    DescentGameState state;
+    DescentForwardModel fm = new DescentForwardModel();
+
+    @Before
+    public void setup() {
+        DescentParameters params = new DescentParameters();
+        params.heroesToBePlayed = List.of("Avric Albright");
+        state = new DescentGameState(params, 2);
+        fm.setup(state);
+    }
+
+    // line of sight worked out from scratch, by walking the board along the line
+    private boolean walkLine(GridBoard board, Vector2D startPoint, Vector2D endPoint) {
+        List<Vector2D> points = LineOfSight.bresenhamsLineAlgorithm(startPoint, endPoint);
+        int start = ((PropertyInt) board.getElement(startPoint.getX(), startPoint.getY()).getProperty(playersHash)).value;
+        int target = ((PropertyInt) board.getElement(endPoint.getX(), endPoint.getY()).getProperty(playersHash)).value;
+        for (int i = 1; i < points.size(); i++) {
+            BoardNode previousTile = board.getElement(points.get(i - 1).getX(), points.get(i - 1).getY());
+            BoardNode currentTile = board.getElement(points.get(i).getX(), points.get(i).getY());
+            if (currentTile == null) return false;
+            int owner = ((PropertyInt) currentTile.getProperty(playersHash)).value;
+            if (owner != -1 && i != points.size() - 1 && owner != target && owner != start) return false;
+            if (!previousTile.getNeighbours().containsKey(currentTile)) return false;
+        }
+        return true;
+    }
+
+    private List<Vector2D> cells(DescentGameState dgs) {
+        List<Vector2D> cells = new ArrayList<>();
+        GridBoard board = dgs.getMasterBoard();
+        for (int y = 0; y < board.getHeight(); y++)
+            for (int x = 0; x < board.getWidth(); x++)
+                if (board.getElement(x, y) != null)
+                    cells.add(new Vector2D(x, y));
+        return cells;
+    }
+
+    private void checkFrom(DescentGameState dgs, List<Vector2D> from) {
+        List<Vector2D> cells = cells(dgs);
+        for (Vector2D a : from)
+            for (Vector2D b : cells)
+                assertEquals(a + " to " + b, walkLine(dgs.getMasterBoard(), a, b), DescentHelper.hasLineOfSight(dgs, a, b));
+    }
+
+    private List<Vector2D> figurePositions(DescentGameState dgs) {
+        List<Vector2D> positions = new ArrayList<>();
+        for (Figure f : dgs.getHeroes())
+            positions.add(f.getPosition());
+        dgs.getMonsters().forEach(group -> group.forEach(m -> positions.add(m.getPosition())));
+        return positions;
+    }
+
+    @Test
+    public void matchesWalkingTheBoardForEveryPair() {
+        // twice, so that the second time the lines come from the cache
+        checkFrom(state, cells(state));
+        checkFrom(state, cells(state));
+    }
+
+    @Test
+    public void figuresBlockLinesAsTheyMove() {
+        Random rnd = new Random(234);
+        DescentGameState dgs = (DescentGameState) state.copy();
+        // fill the cache before anyone moves
+        checkFrom(dgs, cells(dgs));
+        for (int i = 0; i < 150 && dgs.isNotTerminal(); i++) {
+            List<AbstractAction> actions = fm.computeAvailableActions(dgs);
+            fm.next(dgs, actions.get(rnd.nextInt(actions.size())));
+            if (i % 10 == 0)
+                checkFrom(dgs, figurePositions(dgs));
+        }
+    }
+
+    @Test
+    public void copiesShareTheCache() {
+        assertSame(state.getLineOfSight(), ((DescentGameState) state.copy()).getLineOfSight());
+    }
+}
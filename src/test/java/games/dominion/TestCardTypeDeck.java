@@ -0,0 +1,158 @@
+package games.dominion;
+
+import core.components.Deck;
+import core.components.PartialObservableDeck;
+import games.dominion.cards.CardType;
+import games.dominion.cards.CardTypeDeck;
+import games.dominion.cards.DominionCard;
+import org.junit.Test;
+
+import java.util.*;
+
+import static core.CoreConstants.VisibilityMode.VISIBLE_TO_ALL;
+import static org.junit.Assert.*;
+
+public class TestCardTypeDeck {
+
+    CardType[] types = {CardType.COPPER, CardType.ESTATE, CardType.GOLD, CardType.MOAT, CardType.GARDENS};
+
+    private static Map<CardType, Integer> counts(Deck<DominionCard> deck) {
+        Map<CardType, Integer> counts = new HashMap<>();
+        for (DominionCard c : deck.getComponents())
+            counts.merge(c.cardType(), 1, Integer::sum);
+        return counts;
+    }
+
+    @Test
+    public void behavesAsADeckWithoutOrder() {
+        Random rnd = new Random(9);
+        CardTypeDeck pile = new CardTypeDeck("Discard", 0, VISIBLE_TO_ALL);
+        Deck<DominionCard> deck = new Deck<>("Discard", 0, VISIBLE_TO_ALL);
+        for (int i = 0; i < 1000; i++) {
+            if (deck.getSize() > 0 && rnd.nextInt(3) == 0) {
+                DominionCard c = deck.get(rnd.nextInt(deck.getSize()));
+                deck.remove(c);
+                pile.remove(c);
+            } else if (deck.getSize() > 0 && rnd.nextInt(4) == 0) {
+                DominionCard c = pile.draw();
+                deck.remove(c);
+            } else {
+                DominionCard c = DominionCard.create(types[rnd.nextInt(types.length)]);
+                deck.add(c);
+                pile.add(c);
+            }
+            assertEquals(deck.getSize(), pile.getSize());
+            assertEquals(counts(deck), counts(pile));
+            for (CardType type : types)
+                assertEquals(counts(deck).getOrDefault(type, 0).intValue(), pile.count(type));
+            assertEquals(deck.sumInt(DominionCard::treasureValue), pile.sumInt(DominionCard::treasureValue));
+        }
+        CardType[] sorted = pile.stream().map(DominionCard::cardType).toArray(CardType[]::new);
+        CardType[] expected = sorted.clone();
+        Arrays.sort(expected);
+        assertArrayEquals(expected, sorted);
+    }
+
+    @Test
+    public void copiesAreIndependentAndEqual() {
+        CardTypeDeck pile = new CardTypeDeck("Trash", -1, VISIBLE_TO_ALL);
+        pile.add(DominionCard.create(CardType.COPPER));
+        pile.add(DominionCard.create(CardType.ESTATE));
+        CardTypeDeck copy = pile.copy();
+        assertEquals(pile, copy);
+        assertEquals(pile.hashCode(), copy.hashCode());
+        assertEquals(pile.getZobristHash(), copy.getZobristHash());
+
+        copy.add(DominionCard.create(CardType.COPPER));
+        assertEquals(2, pile.getSize());
+        assertEquals(1, pile.count(CardType.COPPER));
+        assertNotEquals(pile, copy);
+        assertNotEquals(pile.getZobristHash(), copy.getZobristHash());
+
+        // the same cards, added in a different order
+        CardTypeDeck other = pile.copy();
+        other.clear();
+        other.add(DominionCard.create(CardType.ESTATE));
+        other.add(DominionCard.create(CardType.COPPER));
+        assertEquals(pile, other);
+        assertEquals(pile.getZobristHash(), other.getZobristHash());
+    }
+
+    @Test
+    public void movesToAndFromOtherDecks() {
+        CardTypeDeck pile = new CardTypeDeck("Discard", 0, VISIBLE_TO_ALL);
+        PartialObservableDeck<DominionCard> draw = new PartialObservableDeck<>("Draw", 0, new boolean[2]);
+        for (CardType type : types)
+            draw.add(DominionCard.create(type));
+        pile.add(draw);
+        assertEquals(types.length, pile.getSize());
+
+        Deck<DominionCard> other = new Deck<>("Other", 0, VISIBLE_TO_ALL);
+        other.add(pile);
+        assertEquals(counts(draw), counts(other));
+
+        draw.clear();
+        draw.add(pile);
+        pile.clear();
+        assertEquals(types.length, draw.getSize());
+        assertEquals(0, pile.getSize());
+        assertNull(pile.draw());
+    }
+
+    @Test
+    public void cardsAreNotSharedBetweenDecks() {
+        CardTypeDeck pile = new CardTypeDeck("Discard", 0, VISIBLE_TO_ALL);
+        pile.add(DominionCard.create(CardType.COPPER));
+        pile.add(DominionCard.create(CardType.COPPER));
+        CardTypeDeck copy = pile.copy();
+        CardTypeDeck otherPile = new CardTypeDeck("Discard", 1, VISIBLE_TO_ALL);
+        otherPile.add(DominionCard.create(CardType.COPPER));
+        assertNotSame(pile.peek(0), copy.peek(0));
+        assertNotSame(pile.peek(0), otherPile.peek(0));
+        assertEquals(0, pile.peek(0).getOwnerId());
+        assertEquals(1, otherPile.peek(0).getOwnerId());
+
+        // a card taken out of the deck is no longer the deck's
+        DominionCard drawn = pile.draw();
+        assertNotSame(drawn, pile.peek(0));
+        drawn.setOwnerId(1);
+        assertEquals(0, pile.peek(0).getOwnerId());
+
+        Deck<DominionCard> other = new Deck<>("Other", 1, VISIBLE_TO_ALL);
+        other.add(copy);
+        assertNotSame(copy.peek(0), other.peek(0));
+        assertEquals(0, copy.peek(0).getOwnerId());
+    }
+
+    @Test
+    public void removedCardIsNoLongerTheDecks() {
+        // as DominionGameState.moveCard() does: find the card in the deck, remove it, and add it to another deck
+        CardTypeDeck pile = new CardTypeDeck("Discard", 0, VISIBLE_TO_ALL);
+        pile.add(DominionCard.create(CardType.COPPER));
+        pile.add(DominionCard.create(CardType.COPPER));
+        Deck<DominionCard> hand = new Deck<>("Hand", 1, VISIBLE_TO_ALL);
+        DominionCard moved = pile.stream().filter(c -> c.cardType() == CardType.COPPER).findFirst().orElseThrow();
+        pile.remove(moved);
+        hand.add(moved);
+        assertNotSame(moved, pile.peek(0));
+        assertFalse(pile.stream().anyMatch(c -> c == moved));
+
+        DominionCard byIndex = pile.get(0);
+        pile.remove(0);
+        assertEquals(0, pile.getSize());
+        pile.add(DominionCard.create(CardType.COPPER));
+        assertNotSame(byIndex, pile.peek(0));
+    }
+
+    @Test
+    public void equalsAndHashCodeUseTheOwner() {
+        CardTypeDeck pile = new CardTypeDeck("Discard", 0, VISIBLE_TO_ALL);
+        pile.add(DominionCard.create(CardType.COPPER));
+        CardTypeDeck copy = pile.copy();
+        copy.setOwnerId(1);
+        assertNotEquals(pile, copy);
+        copy.setOwnerId(0);
+        assertEquals(pile, copy);
+        assertEquals(pile.hashCode(), copy.hashCode());
+    }
+}
@@ -0,0 +1,68 @@
+package games.pandemic;
+
+import core.components.Card;
+import core.components.Deck;
+import core.properties.PropertyString;
+import games.GameType;
+import games.pandemic.rules.rules.DrawCards;
+import org.junit.Before;
+import org.junit.Test;
+
+import static core.CoreConstants.nameHash;
+import static core.CoreConstants.playerHandHash;
+import static games.pandemic.PandemicConstants.playerDeckHash;
+import static org.junit.Assert.*;
+
+public class DrawCardsTest {
+
+    PandemicGameState state;
+    Deck<Card> playerDeck;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        state = (PandemicGameState) GameType.Pandemic.createGameInstance(2, 42).getGameState();
+        playerDeck = (Deck<Card>) state.getComponent(playerDeckHash);
+    }
+
+    private boolean isEpidemic(Card c) {
+        return PandemicConstants.epidemicCard.equals(((PropertyString) c.getProperty(nameHash)).value);
+    }
+
+    // moves the first card in the player deck that is (or is not) an epidemic to the top
+    private Card putOnTop(boolean epidemic) {
+        for (Card c : playerDeck.getComponents()) {
+            if (isEpidemic(c) == epidemic) {
+                playerDeck.remove(c);
+                playerDeck.add(c);
+                return c;
+            }
+        }
+        throw new AssertionError("No suitable card in the player deck");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void drawingAnEpidemicCardResolvesAnEpidemic() {
+        Deck<Card> hand = (Deck<Card>) state.getComponentActingPlayer(playerHandHash);
+        int handSize = hand.getSize();
+        putOnTop(true);
+
+        assertTrue(new DrawCards().run(state));
+        assertTrue(state.isEpidemic());
+        assertEquals(handSize, hand.getSize());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void drawingACityCardGoesToTheHand() {
+        Deck<Card> hand = (Deck<Card>) state.getComponentActingPlayer(playerHandHash);
+        int handSize = hand.getSize();
+        Card card = putOnTop(false);
+
+        assertTrue(new DrawCards().run(state));
+        assertFalse(state.isEpidemic());
+        assertEquals(handSize + 1, hand.getSize());
+        assertTrue(hand.getComponents().contains(card));
+    }
+}
@@ -0,0 +1,77 @@
+package games.powergrid;
+
+import games.powergrid.components.PowerGridGraphBoard;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class PowerGridGraphBoardTest {
+
+    // a plain Dijkstra from the sources, to check the distance matrix against
+    private int[] dijkstra(PowerGridGraphBoard board, Set<Integer> sources) {
+        int[] dist = new int[board.maxCityId() + 1];
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        PriorityQueue<int[]> pq = new PriorityQueue<>(Comparator.comparingInt(a -> a[1]));
+        for (int s : sources) {
+            dist[s] = 0;
+            pq.add(new int[]{s, 0});
+        }
+        while (!pq.isEmpty()) {
+            int[] cur = pq.poll();
+            if (cur[1] != dist[cur[0]]) continue;
+            for (PowerGridGraphBoard.Edge e : board.edgesFrom(cur[0])) {
+                if (cur[1] + e.cost < dist[e.to]) {
+                    dist[e.to] = cur[1] + e.cost;
+                    pq.add(new int[]{e.to, dist[e.to]});
+                }
+            }
+        }
+        return dist;
+    }
+
+    private void checkAgainstDijkstra(PowerGridGraphBoard board, long seed) {
+        Random rnd = new Random(seed);
+        List<Integer> ids = new ArrayList<>();
+        for (var city : board.cities()) ids.add(city.getComponentID());
+        for (int from : ids) {
+            int[] expected = dijkstra(board, Set.of(from));
+            for (int to : ids)
+                assertEquals(expected[to], board.distance(from, to));
+        }
+        for (int i = 0; i < 50; i++) {
+            Collections.shuffle(ids, rnd);
+            Set<Integer> sources = new HashSet<>(ids.subList(0, 1 + rnd.nextInt(6)));
+            Set<Integer> targets = new HashSet<>(ids.subList(sources.size(), ids.size()));
+            int[] expected = dijkstra(board, sources);
+            Map<Integer, Integer> costs = board.shortestPathCosts(targets, sources);
+            assertEquals(targets, costs.keySet());
+            for (int t : targets)
+                assertEquals(expected[t], (int) costs.get(t));
+
+            // and so do the costs to every city
+            int[] all = board.connectionCosts(sources);
+            for (int to : ids)
+                assertEquals(expected[to], all[to]);
+        }
+    }
+
+    @Test
+    public void distancesMatchDijkstraOnNorthAmerica() {
+        checkAgainstDijkstra(PowerGridGraphBoard.northAmerica(), 1);
+        checkAgainstDijkstra(PowerGridGraphBoard.northAmerica().penalizeRegions(Set.of(1, 2, 4)), 2);
+    }
+
+    @Test
+    public void distancesMatchDijkstraOnEurope() {
+        checkAgainstDijkstra(PowerGridGraphBoard.europe(), 3);
+    }
+
+    @Test
+    public void firstCityIsFree() {
+        PowerGridGraphBoard board = PowerGridGraphBoard.northAmerica();
+        Map<Integer, Integer> costs = board.shortestPathCosts(Set.of(3, 17, 40), Set.of());
+        assertEquals(Map.of(3, 0, 17, 0, 40, 0), costs);
+    }
+}
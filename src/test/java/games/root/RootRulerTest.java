@@ -0,0 +1,71 @@
+package games.root;
+
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import games.root.components.RootBoardNodeWithRootEdges;
+import games.root.components.RootGraphBoard;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class RootRulerTest {
+
+    @Before
+    public void setup() {
+        RootGraphBoard.verifyRulers = true;
+    }
+
+    @After
+    public void tearDown() {
+        RootGraphBoard.verifyRulers = false;
+    }
+
+    @Test
+    public void rulersAreKeptUpToDateInRandomGames() {
+        Random rnd = new Random(17);
+        for (int g = 0; g < 3; g++) {
+            Game game = GameType.Root.createGameInstance(4, g);
+            RootForwardModel fm = (RootForwardModel) game.getForwardModel();
+            AbstractGameState state = game.getGameState();
+            // verifyRulers checks every clearing after each action
+            for (int step = 0; step < 2000 && state.isNotTerminal(); step++) {
+                List<AbstractAction> actions = fm.computeAvailableActions(state);
+                fm.next(state, actions.get(rnd.nextInt(actions.size())));
+                if (step % 100 == 0) {
+                    RootGameState copy = (RootGameState) state.copy();
+                    copy.getGameMap().checkRulers();
+                }
+            }
+        }
+    }
+
+    @Test(expected = AssertionError.class)
+    public void checkFindsAWrongRuler() {
+        RootGameState state = (RootGameState) GameType.Root.createGameInstance(4, 1).getGameState();
+        RootBoardNodeWithRootEdges clearing = state.getGameMap().getNonForrestBoardNodes().iterator().next();
+        clearing.rulerID = (clearing.rulerID + 2) % 4 - 1;
+        state.getGameMap().checkRulers();
+    }
+
+    @Test
+    public void clearingListsMatchTheBoard() {
+        RootGameState state = (RootGameState) GameType.Root.createGameInstance(4, 2).getGameState();
+        RootGraphBoard map = state.getGameMap().copy();
+        for (RootParameters.ClearingTypes type : RootParameters.ClearingTypes.values()) {
+            List<RootBoardNodeWithRootEdges> expected = map.getBoardNodes().stream()
+                    .filter(node -> type == RootParameters.ClearingTypes.Bird ? node.getClearingType() != RootParameters.ClearingTypes.Forrest : node.getClearingType() == type)
+                    .collect(Collectors.toList());
+            assertEquals(expected, map.getNodesOfType(type));
+            assertSame(map.getNodesOfType(type), map.getNodesOfType(type));
+        }
+        assertEquals(map.getNodesOfType(RootParameters.ClearingTypes.Bird), map.getNonForrestBoardNodes());
+    }
+}
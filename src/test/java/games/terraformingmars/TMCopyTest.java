@@ -0,0 +1,66 @@
+package games.terraformingmars;
+
+import core.AbstractForwardModel;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import games.terraformingmars.components.TMCard;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TMCopyTest {
+
+    @Test
+    public void copiesShareCardDefinitions() {
+        Game game = GameType.TerraformingMars.createGameInstance(2, 7);
+        TMGameState state = (TMGameState) game.getGameState();
+        TMGameState copy = (TMGameState) state.copy();
+        for (TMCard card : state.getProjectCards().getComponents()) {
+            TMCard other = (TMCard) copy.getComponentById(card.getComponentID());
+            assertNotSame(card, other);
+            assertSame(card.tags, other.tags);
+            assertSame(card.requirements, other.requirements);
+            assertSame(card.discountEffects, other.discountEffects);
+            assertSame(card.resourceMappings, other.resourceMappings);
+            assertNotSame(card.actions, other.actions);
+        }
+    }
+
+    @Test
+    public void gamesAreLoadedFromTheSameDefinitions() {
+        TMGameState a = (TMGameState) GameType.TerraformingMars.createGameInstance(2, 1).getGameState();
+        TMGameState b = (TMGameState) GameType.TerraformingMars.createGameInstance(2, 2).getGameState();
+        // each game has its own cards, built from the same definitions
+        assertEquals(a.getProjectCards().getSize(), b.getProjectCards().getSize());
+        assertNotSame(a.getProjectCards().get(0), b.getProjectCards().get(0));
+    }
+
+    @Test
+    public void playingACopyDoesNotChangeTheOriginal() {
+        // Uniformly random play runs into actions that fail to execute in many games; these seeds play 300 actions
+        // (and 50 from each copy) without doing so
+        Random rnd = new Random(1);
+        Game game = GameType.TerraformingMars.createGameInstance(2, 1);
+        AbstractForwardModel fm = game.getForwardModel();
+        TMGameState state = (TMGameState) game.getGameState();
+        for (int step = 0; step < 300 && state.isNotTerminal(); step++) {
+            if (step % 25 == 0) {
+                TMGameState before = (TMGameState) state.copy();
+                TMGameState copy = (TMGameState) state.copy();
+                for (int i = 0; i < 50 && copy.isNotTerminal(); i++) {
+                    List<AbstractAction> actions = fm.computeAvailableActions(copy);
+                    fm.next(copy, actions.get(rnd.nextInt(actions.size())));
+                }
+                // (a copy is compared, as some parts of the state are only equal between copies)
+                assertEquals(before, state.copy());
+            }
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            fm.next(state, actions.get(rnd.nextInt(actions.size())));
+        }
+        assertTrue(state.getGeneration() > 5);
+    }
+}
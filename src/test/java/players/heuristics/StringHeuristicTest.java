@@ -0,0 +1,66 @@
+package players.heuristics;
+
+import core.AbstractGameState;
+import games.GameType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class StringHeuristicTest {
+
+    File file;
+    AbstractGameState state = GameType.TicTacToe.createGameInstance(2, 42).getGameState();
+
+    @Before
+    public void setup() throws IOException {
+        file = File.createTempFile("StringHeuristicTest", ".java");
+        writeHeuristic("0.25 + 0.5 * playerId");
+    }
+
+    @After
+    public void cleanup() {
+        file.delete();
+    }
+
+    private void writeHeuristic(String expression) throws IOException {
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write("public class TestHeuristic {\n" +
+                    "    public double evaluateState(core.AbstractGameState gameState, int playerId) {\n" +
+                    "        return " + expression + ";\n" +
+                    "    }\n" +
+                    "}\n");
+        }
+    }
+
+    @Test
+    public void heuristicIsCompiledAndCalled() {
+        StringHeuristic heuristic = new StringHeuristic(file.getPath(), "StringHeuristicTest_A");
+        assertEquals(0.25, heuristic.evaluateState(state, 0), 1e-9);
+        assertEquals(0.75, heuristic.evaluateState(state, 1), 1e-9);
+        // nothing is written to the working directory
+        assertFalse(new File("StringHeuristicTest_A.class").exists());
+    }
+
+    @Test
+    public void compiledClassesAreShared() throws IOException {
+        StringHeuristic first = new StringHeuristic(file.getPath(), "StringHeuristicTest_B");
+        StringHeuristic second = new StringHeuristic(file.getPath(), "StringHeuristicTest_B");
+        assertSame(first.heuristicClass.getClass(), second.heuristicClass.getClass());
+        assertNotSame(first.heuristicClass, second.heuristicClass);
+
+        writeHeuristic("0.1");
+        StringHeuristic changed = new StringHeuristic(file.getPath(), "StringHeuristicTest_B");
+        assertNotSame(first.heuristicClass.getClass(), changed.heuristicClass.getClass());
+        assertEquals(0.1, changed.evaluateState(state, 0), 1e-9);
+
+        changed.setHeuristicCode(first.getHeuristicCode());
+        assertSame(first.heuristicClass.getClass(), changed.heuristicClass.getClass());
+        assertEquals(0.25, changed.evaluateState(state, 0), 1e-9);
+    }
+}
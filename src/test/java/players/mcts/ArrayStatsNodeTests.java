@@ -0,0 +1,213 @@
+package players.mcts;
+
+import core.*;
+import core.actions.AbstractAction;
+import games.GameType;
+import games.connect4.Connect4ForwardModel;
+import games.connect4.Connect4GameParameters;
+import games.connect4.Connect4GameState;
+import games.dominion.DominionForwardModel;
+import games.dominion.DominionGameState;
+import games.dominion.DominionParameters;
+import org.junit.*;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ArrayStatsNodeTests {
+
+    MCTSPlayer mctsPlayer;
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams();
+        params.setRandomSeed(9332);
+        params.treePolicy = MCTSEnums.TreePolicy.UCB;
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.OneTree;
+        params.information = MCTSEnums.Information.Information_Set;
+        params.maxTreeDepth = 50;
+        params.rolloutLength = 10;
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 200;
+        params.statsLayout = MCTSEnums.StatsLayout.FlatArrays;
+    }
+
+    public Game createGame(MCTSParams params) {
+        mctsPlayer = new MCTSPlayer(params);
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(mctsPlayer);
+        players.add(new RandomPlayer(new Random(3023)));
+        players.add(new RandomPlayer(new Random(244)));
+        DominionParameters dp = new DominionParameters();
+        dp.setRandomSeed(330245);
+        return new Game(GameType.Dominion, players, new DominionForwardModel(), new DominionGameState(dp, players.size()));
+    }
+
+    public Game createConnect4Game(MCTSParams params) {
+        mctsPlayer = new MCTSPlayer(params);
+        List<AbstractPlayer> players = List.of(mctsPlayer, new RandomPlayer(new Random(3023)));
+        Connect4GameParameters cp = new Connect4GameParameters();
+        cp.setRandomSeed(330245);
+        return new Game(GameType.Connect4, players, new Connect4ForwardModel(), new Connect4GameState(cp, players.size()));
+    }
+
+    @Test
+    public void UCB() {
+        runGame(createGame(params), 4);
+    }
+
+    @Test
+    public void UCBTuned() {
+        params.treePolicy = MCTSEnums.TreePolicy.UCB_Tuned;
+        runGame(createGame(params), 4);
+    }
+
+    @Test
+    public void EXP3() {
+        params.treePolicy = MCTSEnums.TreePolicy.EXP3;
+        runGame(createGame(params), 4);
+    }
+
+    @Test
+    public void RegretMatching() {
+        params.treePolicy = MCTSEnums.TreePolicy.RegretMatching;
+        runGame(createGame(params), 4);
+    }
+
+    @Test
+    public void selfOnlyClosedLoop() {
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.SelfOnly;
+        params.information = MCTSEnums.Information.Closed_Loop;
+        params.discardStateAfterEachIteration = false;
+        runGame(createGame(params), 4);
+    }
+
+    @Test
+    public void rootParallel() {
+        params.parallelMode = MCTSEnums.ParallelMode.Root;
+        params.nThreads = 4;
+        params.budget = 800;  // 200 for each thread
+        runGame(createGame(params), 4);
+    }
+
+    @Test
+    public void actionMapLayoutUnchanged() {
+        params.statsLayout = MCTSEnums.StatsLayout.ActionMap;
+        Game game = createGame(params);
+        runGame(game, 1);
+        assertFalse(mctsPlayer.root instanceof ArrayStatsNode);
+    }
+
+    @Test
+    public void sameChoicesAsActionMapUCB() {
+        checkSameChoicesAsActionMap();
+    }
+
+    @Test
+    public void sameChoicesAsActionMapEXP3() {
+        params.treePolicy = MCTSEnums.TreePolicy.EXP3;
+        checkSameChoicesAsActionMap();
+    }
+
+    private void checkSameChoicesAsActionMap() {
+        // Connect4 has no random events, so each search depends only on the seed of the MCTS player.
+        // (Copies of a Dominion state draw from an unseeded Random.)
+        params.resetSeedEachGame = true;  // so that the rollout policy starts from the same seed in both games
+        List<AbstractAction> flatChoices = new ArrayList<>();
+        List<Map<AbstractAction, Integer>> flatVisits = new ArrayList<>();
+        playAndRecord(createConnect4Game(params), 4, flatChoices, flatVisits);
+        assertTrue(mctsPlayer.root instanceof ArrayStatsNode);
+
+        params.statsLayout = MCTSEnums.StatsLayout.ActionMap;
+        List<AbstractAction> mapChoices = new ArrayList<>();
+        List<Map<AbstractAction, Integer>> mapVisits = new ArrayList<>();
+        playAndRecord(createConnect4Game(params), 4, mapChoices, mapVisits);
+
+        assertEquals(mapChoices, flatChoices);
+        assertEquals(mapVisits, flatVisits);
+    }
+
+    private void playAndRecord(Game game, int moves, List<AbstractAction> choices, List<Map<AbstractAction, Integer>> rootVisits) {
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        mctsPlayer.initializePlayer(state);
+        while (choices.size() < moves) {
+            List<AbstractAction> availableActions = forwardModel.computeAvailableActions(state);
+            AbstractAction actionChosen = game.getPlayers().get(state.getCurrentPlayer())
+                    ._getAction(state, availableActions);
+            if (availableActions.size() > 1 && state.getCurrentPlayer() == 0) {
+                choices.add(actionChosen);
+                Map<AbstractAction, Integer> visits = new HashMap<>();
+                for (AbstractAction action : mctsPlayer.root.actionValues.keySet())
+                    visits.put(action, mctsPlayer.root.actionVisits(action));
+                rootVisits.add(visits);
+            }
+            forwardModel.next(state, actionChosen);
+        }
+    }
+
+    private void runGame(Game game, int moves) {
+        int counter = 0;
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        do {
+            List<AbstractAction> availableActions = forwardModel.computeAvailableActions(state);
+            AbstractAction actionChosen = game.getPlayers().get(state.getCurrentPlayer())
+                    ._getAction(state, availableActions);
+
+            if (availableActions.size() > 1 && state.getCurrentPlayer() == 0) {
+                assertTrue(availableActions.contains(actionChosen));
+                SingleTreeNode[] roots = mctsPlayer.root instanceof RootParallelNode ?
+                        ((RootParallelNode) mctsPlayer.root).getRoots() : new SingleTreeNode[]{mctsPlayer.root};
+                for (SingleTreeNode root : roots) {
+                    assertEquals(200, root.getVisits());
+                    if (params.statsLayout == MCTSEnums.StatsLayout.FlatArrays) {
+                        for (SingleTreeNode node : root.allNodesInTree())
+                            checkActionValuesMatchArrays((ArrayStatsNode) node);
+                    }
+                }
+                counter++;
+            }
+            forwardModel.next(state, actionChosen);
+        } while (counter < moves);
+    }
+
+    private void checkActionValuesMatchArrays(ArrayStatsNode node) {
+        assertEquals(node.nActions, node.actionValues.size());
+        assertEquals(node.nActions, node.actions.size());
+        int totalVisits = 0;
+        for (Map.Entry<AbstractAction, ActionStats> entry : node.actionValues.entrySet()) {
+            int i = node.actionIndex.get(entry.getKey());
+            assertSame(entry.getKey(), node.actions.get(i));
+            ActionStats stats = entry.getValue();
+            assertEquals(node.visits[i], stats.nVisits);
+            assertEquals(node.visits[i], node.actionVisits(entry.getKey()));
+            assertEquals(node.validVisits[i], stats.validVisits);
+            for (int p = 0; p < stats.totValue.length; p++) {
+                assertEquals(node.totValue[p][i], stats.totValue[p], 1e-9);
+                assertEquals(node.squaredTotValue[p][i], stats.squaredTotValue[p], 1e-9);
+            }
+            assertEquals(stats.nVisits, node.actionValues.get(entry.getKey()).nVisits);
+            totalVisits += stats.nVisits;
+        }
+        // each iteration backs up exactly one action from the root
+        if (node.root == node)
+            assertEquals(node.getVisits(), totalVisits);
+    }
+
+    @Test
+    public void actionValuesIsAReadOnlyView() {
+        Game game = createConnect4Game(params);
+        runGame(game, 1);
+        ArrayStatsNode root = (ArrayStatsNode) mctsPlayer.root;
+        AbstractAction action = root.actions.get(0);
+        int visits = root.actionVisits(action);
+        root.actionValues.get(action).nVisits++;
+        assertEquals(visits, root.actionVisits(action));
+        assertThrows(UnsupportedOperationException.class, () -> root.actionValues.put(action, new ActionStats(2)));
+    }
+}
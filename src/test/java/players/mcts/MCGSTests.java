@@ -4,6 +4,7 @@ import core.AbstractPlayer;
 import core.Game;
 import evaluation.features.StateKeyFromFeatureVector;
 import evaluation.features.TurnAndPlayerOnly;
+import evaluation.features.ZobristStateKey;
 import games.GameType;
 import games.dotsboxes.*;
 import games.loveletter.LoveLetterParameters;
@@ -18,6 +19,7 @@ import java.util.*;
 import java.util.function.Predicate;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class MCGSTests {
@@ -262,4 +264,127 @@ public class MCGSTests {
         assertEquals(0, root.getTranspositionMap().keySet().stream().filter(s -> !((String)s).startsWith("0-")).count());
         assertEquals(33, root.getTranspositionMap().size());
     }
+
+    @Test
+    public void BoundedTableDotsAndBoxes() {
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.MCGS;
+        params.MCGSStateKey = new StateKeyFromFeatureVector(new DBStateFeaturesReduced());
+        params.budget = 1000;
+        params.MCGSTableSize = 64;
+        for (MCTSEnums.TranspositionReplacement replacement : MCTSEnums.TranspositionReplacement.values()) {
+            params.MCGSReplacement = replacement;
+            Game game = createDotsAndBoxes(params);
+            do {
+                int p = game.getGameState().getCurrentPlayer();
+                game.oneAction();
+                if (p == 0) {
+                    MCGSNode root = (MCGSNode) mctsPlayer.getRoot(0);
+                    if (root == null) continue;
+                    TranspositionTable table = (TranspositionTable) root.getTranspositionMap();
+                    assertEquals(64, table.capacity());
+                    assertTrue(table.size() <= 64);
+                    assertTrue(table.containsValue(root));
+                    if (game.getTick() < 30)
+                        assertTrue(table.getReplacements() > 0);
+                    assertEquals(params.budget, root.getVisits());
+                    List<SingleTreeNode> problemNodes = root.nonMatchingNodes(actionVisitsAddUp);
+                    assertEquals(0, problemNodes.size());
+                }
+            } while (game.getGameState().isNotTerminal());
+        }
+    }
+
+    private MCGSNode nodeAt(int depth, int visits) {
+        MCGSNode node = new MCGSNode();
+        node.depth = depth;
+        node.nVisits = visits;
+        return node;
+    }
+
+    @Test
+    public void TranspositionTableReplacement() {
+        // a capacity of 4 is a single bucket, so every key competes for the same slots
+        MCGSNode root = nodeAt(0, 1);
+        MCGSNode deep = nodeAt(5, 20);
+        MCGSNode rare = nodeAt(2, 1);
+        MCGSNode shallow = nodeAt(1, 10);
+
+        TranspositionTable byDepth = new TranspositionTable(4, MCTSEnums.TranspositionReplacement.Depth);
+        TranspositionTable byVisits = new TranspositionTable(4, MCTSEnums.TranspositionReplacement.Visits);
+        TranspositionTable always = new TranspositionTable(4, MCTSEnums.TranspositionReplacement.Always);
+        for (TranspositionTable table : List.of(byDepth, byVisits, always)) {
+            assertEquals(4, table.capacity());
+            table.put("root", root);
+            table.put("deep", deep);
+            table.put("rare", rare);
+            table.put("shallow", shallow);
+            assertEquals(4, table.size());
+            assertEquals(0, table.getReplacements());
+            table.put("new", nodeAt(3, 0));
+            assertEquals(4, table.size());
+            assertEquals(1, table.getReplacements());
+            assertEquals(root, table.get("root"));
+            assertTrue(table.containsKey("new"));
+        }
+        assertFalse(byDepth.containsKey("deep"));
+        assertFalse(byVisits.containsKey("rare"));
+        assertFalse(always.containsKey("deep"));  // the first one after the root
+
+        assertEquals(0, byDepth.getMisses());
+        byDepth.get("deep");
+        byDepth.get("shallow");
+        assertEquals(1, byDepth.getMisses());
+        assertEquals(2, byDepth.getHits());
+        byDepth.remove("shallow");
+        assertEquals(3, byDepth.size());
+        assertEquals(Set.of("root", "rare", "new"), byDepth.keySet());
+    }
+
+    @Test
+    public void TranspositionTableCollisionsAndFailedInserts() {
+        // Long keys (such as Zobrist hashes) never share a 64-bit hash, but do share buckets
+        TranspositionTable table = new TranspositionTable(4, MCTSEnums.TranspositionReplacement.Depth);
+        table.put(1L, nodeAt(0, 1));
+        assertEquals(0, table.getCollisions());
+        table.put(2L, nodeAt(0, 1));
+        assertEquals(1, table.getCollisions());
+        table.get(2L);
+        assertEquals(2, table.getCollisions());
+        table.get(1L);
+        assertEquals(2, table.getCollisions());
+
+        // a bucket of roots (as after tree reuse) has no room for a new node
+        table.put(3L, nodeAt(0, 1));
+        table.put(4L, nodeAt(0, 1));
+        assertEquals(0, table.getFailedInserts());
+        table.put(5L, nodeAt(1, 1));
+        assertEquals(1, table.getFailedInserts());
+        assertEquals(4, table.size());
+        assertFalse(table.containsKey(5L));
+        table.resetCounters();
+        assertEquals(0, table.getCollisions());
+        assertEquals(0, table.getFailedInserts());
+    }
+
+    @Test
+    public void ZobristKeyTicTacToe() {
+        // TicTacToe keeps all its state in a GridBoard, so the default Zobrist hash identifies states exactly
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.MCGS;
+        params.MCGSStateKey = new ZobristStateKey();
+        params.MCGSTableSize = 256;
+        mctsPlayer = new TestMCTSPlayer(params, null);
+        List<AbstractPlayer> players = List.of(mctsPlayer, new RandomPlayer(new Random(3023)));
+        Game game = GameType.TicTacToe.createGameInstance(players.size());
+        game.reset(players);
+        do {
+            int p = game.getGameState().getCurrentPlayer();
+            game.oneAction();
+            if (p == 0) {
+                MCGSNode root = (MCGSNode) mctsPlayer.getRoot(0);
+                assertEquals(params.budget, root.getVisits());
+                assertTrue(root.getTranspositionMap().size() <= 256);
+                assertEquals(0, root.nonMatchingNodes(actionVisitsAddUp).size());
+            }
+        } while (game.getGameState().isNotTerminal());
+    }
 }
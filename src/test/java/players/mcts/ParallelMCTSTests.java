@@ -0,0 +1,217 @@
+package players.mcts;
+
+import core.*;
+import core.actions.AbstractAction;
+import core.interfaces.IActionHeuristic;
+import games.GameType;
+import games.dominion.DominionForwardModel;
+import games.dominion.DominionGameState;
+import games.dominion.DominionParameters;
+import org.junit.*;
+import players.PlayerConstants;
+import players.heuristics.CoarseTunableHeuristic;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.Assert.*;
+
+public class ParallelMCTSTests {
+
+    MCTSPlayer mctsPlayer;
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams();
+        params.setRandomSeed(9332);
+        params.treePolicy = MCTSEnums.TreePolicy.UCB;
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.OneTree;
+        params.information = MCTSEnums.Information.Information_Set;
+        params.maxTreeDepth = 50;
+        params.rolloutLength = 10;
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 200;
+        params.nThreads = 4;
+    }
+
+    public Game createGame(MCTSParams params) {
+        mctsPlayer = new MCTSPlayer(params);
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(mctsPlayer);
+        players.add(new RandomPlayer(new Random(3023)));
+        players.add(new RandomPlayer(new Random(244)));
+        DominionParameters dp = new DominionParameters();
+        dp.setRandomSeed(330245);
+        return new Game(GameType.Dominion, players, new DominionForwardModel(), new DominionGameState(dp, players.size()));
+    }
+
+    @Test
+    public void rootParallel() {
+        params.parallelMode = MCTSEnums.ParallelMode.Root;
+        Game game = createGame(params);
+        List<AbstractAction> decisions = runGame(game, 4);
+        assertEquals(4, decisions.size());
+        assertTrue(mctsPlayer.root instanceof RootParallelNode);
+        for (SingleTreeNode tree : ((RootParallelNode) mctsPlayer.root).getRoots())
+            assertEquals(50, tree.getVisits());
+    }
+
+    @Test
+    public void rootParallelIsReproducible() {
+        params.parallelMode = MCTSEnums.ParallelMode.Root;
+        List<AbstractAction> first = runGame(createGame(params), 4);
+        params.setRandomSeed(9332);
+        List<AbstractAction> second = runGame(createGame(params), 4);
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void treeParallel() {
+        params.parallelMode = MCTSEnums.ParallelMode.Tree;
+        Game game = createGame(params);
+        List<AbstractAction> decisions = runGame(game, 4);
+        assertEquals(4, decisions.size());
+        assertTrue(mctsPlayer.root instanceof TreeParallelNode);
+    }
+
+    @Test
+    public void treeParallelWithoutVirtualLoss() {
+        params.parallelMode = MCTSEnums.ParallelMode.Tree;
+        params.virtualLoss = 0;
+        runGame(createGame(params), 4);
+    }
+
+    @Test
+    public void treeParallelSelfOnly() {
+        params.parallelMode = MCTSEnums.ParallelMode.Tree;
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.SelfOnly;
+        runGame(createGame(params), 4);
+    }
+
+    @Test
+    public void treeParallelFMCallBudget() {
+        params.parallelMode = MCTSEnums.ParallelMode.Tree;
+        params.budgetType = PlayerConstants.BUDGET_FM_CALLS;
+        params.budget = 2000;
+        Game game = createGame(params);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        List<AbstractAction> availableActions = forwardModel.computeAvailableActions(state);
+        while (availableActions.size() == 1 || state.getCurrentPlayer() != 0) {
+            forwardModel.next(state, availableActions.get(0));
+            availableActions = forwardModel.computeAvailableActions(state);
+        }
+        mctsPlayer._getAction(state, availableActions);
+        // all threads share the one budget, so we overshoot by at most one rollout per thread
+        assertTrue(mctsPlayer.root.fmCallsCount > 2000);
+        assertTrue(mctsPlayer.root.fmCallsCount < 2000 + params.nThreads * 200);
+    }
+
+    @Test
+    public void treeParallelTimeBudgetIsWallClock() {
+        params.parallelMode = MCTSEnums.ParallelMode.Tree;
+        params.nThreads = 3 * Runtime.getRuntime().availableProcessors();
+        params.budgetType = PlayerConstants.BUDGET_TIME;
+        params.budget = 200;
+        Game game = createGame(params);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        List<AbstractAction> availableActions = forwardModel.computeAvailableActions(state);
+        while (availableActions.size() == 1 || state.getCurrentPlayer() != 0) {
+            forwardModel.next(state, availableActions.get(0));
+            availableActions = forwardModel.computeAvailableActions(state);
+        }
+        mctsPlayer._getAction(state, availableActions);  // warm up
+        ExecutorService pool = mctsPlayer.getSearchPool();
+        long start = System.nanoTime();
+        mctsPlayer._getAction(state, availableActions);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        // with more threads than processors each thread gets much less CPU time than has passed
+        assertTrue("Search took " + elapsedMillis + "ms", elapsedMillis < 2 * params.budget);
+        assertTrue(mctsPlayer.root.getVisits() > 0);
+        // and the same threads are used for each decision
+        assertSame(pool, mctsPlayer.getSearchPool());
+    }
+
+    @Test
+    public void eachThreadHasItsOwnHeuristics() {
+        params.parallelMode = MCTSEnums.ParallelMode.Root;
+        CoarseTunableHeuristic heuristic = new CoarseTunableHeuristic();
+        heuristic.setParameterValue("heuristicType", CoarseTunableHeuristic.HeuristicType.SCORE_PLUS);
+        params.heuristic = heuristic;
+        IActionHeuristic stateless = (action, state, actions) -> 0.0;
+        params.actionHeuristic = stateless;
+        mctsPlayer = new MCTSPlayer(params);
+        MCTSParams first = mctsPlayer.copyForSearchThread(1, 50).getParameters();
+        MCTSParams second = mctsPlayer.copyForSearchThread(2, 50).getParameters();
+
+        assertNotSame(heuristic, first.heuristic);
+        assertNotSame(first.heuristic, second.heuristic);
+        assertEquals(heuristic, first.heuristic);
+        assertEquals(CoarseTunableHeuristic.HeuristicType.SCORE_PLUS, ((CoarseTunableHeuristic) second.heuristic).getHeuristicType());
+        assertNotSame(first.getRolloutStrategy(), second.getRolloutStrategy());
+        // a lambda cannot keep any state, and is shared
+        assertSame(stateless, first.actionHeuristic);
+    }
+
+    @Test
+    public void unsupportedOptionsFallBack() {
+        MCTSParams tunedParams = new MCTSParams();
+        tunedParams.setParameterValue("parallelMode", MCTSEnums.ParallelMode.Tree);
+        tunedParams.setParameterValue("MAST", MCTSEnums.MASTType.Rollout);
+        assertEquals(MCTSEnums.ParallelMode.Root, tunedParams.parallelMode);
+        tunedParams.setParameterValue("MAST", MCTSEnums.MASTType.None);
+        tunedParams.setParameterValue("treePolicy", MCTSEnums.TreePolicy.EXP3);
+        assertEquals(MCTSEnums.ParallelMode.Root, tunedParams.parallelMode);
+        tunedParams.setParameterValue("treePolicy", MCTSEnums.TreePolicy.UCB);
+        assertEquals(MCTSEnums.ParallelMode.Tree, tunedParams.parallelMode);
+        tunedParams.setParameterValue("opponentTreePolicy", MCTSEnums.OpponentTreePolicy.MultiTree);
+        assertEquals(MCTSEnums.ParallelMode.None, tunedParams.parallelMode);
+    }
+
+    /**
+     * Any virtual loss must have been removed from the whole shared tree, so the visits to each node are the sum
+     * of the visits to its actions
+     */
+    private void checkNoVirtualLoss(TreeParallelNode.Node node) {
+        int actionVisits = 0;
+        for (TreeParallelNode.Edge edge : node.edges.values()) {
+            actionVisits += edge.visits.get();
+            for (int p = 0; p < edge.children.length(); p++)
+                if (edge.children.get(p) != null)
+                    checkNoVirtualLoss(edge.children.get(p));
+        }
+        assertEquals(node.visits.get(), actionVisits);
+    }
+
+    /**
+     * Plays the game until the MCTS player has made the given number of non-trivial decisions, checking
+     * after each of these that the combined search used the full budget and chose a legal action
+     */
+    private List<AbstractAction> runGame(Game game, int moves) {
+        List<AbstractAction> decisions = new ArrayList<>();
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        do {
+            List<AbstractAction> availableActions = forwardModel.computeAvailableActions(state);
+            AbstractAction actionChosen = game.getPlayers().get(state.getCurrentPlayer())
+                    ._getAction(state, availableActions);
+
+            if (availableActions.size() > 1 && state.getCurrentPlayer() == 0) {
+                assertTrue(availableActions.contains(actionChosen));
+                SingleTreeNode root = mctsPlayer.root;
+                assertEquals(200, root.getVisits());
+                int childVisits = root.actionValues.values().stream()
+                        .mapToInt(actionStats -> actionStats.nVisits).sum();
+                assertEquals(200, childVisits);
+                if (root instanceof TreeParallelNode)
+                    checkNoVirtualLoss(((TreeParallelNode) root).getTree());
+                decisions.add(actionChosen);
+            }
+            forwardModel.next(state, actionChosen);
+        } while (decisions.size() < moves);
+        return decisions;
+    }
+}
@@ -0,0 +1,147 @@
+package utilities;
+
+import core.components.BoardNode;
+import core.components.GraphBoard;
+import core.components.GridBoard;
+import core.properties.PropertyVector2D;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static core.CoreConstants.coordinateHash;
+import static org.junit.Assert.*;
+
+public class PathfinderTest {
+
+    // a grid with some cells missing, with 8-way connections of random cost between the rest
+    private GridBoard randomGrid(Random rnd, int width, int height) {
+        GridBoard grid = new GridBoard(width, height);
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++)
+                if (rnd.nextDouble() > 0.2)
+                    grid.setElement(x, y, new BoardNode(-1, "cell"));
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                BoardNode node = grid.getElement(x, y);
+                if (node == null) continue;
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (int dx = -1; dx <= 1; dx++) {
+                        BoardNode neighbour = grid.getElement(x + dx, y + dy);
+                        if ((dx != 0 || dy != 0) && neighbour != null)
+                            node.addNeighbourWithCost(neighbour, 1 + rnd.nextInt(4) * 0.5);
+                    }
+                }
+            }
+        }
+        return grid;
+    }
+
+    // all pairs shortest path costs, from the connections of the nodes
+    private double[][] floyd(Pathfinder pf) {
+        int n = pf.nNodes();
+        double[][] d = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++)
+                d[i][j] = i == j ? 0 : Double.POSITIVE_INFINITY;
+            for (BoardNode neighbour : pf.getNode(i).getNeighbours().keySet())
+                d[i][pf.indexOf(neighbour.getComponentID())] = pf.getNode(i).getNeighbourCost(neighbour);
+        }
+        for (int k = 0; k < n; k++)
+            for (int i = 0; i < n; i++)
+                for (int j = 0; j < n; j++)
+                    d[i][j] = Math.min(d[i][j], d[i][k] + d[k][j]);
+        return d;
+    }
+
+    @Test
+    public void shortestPathsOnAGrid() {
+        Random rnd = new Random(13);
+        for (int t = 0; t < 5; t++) {
+            Pathfinder pf = new Pathfinder(randomGrid(rnd, 9, 7));
+            double[][] expected = floyd(pf);
+            double[] costs = null;
+            for (int from = 0; from < pf.nNodes(); from++) {
+                costs = pf.costs(new int[]{from}, null, Double.POSITIVE_INFINITY, costs);
+                for (int to = 0; to < pf.nNodes(); to++) {
+                    assertEquals(expected[from][to], costs[to], 1e-9);
+                    assertEquals(expected[from][to], pf.cost(from, to), 1e-9);
+
+                    Path path = pf.getPath(null, pf.getNode(from).getComponentID(), pf.getNode(to).getComponentID());
+                    if (Double.isInfinite(expected[from][to])) {
+                        assertEquals(pf.getNode(from).getComponentID(), path.destinationID);
+                        continue;
+                    }
+                    assertEquals(expected[from][to], path.cost, 1e-9);
+                    // the path goes along connections, and adds up to its cost
+                    assertEquals(pf.getNode(from).getComponentID(), (int) path.points.firstElement());
+                    assertEquals(pf.getNode(to).getComponentID(), (int) path.points.lastElement());
+                    double total = 0;
+                    for (int i = 1; i < path.points.size(); i++) {
+                        BoardNode a = pf.getNode(pf.indexOf(path.points.get(i - 1)));
+                        BoardNode b = pf.getNode(pf.indexOf(path.points.get(i)));
+                        assertTrue(a.getNeighbours().containsKey(b));
+                        total += a.getNeighbourCost(b);
+                    }
+                    assertEquals(expected[from][to], total, 1e-9);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void costsFromSeveralSourcesToSomeGoals() {
+        Random rnd = new Random(5);
+        Pathfinder pf = new Pathfinder(randomGrid(rnd, 10, 10));
+        double[][] expected = floyd(pf);
+        for (int t = 0; t < 50; t++) {
+            int[] sources = {rnd.nextInt(pf.nNodes()), rnd.nextInt(pf.nNodes())};
+            int[] goals = {rnd.nextInt(pf.nNodes()), rnd.nextInt(pf.nNodes()), rnd.nextInt(pf.nNodes())};
+            double maxCost = 1 + rnd.nextInt(10);
+            double[] costs = pf.costs(sources, goals, maxCost, null);
+            for (int goal : goals) {
+                double best = Math.min(expected[sources[0]][goal], expected[sources[1]][goal]);
+                assertEquals(best > maxCost ? Double.POSITIVE_INFINITY : best, costs[goal], 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void hopDistancesOnAGraph() {
+        GridBoard grid = new GridBoard(6, 4, new BoardNode(-1, "plain"));
+        GraphBoard graph = grid.toGraphBoard(false);
+        Pathfinder pf = new Pathfinder(graph);
+        assertEquals(24, pf.nNodes());
+        int origin = -1;
+        for (int i = 0; i < pf.nNodes(); i++) {
+            Vector2D position = ((PropertyVector2D) pf.getNode(i).getProperty(coordinateHash)).values;
+            if (position.getX() == 0 && position.getY() == 0) origin = i;
+        }
+        int[] hops = pf.hopDistances(origin, null);
+        for (int i = 0; i < pf.nNodes(); i++) {
+            Vector2D position = ((PropertyVector2D) pf.getNode(i).getProperty(coordinateHash)).values;
+            // 4-way connections, so the number of steps is the Manhattan distance
+            assertEquals(position.getX() + position.getY(), hops[i]);
+            assertEquals(hops[i], pf.cost(origin, i), 1e-9);
+        }
+    }
+
+    @Test
+    public void newNodesAreFoundAfterNotify() {
+        GridBoard grid = new GridBoard(3, 1);
+        BoardNode a = new BoardNode(-1, "a"), c = new BoardNode(-1, "c");
+        grid.setElement(0, 0, a);
+        grid.setElement(2, 0, c);
+        Pathfinder pf = new Pathfinder(grid);
+        assertEquals(a.getComponentID(), pf.getPath(null, a.getComponentID(), c.getComponentID()).destinationID);
+
+        BoardNode b = new BoardNode(-1, "b");
+        grid.setElement(1, 0, b);
+        a.addNeighbourWithCost(b, 1);
+        b.addNeighbourWithCost(c, 2);
+        pf.notifyNewNode();
+        Path path = pf.getPath(null, a.getComponentID(), c.getComponentID());
+        assertEquals(3, path.cost, 1e-9);
+        assertEquals(3, path.points.size());
+        assertEquals(b.getComponentID(), (int) path.points.get(1));
+    }
+}
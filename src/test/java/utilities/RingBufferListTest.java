@@ -0,0 +1,90 @@
+package utilities;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class RingBufferListTest {
+
+    Random rnd = new Random(393);
+
+    @Test
+    public void addingToTheFrontKeepsOrder() {
+        List<Integer> list = new RingBufferList<>(2);
+        for (int i = 0; i < 10; i++)
+            list.add(0, i);
+        assertEquals(List.of(9, 8, 7, 6, 5, 4, 3, 2, 1, 0), list);
+        assertEquals(9, (int) list.remove(0));
+        assertEquals(0, (int) list.remove(list.size() - 1));
+        assertEquals(List.of(8, 7, 6, 5, 4, 3, 2, 1), list);
+    }
+
+    @Test
+    public void randomOperationsMatchArrayList() {
+        List<Integer> expected = new ArrayList<>();
+        List<Integer> list = new RingBufferList<>(1);
+        for (int step = 0; step < 20000; step++) {
+            int size = expected.size();
+            switch (rnd.nextInt(8)) {
+                case 0, 1 -> {
+                    int index = rnd.nextInt(size + 1);
+                    expected.add(index, step);
+                    list.add(index, step);
+                }
+                case 2 -> {
+                    expected.add(step);
+                    list.add(step);
+                }
+                case 3 -> {
+                    if (size > 0) {
+                        int index = rnd.nextInt(size);
+                        assertEquals(expected.remove(index), list.remove(index));
+                    }
+                }
+                case 4 -> {
+                    if (size > 0) {
+                        assertEquals(expected.remove(0), list.remove(0));
+                    }
+                }
+                case 5 -> {
+                    int index = rnd.nextInt(size + 1);
+                    List<Integer> toAdd = List.of(-step, -step - 1, -step - 2);
+                    expected.addAll(index, toAdd);
+                    list.addAll(index, toAdd);
+                }
+                case 6 -> {
+                    if (size > 0) {
+                        int index = rnd.nextInt(size);
+                        assertEquals(expected.set(index, step), list.set(index, step));
+                    }
+                }
+                case 7 -> {
+                    if (rnd.nextInt(100) == 0) {
+                        expected.clear();
+                        list.clear();
+                    }
+                }
+            }
+            assertEquals(expected.size(), list.size());
+        }
+        assertEquals(expected, list);
+        Collections.shuffle(expected, new Random(1));
+        Collections.shuffle(list, new Random(1));
+        assertEquals(expected, list);
+    }
+
+    @Test
+    public void addingListToItself() {
+        List<Integer> list = new RingBufferList<>(List.of(1, 2, 3));
+        list.addAll(1, list);
+        assertEquals(List.of(1, 1, 2, 3, 2, 3), list);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void indexOutOfBounds() {
+        List<Integer> list = new RingBufferList<>(List.of(1, 2, 3));
+        list.get(3);
+    }
+}